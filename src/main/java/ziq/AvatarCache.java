@@ -0,0 +1,99 @@
+package ziq;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.transform.Transform;
+
+/**
+ * Holds the circular avatars of the user and Ziq, drawn once at the screen's output scale so every dialog
+ * box can show them as plain images instead of clipping and scaling its own copy.
+ * Must be used on the JavaFX application thread.
+ */
+public class AvatarCache {
+    /** Width and height of an avatar on screen, before output scaling. */
+    public static final double AVATAR_SIZE = 90;
+
+    private final Image userSource;
+    private final Image ziqSource;
+    private double outputScale;
+    private Image userAvatar;
+    private Image ziqAvatar;
+
+    /**
+     * Constructs a cache for two pictures and draws their avatars at the given output scale.
+     *
+     * @param userSource the user's picture
+     * @param ziqSource Ziq's picture
+     * @param outputScale the output scale of the screen, e.g. 2.0 on a high-density display
+     */
+    public AvatarCache(Image userSource, Image ziqSource, double outputScale) {
+        this.userSource = userSource;
+        this.ziqSource = ziqSource;
+        setOutputScale(outputScale);
+    }
+
+    /**
+     * Draws the avatars again if the output scale has changed, e.g. when the window moves to another screen.
+     *
+     * @param scale the new output scale
+     * @return true if the avatars were drawn again
+     */
+    public boolean setOutputScale(double scale) {
+        if (scale <= 0 || scale == outputScale) {
+            return false;
+        }
+        outputScale = scale;
+        userAvatar = render(userSource, scale);
+        ziqAvatar = render(ziqSource, scale);
+        return true;
+    }
+
+    /**
+     * Returns the user's avatar.
+     *
+     * @return the circular avatar, {@link #AVATAR_SIZE} across at the current output scale
+     */
+    public Image getUserAvatar() {
+        return userAvatar;
+    }
+
+    /**
+     * Returns Ziq's avatar.
+     *
+     * @return the circular avatar, {@link #AVATAR_SIZE} across at the current output scale
+     */
+    public Image getZiqAvatar() {
+        return ziqAvatar;
+    }
+
+    /**
+     * Crops the middle square of a picture, scales it to the avatar size and clips it to a circle.
+     *
+     * @param source the picture
+     * @param scale the output scale to draw at
+     * @return an image {@code AVATAR_SIZE * scale} pixels across, transparent outside the circle
+     */
+    private static Image render(Image source, double scale) {
+        ImageView view = new ImageView(source);
+        double side = Math.min(source.getWidth(), source.getHeight());
+        if (side > 0) {
+            view.setViewport(new Rectangle2D((source.getWidth() - side) / 2, (source.getHeight() - side) / 2,
+                    side, side));
+        }
+        view.setFitWidth(AVATAR_SIZE);
+        view.setFitHeight(AVATAR_SIZE);
+        view.setSmooth(true);
+        view.setClip(new Circle(AVATAR_SIZE / 2, AVATAR_SIZE / 2, AVATAR_SIZE / 2));
+
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setTransform(Transform.scale(scale, scale));
+        int pixels = (int) Math.ceil(AVATAR_SIZE * scale);
+        return view.snapshot(parameters, new WritableImage(pixels, pixels));
+    }
+}
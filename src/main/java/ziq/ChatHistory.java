@@ -0,0 +1,217 @@
+package ziq;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the chat to a fixed number of messages in memory, moving the oldest ones to a transcript file
+ * and reading them back a page at a time when the user scrolls up to them.
+ * The file works as a stack: the newest moved-out message is at its end, so paging back reads the tail
+ * and truncates it, and the file never holds a message that is also in memory.
+ */
+public class ChatHistory {
+    /** Number of messages kept in memory unless another cap is given. */
+    public static final int DEFAULT_CAP = 200;
+
+    private final List<ChatMessage> visible;
+    private final int cap;
+    private final Path transcriptFile;
+    // Where each message in the file starts, oldest first
+    private final ArrayList<Long> offsets = new ArrayList<>();
+
+    /**
+     * Constructs a history that keeps at most {@code cap} messages in the given list.
+     *
+     * @param visible the list the chat shows, e.g. the items of a ListView
+     * @param cap the most messages to keep in the list when new ones arrive
+     * @param transcriptFile the file to move older messages to; it is emptied first
+     * @throws ZiqException if the transcript file cannot be created
+     */
+    public ChatHistory(List<ChatMessage> visible, int cap, Path transcriptFile) throws ZiqException {
+        assert cap >= 1 : "history cap must be at least 1";
+        this.visible = visible;
+        this.cap = cap;
+        this.transcriptFile = transcriptFile;
+        try {
+            Files.write(transcriptFile, new byte[0]);
+        } catch (IOException e) {
+            throw new ZiqException("Cannot create chat transcript " + transcriptFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds a message after the others, moving the oldest ones to the transcript file if there are too many.
+     *
+     * @param message the message to add
+     * @throws ZiqException if the older messages cannot be written; they are kept in memory instead
+     */
+    public void add(ChatMessage message) throws ZiqException {
+        visible.add(message);
+        int excess = visible.size() - cap;
+        if (excess <= 0) {
+            return;
+        }
+        List<ChatMessage> oldest = visible.subList(0, excess);
+        archive(oldest);
+        oldest.clear();
+    }
+
+    /**
+     * Returns true if there are older messages in the transcript file.
+     *
+     * @return true if {@link #loadOlder(int)} would load something
+     */
+    public boolean hasOlder() {
+        return !offsets.isEmpty();
+    }
+
+    /**
+     * Returns how many messages are in the transcript file.
+     *
+     * @return the number of older messages
+     */
+    public int getOlderCount() {
+        return offsets.size();
+    }
+
+    /**
+     * Moves up to {@code count} of the most recent older messages from the transcript file back to the
+     * start of the list. They stay in the list until new messages push them out again.
+     *
+     * @param count the most messages to load
+     * @return the number of messages loaded
+     * @throws ZiqException if the transcript file cannot be read
+     */
+    public int loadOlder(int count) throws ZiqException {
+        int loaded = Math.min(count, offsets.size());
+        if (loaded == 0) {
+            return 0;
+        }
+        int first = offsets.size() - loaded;
+        long start = offsets.get(first);
+        ArrayList<ChatMessage> page = new ArrayList<>(loaded);
+        try (RandomAccessFile file = new RandomAccessFile(transcriptFile.toFile(), "rw")) {
+            byte[] bytes = new byte[(int) (file.length() - start)];
+            file.seek(start);
+            file.readFully(bytes);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            for (int i = 0; i < loaded; i++) {
+                page.add(readMessage(in));
+            }
+            file.setLength(start);
+        } catch (IOException e) {
+            throw new ZiqException("Cannot read older messages: " + e.getMessage());
+        }
+        offsets.subList(first, offsets.size()).clear();
+        visible.addAll(0, page);
+        return loaded;
+    }
+
+    /**
+     * Deletes the transcript file.
+     */
+    public void close() {
+        offsets.clear();
+        try {
+            Files.deleteIfExists(transcriptFile);
+        } catch (IOException e) {
+            // Only older chat messages are lost, and the file is rewritten next session
+        }
+    }
+
+    /**
+     * Appends messages to the end of the transcript file in one write.
+     *
+     * @param messages the messages, oldest first
+     * @throws ZiqException if the file cannot be written
+     */
+    private void archive(List<ChatMessage> messages) throws ZiqException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try (RandomAccessFile file = new RandomAccessFile(transcriptFile.toFile(), "rw")) {
+            long end = file.length();
+            ArrayList<Long> starts = new ArrayList<>(messages.size());
+            for (ChatMessage message : messages) {
+                starts.add(end + out.size());
+                writeMessage(out, message);
+            }
+            file.seek(end);
+            file.write(bytes.toByteArray());
+            offsets.addAll(starts);
+        } catch (IOException e) {
+            throw new ZiqException("Cannot move older messages to " + transcriptFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes one message.
+     *
+     * @param out the stream to write to
+     * @param message the message
+     * @throws IOException if writing fails
+     */
+    private static void writeMessage(DataOutputStream out, ChatMessage message) throws IOException {
+        out.writeBoolean(message.isUser());
+        if (message.isUser()) {
+            out.writeUTF(message.getUserText());
+            return;
+        }
+        List<ResponseLine> lines = message.getResponse().getLines();
+        out.writeBoolean(message.getResponse().isExit());
+        out.writeInt(lines.size());
+        for (ResponseLine line : lines) {
+            out.writeByte(line.getKind().ordinal());
+            out.writeUTF(line.getPrefix());
+            out.writeUTF(line.getText());
+            out.writeUTF(line.getDetail());
+            out.writeUTF(line.getSuffix());
+            out.writeByte(line.getType() == null ? -1 : line.getType().ordinal());
+            out.writeBoolean(line.isDone());
+            out.writeInt(line.getTags().size());
+            for (String tag : line.getTags()) {
+                out.writeUTF(tag);
+            }
+        }
+    }
+
+    /**
+     * Reads one message written by {@link #writeMessage}.
+     *
+     * @param in the stream to read from
+     * @return the message
+     * @throws IOException if reading fails
+     */
+    private static ChatMessage readMessage(DataInputStream in) throws IOException {
+        if (in.readBoolean()) {
+            return ChatMessage.fromUser(in.readUTF());
+        }
+        boolean isExit = in.readBoolean();
+        int lineCount = in.readInt();
+        ArrayList<ResponseLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            ResponseLine.Kind kind = ResponseLine.Kind.values()[in.readByte()];
+            String prefix = in.readUTF();
+            String text = in.readUTF();
+            String detail = in.readUTF();
+            String suffix = in.readUTF();
+            int type = in.readByte();
+            boolean isDone = in.readBoolean();
+            int tagCount = in.readInt();
+            ArrayList<String> tags = new ArrayList<>(tagCount);
+            for (int t = 0; t < tagCount; t++) {
+                tags.add(in.readUTF());
+            }
+            lines.add(ResponseLine.restore(kind, prefix, text, detail, suffix,
+                    type < 0 ? null : TaskType.values()[type], isDone, tags));
+        }
+        return ChatMessage.fromZiq(new Response(lines, isExit));
+    }
+}
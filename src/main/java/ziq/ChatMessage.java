@@ -0,0 +1,61 @@
+package ziq;
+
+/**
+ * Represents one message in the chat: either what the user typed, or Ziq's reply.
+ */
+public class ChatMessage {
+    private final String userText;
+    private final Response response;
+
+    private ChatMessage(String userText, Response response) {
+        this.userText = userText;
+        this.response = response;
+    }
+
+    /**
+     * Creates a message the user sent.
+     *
+     * @param text what the user typed
+     * @return the message
+     */
+    public static ChatMessage fromUser(String text) {
+        return new ChatMessage(text, null);
+    }
+
+    /**
+     * Creates a message from Ziq.
+     *
+     * @param response Ziq's reply
+     * @return the message
+     */
+    public static ChatMessage fromZiq(Response response) {
+        return new ChatMessage(null, response);
+    }
+
+    /**
+     * Returns true if the user sent this message.
+     *
+     * @return true for user messages, false for Ziq's replies
+     */
+    public boolean isUser() {
+        return userText != null;
+    }
+
+    /**
+     * Returns what the user typed.
+     *
+     * @return the text, or null for Ziq's replies
+     */
+    public String getUserText() {
+        return userText;
+    }
+
+    /**
+     * Returns Ziq's reply.
+     *
+     * @return the reply, or null for user messages
+     */
+    public Response getResponse() {
+        return response;
+    }
+}
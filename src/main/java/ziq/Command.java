@@ -0,0 +1,19 @@
+package ziq;
+
+/**
+ * A command the user can type, run with the text that follows its name.
+ */
+@FunctionalInterface
+public interface Command {
+    /**
+     * Runs the command.
+     *
+     * @param arguments the text after the command name, trimmed, or an empty string if there is none
+     * @param tasks the task list to work on
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @return true if the application should exit, false otherwise
+     * @throws ZiqException if the arguments are invalid or the command cannot be carried out
+     */
+    boolean execute(String arguments, TaskList tasks, Ui ui, Storage storage) throws ZiqException;
+}
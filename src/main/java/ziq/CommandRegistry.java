@@ -0,0 +1,89 @@
+package ziq;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Maps command names to the commands they run, so that dispatching a line of input is a single
+ * hash lookup on its first word rather than a chain of string comparisons.
+ * Names are matched ignoring case. The same registry tells the GUI which words are commands.
+ */
+public class CommandRegistry {
+    private static final String UNKNOWN_COMMAND = "Unknown command. Enter 'help' for a list of commands.";
+
+    private final HashMap<String, Entry> commands = new HashMap<>();
+
+    /**
+     * A registered command and whether it accepts text after its name.
+     */
+    private static class Entry {
+        private final Command command;
+        private final boolean takesArguments;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param command the command to run
+         * @param takesArguments true if text may follow the command name
+         */
+        Entry(Command command, boolean takesArguments) {
+            this.command = command;
+            this.takesArguments = takesArguments;
+        }
+    }
+
+    /**
+     * Registers a command, replacing any command already registered under the same name.
+     *
+     * @param name the word that invokes the command
+     * @param takesArguments true if text may follow the name; if false, input with extra text is not this command
+     * @param command the command to run
+     */
+    public void register(String name, boolean takesArguments, Command command) {
+        assert name != null && !name.isEmpty() && name.indexOf(' ') < 0 : "command name must be a single word";
+        assert command != null : "command must not be null";
+        commands.put(name.toLowerCase(Locale.ROOT), new Entry(command, takesArguments));
+    }
+
+    /**
+     * Returns true if a command is registered under the given word.
+     *
+     * @param name the word to look up, in any case
+     * @return true if the word is a command name
+     */
+    public boolean contains(String name) {
+        return commands.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the names of every registered command, in lower case.
+     *
+     * @return a read-only view of the command names
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(commands.keySet());
+    }
+
+    /**
+     * Runs the command named by the first word of the input, passing it the rest of the input.
+     *
+     * @param input the input, trimmed, with words separated by single spaces
+     * @param tasks the task list to work on
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @return true if the application should exit, false otherwise
+     * @throws ZiqException if the input does not name a command, or the command fails
+     */
+    public boolean dispatch(String input, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
+        int space = input.indexOf(' ');
+        String name = space < 0 ? input : input.substring(0, space);
+        String arguments = space < 0 ? "" : input.substring(space + 1);
+        Entry entry = commands.get(name.toLowerCase(Locale.ROOT));
+        if (entry == null || (!entry.takesArguments && !arguments.isEmpty())) {
+            throw new ZiqException(UNKNOWN_COMMAND);
+        }
+        return entry.command.execute(arguments, tasks, ui, storage);
+    }
+}
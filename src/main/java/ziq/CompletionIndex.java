@@ -0,0 +1,197 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Suggests completions for the word being typed: command names for the first word, tags after
+ * "+", "tag:" or a tag command, and words from task descriptions otherwise.
+ * Tags and description words are kept in prefix tries, with a count of the tasks using each, and are updated
+ * from the task list's change notifications rather than rebuilt, so a lookup costs the length of the prefix
+ * plus the suggestions returned. Lookups may run on any thread.
+ */
+public class CompletionIndex implements TaskListListener {
+    private static final String TAG_PREFIX = "+";
+    private static final String TAG_QUERY_PREFIX = "tag:";
+    private static final String MARKER_PREFIX = "/";
+
+    private final TaskList tasks;
+    private final WordTrie commands = new WordTrie();
+    private final WordTrie tags = new WordTrie();
+    private final WordTrie words = new WordTrie();
+    private final HashMap<String, Integer> tagCounts = new HashMap<>();
+    private final HashMap<String, Integer> wordCounts = new HashMap<>();
+
+    /**
+     * Constructs an index of the commands Parser understands and the tags and words of every task in the list,
+     * and starts following the list's changes.
+     *
+     * @param tasks the task list to follow
+     */
+    public CompletionIndex(TaskList tasks) {
+        assert tasks != null : "task list must not be null";
+        this.tasks = tasks;
+        for (String name : Parser.getCommands().names()) {
+            commands.add(name);
+        }
+        synchronized (this) {
+            for (Task task : tasks.getTaskList()) {
+                index(task, task.getTags(), 1);
+            }
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Stops following the task list.
+     */
+    public void stop() {
+        tasks.removeListener(this);
+    }
+
+    /**
+     * Updates the tries after the task list changes.
+     *
+     * @param changes the changes made to the task list
+     */
+    @Override
+    public synchronized void onTasksChanged(List<TaskListChange> changes) {
+        for (TaskListChange change : changes) {
+            switch (change.getKind()) {
+            case ADDED:
+                index(change.getTask(), change.getTags(), 1);
+                break;
+            case REMOVED:
+                index(change.getTask(), change.getTags(), -1);
+                break;
+            case TAG_CHANGED:
+                // Use the tags recorded with the change; a later change in the same batch may have updated the task
+                for (String tag : change.getPreviousTags()) {
+                    count(tags, tagCounts, tag, -1);
+                }
+                for (String tag : change.getTags()) {
+                    count(tags, tagCounts, tag, 1);
+                }
+                break;
+            case CLEARED:
+                tags.clear();
+                words.clear();
+                tagCounts.clear();
+                wordCounts.clear();
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns completions for the last word of the input, in alphabetical order.
+     * Nothing is suggested once the input ends with a space, or for a "/" marker such as /by.
+     *
+     * @param input the text typed so far
+     * @param limit the most completions to return
+     * @return the completed words, each to replace the last word of the input
+     */
+    public synchronized List<String> complete(String input, int limit) {
+        int start = input.lastIndexOf(' ') + 1;
+        String word = input.substring(start);
+        if (word.isEmpty() || word.startsWith(MARKER_PREFIX)) {
+            return List.of();
+        }
+        if (start == 0) {
+            return suggest(commands, "", word.toLowerCase(Locale.ROOT), limit);
+        }
+        if (word.startsWith(TAG_PREFIX)) {
+            return suggest(tags, TAG_PREFIX, word.substring(TAG_PREFIX.length()), limit);
+        }
+        if (word.startsWith(TAG_QUERY_PREFIX)) {
+            return suggest(tags, TAG_QUERY_PREFIX, word.substring(TAG_QUERY_PREFIX.length()), limit);
+        }
+        if (isTagArgument(input, start)) {
+            return suggest(tags, "", word, limit);
+        }
+        return suggest(words, "", word.toLowerCase(Locale.ROOT), limit);
+    }
+
+    /**
+     * Returns the input with its last word replaced by a completion, followed by a space.
+     *
+     * @param input the text typed so far
+     * @param completion the completion chosen
+     * @return the new input
+     */
+    public static String applyCompletion(String input, String completion) {
+        return input.substring(0, input.lastIndexOf(' ') + 1) + completion + " ";
+    }
+
+    /**
+     * Returns true if the word at {@code start} comes after the task numbers of a tag or untag command.
+     *
+     * @param input the text typed so far
+     * @param start where the last word starts
+     * @return true if the word is a tag name
+     */
+    private static boolean isTagArgument(String input, int start) {
+        String[] before = input.substring(0, start).trim().split(" +");
+        String command = before[0].toLowerCase(Locale.ROOT);
+        return before.length >= 2 && (command.equals("tag") || command.equals("untag"));
+    }
+
+    /**
+     * Returns the words in a trie that start with the prefix, other than the prefix itself, with a fixed
+     * text put back in front of each.
+     *
+     * @param trie the trie to look in
+     * @param lead the text to put in front of each word, e.g. "+"
+     * @param prefix the start of the word
+     * @param limit the most words to return
+     * @return the completions
+     */
+    private static List<String> suggest(WordTrie trie, String lead, String prefix, int limit) {
+        ArrayList<String> completions = new ArrayList<>();
+        for (String word : trie.withPrefix(prefix, limit + 1)) {
+            if (!word.equals(prefix) && completions.size() < limit) {
+                completions.add(lead + word);
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Adds or takes away one use of each of a task's tags and description words.
+     *
+     * @param task the task
+     * @param taskTags the task's tags when it was added or removed
+     * @param delta 1 when the task is added, -1 when it is removed
+     */
+    private void index(Task task, List<String> taskTags, int delta) {
+        for (String tag : taskTags) {
+            count(tags, tagCounts, tag, delta);
+        }
+        for (String word : FilterCondition.words(task.description())) {
+            count(words, wordCounts, word, delta);
+        }
+    }
+
+    /**
+     * Changes how many uses a word has, adding it to the trie on its first use and removing it after its last.
+     *
+     * @param trie the trie the word belongs in
+     * @param counts the number of uses of each word in the trie
+     * @param word the word
+     * @param delta the change in uses
+     */
+    private static void count(WordTrie trie, HashMap<String, Integer> counts, String word, int delta) {
+        int count = counts.getOrDefault(word, 0) + delta;
+        if (count > 0) {
+            if (counts.put(word, count) == null) {
+                trie.add(word);
+            }
+        } else if (counts.remove(word) != null) {
+            trie.remove(word);
+        }
+    }
+}
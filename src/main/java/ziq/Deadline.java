@@ -5,11 +5,17 @@ import java.time.format.DateTimeFormatter;
 
 /**
  * Represents a Deadline task with a due date/time.
+ * The due time is stored as a primitive epoch minute so deadlines can be compared without allocation.
  */
 public class Deadline extends Task {
 
-    protected LocalDateTime by;
-    private boolean hasTime;
+    /** Flag bit set when a time component was specified. */
+    static final int FLAG_HAS_TIME = 1;
+
+    private static final DateTimeFormatter DATE_ONLY_OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    protected final long byMinute;
+    private final int flags;
 
     /**
      * Constructs a new Deadline task with the given description and due date/time.
@@ -20,8 +26,8 @@ public class Deadline extends Task {
      */
     public Deadline(String description, LocalDateTime by, boolean hasTime) {
         super(description);
-        this.by = by;
-        this.hasTime = hasTime;
+        this.byMinute = EpochMinutes.of(by);
+        this.flags = hasTime ? FLAG_HAS_TIME : 0;
     }
 
     /**
@@ -30,7 +36,47 @@ public class Deadline extends Task {
      * @return the due date/time
      */
     public LocalDateTime by() {
-        return this.by;
+        return EpochMinutes.toDateTime(byMinute);
+    }
+
+    /**
+     * Returns the due date/time of this deadline as minutes since the epoch.
+     *
+     * @return the due epoch minute
+     */
+    public long byEpochMinute() {
+        return byMinute;
+    }
+
+    /**
+     * Returns true if a time component was specified for this deadline.
+     *
+     * @return true if the deadline has a time, false if it is date-only
+     */
+    public boolean hasTime() {
+        return (flags & FLAG_HAS_TIME) != 0;
+    }
+
+    /**
+     * Makes this deadline repeat.
+     *
+     * @param recurrence how the deadline repeats
+     */
+    public void setRecurrence(Recurrence recurrence) {
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Returns a single occurrence of this repeating deadline as a standalone deadline.
+     * The occurrence is done if the whole series or that occurrence has been marked done.
+     *
+     * @param occurrenceStart the due time of the occurrence (epoch minute)
+     * @return the occurrence
+     */
+    public Deadline occurrenceAt(long occurrenceStart) {
+        Deadline occurrence = new Deadline(description, EpochMinutes.toDateTime(occurrenceStart), hasTime());
+        copyStateTo(occurrence, occurrenceStart);
+        return occurrence;
     }
 
     /**
@@ -45,24 +91,33 @@ public class Deadline extends Task {
             return false;
         }
         Deadline d = (Deadline) other;
-        return description.equals(d.description) && by.equals(d.by);
+        return description.equals(d.description) && byMinute == d.byMinute;
     }
 
     /**
-     * Returns a string representation of this deadline task.
+     * Returns the due date of this deadline and how it repeats.
      * If time was not specified, only shows the date.
      *
-     * @return a string in the format "[D][status] description (by date/time) [#tag]"
+     * @return a string in the format " (by date/time)", followed by the repeat rule if any
      */
     @Override
-    public String toString() {
+    public String details() {
         String dateTimeStr;
-        if (hasTime) {
-            dateTimeStr = by.format(Parser.OUTPUT_FORMAT);
+        if (hasTime()) {
+            dateTimeStr = by().format(Parser.OUTPUT_FORMAT);
         } else {
-            dateTimeStr = by.format(DateTimeFormatter.ofPattern("MMM dd yyyy"));
+            dateTimeStr = by().format(DATE_ONLY_OUTPUT_FORMAT);
         }
-        return "[D]" + super.toString() + " (by " + dateTimeStr + ")";
+        return " (by " + dateTimeStr + ")" + recurrenceSuffix();
     }
-}
 
+    /**
+     * Returns a string representation of this deadline task.
+     *
+     * @return a string in the format "[D][status] description [tag] (by date/time)"
+     */
+    @Override
+    public String toString() {
+        return "[D]" + super.toString() + details();
+    }
+}
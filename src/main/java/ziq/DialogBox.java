@@ -1,8 +1,9 @@
 package ziq;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -15,7 +16,6 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextFlow;
 
@@ -25,9 +25,40 @@ import javafx.scene.text.TextFlow;
  */
 public class DialogBox extends HBox {
 
-    private static final Set<String> VALID_COMMANDS = Set.of(
-            "bye", "list", "mark", "unmark", "todo", "deadline", "event", "delete", "find", "schedule",
-            "clear", "help", "tag", "organise");
+    // Predefined palette of readable, vibrant colors
+    private static final Color[] TAG_COLOR_PALETTE = {
+        Color.web("#FFD93D"), // Yellow
+        Color.web("#6BCB77"), // Green
+        Color.web("#4D96FF"), // Blue
+        Color.web("#FF6B6B"), // Red
+        Color.web("#A8E6CF"), // Light green
+        Color.web("#FFD3A5"), // Peach
+        Color.web("#C7CEEA"), // Lavender
+        Color.web("#FFB6C1"), // Light pink
+        Color.web("#87CEEB"), // Sky blue
+        Color.web("#F0E68C"), // Khaki
+        Color.web("#DDA0DD"), // Plum
+        Color.web("#98D8C8"), // Mint
+        Color.web("#FFA07A"), // Light salmon
+        Color.web("#B0E0E6"), // Powder blue
+        Color.web("#FFE4B5") // Moccasin
+    };
+
+    private static final Color ERROR_COLOR = Color.web("#FFB3B3");
+    private static final Color EVENT_COLOR = Color.web("#FFEB3B"); // Bright yellow
+    private static final Color DEADLINE_COLOR = Color.web("#E74C3C"); // Red
+    private static final Color TODO_COLOR = Color.web("#00FF7F"); // Bright green
+    private static final Color PARAMETERS_COLOR = Color.web("#FFD700"); // Gold/yellow
+
+    // Darker versions of the task type colours, and others, for command words the user types
+    private static final Color TODO_COMMAND_COLOR = Color.web("#00B359");
+    private static final Color DEADLINE_COMMAND_COLOR = Color.web("#C0392B");
+    private static final Color EVENT_COMMAND_COLOR = Color.web("#F1C40F");
+    private static final Color TAG_COMMAND_COLOR = Color.web("#8E44AD"); // Purple
+    private static final Color ORGANISE_COMMAND_COLOR = Color.web("#E67E22"); // Orange
+
+    // Colour for each tag id, filled in the first time the tag is rendered
+    private static Color[] tagColors = new Color[0];
 
     @FXML
     private VBox dialogWrapper;
@@ -36,7 +67,7 @@ public class DialogBox extends HBox {
     @FXML
     private ImageView displayPicture;
 
-    private DialogBox(String text, Image img, boolean isUser) {
+    private DialogBox(Image img) {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
             fxmlLoader.setController(this);
@@ -46,9 +77,9 @@ public class DialogBox extends HBox {
             e.printStackTrace();
         }
 
-        setDialogContent(text, isUser);
         displayPicture.setImage(img);
-        makeImageViewCircular(displayPicture);
+        displayPicture.setFitWidth(AvatarCache.AVATAR_SIZE);
+        displayPicture.setFitHeight(AvatarCache.AVATAR_SIZE);
         dialogWrapper.heightProperty().addListener((o, oldVal, newVal) -> updateAlignment());
     }
 
@@ -67,267 +98,119 @@ public class DialogBox extends HBox {
     }
 
     /**
-     * Sets the dialog text. For user messages, colours the first word maroon if it is not a valid command.
-     * For help text (starts with "here are the commands"), formats with colors and spacing.
+     * Sets the dialog text of a user message, colouring the first word maroon if it is not a valid command.
+     *
+     * @param text the user's message
      */
-    private void setDialogContent(String text, boolean isUser) {
+    private void setUserContent(String text) {
         dialog.getChildren().clear();
         if (text == null || text.isEmpty()) {
             return;
         }
-        if (isUser) {
-            String trimmed = text.trim();
-            int space = trimmed.indexOf(' ');
-            String firstWord = space < 0 ? trimmed : trimmed.substring(0, space);
-            String rest = space < 0 ? "" : trimmed.substring(space);
-            boolean validCommand = VALID_COMMANDS.contains(firstWord.toLowerCase());
-
-            if (!validCommand && !firstWord.isEmpty()) {
-                Text first = new Text(firstWord);
-                first.setFill(Color.MAROON);
-                Text restText = new Text(rest);
-                restText.setFill(Color.BLACK);
-                dialog.getChildren().addAll(first, restText);
-            } else {
-                // Color task type commands with darker versions of their task type colors
-                Text firstWordText = new Text(firstWord);
-                String lowerFirstWord = firstWord.toLowerCase();
-                if (lowerFirstWord.equals("todo")) {
-                    firstWordText.setFill(Color.web("#00B359")); // Darker green for todo
-                } else if (lowerFirstWord.equals("deadline")) {
-                    firstWordText.setFill(Color.web("#C0392B")); // Darker red for deadline
-                } else if (lowerFirstWord.equals("event")) {
-                    firstWordText.setFill(Color.web("#F1C40F")); // Darker yellow for event
-                } else if (lowerFirstWord.equals("tag")) {
-                    firstWordText.setFill(Color.web("#8E44AD")); // Purple for tag
-                } else if (lowerFirstWord.equals("organise")) {
-                    firstWordText.setFill(Color.web("#E67E22")); // Orange for organise
-                } else {
-                    firstWordText.setFill(Color.BLACK);
-                }
-
-                Text restText = new Text(rest);
-                restText.setFill(Color.BLACK);
-                dialog.getChildren().addAll(firstWordText, restText);
-            }
+        String trimmed = text.trim();
+        int space = trimmed.indexOf(' ');
+        String firstWord = space < 0 ? trimmed : trimmed.substring(0, space);
+        String rest = space < 0 ? "" : trimmed.substring(space);
+        boolean validCommand = Parser.getCommands().contains(firstWord);
+
+        if (!validCommand && !firstWord.isEmpty()) {
+            Text first = new Text(firstWord);
+            first.setFill(Color.MAROON);
+            Text restText = new Text(rest);
+            restText.setFill(Color.BLACK);
+            dialog.getChildren().addAll(first, restText);
         } else {
-            if (text.startsWith("here are the commands")) {
-                formatHelpText(text);
+            // Color task type commands with darker versions of their task type colors
+            Text firstWordText = new Text(firstWord);
+            String lowerFirstWord = firstWord.toLowerCase();
+            if (lowerFirstWord.equals("todo")) {
+                firstWordText.setFill(TODO_COMMAND_COLOR);
+            } else if (lowerFirstWord.equals("deadline")) {
+                firstWordText.setFill(DEADLINE_COMMAND_COLOR);
+            } else if (lowerFirstWord.equals("event")) {
+                firstWordText.setFill(EVENT_COMMAND_COLOR);
+            } else if (lowerFirstWord.equals("tag")) {
+                firstWordText.setFill(TAG_COMMAND_COLOR);
+            } else if (lowerFirstWord.equals("organise")) {
+                firstWordText.setFill(ORGANISE_COMMAND_COLOR);
             } else {
-                formatTextWithTags(text);
+                firstWordText.setFill(Color.BLACK);
             }
+
+            Text restText = new Text(rest);
+            restText.setFill(Color.BLACK);
+            dialog.getChildren().addAll(firstWordText, restText);
         }
     }
 
     /**
-     * Formats regular text, detecting task types and tags, coloring them appropriately.
-     * Task types [E], [D], [T] are colored differently, and tags are colored with readable colors.
+     * Sets the dialog text of Ziq's reply, with one text node per styled span.
+     * Task types [E], [D], [T] are colored differently, tags are colored with readable colors,
+     * and help lines show commands in cyan, parameters in yellow and descriptions in white.
      *
-     * @param text the text to format
+     * @param response the reply
      */
-    private void formatTextWithTags(String text) {
-        int lastIndex = 0;
-        int textLength = text.length();
-
-        while (lastIndex < textLength) {
-            // Look for task type indicators first: [E], [D], [T]
-            int taskTypeStart = text.indexOf("[", lastIndex);
-            if (taskTypeStart >= 0 && taskTypeStart + 2 < textLength) {
-                char nextChar = text.charAt(taskTypeStart + 1);
-                if ((nextChar == 'E' || nextChar == 'D' || nextChar == 'T' || nextChar == '✅' || nextChar == ' ')
-                        && text.charAt(taskTypeStart + 2) == ']') {
-                    // Found a task type or status indicator
-                    // Add text before task type
-                    if (taskTypeStart > lastIndex) {
-                        Text before = new Text(text.substring(lastIndex, taskTypeStart));
-                        before.setFill(Color.WHITE);
-                        dialog.getChildren().add(before);
-                    }
-
-                    // Color the task type indicator
-                    Text taskType = new Text(text.substring(taskTypeStart, taskTypeStart + 3));
-                    if (nextChar == 'E') {
-                        taskType.setFill(Color.web("#FFEB3B")); // Bright yellow for Events
-                    } else if (nextChar == 'D') {
-                        taskType.setFill(Color.web("#E74C3C")); // Red for Deadlines
-                    } else if (nextChar == 'T') {
-                        taskType.setFill(Color.web("#00FF7F")); // Bright green for Todos
-                    } else {
-                        // Status indicator (✅ or space)
-                        taskType.setFill(Color.WHITE);
-                    }
-                    dialog.getChildren().add(taskType);
-                    lastIndex = taskTypeStart + 3;
-                    continue;
-                }
-            }
-
-            // Look for tags: [tag] (not task type indicators)
-            int tagStart = text.indexOf(" [", lastIndex);
-            if (tagStart < 0) {
-                // No more tags, add remaining text
-                if (lastIndex < textLength) {
-                    Text remaining = new Text(text.substring(lastIndex));
-                    remaining.setFill(Color.WHITE);
-                    dialog.getChildren().add(remaining);
-                }
-                break;
-            }
-
-            // Add text before tag
-            if (tagStart > lastIndex) {
-                Text beforeTag = new Text(text.substring(lastIndex, tagStart));
-                beforeTag.setFill(Color.WHITE);
-                dialog.getChildren().add(beforeTag);
-            }
-
-            // Find tag end
-            int tagEnd = text.indexOf("]", tagStart + 2);
-            if (tagEnd < 0) {
-                // No closing bracket, add rest as normal text
-                Text remaining = new Text(text.substring(tagStart));
-                remaining.setFill(Color.WHITE);
-                dialog.getChildren().add(remaining);
-                break;
-            }
-
-            // Extract tag (without brackets)
-            String tag = text.substring(tagStart + 2, tagEnd);
-            Text tagText = new Text(" [" + tag + "]");
-            tagText.setFill(getTagColor(tag));
-            dialog.getChildren().add(tagText);
+    private void setReplyContent(Response response) {
+        List<StyledSpan> spans = SpanRenderer.render(response);
+        Text[] nodes = new Text[spans.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            StyledSpan span = spans.get(i);
+            nodes[i] = new Text(span.getText());
+            nodes[i].setFill(getSpanColor(span));
+        }
+        dialog.getChildren().setAll(nodes);
+    }
 
-            lastIndex = tagEnd + 1;
+    /**
+     * Returns the colour of a span.
+     *
+     * @param span the span
+     * @return the colour for its style, or for its tag
+     */
+    private static Color getSpanColor(StyledSpan span) {
+        switch (span.getStyle()) {
+        case TODO:
+            return TODO_COLOR;
+        case DEADLINE:
+            return DEADLINE_COLOR;
+        case EVENT:
+            return EVENT_COLOR;
+        case TAG:
+            return getTagColor(span.getTag());
+        case COMMAND:
+            return Color.CYAN;
+        case PARAMETERS:
+            return PARAMETERS_COLOR;
+        case ERROR:
+            return ERROR_COLOR;
+        default:
+            return Color.WHITE;
         }
     }
 
     /**
      * Generates a consistent, readable color for a tag based on its name.
      * Same tag name will always produce the same color.
-     * Colors are chosen from a palette of vibrant, readable colors.
+     * Colors are chosen from a palette of vibrant, readable colors and cached by tag id.
      *
      * @param tagName the tag name
      * @return a Color for the tag
      */
-    private Color getTagColor(String tagName) {
-        // Predefined palette of readable, vibrant colors
-        Color[] colorPalette = {
-            Color.web("#FFD93D"), // Yellow
-            Color.web("#6BCB77"), // Green
-            Color.web("#4D96FF"), // Blue
-            Color.web("#FF6B6B"), // Red
-            Color.web("#A8E6CF"), // Light green
-            Color.web("#FFD3A5"), // Peach
-            Color.web("#C7CEEA"), // Lavender
-            Color.web("#FFB6C1"), // Light pink
-            Color.web("#87CEEB"), // Sky blue
-            Color.web("#F0E68C"), // Khaki
-            Color.web("#DDA0DD"), // Plum
-            Color.web("#98D8C8"), // Mint
-            Color.web("#FFA07A"), // Light salmon
-            Color.web("#B0E0E6"), // Powder blue
-            Color.web("#FFE4B5") // Moccasin
-        };
-
-        // Use hash to select a color from palette
-        int hash = Math.abs(tagName.hashCode());
-        return colorPalette[hash % colorPalette.length];
-    }
-
-    /**
-     * Formats help text with colors: commands in cyan, parameters in yellow, descriptions in white.
-     * Adds spacing between commands.
-     */
-    private void formatHelpText(String text) {
-        String[] lines = text.split("\n");
-        boolean isFirstLine = true;
-        for (int i = 0; i < lines.length; i++) {
-            String line = lines[i].trim();
-            if (line.isEmpty()) {
-                // Add spacing for empty lines
-                Text spacing = new Text("\n");
-                dialog.getChildren().add(spacing);
-                continue;
-            }
-
-            // Header line
-            if (line.startsWith("here are the commands")) {
-                Text header = new Text(line + "\n");
-                header.setFill(Color.WHITE);
-                dialog.getChildren().add(header);
-                isFirstLine = false;
-                continue;
-            }
-
-            // Command lines - format: "command <param> - description"
-            int dashIndex = line.indexOf(" - ");
-            if (dashIndex > 0) {
-                String beforeDash = line.substring(0, dashIndex).trim();
-                String afterDash = line.substring(dashIndex + 3).trim();
-
-                // Parse command and parameters
-                String[] parts = beforeDash.split(" ", 2);
-                String command = parts[0];
-                String params = parts.length > 1 ? " " + parts[1] : "";
-
-                // Command in cyan
-                Text cmdText = new Text(command);
-                cmdText.setFill(Color.CYAN);
-                dialog.getChildren().add(cmdText);
-
-                // Parameters in yellow
-                if (!params.isEmpty()) {
-                    Text paramText = new Text(params);
-                    paramText.setFill(Color.web("#FFD700")); // Gold/yellow
-                    dialog.getChildren().add(paramText);
-                }
-
-                // Separator and description in white
-                Text descText = new Text(" - " + afterDash);
-                descText.setFill(Color.WHITE);
-                dialog.getChildren().add(descText);
-            } else {
-                // Plain text line
-                Text plainText = new Text(line);
-                plainText.setFill(Color.WHITE);
-                dialog.getChildren().add(plainText);
-            }
-
-            // Add newline after each line (except last)
-            if (i < lines.length - 1) {
-                Text newline = new Text("\n");
-                dialog.getChildren().add(newline);
-            }
-            isFirstLine = false;
+    private static synchronized Color getTagColor(String tagName) {
+        int tagId = TagDictionary.idOf(tagName);
+        if (tagId == TagDictionary.NO_TAG) {
+            // Bracketed text that is not a known tag; don't grow the dictionary for it
+            return TAG_COLOR_PALETTE[Math.abs(tagName.hashCode()) % TAG_COLOR_PALETTE.length];
         }
-    }
-
-    /**
-     * Clips the ImageView to a circle and scales the image to fill the circle (crop to circle).
-     */
-    private void makeImageViewCircular(ImageView imageView) {
-        double size = 90;
-        Image img = imageView.getImage();
-        double fitW = size;
-        double fitH = size;
-        if (img != null && img.getWidth() > 0 && img.getHeight() > 0) {
-            double w = img.getWidth();
-            double h = img.getHeight();
-            if (w >= h) {
-                fitW = size * w / h;
-                fitH = size;
-            } else {
-                fitW = size;
-                fitH = size * h / w;
-            }
-            imageView.setFitWidth(fitW);
-            imageView.setFitHeight(fitH);
+        if (tagId >= tagColors.length) {
+            tagColors = Arrays.copyOf(tagColors, Math.max(tagId + 1, tagColors.length * 2));
         }
-        double radius = Math.min(fitW, fitH) / 2;
-        double centerX = fitW / 2;
-        double centerY = fitH / 2;
-        Circle clip = new Circle(centerX, centerY, radius);
-        imageView.setClip(clip);
+        if (tagColors[tagId] == null) {
+            // Use hash to select a color from palette, once per tag
+            int hash = Math.abs(tagName.hashCode());
+            tagColors[tagId] = TAG_COLOR_PALETTE[hash % TAG_COLOR_PALETTE.length];
+        }
+        return tagColors[tagId];
     }
 
     /**
@@ -352,22 +235,25 @@ public class DialogBox extends HBox {
      * Creates a dialog box for user messages.
      *
      * @param text the user's message text
-     * @param img the user's avatar image
+     * @param img the user's circular avatar, from {@link AvatarCache}
      * @return a DialogBox configured for user messages
      */
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img, true);
+        DialogBox db = new DialogBox(img);
+        db.setUserContent(text);
+        return db;
     }
 
     /**
      * Creates a dialog box for Ziq's messages.
      *
-     * @param text Ziq's response text
-     * @param img Ziq's avatar image
+     * @param response Ziq's reply
+     * @param img Ziq's circular avatar, from {@link AvatarCache}
      * @return a DialogBox configured for Ziq's messages (flipped and styled)
      */
-    public static DialogBox getDukeDialog(String text, Image img) {
-        DialogBox db = new DialogBox(text, img, false);
+    public static DialogBox getDukeDialog(Response response, Image img) {
+        DialogBox db = new DialogBox(img);
+        db.setReplyContent(response);
         db.flip();
         db.setZiqStyle();
         return db;
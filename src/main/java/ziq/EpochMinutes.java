@@ -0,0 +1,79 @@
+package ziq;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Converts between LocalDateTime and a primitive count of minutes since 1970-01-01T00:00.
+ * Times are treated as wall-clock times (no time zone), matching how tasks are entered and saved.
+ */
+public final class EpochMinutes {
+    /** Marks a missing time. Sorts before every real time. */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final long SECONDS_PER_MINUTE = 60;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private EpochMinutes() {
+    }
+
+    /**
+     * Returns the epoch minute of the given date/time. Seconds and nanoseconds are dropped.
+     *
+     * @param dateTime the date/time to convert, may be null
+     * @return the epoch minute, or {@link #NONE} if dateTime is null
+     */
+    public static long of(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NONE;
+        }
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+    }
+
+    /**
+     * Returns the epoch minute at the start of the given date.
+     *
+     * @param date the date to convert
+     * @return the epoch minute of midnight on that date
+     */
+    public static long startOfDay(LocalDate date) {
+        return date.toEpochDay() * MINUTES_PER_DAY;
+    }
+
+    /**
+     * Returns the epoch day (days since 1970-01-01) that the given epoch minute falls on.
+     *
+     * @param epochMinute the epoch minute
+     * @return the epoch day
+     */
+    public static long toEpochDay(long epochMinute) {
+        return Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Returns the date/time for the given epoch minute.
+     *
+     * @param epochMinute the epoch minute to convert
+     * @return the date/time, or null if epochMinute is {@link #NONE}
+     */
+    public static LocalDateTime toDateTime(long epochMinute) {
+        if (epochMinute == NONE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(epochMinute * SECONDS_PER_MINUTE, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Returns the date that the given epoch minute falls on.
+     *
+     * @param epochMinute the epoch minute to convert
+     * @return the date, or null if epochMinute is {@link #NONE}
+     */
+    public static LocalDate toDate(long epochMinute) {
+        if (epochMinute == NONE) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(toEpochDay(epochMinute));
+    }
+}
@@ -4,10 +4,11 @@ import java.time.LocalDateTime;
 
 /**
  * Represents an Event task with a start and end date/time.
+ * Start and end are stored as primitive epoch minutes so events can be compared without allocation.
  */
 public class Event extends Task {
-    protected LocalDateTime from;
-    protected LocalDateTime to;
+    protected final long fromMinute;
+    protected final long toMinute;
 
     /**
      * Constructs a new Event task with the given description, start and end date/time.
@@ -18,8 +19,8 @@ public class Event extends Task {
      */
     public Event(String description, LocalDateTime from, LocalDateTime to) {
         super(description);
-        this.from = from;
-        this.to = to;
+        this.fromMinute = EpochMinutes.of(from);
+        this.toMinute = EpochMinutes.of(to);
     }
 
     /**
@@ -28,7 +29,7 @@ public class Event extends Task {
      * @return the start date/time
      */
     public LocalDateTime from() {
-        return this.from;
+        return EpochMinutes.toDateTime(fromMinute);
     }
 
     /**
@@ -37,7 +38,49 @@ public class Event extends Task {
      * @return the end date/time
      */
     public LocalDateTime to() {
-        return this.to;
+        return EpochMinutes.toDateTime(toMinute);
+    }
+
+    /**
+     * Returns the start date/time of this event as minutes since the epoch.
+     *
+     * @return the start epoch minute
+     */
+    public long fromEpochMinute() {
+        return fromMinute;
+    }
+
+    /**
+     * Returns the end date/time of this event as minutes since the epoch.
+     *
+     * @return the end epoch minute
+     */
+    public long toEpochMinute() {
+        return toMinute;
+    }
+
+    /**
+     * Makes this event repeat.
+     *
+     * @param recurrence how the event repeats
+     */
+    public void setRecurrence(Recurrence recurrence) {
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Returns a single occurrence of this repeating event as a standalone event of the same length.
+     * The occurrence is done if the whole series or that occurrence has been marked done.
+     *
+     * @param occurrenceStart the start of the occurrence (epoch minute)
+     * @return the occurrence
+     */
+    public Event occurrenceAt(long occurrenceStart) {
+        long length = toMinute - fromMinute;
+        Event occurrence = new Event(description, EpochMinutes.toDateTime(occurrenceStart),
+                EpochMinutes.toDateTime(occurrenceStart + length));
+        copyStateTo(occurrence, occurrenceStart);
+        return occurrence;
     }
 
     /**
@@ -52,19 +95,27 @@ public class Event extends Task {
             return false;
         }
         Event e = (Event) other;
-        return description.equals(e.description) && from.equals(e.from) && to.equals(e.to);
+        return description.equals(e.description) && fromMinute == e.fromMinute && toMinute == e.toMinute;
+    }
+
+    /**
+     * Returns the times of this event and how it repeats.
+     *
+     * @return a string in the format " (from: date/time to: date/time)", followed by the repeat rule if any
+     */
+    @Override
+    public String details() {
+        return " (from: " + from().format(Parser.OUTPUT_FORMAT)
+                + " to: " + to().format(Parser.OUTPUT_FORMAT) + ")" + recurrenceSuffix();
     }
 
     /**
      * Returns a string representation of this event task.
      *
-     * @return a string in the format "[E][status] description (from: date/time to: date/time) [#tag]"
+     * @return a string in the format "[E][status] description [tag] (from: date/time to: date/time)"
      */
     @Override
     public String toString() {
-        return "[E]" + super.toString()
-                + " (from: " + from.format(Parser.OUTPUT_FORMAT)
-                + " to: " + to.format(Parser.OUTPUT_FORMAT) + ")";
+        return "[E]" + super.toString() + details();
     }
 }
-
@@ -0,0 +1,191 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Keeps events ordered by start time so overlapping events can be found without scanning every task.
+ * Two events overlap if each starts before the other ends; an event ending exactly when another
+ * starts does not overlap it.
+ */
+public class EventIndex {
+    private final TreeMap<Long, ArrayList<Event>> byStart = new TreeMap<>();
+    // Multiset of event durations, so the longest duration is known after removals too
+    private final TreeMap<Long, Integer> durationCounts = new TreeMap<>();
+    private int size;
+
+    /**
+     * A pair of overlapping events, earlier start first.
+     */
+    public static class Clash {
+        private final Event first;
+        private final Event second;
+
+        /**
+         * Constructs a clash between two events.
+         *
+         * @param first the event that starts first
+         * @param second the other event
+         */
+        public Clash(Event first, Event second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        /**
+         * Returns the event that starts first.
+         *
+         * @return the first event
+         */
+        public Event getFirst() {
+            return first;
+        }
+
+        /**
+         * Returns the event that starts second.
+         *
+         * @return the second event
+         */
+        public Event getSecond() {
+            return second;
+        }
+    }
+
+    /**
+     * Adds an event to the index. Events without both times and events already indexed are ignored.
+     *
+     * @param event the event to add
+     */
+    public void add(Event event) {
+        if (!hasTimes(event)) {
+            return;
+        }
+        ArrayList<Event> bucket = byStart.computeIfAbsent(event.fromEpochMinute(), k -> new ArrayList<>());
+        if (bucket.contains(event)) {
+            return;
+        }
+        bucket.add(event);
+        durationCounts.merge(durationOf(event), 1, Integer::sum);
+        size++;
+    }
+
+    /**
+     * Removes an event from the index, if present.
+     *
+     * @param event the event to remove
+     */
+    public void remove(Event event) {
+        if (!hasTimes(event)) {
+            return;
+        }
+        ArrayList<Event> bucket = byStart.get(event.fromEpochMinute());
+        if (bucket == null || !bucket.remove(event)) {
+            return;
+        }
+        if (bucket.isEmpty()) {
+            byStart.remove(event.fromEpochMinute());
+        }
+        durationCounts.computeIfPresent(durationOf(event), (k, count) -> count > 1 ? count - 1 : null);
+        size--;
+    }
+
+    /**
+     * Removes every event from the index.
+     */
+    public void clear() {
+        byStart.clear();
+        durationCounts.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of indexed events.
+     *
+     * @return the number of indexed events
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the indexed events that overlap the given time range, in start order.
+     * Only events starting within the longest indexed duration before the range are visited.
+     *
+     * @param fromMinute the start of the range (epoch minute, inclusive)
+     * @param toMinute the end of the range (epoch minute, exclusive)
+     * @return the overlapping events
+     */
+    public ArrayList<Event> findOverlapping(long fromMinute, long toMinute) {
+        ArrayList<Event> result = new ArrayList<>();
+        if (size == 0 || fromMinute >= toMinute) {
+            return result;
+        }
+        long earliestStart = fromMinute - durationCounts.lastKey();
+        for (ArrayList<Event> bucket : byStart.subMap(earliestStart, false, toMinute, false).values()) {
+            for (Event event : bucket) {
+                if (event.toEpochMinute() > fromMinute) {
+                    result.add(event);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexed events that overlap the given event, excluding the event itself.
+     *
+     * @param event the event to check
+     * @return the events that clash with it
+     */
+    public ArrayList<Event> findClashesWith(Event event) {
+        ArrayList<Event> result = findOverlapping(event.fromEpochMinute(), event.toEpochMinute());
+        result.remove(event);
+        return result;
+    }
+
+    /**
+     * Returns every pair of overlapping events, using a single sweep over events in start order.
+     * Events still in progress are kept in a heap ordered by end time, so the sweep costs
+     * O(n log n) plus the number of clashes reported.
+     *
+     * @return all clashing pairs, ordered by the start of the later event
+     */
+    public ArrayList<Clash> findAllClashes() {
+        ArrayList<Clash> clashes = new ArrayList<>();
+        PriorityQueue<Event> active = new PriorityQueue<>(
+                (a, b) -> Long.compare(a.toEpochMinute(), b.toEpochMinute()));
+        for (ArrayList<Event> bucket : byStart.values()) {
+            for (Event event : bucket) {
+                while (!active.isEmpty() && active.peek().toEpochMinute() <= event.fromEpochMinute()) {
+                    active.poll();
+                }
+                for (Event other : active) {
+                    clashes.add(new Clash(other, event));
+                }
+                active.add(event);
+            }
+        }
+        return clashes;
+    }
+
+    /**
+     * Returns true if the event has both a start and an end time.
+     *
+     * @param event the event to check
+     * @return true if both times are set
+     */
+    private static boolean hasTimes(Event event) {
+        return event.fromEpochMinute() != EpochMinutes.NONE && event.toEpochMinute() != EpochMinutes.NONE;
+    }
+
+    /**
+     * Returns the length of an event in minutes.
+     *
+     * @param event the event to measure
+     * @return the duration in minutes
+     */
+    private static long durationOf(Event event) {
+        return event.toEpochMinute() - event.fromEpochMinute();
+    }
+}
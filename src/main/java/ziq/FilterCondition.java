@@ -0,0 +1,489 @@
+package ziq;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A node in a parsed filter query. Leaf conditions test one property of a task;
+ * {@link And}, {@link Or} and {@link Not} combine them.
+ */
+public abstract class FilterCondition {
+    private static final DateTimeFormatter DISPLAY_DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    /**
+     * Returns true if the task satisfies this condition.
+     *
+     * @param task the task to test
+     * @return true if the task matches
+     */
+    public abstract boolean test(Task task);
+
+    /**
+     * Returns a short description of this condition for 'explain'.
+     *
+     * @return the description
+     */
+    public abstract String describe();
+
+    /**
+     * Splits text into lower-case words, the way both text conditions and the text index see it.
+     *
+     * @param text the text to split
+     * @return the words, in order
+     */
+    static List<String> words(String text) {
+        ArrayList<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Matches tasks of one type.
+     */
+    public static class Type extends FilterCondition {
+        private final TaskType type;
+
+        /**
+         * Constructs a type condition.
+         *
+         * @param type the task type to match
+         */
+        public Type(TaskType type) {
+            this.type = type;
+        }
+
+        /**
+         * Returns true if the task satisfies this condition.
+         *
+         * @param task the task to test
+         * @return true if the task matches
+         */
+        @Override
+        public boolean test(Task task) {
+            return TaskType.of(task) == type;
+        }
+
+        /**
+         * Returns a short description of this condition for 'explain'.
+         *
+         * @return the description
+         */
+        @Override
+        public String describe() {
+            return "type is " + type.getCode();
+        }
+    }
+
+    /**
+     * Matches tasks that have a tag, among any others they have.
+     */
+    public static class Tag extends FilterCondition {
+        private final String name;
+        private final int tagId;
+
+        /**
+         * Constructs a tag condition. A tag no task has ever used matches nothing.
+         *
+         * @param name the tag to match
+         */
+        public Tag(String name) {
+            this.name = name;
+            this.tagId = TagDictionary.idOf(name);
+        }
+
+        /**
+         * Returns the id of the tag, or {@link TagDictionary#NO_TAG} if no task has used it.
+         *
+         * @return the tag id
+         */
+        public int getTagId() {
+            return tagId;
+        }
+
+        /**
+         * Returns true if the task satisfies this condition.
+         *
+         * @param task the task to test
+         * @return true if the task matches
+         */
+        @Override
+        public boolean test(Task task) {
+            return tagId != TagDictionary.NO_TAG && task.hasTag(tagId);
+        }
+
+        /**
+         * Returns a short description of this condition for 'explain'.
+         *
+         * @return the description
+         */
+        @Override
+        public String describe() {
+            return "tag is '" + name + "'";
+        }
+    }
+
+    /**
+     * Matches deadlines due and events starting within a range of time.
+     * A repeating task matches if any of its occurrences falls in the range.
+     */
+    public static class DateRange extends FilterCondition {
+        private final long fromMinute;
+        private final long toMinute;
+        private final String description;
+
+        /**
+         * Constructs a date range condition.
+         *
+         * @param fromMinute the start of the range (epoch minute, inclusive)
+         * @param toMinute the end of the range (epoch minute, exclusive)
+         * @param description how the range reads in 'explain'
+         */
+        private DateRange(long fromMinute, long toMinute, String description) {
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+            this.description = description;
+        }
+
+        /**
+         * Returns a condition matching tasks scheduled before the given date.
+         *
+         * @param date the date (exclusive)
+         * @return the condition
+         */
+        public static DateRange before(LocalDate date) {
+            return new DateRange(Long.MIN_VALUE, EpochMinutes.startOfDay(date),
+                    "before " + date.format(DISPLAY_DATE_FORMAT));
+        }
+
+        /**
+         * Returns a condition matching tasks scheduled after the given date.
+         *
+         * @param date the date (exclusive)
+         * @return the condition
+         */
+        public static DateRange after(LocalDate date) {
+            return new DateRange(EpochMinutes.startOfDay(date.plusDays(1)), Long.MAX_VALUE,
+                    "after " + date.format(DISPLAY_DATE_FORMAT));
+        }
+
+        /**
+         * Returns a condition matching tasks scheduled on the given date.
+         *
+         * @param date the date
+         * @return the condition
+         */
+        public static DateRange on(LocalDate date) {
+            return new DateRange(EpochMinutes.startOfDay(date), EpochMinutes.startOfDay(date.plusDays(1)),
+                    "on " + date.format(DISPLAY_DATE_FORMAT));
+        }
+
+        /**
+         * Returns the start of the range.
+         *
+         * @return the start (epoch minute, inclusive)
+         */
+        public long getFromMinute() {
+            return fromMinute;
+        }
+
+        /**
+         * Returns the end of the range.
+         *
+         * @return the end (epoch minute, exclusive)
+         */
+        public long getToMinute() {
+            return toMinute;
+        }
+
+        /**
+         * Returns true if the task satisfies this condition.
+         *
+         * @param task the task to test
+         * @return true if the task matches
+         */
+        @Override
+        public boolean test(Task task) {
+            long first = TimeIndex.scheduleMinuteOf(task);
+            if (first == EpochMinutes.NONE) {
+                return false;
+            }
+            if (!task.isRecurring()) {
+                return first >= fromMinute && first < toMinute;
+            }
+            long start = task.getRecurrence().firstOccurrenceFrom(first, Math.max(first, fromMinute));
+            return start != EpochMinutes.NONE && start < toMinute;
+        }
+
+        /**
+         * Returns a short description of this condition for 'explain'.
+         *
+         * @return the description
+         */
+        @Override
+        public String describe() {
+            return description;
+        }
+    }
+
+    /**
+     * Matches tasks by completion status.
+     */
+    public static class Done extends FilterCondition {
+        private final boolean isDone;
+
+        /**
+         * Constructs a status condition.
+         *
+         * @param isDone true to match done tasks, false to match pending ones
+         */
+        public Done(boolean isDone) {
+            this.isDone = isDone;
+        }
+
+        /**
+         * Returns the status this condition matches.
+         *
+         * @return true if it matches done tasks, false if it matches pending ones
+         */
+        public boolean isDone() {
+            return isDone;
+        }
+
+        /**
+         * Returns true if the task satisfies this condition.
+         *
+         * @param task the task to test
+         * @return true if the task matches
+         */
+        @Override
+        public boolean test(Task task) {
+            return task.isDone() == isDone;
+        }
+
+        /**
+         * Returns a short description of this condition for 'explain'.
+         *
+         * @return the description
+         */
+        @Override
+        public String describe() {
+            return isDone ? "done" : "not done";
+        }
+    }
+
+    /**
+     * Matches tasks whose description has a word starting with each word of the text.
+     * For example "rep sub" matches "submit report".
+     */
+    public static class Text extends FilterCondition {
+        private final String text;
+        private final List<String> prefixes;
+
+        /**
+         * Constructs a text condition.
+         *
+         * @param text the text to look for
+         */
+        public Text(String text) {
+            this.text = text;
+            this.prefixes = words(text);
+        }
+
+        /**
+         * Returns the lower-case word prefixes a matching description must contain.
+         *
+         * @return the prefixes
+         */
+        public List<String> getPrefixes() {
+            return prefixes;
+        }
+
+        /**
+         * Returns true if the task satisfies this condition.
+         *
+         * @param task the task to test
+         * @return true if the task matches
+         */
+        @Override
+        public boolean test(Task task) {
+            List<String> taskWords = words(task.description());
+            for (String prefix : prefixes) {
+                boolean isFound = false;
+                for (String word : taskWords) {
+                    if (word.startsWith(prefix)) {
+                        isFound = true;
+                        break;
+                    }
+                }
+                if (!isFound) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns a short description of this condition for 'explain'.
+         *
+         * @return the description
+         */
+        @Override
+        public String describe() {
+            return "text \"" + text + "\"";
+        }
+    }
+
+    /**
+     * Matches tasks that do not satisfy a condition.
+     */
+    public static class Not extends FilterCondition {
+        private final FilterCondition condition;
+
+        /**
+         * Constructs a negation.
+         *
+         * @param condition the condition to negate
+         */
+        public Not(FilterCondition condition) {
+            this.condition = condition;
+        }
+
+        /**
+         * Returns the negated condition.
+         *
+         * @return the condition
+         */
+        public FilterCondition getCondition() {
+            return condition;
+        }
+
+        /**
+         * Returns true if the task satisfies this condition.
+         *
+         * @param task the task to test
+         * @return true if the task matches
+         */
+        @Override
+        public boolean test(Task task) {
+            return !condition.test(task);
+        }
+
+        /**
+         * Returns a short description of this condition for 'explain'.
+         *
+         * @return the description
+         */
+        @Override
+        public String describe() {
+            return "not (" + condition.describe() + ")";
+        }
+    }
+
+    /**
+     * Matches tasks that satisfy every one of its conditions.
+     */
+    public static class And extends FilterCondition {
+        private final List<FilterCondition> conditions;
+
+        /**
+         * Constructs a conjunction.
+         *
+         * @param conditions the conditions that must all hold
+         */
+        public And(List<FilterCondition> conditions) {
+            this.conditions = List.copyOf(conditions);
+        }
+
+        /**
+         * Returns the conditions that must all hold.
+         *
+         * @return the conditions
+         */
+        public List<FilterCondition> getConditions() {
+            return conditions;
+        }
+
+        /**
+         * Returns true if the task satisfies this condition.
+         *
+         * @param task the task to test
+         * @return true if the task matches
+         */
+        @Override
+        public boolean test(Task task) {
+            for (FilterCondition condition : conditions) {
+                if (!condition.test(task)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns a short description of this condition for 'explain'.
+         *
+         * @return the description
+         */
+        @Override
+        public String describe() {
+            ArrayList<String> parts = new ArrayList<>();
+            for (FilterCondition condition : conditions) {
+                parts.add(condition.describe());
+            }
+            return String.join(" and ", parts);
+        }
+    }
+
+    /**
+     * Matches tasks that satisfy at least one of its conditions.
+     */
+    public static class Or extends FilterCondition {
+        private final List<FilterCondition> conditions;
+
+        /**
+         * Constructs a disjunction.
+         *
+         * @param conditions the alternatives
+         */
+        public Or(List<FilterCondition> conditions) {
+            this.conditions = List.copyOf(conditions);
+        }
+
+        /**
+         * Returns true if the task satisfies this condition.
+         *
+         * @param task the task to test
+         * @return true if the task matches
+         */
+        @Override
+        public boolean test(Task task) {
+            for (FilterCondition condition : conditions) {
+                if (condition.test(task)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns a short description of this condition for 'explain'.
+         *
+         * @return the description
+         */
+        @Override
+        public String describe() {
+            ArrayList<String> parts = new ArrayList<>();
+            for (FilterCondition condition : conditions) {
+                parts.add("(" + condition.describe() + ")");
+            }
+            return String.join(" or ", parts);
+        }
+    }
+}
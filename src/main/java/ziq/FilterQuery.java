@@ -0,0 +1,240 @@
+package ziq;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A filter query parsed once into a tree of {@link FilterCondition}s.
+ * Terms next to each other must all hold; 'or' separates alternatives; a leading '-' negates a term.
+ * Terms are {@code type:T|D|E}, {@code tag:NAME}, {@code before:DDMMYYYY}, {@code after:DDMMYYYY},
+ * {@code on:DDMMYYYY}, {@code done:true|false} (or just {@code done} and {@code pending}), and plain or "quoted" text.
+ * For example: {@code type:D tag:work before:31122026 done:false "report"}.
+ */
+public class FilterQuery {
+    private static final String OR_KEYWORD = "or";
+    private static final String DONE_KEYWORD = "done";
+    private static final String PENDING_KEYWORD = "pending";
+
+    private final String source;
+    private final FilterCondition root;
+
+    /**
+     * Constructs a query from its source text and parsed tree.
+     *
+     * @param source the query as typed
+     * @param root the root of the condition tree
+     */
+    private FilterQuery(String source, FilterCondition root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param source the query text
+     * @return the parsed query
+     * @throws ZiqException if the query is empty or has an unknown or malformed term
+     */
+    public static FilterQuery parse(String source) throws ZiqException {
+        List<String> tokens = tokenize(source);
+        if (tokens.isEmpty()) {
+            throw new ZiqException("filter needs at least one condition. e.g. filter tag:work done:false");
+        }
+        ArrayList<FilterCondition> alternatives = new ArrayList<>();
+        ArrayList<FilterCondition> terms = new ArrayList<>();
+        for (String token : tokens) {
+            if (token.equalsIgnoreCase(OR_KEYWORD)) {
+                alternatives.add(combine(terms));
+                terms = new ArrayList<>();
+            } else {
+                terms.add(parseTerm(token));
+            }
+        }
+        alternatives.add(combine(terms));
+        FilterCondition root = alternatives.size() == 1 ? alternatives.get(0) : new FilterCondition.Or(alternatives);
+        return new FilterQuery(source.trim(), root);
+    }
+
+    /**
+     * Returns the root of the condition tree.
+     *
+     * @return the root condition
+     */
+    public FilterCondition getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the conditions that every match must satisfy: the terms of a plain (no 'or') query.
+     * A query with alternatives has none, since no single term must hold.
+     *
+     * @return the required conditions
+     */
+    public List<FilterCondition> getRequiredConditions() {
+        if (root instanceof FilterCondition.And) {
+            return ((FilterCondition.And) root).getConditions();
+        }
+        if (root instanceof FilterCondition.Or) {
+            return List.of();
+        }
+        return List.of(root);
+    }
+
+    /**
+     * Returns true if the task matches the query.
+     *
+     * @param task the task to test
+     * @return true if the task matches
+     */
+    public boolean matches(Task task) {
+        return root.test(task);
+    }
+
+    /**
+     * Returns the query as typed.
+     *
+     * @return the query text
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * Combines the terms of one alternative into a single condition.
+     *
+     * @param terms the terms
+     * @return the combined condition
+     * @throws ZiqException if there are no terms (e.g. a dangling 'or')
+     */
+    private static FilterCondition combine(List<FilterCondition> terms) throws ZiqException {
+        if (terms.isEmpty()) {
+            throw new ZiqException("'or' needs a condition on both sides. e.g. filter tag:work or tag:school");
+        }
+        return terms.size() == 1 ? terms.get(0) : new FilterCondition.And(terms);
+    }
+
+    /**
+     * Parses a single term, with an optional leading '-' to negate it.
+     *
+     * @param token the term
+     * @return the condition for the term
+     * @throws ZiqException if the term is unknown or its value is invalid
+     */
+    private static FilterCondition parseTerm(String token) throws ZiqException {
+        if (token.length() > 1 && token.startsWith("-")) {
+            return new FilterCondition.Not(parseTerm(token.substring(1)));
+        }
+        if (token.startsWith("\"")) {
+            return parseText(token.substring(1));
+        }
+        int colon = token.indexOf(':');
+        if (colon < 0) {
+            // Bare status words read naturally in "delete where done"; quote them to search for the text
+            if (token.equalsIgnoreCase(DONE_KEYWORD) || token.equalsIgnoreCase(PENDING_KEYWORD)) {
+                return new FilterCondition.Done(token.equalsIgnoreCase(DONE_KEYWORD));
+            }
+            return parseText(token);
+        }
+        String key = token.substring(0, colon).toLowerCase(Locale.ROOT);
+        String value = token.substring(colon + 1);
+        if (value.isEmpty()) {
+            throw new ZiqException("'" + key + ":' needs a value. e.g. filter tag:work");
+        }
+        switch (key) {
+        case "type":
+            try {
+                return new FilterCondition.Type(TaskType.findTaskType(value.toUpperCase(Locale.ROOT)));
+            } catch (ZiqException e) {
+                throw new ZiqException("type must be T, D or E. e.g. filter type:D");
+            }
+        case "tag":
+            return new FilterCondition.Tag(value);
+        case "before":
+            return FilterCondition.DateRange.before(parseDate(value));
+        case "after":
+            return FilterCondition.DateRange.after(parseDate(value));
+        case "on":
+            return FilterCondition.DateRange.on(parseDate(value));
+        case "done":
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new ZiqException("done must be true or false. e.g. filter done:false");
+            }
+            return new FilterCondition.Done(Boolean.parseBoolean(value));
+        case "text":
+            return parseText(value);
+        default:
+            throw new ZiqException("unknown filter '" + key + "'. use type, tag, before, after, on, done or text.");
+        }
+    }
+
+    /**
+     * Parses a text term. Text without any letters or digits is refused, since it would match every task.
+     *
+     * @param text the text to look for
+     * @return the condition for the text
+     * @throws ZiqException if the text has no words
+     */
+    private static FilterCondition parseText(String text) throws ZiqException {
+        if (FilterCondition.words(text).isEmpty()) {
+            throw new ZiqException("'" + text + "' has no words to look for. e.g. filter \"report\"");
+        }
+        return new FilterCondition.Text(text);
+    }
+
+    /**
+     * Parses a DDMMYYYY date in a term.
+     *
+     * @param value the date text
+     * @return the date
+     * @throws ZiqException if the date is invalid
+     */
+    private static LocalDate parseDate(String value) throws ZiqException {
+        LocalDate date = EpochMinutes.toDate(InputDates.parseDate(value));
+        if (date == null) {
+            throw new ZiqException("invalid date '" + value + "' in filter. use DDMMYYYY (e.g. before:31122026).");
+        }
+        return date;
+    }
+
+    /**
+     * Splits a query into terms at spaces, keeping "quoted text" together.
+     * A quoted term is returned with its opening quote and without its closing quote.
+     *
+     * @param source the query text
+     * @return the terms
+     * @throws ZiqException if a quote is not closed
+     */
+    private static List<String> tokenize(String source) throws ZiqException {
+        ArrayList<String> tokens = new ArrayList<>();
+        int i = 0;
+        int length = source.length();
+        while (i < length) {
+            char c = source.charAt(i);
+            if (c == ' ') {
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean isNegated = c == '-' && i + 1 < length && source.charAt(i + 1) == '"';
+            int quote = isNegated ? i + 1 : i;
+            if (source.charAt(quote) == '"') {
+                int close = source.indexOf('"', quote + 1);
+                if (close < 0) {
+                    throw new ZiqException("a quote in the filter is not closed.");
+                }
+                tokens.add(source.substring(start, close));
+                i = close + 1;
+                continue;
+            }
+            while (i < length && source.charAt(i) != ' ') {
+                i++;
+            }
+            tokens.add(source.substring(start, i));
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,198 @@
+package ziq;
+
+import java.time.LocalDate;
+
+/**
+ * Reads the dates and times users type in commands (DDMMYYYY, DDMMYYYY HHmm, and the short DD and DDMM
+ * forms) straight into epoch minutes.
+ * Digits are read one character at a time and calendar ranges are checked with arithmetic, so parsing
+ * creates no strings or exceptions; invalid input, including dates like Feb 30, gives {@link EpochMinutes#NONE}.
+ */
+public final class InputDates {
+    private static final int DATE_LENGTH = 8;
+    private static final int DATE_TIME_LENGTH = 13;
+    private static final int HOUR_OFFSET = 9;
+    private static final int MINUTE_OFFSET = 11;
+    private static final int MAX_PARTIAL_DIGITS = 8;
+    private static final int HOURS_PER_DAY = 24;
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final long MINUTES_PER_DAY = HOURS_PER_DAY * MINUTES_PER_HOUR;
+    private static final int DAYS_PER_400_YEARS = 146_097;
+    private static final int DAYS_FROM_YEAR_0_TO_1970 = 719_468;
+
+    private InputDates() {
+    }
+
+    /**
+     * Parses a date written as DDMMYYYY.
+     *
+     * @param text the text to parse
+     * @return the epoch minute at the start of the date, or {@link EpochMinutes#NONE} if the text is not a valid date
+     */
+    public static long parseDate(CharSequence text) {
+        if (text.length() != DATE_LENGTH) {
+            return EpochMinutes.NONE;
+        }
+        return dateAt(text, 0);
+    }
+
+    /**
+     * Parses a date and time written as DDMMYYYY HHmm.
+     *
+     * @param text the text to parse
+     * @return the epoch minute, or {@link EpochMinutes#NONE} if the text is not a valid date and time
+     */
+    public static long parseDateTime(CharSequence text) {
+        if (text.length() != DATE_TIME_LENGTH || text.charAt(DATE_LENGTH) != ' ') {
+            return EpochMinutes.NONE;
+        }
+        long startOfDay = dateAt(text, 0);
+        int hour = twoDigitsAt(text, HOUR_OFFSET);
+        int minute = twoDigitsAt(text, MINUTE_OFFSET);
+        if (startOfDay == EpochMinutes.NONE || hour < 0 || hour >= HOURS_PER_DAY
+                || minute < 0 || minute >= MINUTES_PER_HOUR) {
+            return EpochMinutes.NONE;
+        }
+        return startOfDay + (long) hour * MINUTES_PER_HOUR + minute;
+    }
+
+    /**
+     * Parses a date written as DD, DDMM or DDMMYYYY, ignoring any whitespace between the digits.
+     * A missing month or year is taken from today.
+     *
+     * @param text the text to parse
+     * @param today the date that supplies a missing month and year
+     * @return the epoch minute at the start of the date, or {@link EpochMinutes#NONE} if the text is not a valid date
+     */
+    public static long parsePartialDate(CharSequence text, LocalDate today) {
+        int day = 0;
+        int month = 0;
+        int year = 0;
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            int digit = digit(c);
+            if (digit < 0 || count == MAX_PARTIAL_DIGITS) {
+                return EpochMinutes.NONE;
+            }
+            if (count < 2) {
+                day = day * 10 + digit;
+            } else if (count < 4) {
+                month = month * 10 + digit;
+            } else {
+                year = year * 10 + digit;
+            }
+            count++;
+        }
+        switch (count) {
+        case 2:
+            return startOfDay(today.getYear(), today.getMonthValue(), day);
+        case 4:
+            return startOfDay(today.getYear(), month, day);
+        case MAX_PARTIAL_DIGITS:
+            return startOfDay(year, month, day);
+        default:
+            return EpochMinutes.NONE;
+        }
+    }
+
+    /**
+     * Returns the number of days in a month.
+     *
+     * @param year the year
+     * @param month the month (1-12)
+     * @return the number of days
+     */
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return isLeap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /**
+     * Reads a DDMMYYYY date starting at the given position.
+     *
+     * @param text the text
+     * @param offset the position of the first day digit
+     * @return the epoch minute at the start of the date, or {@link EpochMinutes#NONE} if it is not a valid date
+     */
+    private static long dateAt(CharSequence text, int offset) {
+        int day = twoDigitsAt(text, offset);
+        int month = twoDigitsAt(text, offset + 2);
+        int centuries = twoDigitsAt(text, offset + 4);
+        int years = twoDigitsAt(text, offset + 6);
+        if (day < 0 || month < 0 || centuries < 0 || years < 0) {
+            return EpochMinutes.NONE;
+        }
+        return startOfDay(centuries * 100 + years, month, day);
+    }
+
+    /**
+     * Returns the epoch minute at the start of a date, after checking that the date exists.
+     *
+     * @param year the year (1 or later)
+     * @param month the month
+     * @param day the day of the month
+     * @return the epoch minute, or {@link EpochMinutes#NONE} if there is no such date
+     */
+    private static long startOfDay(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return EpochMinutes.NONE;
+        }
+        return epochDay(year, month, day) * MINUTES_PER_DAY;
+    }
+
+    /**
+     * Returns the number of days from 1970-01-01 to a date in the proleptic Gregorian calendar.
+     * Counts from March so that the leap day falls at the end of each year.
+     *
+     * @param year the year
+     * @param month the month (1-12)
+     * @param day the day of the month
+     * @return the epoch day
+     */
+    private static long epochDay(int year, int month, int day) {
+        int marchYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(marchYear, 400);
+        int yearOfEra = marchYear - era * 400;
+        int marchMonth = (month + 9) % 12;
+        int dayOfYear = (153 * marchMonth + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * DAYS_PER_400_YEARS + dayOfEra - DAYS_FROM_YEAR_0_TO_1970;
+    }
+
+    /**
+     * Reads two decimal digits.
+     *
+     * @param text the text
+     * @param offset the position of the first digit
+     * @return the two-digit number, or -1 if either character is not a digit
+     */
+    private static int twoDigitsAt(CharSequence text, int offset) {
+        int tens = digit(text.charAt(offset));
+        int ones = digit(text.charAt(offset + 1));
+        return tens < 0 || ones < 0 ? -1 : tens * 10 + ones;
+    }
+
+    /**
+     * Returns the value of an ASCII decimal digit.
+     *
+     * @param c the character
+     * @return the digit's value, or -1 if it is not a digit
+     */
+    private static int digit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+}
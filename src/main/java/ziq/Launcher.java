@@ -9,7 +9,7 @@ public class Launcher {
     /**
      * Entry point for launching the JavaFX application.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments, e.g. --history=500 to keep 500 chat messages in memory
      */
     public static void main(String[] args) {
         Application.launch(Main.class, args);
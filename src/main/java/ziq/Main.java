@@ -3,6 +3,7 @@ package ziq;
 import java.io.IOException;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
@@ -15,8 +16,10 @@ public class Main extends Application {
 
     private static final double MIN_WINDOW_HEIGHT = 600.0;
     private static final double MIN_WINDOW_WIDTH = 400.0;
+    private static final String HISTORY_PARAMETER = "history";
 
     private Ziq ziq = new Ziq();
+    private MainWindow controller;
 
     /**
      * Starts the JavaFX application and sets up the GUI.
@@ -31,9 +34,12 @@ public class Main extends Application {
             Scene scene = new Scene(ap);
             scene.getStylesheets().add(Main.class.getResource("/view/styles.css").toExternalForm());
             stage.setScene(scene);
-            MainWindow controller = fxmlLoader.getController();
+            // The window exits by itself once its commands have finished, rather than as soon as it is hidden
+            Platform.setImplicitExit(false);
+            controller = fxmlLoader.getController();
             controller.setZiq(ziq);
             controller.setStage(stage);
+            controller.setHistoryCap(readHistoryCap());
             stage.setTitle("ziq 🦍");
             stage.setResizable(true);
             stage.setMinHeight(MIN_WINDOW_HEIGHT);
@@ -43,5 +49,35 @@ public class Main extends Application {
             e.printStackTrace();
         }
     }
-}
 
+    /**
+     * Returns how many chat messages to keep in memory, from a {@code --history=N} argument.
+     *
+     * @return the cap, or {@link ChatHistory#DEFAULT_CAP} if none was given or it is not a positive number
+     */
+    private int readHistoryCap() {
+        String value = getParameters().getNamed().get(HISTORY_PARAMETER);
+        if (value == null) {
+            return ChatHistory.DEFAULT_CAP;
+        }
+        try {
+            int cap = Integer.parseInt(value.trim());
+            return cap > 0 ? cap : ChatHistory.DEFAULT_CAP;
+        } catch (NumberFormatException e) {
+            return ChatHistory.DEFAULT_CAP;
+        }
+    }
+
+    /**
+     * Releases the window's resources, or stops reminders if the window never loaded, when the application
+     * exits.
+     */
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        } else {
+            ziq.stopReminders();
+        }
+    }
+}
@@ -1,15 +1,39 @@
 package ziq;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.css.PseudoClass;
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.geometry.Side;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.ScrollBar;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.image.WritableImage;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.input.ScrollEvent;
+import javafx.scene.Node;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 
@@ -20,12 +44,16 @@ public class MainWindow extends AnchorPane {
 
     private static final int DEFAULT_IMAGE_SIZE = 100;
     private static final double SCROLL_BAR_HIDE_DELAY_SECONDS = 1.5;
-    private static final double SCROLL_PANE_MAX_VALUE = 1.0;
+    private static final int OLDER_PAGE_SIZE = 50;
+    private static final double COMPLETION_DELAY_MILLIS = 120;
+    private static final int MAX_COMPLETIONS = 8;
+    private static final int MAX_PENDING_COMMANDS = 8;
+    private static final long COMMAND_SHUTDOWN_SECONDS = 5;
+    private static final String PENDING_PROMPT = "working...";
+    private static final PseudoClass PENDING = PseudoClass.getPseudoClass("pending");
 
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> chatList;
     @FXML
     private TextField userInput;
     @FXML
@@ -34,11 +62,36 @@ public class MainWindow extends AnchorPane {
     private Ziq ziq;
     private Stage stage;
 
-    private Image userImage;
-    private Image ziqImage;
+    private AvatarCache avatars;
 
     private PauseTransition scrollBarHideTransition;
 
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
+    private ChatHistory history;
+
+    // Commands run one at a time, in the order they were sent, so a slow save never freezes the window
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ziq-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Commands sent but not yet answered; only read and written on the FX thread
+    private int pendingCommands;
+    // Set once the window starts closing; only read and written on the FX thread
+    private boolean isClosing;
+
+    private CompletionIndex completions;
+    private final ExecutorService completionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ziq-completions");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ContextMenu completionMenu = new ContextMenu();
+    private PauseTransition completionDelay;
+    private Future<?> pendingCompletion;
+    // Bumped for every lookup, so a reply for text that has since changed can be recognised and dropped
+    private long completionRequest;
+
     /**
      * Loads an image from the resources folder.
      *
@@ -62,12 +115,180 @@ public class MainWindow extends AnchorPane {
      */
     @FXML
     public void initialize() {
-        userImage = loadImage("/images/user.jpg");
-        ziqImage = loadImage("/images/ziq.jpg");
-        dialogContainer.heightProperty().addListener((observable) -> scrollPane.setVvalue(SCROLL_PANE_MAX_VALUE));
-        dialogContainer.getChildren().add(DialogBox.getDukeDialog(
-                "hi, i'm ziq!\nplease give me a command!\nif you need help, enter 'help'.", ziqImage));
+        avatars = new AvatarCache(loadImage("/images/user.jpg"), loadImage("/images/ziq.jpg"),
+                Screen.getPrimary().getOutputScaleX());
+        setupChatList();
+        setHistoryCap(ChatHistory.DEFAULT_CAP);
+        Response greeting = new Response(List.of(ResponseLine.text("hi, i'm ziq!"),
+                ResponseLine.text("please give me a command!"), ResponseLine.text("if you need help, enter 'help'.")),
+                false);
+        addMessage(ChatMessage.fromZiq(greeting));
         setupScrollBarRevealOnScroll();
+        setupCompletion();
+    }
+
+    /**
+     * Shows the chat in a ListView, which only builds dialog boxes for the messages on screen.
+     */
+    private void setupChatList() {
+        chatList.setItems(messages);
+        chatList.setFocusTraversable(false);
+        chatList.setCellFactory(list -> new ListCell<>() {
+            {
+                setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+                // Let the cell shrink to the list's width so long messages wrap instead of scrolling sideways
+                setPrefWidth(0);
+            }
+
+            @Override
+            protected void updateItem(ChatMessage message, boolean isEmpty) {
+                super.updateItem(message, isEmpty);
+                setText(null);
+                setGraphic(isEmpty || message == null ? null : createDialog(message));
+            }
+        });
+        // The scroll bar only exists once the list has been laid out, so look for it after the first pulse
+        Platform.runLater(() -> {
+            for (Node node : chatList.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar bar = (ScrollBar) node;
+                    bar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                        if (newValue.doubleValue() <= bar.getMin()) {
+                            loadOlderMessages();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates the dialog box for a message.
+     *
+     * @param message the message
+     * @return the dialog box
+     */
+    private DialogBox createDialog(ChatMessage message) {
+        return message.isUser()
+                ? DialogBox.getUserDialog(message.getUserText(), avatars.getUserAvatar())
+                : DialogBox.getDukeDialog(message.getResponse(), avatars.getZiqAvatar());
+    }
+
+    /**
+     * Sets how many messages the chat keeps in memory; older ones are moved to a transcript file on disk and
+     * read back when the user scrolls to the top.
+     *
+     * @param cap the most messages to keep in memory
+     */
+    public void setHistoryCap(int cap) {
+        if (history != null) {
+            history.close();
+            history = null;
+        }
+        try {
+            Path transcript = Files.createTempFile("ziq-transcript", ".bin");
+            transcript.toFile().deleteOnExit();
+            history = new ChatHistory(messages, Math.max(1, cap), transcript);
+        } catch (IOException | ZiqException e) {
+            // Without a transcript file the chat simply keeps every message in memory
+            history = null;
+        }
+    }
+
+    /**
+     * Adds a message to the end of the chat and scrolls to it.
+     *
+     * @param message the message
+     */
+    private void addMessage(ChatMessage message) {
+        if (history == null) {
+            messages.add(message);
+        } else {
+            try {
+                history.add(message);
+            } catch (ZiqException e) {
+                // The older messages stay in memory; try again with the next message
+            }
+        }
+        chatList.scrollTo(messages.size() - 1);
+    }
+
+    /**
+     * Reads a page of older messages back from the transcript file, keeping the current message in view.
+     */
+    private void loadOlderMessages() {
+        if (history == null || !history.hasOlder()) {
+            return;
+        }
+        try {
+            int loaded = history.loadOlder(OLDER_PAGE_SIZE);
+            chatList.scrollTo(loaded);
+        } catch (ZiqException e) {
+            // Leave the older messages on disk; scrolling to the top again retries
+        }
+    }
+
+    /**
+     * Suggests completions as the user types. Lookups wait until typing pauses, run off the FX thread,
+     * and are cancelled when the text changes again. Tab takes the first suggestion.
+     */
+    private void setupCompletion() {
+        completionDelay = new PauseTransition(Duration.millis(COMPLETION_DELAY_MILLIS));
+        completionDelay.setOnFinished(e -> requestCompletions(userInput.getText()));
+        userInput.textProperty().addListener((observable, oldText, newText) -> {
+            completionRequest++;
+            completionMenu.hide();
+            completionDelay.playFromStart();
+        });
+        userInput.addEventFilter(KeyEvent.KEY_PRESSED, e -> {
+            if (e.getCode() == KeyCode.TAB && completionMenu.isShowing() && !completionMenu.getItems().isEmpty()) {
+                completionMenu.getItems().get(0).fire();
+                e.consume();
+            }
+        });
+    }
+
+    /**
+     * Looks up completions for the text on the completion thread, cancelling any lookup still waiting.
+     *
+     * @param text the text typed so far
+     */
+    private void requestCompletions(String text) {
+        if (completions == null) {
+            return;
+        }
+        if (pendingCompletion != null) {
+            pendingCompletion.cancel(true);
+        }
+        long request = ++completionRequest;
+        pendingCompletion = completionExecutor.submit(() -> {
+            List<String> suggestions = completions.complete(text, MAX_COMPLETIONS);
+            if (!Thread.currentThread().isInterrupted()) {
+                Platform.runLater(() -> showCompletions(request, suggestions));
+            }
+        });
+    }
+
+    /**
+     * Shows completions above the input field, unless the text has changed since they were looked up.
+     *
+     * @param request the lookup the completions answer
+     * @param suggestions the completions
+     */
+    private void showCompletions(long request, List<String> suggestions) {
+        if (request != completionRequest || suggestions.isEmpty()) {
+            return;
+        }
+        completionMenu.getItems().clear();
+        for (String suggestion : suggestions) {
+            MenuItem item = new MenuItem(suggestion);
+            item.setOnAction(e -> {
+                userInput.setText(CompletionIndex.applyCompletion(userInput.getText(), suggestion));
+                userInput.positionCaret(userInput.getText().length());
+            });
+            completionMenu.getItems().add(item);
+        }
+        completionMenu.show(userInput, Side.TOP, 0, 0);
     }
 
     /**
@@ -75,10 +296,10 @@ public class MainWindow extends AnchorPane {
      */
     private void setupScrollBarRevealOnScroll() {
         scrollBarHideTransition = new PauseTransition(Duration.seconds(SCROLL_BAR_HIDE_DELAY_SECONDS));
-        scrollBarHideTransition.setOnFinished(e -> scrollPane.getStyleClass().remove("scrolling"));
-        scrollPane.addEventFilter(ScrollEvent.SCROLL, e -> {
-            if (!scrollPane.getStyleClass().contains("scrolling")) {
-                scrollPane.getStyleClass().add("scrolling");
+        scrollBarHideTransition.setOnFinished(e -> chatList.getStyleClass().remove("scrolling"));
+        chatList.addEventFilter(ScrollEvent.SCROLL, e -> {
+            if (!chatList.getStyleClass().contains("scrolling")) {
+                chatList.getStyleClass().add("scrolling");
             }
             scrollBarHideTransition.playFromStart();
         });
@@ -91,37 +312,156 @@ public class MainWindow extends AnchorPane {
      */
     public void setZiq(Ziq z) {
         ziq = z;
+        ziq.startReminders(task -> Platform.runLater(() -> showReminder(task)));
+        completions = ziq.createCompletionIndex();
+    }
+
+    /**
+     * Shows a reminder for an upcoming task in a dialog, without blocking the chat.
+     *
+     * @param task the task that is coming up
+     */
+    private void showReminder(Task task) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION, Ui.formatReminder(task));
+        alert.setTitle("ziq reminder");
+        alert.setHeaderText(null);
+        if (stage != null) {
+            alert.initOwner(stage);
+        }
+        alert.show();
     }
 
     /**
-     * Sets the stage so the window can be closed when the user says "bye".
+     * Sets the stage so the window can be closed when the user says "bye" or closes it, and the avatars can
+     * follow the output scale of the screen it is on.
      *
      * @param s the stage to control
      */
     public void setStage(Stage s) {
         stage = s;
+        stage.setOnCloseRequest(event -> {
+            event.consume();
+            close();
+        });
+        // Redraw the avatars when the window moves to a screen with a different pixel density
+        stage.outputScaleXProperty().addListener((observable, oldScale, newScale) -> {
+            if (avatars.setOutputScale(newScale.doubleValue())) {
+                chatList.refresh();
+            }
+        });
     }
 
     /**
-     * Handles user input: creates dialog boxes for user input and Ziq's reply,
-     * and clears the input field after processing.
+     * Handles user input: adds the user's input to the chat and clears the input field, then runs the command
+     * on the command thread and adds Ziq's reply when it is done. Replies come back in the order commands
+     * were sent. When too many commands are still waiting, new input is left in the field until one finishes.
      * Closes the window if the user says "bye".
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText().trim();
+        if (pendingCommands >= MAX_PENDING_COMMANDS) {
+            return;
+        }
         userInput.clear();
+        completionDelay.stop();
+        completionMenu.hide();
         if (input.isEmpty()) {
             return;
         }
-        String response = ziq.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, ziqImage)
-        );
-        if (stage != null && "Bye. Hope to see you again!".equals(response)) {
-            stage.close();
+        addMessage(ChatMessage.fromUser(input));
+        pendingCommands++;
+        updatePendingState();
+        commandExecutor.execute(() -> {
+            Response response;
+            try {
+                response = ziq.getResponse(input);
+            } catch (RuntimeException e) {
+                response = new Response(List.of(ResponseLine.error("oop. " + e.getMessage())), false);
+            }
+            Response reply = response;
+            Platform.runLater(() -> showReply(reply));
+        });
+    }
+
+    /**
+     * Adds a reply to the chat, and closes the window if it is the reply to "bye".
+     *
+     * @param response Ziq's reply to the oldest pending command
+     */
+    private void showReply(Response response) {
+        pendingCommands--;
+        updatePendingState();
+        addMessage(ChatMessage.fromZiq(response));
+        if (stage != null && response.isExit()) {
+            close();
         }
     }
-}
 
+    /**
+     * Shows in the input field whether commands are still running, and disables sending while the queue is full.
+     */
+    private void updatePendingState() {
+        boolean isPending = pendingCommands > 0;
+        userInput.pseudoClassStateChanged(PENDING, isPending);
+        userInput.setPromptText(isPending ? PENDING_PROMPT : null);
+        sendButton.setDisable(pendingCommands >= MAX_PENDING_COMMANDS);
+    }
+
+    /**
+     * Hides the window and exits once the commands already sent have finished, so a save in progress is not
+     * cut off. The wait happens on its own thread, so the window never freezes while it finishes.
+     */
+    private void close() {
+        if (isClosing) {
+            return;
+        }
+        stage.hide();
+        stopBackgroundWork();
+        Thread waiter = new Thread(() -> {
+            try {
+                commandExecutor.awaitTermination(COMMAND_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Platform.exit();
+        }, "ziq-shutdown");
+        waiter.start();
+    }
+
+    /**
+     * Stops taking commands and completion lookups. Reminders and completions stop listening to the task list
+     * on the command thread, after the commands already sent, so the listeners never change while a command
+     * is reporting its changes to them.
+     */
+    private void stopBackgroundWork() {
+        if (isClosing) {
+            return;
+        }
+        isClosing = true;
+        if (completionDelay != null) {
+            completionDelay.stop();
+        }
+        completionExecutor.shutdownNow();
+        commandExecutor.execute(() -> {
+            if (ziq != null) {
+                ziq.stopReminders();
+            }
+            if (completions != null) {
+                completions.stop();
+            }
+        });
+        commandExecutor.shutdown();
+    }
+
+    /**
+     * Releases what the window holds once the application exits. Background work is stopped if the window
+     * was not closed first, without waiting for it.
+     */
+    public void shutdown() {
+        stopBackgroundWork();
+        if (history != null) {
+            history.close();
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package ziq;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caches the grouped and sorted views printed by 'organise', so asking again on an unchanged list
+ * does no bucketing or sorting.
+ * Each view remembers the {@link TaskList#getModCount() modification count} it was built at and is only
+ * rebuilt once the list has moved past it. Tasks appended or removed are patched into a built view in place;
+ * a change that would move a task within a view (such as a new tag) drops the view instead.
+ * Repeating tasks are kept apart from the deadline view, since which occurrence is shown depends on the time.
+ */
+public class OrganisedViews implements TaskListListener {
+    private static final int NOT_BUILT = -1;
+
+    private final TaskList taskList;
+
+    private final ArrayList<Deadline> deadlines = new ArrayList<>();
+    private final ArrayList<Event> events = new ArrayList<>();
+    private final ArrayList<Task> todos = new ArrayList<>();
+    private final ArrayList<Task> rules = new ArrayList<>();
+    private int deadlineVersion = NOT_BUILT;
+    private int deadlineSize;
+
+    private final TreeMap<Integer, ArrayList<Task>> tagGroups = new TreeMap<>();
+    private final ArrayList<Task> untagged = new ArrayList<>();
+    private int tagVersion = NOT_BUILT;
+    private int tagSize;
+
+    private int rebuildCount;
+
+    /**
+     * Tasks grouped by type, deadlines and events in time order, as shown by 'organise deadline'.
+     * The lists may be backed by the cache, so they are only valid until the task list next changes.
+     */
+    public static class ByDeadline {
+        private final List<Deadline> deadlines;
+        private final List<Event> events;
+        private final List<Task> todos;
+        private final Map<Task, Recurrence> rules;
+
+        /**
+         * Constructs a deadline view.
+         *
+         * @param deadlines the deadlines, by due time
+         * @param events the events, by start time
+         * @param todos the todos, in list order
+         * @param rules the rule each shown occurrence of a repeating task belongs to
+         */
+        private ByDeadline(List<Deadline> deadlines, List<Event> events, List<Task> todos,
+                Map<Task, Recurrence> rules) {
+            this.deadlines = deadlines;
+            this.events = events;
+            this.todos = todos;
+            this.rules = rules;
+        }
+
+        /**
+         * Returns the deadlines, earliest due first.
+         *
+         * @return the deadlines
+         */
+        public List<Deadline> getDeadlines() {
+            return deadlines;
+        }
+
+        /**
+         * Returns the events, earliest start first.
+         *
+         * @return the events
+         */
+        public List<Event> getEvents() {
+            return events;
+        }
+
+        /**
+         * Returns the todos, in list order.
+         *
+         * @return the todos
+         */
+        public List<Task> getTodos() {
+            return todos;
+        }
+
+        /**
+         * Returns the recurrence a shown task is the next occurrence of.
+         *
+         * @param task a task from this view
+         * @return the recurrence, or null if the task does not repeat
+         */
+        public Recurrence ruleOf(Task task) {
+            return rules.get(task);
+        }
+    }
+
+    /**
+     * Tasks grouped by tag, as shown by 'organise tag'. A task with several tags is in each of their groups.
+     * The groups are backed by the cache, so they are only valid until the task list next changes.
+     */
+    public static class ByTag {
+        private final Map<Integer, List<Task>> groups;
+        private final List<Task> untagged;
+
+        /**
+         * Constructs a tag view.
+         *
+         * @param groups the tasks with each tag id, in list order
+         * @param untagged the tasks without tags, in list order
+         */
+        private ByTag(Map<Integer, List<Task>> groups, List<Task> untagged) {
+            this.groups = groups;
+            this.untagged = untagged;
+        }
+
+        /**
+         * Returns the tasks with each tag, by tag id.
+         *
+         * @return the groups
+         */
+        public Map<Integer, List<Task>> getGroups() {
+            return groups;
+        }
+
+        /**
+         * Returns the tasks without tags.
+         *
+         * @return the untagged tasks
+         */
+        public List<Task> getUntagged() {
+            return untagged;
+        }
+    }
+
+    /**
+     * Constructs the cache for a task list. The list reports its changes to the cache itself.
+     *
+     * @param taskList the list the views are of
+     */
+    OrganisedViews(TaskList taskList) {
+        this.taskList = taskList;
+    }
+
+    /**
+     * Returns the tasks grouped by type and sorted by time. Each repeating task is shown once,
+     * at its next pending occurrence.
+     *
+     * @param now the time to find the next occurrences from
+     * @return the view
+     */
+    public ByDeadline byDeadline(LocalDateTime now) {
+        if (deadlineVersion != taskList.getModCount()) {
+            rebuildDeadlines();
+        }
+        if (rules.isEmpty()) {
+            return new ByDeadline(Collections.unmodifiableList(deadlines), Collections.unmodifiableList(events),
+                    Collections.unmodifiableList(todos), Map.of());
+        }
+        ArrayList<Deadline> allDeadlines = new ArrayList<>(deadlines);
+        ArrayList<Event> allEvents = new ArrayList<>(events);
+        IdentityHashMap<Task, Recurrence> ruleOf = new IdentityHashMap<>();
+        for (Task rule : rules) {
+            Task occurrence = TaskList.nextOccurrenceOf(rule, now);
+            ruleOf.put(occurrence, rule.getRecurrence());
+            if (occurrence instanceof Deadline) {
+                insertSorted(allDeadlines, (Deadline) occurrence, Deadline::byEpochMinute);
+            } else {
+                insertSorted(allEvents, (Event) occurrence, Event::fromEpochMinute);
+            }
+        }
+        return new ByDeadline(allDeadlines, allEvents, Collections.unmodifiableList(todos), ruleOf);
+    }
+
+    /**
+     * Returns the tasks grouped by tag, groups in tag id order.
+     *
+     * @return the view
+     */
+    public ByTag byTag() {
+        if (tagVersion != taskList.getModCount()) {
+            rebuildTags();
+        }
+        return new ByTag(Collections.unmodifiableMap(tagGroups), Collections.unmodifiableList(untagged));
+    }
+
+    /**
+     * Patches each built view with the changes, if it was current just before them.
+     *
+     * @param changes the changes made, in the order they happened
+     */
+    @Override
+    public void onTasksChanged(List<TaskListChange> changes) {
+        int after = taskList.getModCount();
+        int before = after - changes.size();
+        if (deadlineVersion == before) {
+            deadlineVersion = patchDeadlines(changes) ? after : NOT_BUILT;
+        }
+        if (tagVersion == before) {
+            tagVersion = patchTags(changes) ? after : NOT_BUILT;
+        }
+    }
+
+    /**
+     * Returns how many times a view has been built from scratch.
+     *
+     * @return the number of rebuilds
+     */
+    int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Rebuilds the deadline view from every task in the list.
+     */
+    private void rebuildDeadlines() {
+        deadlines.clear();
+        events.clear();
+        todos.clear();
+        rules.clear();
+        for (Task task : taskList.getTaskList()) {
+            if (task.isRecurring()) {
+                rules.add(task);
+            } else if (task instanceof Deadline) {
+                deadlines.add((Deadline) task);
+            } else if (task instanceof Event) {
+                events.add((Event) task);
+            } else {
+                todos.add(task);
+            }
+        }
+        deadlines.sort(Comparator.comparingLong(Deadline::byEpochMinute));
+        events.sort(Comparator.comparingLong(Event::fromEpochMinute));
+        deadlineVersion = taskList.getModCount();
+        deadlineSize = taskList.size();
+        rebuildCount++;
+    }
+
+    /**
+     * Rebuilds the tag view from every task in the list.
+     */
+    private void rebuildTags() {
+        tagGroups.clear();
+        untagged.clear();
+        for (Task task : taskList.getTaskList()) {
+            addToTagGroups(task);
+        }
+        tagVersion = taskList.getModCount();
+        tagSize = taskList.size();
+        rebuildCount++;
+    }
+
+    /**
+     * Applies changes to the deadline view.
+     *
+     * @param changes the changes
+     * @return true if every change could be patched in, false if the view must be rebuilt
+     */
+    private boolean patchDeadlines(List<TaskListChange> changes) {
+        for (TaskListChange change : changes) {
+            Task task = change.getTask();
+            switch (change.getKind()) {
+            case ADDED:
+                if (change.getIndex() != deadlineSize) {
+                    return false;
+                }
+                addToDeadlines(task);
+                deadlineSize++;
+                break;
+            case REMOVED:
+                removeFromDeadlines(task);
+                deadlineSize--;
+                break;
+            case CLEARED:
+                deadlines.clear();
+                events.clear();
+                todos.clear();
+                rules.clear();
+                deadlineSize = 0;
+                break;
+            default:
+                // Status and tags don't move a task in this view
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies changes to the tag view.
+     *
+     * @param changes the changes
+     * @return true if every change could be patched in, false if the view must be rebuilt
+     */
+    private boolean patchTags(List<TaskListChange> changes) {
+        for (TaskListChange change : changes) {
+            Task task = change.getTask();
+            switch (change.getKind()) {
+            case ADDED:
+                if (change.getIndex() != tagSize) {
+                    return false;
+                }
+                addToTagGroups(task);
+                tagSize++;
+                break;
+            case REMOVED:
+                removeFromTagGroups(task);
+                tagSize--;
+                break;
+            case CLEARED:
+                tagGroups.clear();
+                untagged.clear();
+                tagSize = 0;
+                break;
+            case TAG_CHANGED:
+                // Finding the task's place in its new groups would need its list position; rebuild instead
+                return false;
+            default:
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a task appended to the list to the deadline view.
+     *
+     * @param task the task
+     */
+    private void addToDeadlines(Task task) {
+        if (task.isRecurring()) {
+            rules.add(task);
+        } else if (task instanceof Deadline) {
+            insertSorted(deadlines, (Deadline) task, Deadline::byEpochMinute);
+        } else if (task instanceof Event) {
+            insertSorted(events, (Event) task, Event::fromEpochMinute);
+        } else {
+            todos.add(task);
+        }
+    }
+
+    /**
+     * Removes a task from the deadline view.
+     *
+     * @param task the task
+     */
+    private void removeFromDeadlines(Task task) {
+        if (task.isRecurring()) {
+            removeSame(rules, task, 0);
+        } else if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            int from = search(deadlines, deadline.byEpochMinute(), Deadline::byEpochMinute, false);
+            removeSame(deadlines, deadline, from);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            int from = search(events, event.fromEpochMinute(), Event::fromEpochMinute, false);
+            removeSame(events, event, from);
+        } else {
+            removeSame(todos, task, 0);
+        }
+    }
+
+    /**
+     * Adds a task appended to the list to the group of each of its tags, or to the untagged tasks.
+     *
+     * @param task the task
+     */
+    private void addToTagGroups(Task task) {
+        int[] tagIds = task.getTagIds();
+        if (tagIds.length == 0) {
+            untagged.add(task);
+        }
+        for (int tagId : tagIds) {
+            tagGroups.computeIfAbsent(tagId, k -> new ArrayList<>()).add(task);
+        }
+    }
+
+    /**
+     * Removes a task from the group of each of its tags, or from the untagged tasks.
+     *
+     * @param task the task
+     */
+    private void removeFromTagGroups(Task task) {
+        int[] tagIds = task.getTagIds();
+        if (tagIds.length == 0) {
+            removeSame(untagged, task, 0);
+        }
+        for (int tagId : tagIds) {
+            ArrayList<Task> group = tagGroups.get(tagId);
+            if (group != null) {
+                removeSame(group, task, 0);
+                if (group.isEmpty()) {
+                    tagGroups.remove(tagId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts a task into a list sorted by a time key, after any tasks with the same time.
+     * This keeps ties in list order, since the task was appended to the list.
+     *
+     * @param list the sorted list
+     * @param task the task to insert
+     * @param key the time of a task
+     * @param <T> the task type
+     */
+    private static <T> void insertSorted(ArrayList<T> list, T task, ToLongFunction<? super T> key) {
+        list.add(search(list, key.applyAsLong(task), key, true), task);
+    }
+
+    /**
+     * Finds a position in a list sorted by a time key.
+     *
+     * @param list the sorted list
+     * @param value the time to look for
+     * @param key the time of a task
+     * @param isAfterEqual true for the position after every task at that time, false for the first of them
+     * @param <T> the task type
+     * @return the position
+     */
+    private static <T> int search(List<T> list, long value, ToLongFunction<? super T> key, boolean isAfterEqual) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long midValue = key.applyAsLong(list.get(mid));
+            if (midValue < value || (isAfterEqual && midValue == value)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Removes the given task object from a list, looking from a position onwards.
+     *
+     * @param list the list
+     * @param task the task to remove
+     * @param from the position to start looking at
+     * @param <T> the task type
+     */
+    private static <T> void removeSame(ArrayList<T> list, T task, int from) {
+        for (int i = from; i < list.size(); i++) {
+            if (list.get(i) == task) {
+                list.remove(i);
+                return;
+            }
+        }
+    }
+}
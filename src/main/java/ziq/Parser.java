@@ -1,33 +1,58 @@
 package ziq;
 
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Parses and executes user commands.
- * Handles all command types: todo, deadline, event, mark, unmark, delete, list, find, schedule, bye.
+ * Handles all command types: todo, deadline, event, mark, unmark, delete, list, find, schedule, next, overdue,
+ * stats, clashes, free, run, bye.
+ * Each command is registered in a {@link CommandRegistry} under its name and looked up by the first word of the input.
+ * Several commands can be given on one line, separated by ';'; they run as one unit that is saved once.
  */
 public class Parser {
 
     public static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
-    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy HHmm");
-    private static final DateTimeFormatter DEADLINE_INPUT_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy HHmm");
-    private static final DateTimeFormatter DATE_ONLY_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy");
-    private static final int COMMAND_TODO_PREFIX_LENGTH = 5;
-    private static final int COMMAND_DEADLINE_PREFIX_LENGTH = 9;
-    private static final int COMMAND_EVENT_PREFIX_LENGTH = 6;
-    private static final int COMMAND_DELETE_PREFIX_LENGTH = 7;
-    private static final int COMMAND_FIND_PREFIX_LENGTH = 5;
-    private static final int COMMAND_SCHEDULE_PREFIX_LENGTH = 9;
-    private static final int COMMAND_TAG_PREFIX_LENGTH = 4;
-    private static final int COMMAND_ORGANISE_PREFIX_LENGTH = 9;
+    private static final int DEFAULT_NEXT_COUNT = 5;
+    private static final int MINUTES_PER_HOUR = 60;
     private static final int DISPLAY_INDEX_OFFSET = 1;
+    private static final String EVERY_MARKER = " /every ";
+    private static final String UNTIL_MARKER = " /until ";
+    private static final String ON_MARKER = " /on ";
+    private static final String FILTER_PREFIX = "filter ";
+    private static final String CHECKPOINT_MARKER = " /checkpoint ";
+    private static final String COMMAND_SEPARATOR = ";";
+    private static final String LIST_SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "-";
+    private static final String WHERE_PREFIX = "where ";
+    private static final String FUZZY_PREFIX = "~";
+    private static final String DISTANCE_MARKER = " /distance ";
+    private static final int SHORT_TERM_LENGTH = 4;
+    private static final int MAX_FUZZY_DISTANCE = 3;
+    private static final CommandRegistry COMMANDS = createCommands();
+
+    /**
+     * A command that never exits the application.
+     */
+    @FunctionalInterface
+    private interface Action {
+        /**
+         * Runs the command.
+         *
+         * @param arguments the text after the command name
+         * @param tasks the task list to work on
+         * @param ui the UI handler for output
+         * @param storage the storage handler for saving tasks
+         * @throws ZiqException if the command cannot be carried out
+         */
+        void run(String arguments, TaskList tasks, Ui ui, Storage storage) throws ZiqException;
+    }
 
     /**
      * Parses and executes a user command.
@@ -48,73 +73,223 @@ public class Parser {
         if (trimmedInput.isEmpty()) {
             throw new ZiqException("command me now. enter 'help' for a list of commands.");
         }
-        // Normalize whitespace: replace multiple spaces/tabs with single space
-        String normalized = trimmedInput.replaceAll("\\s+", " ");
+        List<String> pipeline = splitPipeline(trimmedInput);
+        if (pipeline != null) {
+            return executePipeline(pipeline, tasks, ui, storage);
+        }
+        return COMMANDS.dispatch(normalize(trimmedInput), tasks, ui, storage);
+    }
+
+    /**
+     * Normalizes whitespace: replaces runs of spaces and tabs with a single space.
+     *
+     * @param command the trimmed command
+     * @return the command with single spaces between words
+     */
+    private static String normalize(String command) {
+        return command.replaceAll("\\s+", " ");
+    }
 
-        if (normalized.equalsIgnoreCase("bye")) {
-            return true;
+    /**
+     * Splits a line into the commands separated by ';' in it.
+     * The line only counts as several commands if every part starts with a command name, so a description
+     * that happens to contain ';' (e.g. "todo buy eggs; milk") is still one command.
+     *
+     * @param input the trimmed input
+     * @return the commands, trimmed, or null if the line is a single command
+     */
+    private static List<String> splitPipeline(String input) {
+        if (!input.contains(COMMAND_SEPARATOR)) {
+            return null;
         }
+        ArrayList<String> commands = new ArrayList<>();
+        for (String part : input.split(COMMAND_SEPARATOR)) {
+            String command = part.trim();
+            if (command.isEmpty()) {
+                continue;
+            }
+            int space = command.indexOf(' ');
+            if (!COMMANDS.contains(space < 0 ? command : command.substring(0, space))) {
+                return null;
+            }
+            commands.add(command);
+        }
+        return commands.size() < 2 ? null : commands;
+    }
 
-        if (normalized.equalsIgnoreCase("list")) {
-            printTaskList(tasks, ui);
-        } else if (normalized.equalsIgnoreCase("clear")) {
-            handleClear(tasks, ui, storage);
-        } else if (normalized.equalsIgnoreCase("mark") || normalized.startsWith("mark ")) {
-            handleMark(normalized, tasks, ui, storage, true);
-        } else if (normalized.equalsIgnoreCase("unmark") || normalized.startsWith("unmark ")) {
-            handleMark(normalized, tasks, ui, storage, false);
-        } else if (normalized.equalsIgnoreCase("todo") || normalized.startsWith("todo ")) {
-            handleTodo(normalized, tasks, ui, storage);
-        } else if (normalized.equalsIgnoreCase("deadline") || normalized.startsWith("deadline ")) {
-            handleDeadline(normalized, tasks, ui, storage);
-        } else if (normalized.equalsIgnoreCase("event") || normalized.startsWith("event ")) {
-            handleEvent(normalized, tasks, ui, storage);
-        } else if (normalized.equalsIgnoreCase("delete") || normalized.startsWith("delete ")) {
-            handleDelete(normalized, tasks, ui, storage);
-        } else if (normalized.equalsIgnoreCase("find") || normalized.startsWith("find ")) {
-            handleFind(normalized, tasks, ui);
-        } else if (normalized.equalsIgnoreCase("schedule") || normalized.startsWith("schedule ")) {
-            handleSchedule(normalized, tasks, ui);
-        } else if (normalized.equalsIgnoreCase("tag") || normalized.startsWith("tag ")) {
-            handleTag(normalized, tasks, ui, storage);
-        } else if (normalized.equalsIgnoreCase("organise") || normalized.startsWith("organise ")) {
-            handleOrganise(normalized, tasks, ui);
-        } else if (normalized.toLowerCase().startsWith("help")) {
-            getHelp(ui);
-        } else {
-            throw new ZiqException("Unknown command. Enter 'help' for a list of commands.");
+    /**
+     * Runs several commands in order as one unit. The replies are printed together, and tasks are saved once
+     * at the end. If any command fails, the ones before it are undone and only the error is reported.
+     *
+     * @param commands the commands, trimmed
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @return true if one of the commands is "bye" (exit), false otherwise
+     * @throws ZiqException if a command fails or the changes cannot be saved
+     */
+    private static boolean executePipeline(List<String> commands, TaskList tasks, Ui ui, Storage storage)
+            throws ZiqException {
+        List<ResponseLine> output = ui.getResponseBuffer();
+        ArrayList<ResponseLine> replies = new ArrayList<>();
+        // Only the outermost batch writes the file; inside a script the script's batch does
+        boolean ownsBatch = !storage.isBatching();
+        boolean isExit = false;
+        int position = 0;
+        ui.setResponseBuffer(replies);
+        if (ownsBatch) {
+            storage.beginBatch(ScriptRunner.NO_CHECKPOINTS);
+        }
+        // A script's checkpoint must not write this line's changes before they are known to stick
+        storage.holdCheckpoints();
+        boolean isCommitted = false;
+        tasks.beginBatch();
+        tasks.beginTransaction();
+        try {
+            while (!isExit && position < commands.size()) {
+                isExit = COMMANDS.dispatch(normalize(commands.get(position)), tasks, ui, storage);
+                position++;
+            }
+            if (ownsBatch) {
+                ownsBatch = false;
+                storage.commitBatch();
+            }
+            isCommitted = true;
+        } catch (ZiqException e) {
+            String failed = position < commands.size() ? "'" + commands.get(position) + "'" : "saving";
+            throw new ZiqException(failed + " failed, so nothing on this line was done: " + e.getMessage());
+        } finally {
+            if (isCommitted) {
+                tasks.commitTransaction();
+            } else {
+                tasks.rollbackTransaction();
+            }
+            storage.releaseCheckpoints();
+            if (ownsBatch) {
+                storage.abortBatch();
+            }
+            tasks.endBatch();
+            ui.setResponseBuffer(output);
         }
+        for (ResponseLine reply : replies) {
+            ui.print(reply);
+        }
+        return isExit;
+    }
+
+    /**
+     * Returns the registry of every command Parser understands. New commands can be added to it.
+     *
+     * @return the shared command registry
+     */
+    public static CommandRegistry getCommands() {
+        return COMMANDS;
+    }
 
-        return false;
+    /**
+     * Creates the registry of built-in commands.
+     *
+     * @return the registry
+     */
+    private static CommandRegistry createCommands() {
+        CommandRegistry commands = new CommandRegistry();
+        commands.register("bye", false, (arguments, tasks, ui, storage) -> true);
+        register(commands, "list", false, (arguments, tasks, ui, storage) -> printTaskList(tasks, ui));
+        register(commands, "clear", false, (arguments, tasks, ui, storage) -> handleClear(tasks, ui, storage));
+        register(commands, "mark", true, (arguments, tasks, ui, storage) ->
+                handleMark(arguments, tasks, ui, storage, true));
+        register(commands, "unmark", true, (arguments, tasks, ui, storage) ->
+                handleMark(arguments, tasks, ui, storage, false));
+        register(commands, "todo", true, Parser::handleTodo);
+        register(commands, "deadline", true, Parser::handleDeadline);
+        register(commands, "event", true, Parser::handleEvent);
+        register(commands, "delete", true, Parser::handleDelete);
+        register(commands, "find", true, (arguments, tasks, ui, storage) -> handleFind(arguments, tasks, ui));
+        register(commands, "filter", true, (arguments, tasks, ui, storage) -> handleFilter(arguments, tasks, ui));
+        register(commands, "explain", true, (arguments, tasks, ui, storage) -> handleExplain(arguments, tasks, ui));
+        register(commands, "schedule", true, (arguments, tasks, ui, storage) ->
+                handleSchedule(arguments, tasks, ui));
+        register(commands, "tag", true, Parser::handleTag);
+        register(commands, "untag", true, Parser::handleUntag);
+        register(commands, "organise", true, (arguments, tasks, ui, storage) ->
+                handleOrganise(arguments, tasks, ui));
+        register(commands, "next", true, (arguments, tasks, ui, storage) -> handleNext(arguments, tasks, ui));
+        register(commands, "overdue", false, (arguments, tasks, ui, storage) -> handleOverdue(tasks, ui));
+        register(commands, "stats", false, (arguments, tasks, ui, storage) -> printStats(tasks, ui));
+        register(commands, "clashes", false, (arguments, tasks, ui, storage) -> printClashes(tasks, ui));
+        register(commands, "free", true, (arguments, tasks, ui, storage) -> handleFree(arguments, tasks, ui));
+        commands.register("run", true, Parser::handleRun);
+        register(commands, "help", true, (arguments, tasks, ui, storage) -> getHelp(ui));
+        return commands;
+    }
+
+    /**
+     * Registers a command that never exits the application.
+     *
+     * @param commands the registry to add to
+     * @param name the word that invokes the command
+     * @param takesArguments true if text may follow the name
+     * @param action the command to run
+     */
+    private static void register(CommandRegistry commands, String name, boolean takesArguments, Action action) {
+        commands.register(name, takesArguments, (arguments, tasks, ui, storage) -> {
+            action.run(arguments, tasks, ui, storage);
+            return false;
+        });
     }
 
     /**
      * Handles mark and unmark commands.
      *
-     * @param input the user's input command
+     * @param arguments the task number, optionally followed by /on DDMMYYYY
      * @param tasks the task list to modify
      * @param ui the UI handler for output
      * @param storage the storage handler for saving tasks
      * @param isMark true to mark as done, false to unmark
      * @throws ZiqException if the task index is invalid
      */
-    private static void handleMark(String input, TaskList tasks, Ui ui, Storage storage, boolean isMark)
+    private static void handleMark(String arguments, TaskList tasks, Ui ui, Storage storage, boolean isMark)
             throws ZiqException {
-        String cmd = isMark ? "mark" : "unmark";
-        String[] parts = input.split(" ", 2);
-        if (parts.length < 2 || parts[1].trim().isEmpty()) {
+        if (arguments.isEmpty()) {
             throw new ZiqException("task number is missing."
                     + " enter 'list' to see task numbers.");
         }
+        if (isWhereClause(arguments)) {
+            int[] indexes = findWhere(arguments.substring(WHERE_PREFIX.length()), tasks);
+            if (indexes.length == 0) {
+                ui.printLine("no tasks match that condition!");
+                return;
+            }
+            markAllAndSave(indexes, tasks, ui, storage, isMark);
+            return;
+        }
+        String argument = " " + arguments;
+        String occurrenceDate = null;
+        if (argument.contains(ON_MARKER)) {
+            String[] onParts = argument.split(ON_MARKER, 2);
+            argument = onParts[0];
+            occurrenceDate = onParts[1].trim();
+        }
+        if (isTaskNumberList(argument.trim())) {
+            if (occurrenceDate != null) {
+                throw new ZiqException("/on only works with a single task number. e.g. mark 2 /on 22022022");
+            }
+            markAllAndSave(parseTaskNumbers(argument.trim(), tasks.size()), tasks, ui, storage, isMark);
+            return;
+        }
         try {
-            int taskNumber = Integer.parseInt(parts[1].trim());
+            int taskNumber = Integer.parseInt(argument.trim());
             int index = taskNumber - DISPLAY_INDEX_OFFSET;
             if (index < 0 || taskNumber < 1) {
                 throw new ZiqException("task number must be at least 1."
                         + " enter 'list' to see task numbers.");
             }
+            if (occurrenceDate != null) {
+                markOccurrenceAndSave(index, occurrenceDate, tasks, ui, storage, isMark);
+                return;
+            }
             Task task = tasks.get(index);
-            boolean previousStatus = task.getStatus().equals("✅");
+            boolean previousStatus = task.isDone();
             boolean alreadyInDesiredState = (isMark && previousStatus) || (!isMark && !previousStatus);
 
             if (alreadyInDesiredState) {
@@ -123,29 +298,29 @@ public class Parser {
                 } else {
                     ui.printLine("this task has been unmarked!");
                 }
-                ui.printLine("  " + task);
+                ui.printTask("  ", task);
                 return;
             }
 
             if (isMark) {
-                task.markAsDone();
+                tasks.markAsDone(index);
             } else {
-                task.unmark();
+                tasks.unmark(index);
             }
             try {
                 storage.save(tasks.getTaskList());
                 if (isMark) {
-                    ui.printLine("task marked as done:");
+                    ui.printHeader("task marked as done:");
                 } else {
-                    ui.printLine("task marked as not done:");
+                    ui.printHeader("task marked as not done:");
                 }
-                ui.printLine("  " + task);
+                ui.printTask("  ", task);
             } catch (ZiqException e) {
                 // Rollback: restore previous status if save failed
                 if (previousStatus) {
-                    task.markAsDone();
+                    tasks.markAsDone(index);
                 } else {
-                    task.unmark();
+                    tasks.unmark(index);
                 }
                 throw new ZiqException("Task status was changed but could not be saved: " + e.getMessage());
             }
@@ -158,20 +333,223 @@ public class Parser {
         }
     }
 
+    /**
+     * Marks or unmarks several tasks and saves once. If the save fails, every task keeps its old status.
+     * Only the tasks whose status changed are reported.
+     *
+     * @param indexes the indexes of the tasks (0-based), in increasing order
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @param isMark true to mark as done, false to unmark
+     * @throws ZiqException if the save fails
+     */
+    private static void markAllAndSave(int[] indexes, TaskList tasks, Ui ui, Storage storage, boolean isMark)
+            throws ZiqException {
+        ArrayList<Task> changed = new ArrayList<>();
+        for (int index : indexes) {
+            if (tasks.get(index).isDone() != isMark) {
+                changed.add(tasks.get(index));
+            }
+        }
+        if (changed.isEmpty()) {
+            ui.printLine(isMark ? "those tasks have been marked!" : "those tasks have been unmarked!");
+            return;
+        }
+        tasks.beginBatch();
+        tasks.beginTransaction();
+        try {
+            for (int index : indexes) {
+                if (isMark) {
+                    tasks.markAsDone(index);
+                } else {
+                    tasks.unmark(index);
+                }
+            }
+            saveTransaction(tasks, storage, "task status was changed");
+        } finally {
+            tasks.endBatch();
+        }
+        ui.printHeader(changed.size() + (isMark ? " task(s) marked as done:" : " task(s) marked as not done:"));
+        printTasks(changed, ui);
+    }
+
+    /**
+     * Saves the task list and commits the current transaction, or rolls the transaction back if the save fails.
+     *
+     * @param tasks the task list with a transaction in progress
+     * @param storage the storage handler for saving tasks
+     * @param change what was changed, for the error message (e.g. "tasks were deleted")
+     * @throws ZiqException if the save fails
+     */
+    private static void saveTransaction(TaskList tasks, Storage storage, String change) throws ZiqException {
+        try {
+            storage.save(tasks.getTaskList());
+        } catch (ZiqException e) {
+            tasks.rollbackTransaction();
+            throw new ZiqException(change + " but could not be saved: " + e.getMessage());
+        }
+        tasks.commitTransaction();
+    }
+
+    /**
+     * Prints tasks, each on its own indented line.
+     *
+     * @param changed the tasks to print
+     * @param ui the UI handler for output
+     */
+    private static void printTasks(List<Task> changed, Ui ui) {
+        for (Task task : changed) {
+            ui.printTask("  ", task);
+        }
+    }
+
+    /**
+     * Returns true if the arguments of a bulk command select tasks by a condition (e.g. "where done").
+     *
+     * @param arguments the text after the command name
+     * @return true if the arguments start with "where"
+     */
+    private static boolean isWhereClause(String arguments) {
+        return arguments.startsWith(WHERE_PREFIX);
+    }
+
+    /**
+     * Finds the tasks matching the filter query in a "where" clause, using the same indexes as the filter command.
+     *
+     * @param queryText the query after "where"
+     * @param tasks the task list to search
+     * @return the indexes (0-based) of the matching tasks, in increasing order
+     * @throws ZiqException if the query is missing, has no real condition, or is invalid
+     */
+    private static int[] findWhere(String queryText, TaskList tasks) throws ZiqException {
+        // Every real condition has a letter or digit; anything else could select the whole list
+        if (FilterCondition.words(queryText).isEmpty()) {
+            throw new ZiqException("where needs a condition. e.g. delete where done or mark where tag:work");
+        }
+        return tasks.findIndexes(FilterQuery.parse(queryText));
+    }
+
+    /**
+     * Returns true if a task number argument names several tasks, as a list (3,5) or a range (9-20).
+     * A leading '-' is not a range, so "-1" is still reported as a number below 1.
+     *
+     * @param text the argument
+     * @return true if the argument is a list or range of task numbers
+     */
+    private static boolean isTaskNumberList(String text) {
+        return text.contains(LIST_SEPARATOR) || text.indexOf(RANGE_SEPARATOR, 1) > 0;
+    }
+
+    /**
+     * Parses task numbers written as a comma-separated list of numbers and ranges (e.g. "3,5,9-20").
+     *
+     * @param text the task numbers as typed
+     * @param size the number of tasks in the list
+     * @return the indexes (0-based) of the tasks named, in increasing order without repeats
+     * @throws ZiqException if a part is not a number or range, or names a task that does not exist
+     */
+    private static int[] parseTaskNumbers(String text, int size) throws ZiqException {
+        BitSet selected = new BitSet(size);
+        for (String part : text.split(LIST_SEPARATOR, -1)) {
+            String[] bounds = part.trim().split(RANGE_SEPARATOR, -1);
+            if (bounds.length > 2) {
+                throw new ZiqException("'" + part + "' is not a task number or range. e.g. 3,5,9-20");
+            }
+            int first;
+            int last;
+            try {
+                first = Integer.parseInt(bounds[0].trim());
+                last = bounds.length == 2 ? Integer.parseInt(bounds[1].trim()) : first;
+            } catch (NumberFormatException e) {
+                throw new ZiqException("'" + part + "' is not a task number or range. e.g. 3,5,9-20");
+            }
+            if (first < 1 || last > size || first > last) {
+                throw new ZiqException("'" + part.trim() + "' is not in your list. you have " + size
+                        + " task(s); enter 'list' to see task numbers.");
+            }
+            selected.set(first - DISPLAY_INDEX_OFFSET, last);
+        }
+        return selected.stream().toArray();
+    }
+
+    /**
+     * Marks or unmarks a single occurrence of a recurring task and saves the change.
+     *
+     * @param index the index of the recurring task (0-based)
+     * @param dateStr the date of the occurrence, as DDMMYYYY
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @param isMark true to mark the occurrence done, false to unmark it
+     * @throws ZiqException if the date is invalid, the task does not repeat or the save fails
+     */
+    private static void markOccurrenceAndSave(int index, String dateStr, TaskList tasks, Ui ui, Storage storage,
+            boolean isMark) throws ZiqException {
+        LocalDate date = EpochMinutes.toDate(InputDates.parseDate(dateStr));
+        if (date == null) {
+            throw new ZiqException("invalid date for /on. use DDMMYYYY (e.g. mark 2 /on 22022022).");
+        }
+        Task occurrence = tasks.markOccurrence(index, date, isMark);
+        try {
+            storage.save(tasks.getTaskList());
+        } catch (ZiqException e) {
+            tasks.markOccurrence(index, date, !isMark);
+            throw new ZiqException("Task status was changed but could not be saved: " + e.getMessage());
+        }
+        ui.printHeader(isMark ? "occurrence marked as done:" : "occurrence marked as not done:");
+        ui.printTask("  ", occurrence);
+    }
+
+    /**
+     * Splits an optional "/every FREQUENCY /until DDMMYYYY" suffix off a deadline or event command.
+     *
+     * @param commandBody the command without its keyword
+     * @return the body without the suffix, followed by the suffix (or null if there is none)
+     */
+    private static String[] splitRecurrence(String commandBody) {
+        int everyIndex = commandBody.indexOf(EVERY_MARKER);
+        if (everyIndex < 0) {
+            return new String[] {commandBody, null};
+        }
+        return new String[] {commandBody.substring(0, everyIndex),
+            commandBody.substring(everyIndex + EVERY_MARKER.length()).trim()};
+    }
+
+    /**
+     * Parses a recurrence written as "FREQUENCY /until DDMMYYYY" (e.g. "weekly /until 31122026").
+     *
+     * @param ruleStr the recurrence text after "/every"
+     * @param firstDate the date of the first occurrence
+     * @return the parsed recurrence
+     * @throws ZiqException if the frequency or end date is missing or invalid
+     */
+    private static Recurrence parseRecurrence(String ruleStr, LocalDate firstDate) throws ZiqException {
+        String[] ruleParts = (" " + ruleStr).split(UNTIL_MARKER, -1);
+        if (ruleParts.length != 2 || ruleParts[1].trim().isEmpty()) {
+            throw new ZiqException("repeating tasks need an end date. e.g. /every weekly /until 31122026");
+        }
+        Recurrence.Frequency frequency = Recurrence.Frequency.fromName(ruleParts[0].trim());
+        LocalDate until = EpochMinutes.toDate(InputDates.parseDate(ruleParts[1].trim()));
+        if (until == null) {
+            throw new ZiqException("invalid date for /until. use DDMMYYYY (e.g. /until 31122026).");
+        }
+        if (until.isBefore(firstDate)) {
+            throw new ZiqException("/until date cannot be before the first occurrence.");
+        }
+        return new Recurrence(frequency, until);
+    }
+
     /**
      * Handles the todo command to add a new todo task.
      *
-     * @param input the user's input command
+     * @param description the description of the todo
      * @param tasks the task list to modify
      * @param ui the UI handler for output
      * @param storage the storage handler for saving tasks
      * @throws ZiqException if the description is empty
      */
-    private static void handleTodo(String input, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
-        if (input.length() <= COMMAND_TODO_PREFIX_LENGTH) {
-            throw new ZiqException("description of task cannot be empty.");
-        }
-        String description = input.substring(COMMAND_TODO_PREFIX_LENGTH).trim();
+    private static void handleTodo(String description, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
         if (description.isEmpty()) {
             throw new ZiqException("description of task cannot be empty.");
         }
@@ -182,18 +560,20 @@ public class Parser {
     /**
      * Handles the deadline command to add a new deadline task.
      *
-     * @param input the user's input command
+     * @param arguments the description, /by date and optional repeat rule
      * @param tasks the task list to modify
      * @param ui the UI handler for output
      * @param storage the storage handler for saving tasks
      * @throws ZiqException if the format is invalid or the date cannot be parsed
      */
-    private static void handleDeadline(String input, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
-        if (!input.contains(" /by ")) {
+    private static void handleDeadline(String arguments, TaskList tasks, Ui ui, Storage storage)
+            throws ZiqException {
+        if (!arguments.contains(" /by ")) {
             throw new ZiqException("deadline must have '/by' with date. e.g."
                     + "deadline <description> /by DDMMYYYY [HHmm] (e.g. deadline submit report /by 22022022 1200)");
         }
-        String commandBody = input.substring(COMMAND_DEADLINE_PREFIX_LENGTH).trim();
+        String[] bodyAndRule = splitRecurrence(arguments);
+        String commandBody = bodyAndRule[0];
         String[] parts = commandBody.split(" /by ", -1);
         if (parts.length != 2) {
             throw new ZiqException("deadline can only one '/by'. e.g."
@@ -209,44 +589,39 @@ public class Parser {
             throw new ZiqException("deadline date cannot be empty. e.g."
                     + "deadline <description> /by DDMMYYYY [HHmm] (e.g. /by 22022022 1200)");
         }
-        try {
-            LocalDateTime deadlineTime;
-            boolean hasTime;
-            String[] dateTimeParts = dateTimeStr.split(" ", 2);
-            if (dateTimeParts.length == 2 && !dateTimeParts[1].trim().isEmpty()) {
-                // Has time component
-                deadlineTime = LocalDateTime.parse(dateTimeStr, DEADLINE_INPUT_FORMAT);
-                hasTime = true;
-            } else {
-                // Date only - set time to start of day (00:00)
-                LocalDate date = LocalDate.parse(dateTimeParts[0].trim(), DATE_ONLY_FORMAT);
-                deadlineTime = date.atTime(0, 0);
-                hasTime = false;
-            }
-            Task task = new Deadline(description, deadlineTime, hasTime);
-            addTaskAndSave(task, tasks, storage, ui);
-        } catch (DateTimeParseException e) {
+        // A date without a time is due at the start of the day (00:00)
+        boolean hasTime = dateTimeStr.indexOf(' ') >= 0;
+        LocalDateTime deadlineTime = EpochMinutes.toDateTime(hasTime
+                ? InputDates.parseDateTime(dateTimeStr)
+                : InputDates.parseDate(dateTimeStr));
+        if (deadlineTime == null) {
             throw new ZiqException("invalid date for deadline. use DDMMYYYY [HHmm]. "
                     + "(e.g. 22022022 1200 or 22022022). dates like Feb 30 are not allowed.");
         }
+        Deadline task = new Deadline(description, deadlineTime, hasTime);
+        if (bodyAndRule[1] != null) {
+            task.setRecurrence(parseRecurrence(bodyAndRule[1], deadlineTime.toLocalDate()));
+        }
+        addTaskAndSave(task, tasks, storage, ui);
     }
 
     /**
      * Handles the event command to add a new event task.
      *
-     * @param input the user's input command
+     * @param arguments the description, /from and /to times and optional repeat rule
      * @param tasks the task list to modify
      * @param ui the UI handler for output
      * @param storage the storage handler for saving tasks
      * @throws ZiqException if the format is invalid or the dates cannot be parsed
      */
-    private static void handleEvent(String input, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
-        if (!input.contains(" /from ") || !input.contains(" /to ")) {
+    private static void handleEvent(String arguments, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
+        if (!arguments.contains(" /from ") || !arguments.contains(" /to ")) {
             throw new ZiqException("event must include '/from' and '/to' with date and time. e.g."
                     + "event <description> /from DDMMYYYY HHmm /to DDMMYYYY HHmm "
                     + "(e.g. event meeting /from 22022022 1200 /to 22022022 1400)");
         }
-        String commandBody = input.substring(COMMAND_EVENT_PREFIX_LENGTH).trim();
+        String[] bodyAndRule = splitRecurrence(arguments);
+        String commandBody = bodyAndRule[0];
         String[] parts = commandBody.split(" /from | /to ", -1);
         if (parts.length != 3) {
             throw new ZiqException("event can only one '/from' and one '/to'. e.g."
@@ -263,37 +638,69 @@ public class Parser {
             throw new ZiqException("event must have both /from and /to dates. e.g."
                     + "event <description> /from DDMMYYYY HHmm /to DDMMYYYY HHmm");
         }
-        try {
-            LocalDateTime startTime = LocalDateTime.parse(fromStr, INPUT_FORMAT);
-            LocalDateTime endTime = LocalDateTime.parse(toStr, INPUT_FORMAT);
-            if (!startTime.isBefore(endTime)) {
-                throw new ZiqException("event end time must be after start time.");
-            }
-            Task task = new Event(description, startTime, endTime);
-            addTaskAndSave(task, tasks, storage, ui);
-        } catch (DateTimeParseException e) {
+        LocalDateTime startTime = EpochMinutes.toDateTime(InputDates.parseDateTime(fromStr));
+        LocalDateTime endTime = EpochMinutes.toDateTime(InputDates.parseDateTime(toStr));
+        if (startTime == null || endTime == null) {
             throw new ZiqException("invalid date for event. use DDMMYYYY HHmm. "
                     + "dates like Feb 30 are not allowed.");
         }
+        if (!startTime.isBefore(endTime)) {
+            throw new ZiqException("event end time must be after start time.");
+        }
+        Event event = new Event(description, startTime, endTime);
+        if (bodyAndRule[1] != null) {
+            event.setRecurrence(parseRecurrence(bodyAndRule[1], startTime.toLocalDate()));
+        }
+        addTaskAndSave(event, tasks, storage, ui);
+        printClashWarning(event, tasks, ui);
+    }
+
+    /**
+     * Warns the user if a newly added event overlaps events already in the list.
+     *
+     * @param event the event that was added
+     * @param tasks the task list containing the event
+     * @param ui the UI handler for output
+     */
+    private static void printClashWarning(Event event, TaskList tasks, Ui ui) {
+        ArrayList<Event> clashes = tasks.getClashesWith(event);
+        if (clashes.isEmpty()) {
+            return;
+        }
+        ui.printHeader("heads up! this event clashes with:");
+        for (Event other : clashes) {
+            ui.printTask("  ", other);
+        }
     }
 
     /**
      * Handles the delete command to remove a task.
      *
-     * @param input the user's input command
+     * @param taskNumberString the number of the task to delete
      * @param tasks the task list to modify
      * @param ui the UI handler for output
      * @param storage the storage handler for saving tasks
      * @throws ZiqException if the task index is invalid
      */
-    private static void handleDelete(String input, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
-        String taskNumberString = input.length() > COMMAND_DELETE_PREFIX_LENGTH
-                ? input.substring(COMMAND_DELETE_PREFIX_LENGTH).trim()
-                : "";
+    private static void handleDelete(String taskNumberString, TaskList tasks, Ui ui, Storage storage)
+            throws ZiqException {
         if (taskNumberString.isEmpty()) {
             throw new ZiqException("task number is missing."
                     + " enter 'list' to see task numbers.");
         }
+        if (isWhereClause(taskNumberString)) {
+            int[] indexes = findWhere(taskNumberString.substring(WHERE_PREFIX.length()), tasks);
+            if (indexes.length == 0) {
+                ui.printLine("no tasks match that condition!");
+                return;
+            }
+            deleteAllAndSave(indexes, tasks, ui, storage);
+            return;
+        }
+        if (isTaskNumberList(taskNumberString)) {
+            deleteAllAndSave(parseTaskNumbers(taskNumberString, tasks.size()), tasks, ui, storage);
+            return;
+        }
         try {
             int taskNumber = Integer.parseInt(taskNumberString);
             int index = taskNumber - DISPLAY_INDEX_OFFSET;
@@ -304,9 +711,9 @@ public class Parser {
             Task removedTask = tasks.delete(index);
             try {
                 storage.save(tasks.getTaskList());
-                ui.printLine("task removed:");
-                ui.printLine("  " + removedTask);
-                ui.printLine("now you have " + tasks.size() + " task(s) in the list.");
+                ui.printHeader("task removed:");
+                ui.printTask("  ", removedTask);
+                ui.printLine("now you have " + tasks.getStats().getTotal() + " task(s) in the list.");
             } catch (ZiqException e) {
                 // Rollback: re-add the task if save failed
                 tasks.add(removedTask);
@@ -321,148 +728,563 @@ public class Parser {
         }
     }
 
+    /**
+     * Deletes several tasks in one pass and saves once. If the save fails, the tasks are put back where they were.
+     *
+     * @param indexes the indexes of the tasks to delete (0-based), in increasing order
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @throws ZiqException if the save fails
+     */
+    private static void deleteAllAndSave(int[] indexes, TaskList tasks, Ui ui, Storage storage)
+            throws ZiqException {
+        ArrayList<Task> removed;
+        tasks.beginTransaction();
+        try {
+            removed = tasks.deleteAll(indexes);
+        } catch (ZiqException e) {
+            tasks.rollbackTransaction();
+            throw e;
+        }
+        saveTransaction(tasks, storage, "tasks were deleted");
+        ui.printHeader(removed.size() + " task(s) removed:");
+        for (Task task : removed) {
+            ui.printTask("  ", task);
+        }
+        ui.printLine("now you have " + tasks.getStats().getTotal() + " task(s) in the list.");
+    }
+
     /**
      * Handles the find command to list tasks whose description contains the given keyword.
+     * A keyword starting with "~" finds words spelt close to it instead (see {@link #handleFuzzyFind}).
      *
-     * @param input the user's input command (e.g. "find book")
+     * @param keyword the keyword to look for (e.g. "book"); if empty, every task is listed
      * @param tasks the task list to search
+     * @param ui the UI handler for output
+     * @throws ZiqException if a fuzzy search is invalid
      */
-    private static void handleFind(String input, TaskList tasks, Ui ui) {
-        if (input.length() <= COMMAND_FIND_PREFIX_LENGTH) {
+    private static void handleFind(String keyword, TaskList tasks, Ui ui) throws ZiqException {
+        if (keyword.isEmpty()) {
             printTaskList(tasks, ui);
             return;
         }
-        String keyword = input.substring(COMMAND_FIND_PREFIX_LENGTH).trim().toLowerCase();
-        printMatchingTasks(tasks, keyword, ui);
+        if (keyword.startsWith(FUZZY_PREFIX)) {
+            handleFuzzyFind(keyword.substring(FUZZY_PREFIX.length()), tasks, ui);
+            return;
+        }
+        printMatchingTasks(tasks, keyword.toLowerCase(), ui);
+    }
+
+    /**
+     * Handles "find ~TERM [/distance N]": lists tasks with a word within N edits of the term, closest first.
+     * Without /distance, short terms allow one edit and longer ones two.
+     *
+     * @param arguments the term, optionally followed by /distance N
+     * @param tasks the task list to search
+     * @param ui the UI handler for output
+     * @throws ZiqException if the term is missing or not one word, or the distance is invalid
+     */
+    private static void handleFuzzyFind(String arguments, TaskList tasks, Ui ui) throws ZiqException {
+        String term = arguments;
+        int maxDistance = -1;
+        int markerIndex = term.indexOf(DISTANCE_MARKER);
+        if (markerIndex >= 0) {
+            String distanceStr = term.substring(markerIndex + DISTANCE_MARKER.length()).trim();
+            term = term.substring(0, markerIndex);
+            try {
+                maxDistance = Integer.parseInt(distanceStr);
+            } catch (NumberFormatException e) {
+                throw new ZiqException("distance must be a number of edits. e.g. find ~recieve /distance 2");
+            }
+            if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+                throw new ZiqException("distance must be from 0 to " + MAX_FUZZY_DISTANCE
+                        + ". e.g. find ~recieve /distance 2");
+            }
+        }
+        term = term.trim();
+        if (term.isEmpty() || FilterCondition.words(term).size() != 1) {
+            throw new ZiqException("find ~ needs one word to look for. e.g. find ~recieve");
+        }
+        term = FilterCondition.words(term).get(0);
+        if (maxDistance < 0) {
+            maxDistance = term.length() <= SHORT_TERM_LENGTH ? 1 : 2;
+        }
+        ArrayList<Task> matches = tasks.findSimilar(term, maxDistance);
+        if (matches.isEmpty()) {
+            ui.printLine("no matches found!");
+            return;
+        }
+        ui.printHeader("here are the tasks closest to '" + term + "':");
+        for (int i = 0; i < matches.size(); i++) {
+            ui.printTask((i + DISPLAY_INDEX_OFFSET) + ". ", matches.get(i));
+        }
+    }
+
+    /**
+     * Handles the filter command to list the tasks matching a query.
+     *
+     * @param queryText the query (e.g. "type:D tag:work done:false")
+     * @param tasks the task list to search
+     * @param ui the UI handler for output
+     * @throws ZiqException if the query is missing or invalid
+     */
+    private static void handleFilter(String queryText, TaskList tasks, Ui ui) throws ZiqException {
+        FilterQuery query = parseQuery(queryText);
+        ArrayList<Task> matches = tasks.filter(query);
+        if (matches.isEmpty()) {
+            ui.printLine("no matches found!");
+            return;
+        }
+        ui.printHeader("here are the tasks matching your filter:");
+        for (int i = 0; i < matches.size(); i++) {
+            ui.printTask((i + DISPLAY_INDEX_OFFSET) + ". ", matches.get(i));
+        }
+    }
+
+    /**
+     * Handles the explain command to show how a filter query would be run.
+     *
+     * @param queryText the query (e.g. "tag:work before:31122026")
+     * @param tasks the task list the query would run against
+     * @param ui the UI handler for output
+     * @throws ZiqException if the query is missing or invalid
+     */
+    private static void handleExplain(String queryText, TaskList tasks, Ui ui) throws ZiqException {
+        String query = queryText;
+        // "explain filter <query>" reads naturally too
+        if (query.startsWith(FILTER_PREFIX)) {
+            query = query.substring(FILTER_PREFIX.length());
+        }
+        for (String line : tasks.plan(FilterQuery.parse(query)).explain()) {
+            ui.printLine(line);
+        }
+    }
+
+    /**
+     * Parses the query that follows a command keyword.
+     *
+     * @param queryText the query
+     * @return the parsed query
+     * @throws ZiqException if the query is missing or invalid
+     */
+    private static FilterQuery parseQuery(String queryText) throws ZiqException {
+        if (queryText.isEmpty()) {
+            throw new ZiqException("filter needs at least one condition. e.g. filter tag:work done:false");
+        }
+        return FilterQuery.parse(queryText);
     }
 
     /**
      * Handles the schedule command to view tasks on a specific date.
      * Supports partial dates: missing year/month/day defaults to current year/month/day.
      *
-     * @param input the user's input (e.g. "schedule 08022026" or "schedule 22" or "schedule 2202")
+     * @param dateStr the date (e.g. "08022026", "22" or "2202")
      * @param tasks the task list to search
      * @param ui the UI handler for output
      * @throws ZiqException if the date format is invalid
      */
-    private static void handleSchedule(String input, TaskList tasks, Ui ui) throws ZiqException {
-        if (input.length() <= COMMAND_SCHEDULE_PREFIX_LENGTH) {
-            throw new ZiqException("Schedule needs a date. Correct format: schedule DDMMYYYY "
-                    + "(e.g. schedule 22022022 or schedule 22)");
-        }
-        String dateStr = input.substring(COMMAND_SCHEDULE_PREFIX_LENGTH).trim();
+    private static void handleSchedule(String dateStr, TaskList tasks, Ui ui) throws ZiqException {
         if (dateStr.isEmpty()) {
-            throw new ZiqException("Schedule date cannot be empty. Correct format: schedule DDMMYYYY "
+            throw new ZiqException("Schedule needs a date. Correct format: schedule DDMMYYYY "
                     + "(e.g. schedule 22022022 or schedule 22)");
         }
-        try {
-            LocalDate date = parsePartialDate(dateStr);
-            ArrayList<Task> onDate = tasks.getTasksOnDate(date);
-            ui.printLine("schedule for " + date.format(DateTimeFormatter.ofPattern("MMM dd yyyy")) + ":");
-            if (onDate.isEmpty()) {
-                ui.printLine("  (no tasks on this date)");
-            } else {
-                for (int i = 0; i < onDate.size(); i++) {
-                    ui.printLine((i + DISPLAY_INDEX_OFFSET) + ". " + onDate.get(i));
-                }
-            }
-        } catch (DateTimeParseException | NumberFormatException e) {
+        LocalDate date = parsePartialDate(dateStr);
+        if (date == null) {
             throw new ZiqException("Invalid date for schedule. Use DD, DDMM, or DDMMYYYY "
                     + "(e.g. schedule 22, schedule 2202, or schedule 22022022). "
                     + "Dates like Feb 30 are not allowed.");
         }
+        ArrayList<Task> onDate = tasks.getTasksOnDate(date);
+        ui.printHeader("schedule for " + date.format(DateTimeFormatter.ofPattern("MMM dd yyyy")) + ":");
+        if (onDate.isEmpty()) {
+            ui.printLine("  (no tasks on this date)");
+        } else {
+            for (int i = 0; i < onDate.size(); i++) {
+                ui.printTask((i + DISPLAY_INDEX_OFFSET) + ". ", onDate.get(i));
+            }
+        }
+    }
+
+    /**
+     * Handles the next command to list the nearest upcoming pending deadlines and events.
+     *
+     * @param countStr how many tasks to show (e.g. "3"), or an empty string for the default
+     * @param tasks the task list to search
+     * @param ui the UI handler for output
+     * @throws ZiqException if the count is not a positive number
+     */
+    private static void handleNext(String countStr, TaskList tasks, Ui ui) throws ZiqException {
+        int count = DEFAULT_NEXT_COUNT;
+        if (!countStr.isEmpty()) {
+            try {
+                count = Integer.parseInt(countStr);
+            } catch (NumberFormatException e) {
+                throw new ZiqException("number of tasks must be a number. e.g. next 3");
+            }
+            if (count < 1) {
+                throw new ZiqException("number of tasks must be at least 1. e.g. next 3");
+            }
+        }
+        ArrayList<Task> upcoming = tasks.getUpcoming(LocalDateTime.now(), count);
+        if (upcoming.isEmpty()) {
+            ui.printLine("nothing coming up!");
+            return;
+        }
+        ui.printHeader("here is what's coming up next:");
+        for (int i = 0; i < upcoming.size(); i++) {
+            ui.printTask((i + DISPLAY_INDEX_OFFSET) + ". ", upcoming.get(i));
+        }
+    }
+
+    /**
+     * Handles the overdue command to list pending deadlines and events that are already past.
+     *
+     * @param tasks the task list to search
+     * @param ui the UI handler for output
+     */
+    private static void handleOverdue(TaskList tasks, Ui ui) {
+        ArrayList<Task> overdue = tasks.getOverdue(LocalDateTime.now());
+        if (overdue.isEmpty()) {
+            ui.printLine("nothing is overdue!");
+            return;
+        }
+        ui.printHeader("these tasks are overdue:");
+        for (int i = 0; i < overdue.size(); i++) {
+            ui.printTask((i + DISPLAY_INDEX_OFFSET) + ". ", overdue.get(i));
+        }
     }
 
     /**
-     * Handles the tag command to add a tag to a task.
+     * Handles the tag command. A plain tag replaces the task's tags; tags written as +name are added
+     * to the ones the task already has.
      *
-     * @param input the user's input command (e.g. "tag 1 meeting")
+     * @param arguments the task number and tags (e.g. "1 meeting" or "1 +work +urgent")
      * @param tasks the task list to modify
      * @param ui the UI handler for output
      * @param storage the storage handler for saving tasks
-     * @throws ZiqException if the task index is invalid
+     * @throws ZiqException if the task index or a tag is invalid
      */
-    private static void handleTag(String input, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
-        String[] parts = input.split(" ", 3);
-        if (parts.length < 3 || parts[2].trim().isEmpty()) {
+    private static void handleTag(String arguments, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
+        if (isWhereClause(arguments)) {
+            handleTagWhere(arguments.substring(WHERE_PREFIX.length()), tasks, ui, storage);
+            return;
+        }
+        String[] parts = arguments.split(" ", 2);
+        if (parts.length < 2 || parts[1].trim().isEmpty()) {
             throw new ZiqException("tag command needs task number and tag. e.g."
-                    + "(e.g. tag 1 meeting)");
+                    + "(e.g. tag 1 meeting or tag 1 +work +urgent)");
+        }
+        String tagText = parts[1].trim();
+        List<String> addedTags = tagText.startsWith("+") ? parseTagList(tagText) : null;
+        if (addedTags == null) {
+            checkTagName(tagText);
         }
+        if (isTaskNumberList(parts[0])) {
+            tagAllAndSave(parseTaskNumbers(parts[0], tasks.size()), tagText, addedTags, tasks, ui, storage);
+            return;
+        }
+        int index = parseTaskIndex(parts[0]);
         try {
-            int taskNumber = Integer.parseInt(parts[1].trim());
-            int index = taskNumber - DISPLAY_INDEX_OFFSET;
-            if (index < 0 || taskNumber < 1) {
-                throw new ZiqException("task number must be at least 1. e.g."
-                        + " enter 'list' to see task numbers.");
-            }
-            Task task = tasks.get(index);
-            String tag = parts[2].trim();
-            task.setTag(tag);
+            List<String> previousTags = tasks.get(index).getTags();
+            Task task = addedTags != null ? tasks.addTags(index, addedTags) : tasks.setTag(index, tagText);
             try {
                 storage.save(tasks.getTaskList());
-                ui.printLine("tag added to task:");
-                ui.printLine("  " + task);
+                ui.printHeader("tag added to task:");
+                ui.printTask("  ", task);
             } catch (ZiqException e) {
-                // Rollback: remove tag if save failed
-                task.setTag(null);
+                // Rollback: restore previous tags if save failed
+                tasks.setTags(index, previousTags);
                 throw new ZiqException("tag was added but could not be saved: " + e.getMessage());
             }
         } catch (IndexOutOfBoundsException e) {
             throw new ZiqException("invalid task number. e.g."
                     + " enter 'list' to see task numbers.");
+        }
+    }
+
+    /**
+     * Tags several tasks and saves once. If the save fails, every task keeps its old tags.
+     * Only the tasks whose tags changed are reported.
+     *
+     * @param indexes the indexes of the tasks (0-based), in increasing order
+     * @param tag the tag that replaces each task's tags, used when addedTags is null
+     * @param addedTags the tags to add to each task, or null to replace the tags with tag
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @throws ZiqException if the save fails
+     */
+    private static void tagAllAndSave(int[] indexes, String tag, List<String> addedTags, TaskList tasks, Ui ui,
+            Storage storage) throws ZiqException {
+        ArrayList<Task> changed = new ArrayList<>();
+        tasks.beginBatch();
+        tasks.beginTransaction();
+        try {
+            for (int index : indexes) {
+                List<String> previousTags = tasks.get(index).getTags();
+                Task task = addedTags != null ? tasks.addTags(index, addedTags) : tasks.setTag(index, tag);
+                if (!previousTags.equals(task.getTags())) {
+                    changed.add(task);
+                }
+            }
+            if (changed.isEmpty()) {
+                tasks.commitTransaction();
+            } else {
+                saveTransaction(tasks, storage, "tags were added");
+            }
+        } finally {
+            tasks.endBatch();
+        }
+        if (changed.isEmpty()) {
+            ui.printLine("those tasks already have that tag!");
+            return;
+        }
+        ui.printHeader("tag added to " + changed.size() + " task(s):");
+        printTasks(changed, ui);
+    }
+
+    /**
+     * Handles "tag where QUERY TAG": tags every task matching a filter query.
+     * The tags are the last word, or the trailing +tags (e.g. "tag where \"invoice\" +finance +q3").
+     *
+     * @param arguments the query followed by the tags
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @throws ZiqException if the query or a tag is missing or invalid, or the save fails
+     */
+    private static void handleTagWhere(String arguments, TaskList tasks, Ui ui, Storage storage)
+            throws ZiqException {
+        String[] words = arguments.split(" ");
+        int tagStart = words.length - 1;
+        while (tagStart > 0 && words[tagStart - 1].startsWith("+") && words[tagStart].startsWith("+")) {
+            tagStart--;
+        }
+        if (tagStart < 1) {
+            throw new ZiqException("tag where needs a condition and a tag. e.g. tag where \"invoice\" finance");
+        }
+        String tagText = String.join(" ", List.of(words).subList(tagStart, words.length));
+        List<String> addedTags = tagText.startsWith("+") ? parseTagList(tagText) : null;
+        if (addedTags == null) {
+            checkTagName(tagText);
+        }
+        int[] indexes = findWhere(String.join(" ", List.of(words).subList(0, tagStart)), tasks);
+        if (indexes.length == 0) {
+            ui.printLine("no tasks match that condition!");
+            return;
+        }
+        tagAllAndSave(indexes, tagText, addedTags, tasks, ui, storage);
+    }
+
+    /**
+     * Handles the untag command to remove some or all tags from a task.
+     *
+     * @param arguments the task number and tags (e.g. "1 urgent", or "1" to remove every tag)
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @throws ZiqException if the task index or a tag is invalid
+     */
+    private static void handleUntag(String arguments, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
+        if (arguments.isEmpty()) {
+            throw new ZiqException("untag command needs a task number. e.g."
+                    + " untag 1 urgent, or untag 1 to remove every tag");
+        }
+        String[] parts = arguments.split(" ", 2);
+        int index = parseTaskIndex(parts[0]);
+        List<String> removedTags = parts.length < 2 ? List.of() : parseTagList(parts[1].trim());
+        try {
+            List<String> previousTags = tasks.get(index).getTags();
+            Task task = tasks.removeTags(index, removedTags);
+            try {
+                storage.save(tasks.getTaskList());
+                ui.printHeader("tag removed from task:");
+                ui.printTask("  ", task);
+            } catch (ZiqException e) {
+                // Rollback: restore previous tags if save failed
+                tasks.setTags(index, previousTags);
+                throw new ZiqException("tag was removed but could not be saved: " + e.getMessage());
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new ZiqException("invalid task number. e.g."
+                    + " enter 'list' to see task numbers.");
+        }
+    }
+
+    /**
+     * Parses the task number of a tag or untag command into a list index.
+     *
+     * @param text the task number as typed
+     * @return the index (0-based)
+     * @throws ZiqException if the text is not a number or is less than 1
+     */
+    private static int parseTaskIndex(String text) throws ZiqException {
+        try {
+            int taskNumber = Integer.parseInt(text.trim());
+            if (taskNumber < 1) {
+                throw new ZiqException("task number must be at least 1. e.g."
+                        + " enter 'list' to see task numbers.");
+            }
+            return taskNumber - DISPLAY_INDEX_OFFSET;
         } catch (NumberFormatException e) {
             throw new ZiqException("task number must be a number. e.g."
                     + " enter 'list' to see task numbers.");
         }
     }
 
+    /**
+     * Parses a space-separated list of tags, each optionally written with a leading '+' or '-'.
+     *
+     * @param text the tags (e.g. "+work +urgent")
+     * @return the tag names, without their prefixes
+     * @throws ZiqException if a tag is empty or invalid
+     */
+    private static List<String> parseTagList(String text) throws ZiqException {
+        ArrayList<String> tags = new ArrayList<>();
+        for (String token : text.split("\\s+")) {
+            String tag = token.startsWith("+") || token.startsWith("-") ? token.substring(1) : token;
+            if (tag.isEmpty()) {
+                throw new ZiqException("a tag can't be empty. e.g. tag 1 +work +urgent");
+            }
+            checkTagName(tag);
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    /**
+     * Checks that a tag name can be saved: the save file separates tags with ','.
+     *
+     * @param tag the tag name
+     * @throws ZiqException if the tag contains ','
+     */
+    private static void checkTagName(String tag) throws ZiqException {
+        if (tag.contains(",")) {
+            throw new ZiqException("a tag can't contain ','. add several tags with tag 1 +work +urgent");
+        }
+    }
+
+    /**
+     * Handles the free command to list open time slots between events and timed deadlines.
+     *
+     * @param arguments the date or date range and the duration (e.g. "22022026 60" or "22022026-25022026 2h")
+     * @param tasks the task list to search
+     * @param ui the UI handler for output
+     * @throws ZiqException if the date range or duration is invalid
+     */
+    private static void handleFree(String arguments, TaskList tasks, Ui ui) throws ZiqException {
+        String[] parts = arguments.split(" ");
+        if (parts.length != 2) {
+            throw new ZiqException("free needs a date (or range) and a duration. e.g."
+                    + " free 22022026 60 or free 22022026-25022026 2h");
+        }
+        String[] range = parts[0].split("-", -1);
+        if (range.length > 2) {
+            throw new ZiqException("a date range needs exactly one '-'. e.g. free 22022026-25022026 60");
+        }
+        LocalDate firstDate = parsePartialDate(range[0]);
+        LocalDate lastDate = range.length == 2 ? parsePartialDate(range[1]) : firstDate;
+        if (firstDate == null || lastDate == null) {
+            throw new ZiqException("invalid date for free. use DD, DDMM or DDMMYYYY, or two of them joined by '-'.");
+        }
+        if (lastDate.isBefore(firstDate)) {
+            throw new ZiqException("the end of the date range must not be before the start.");
+        }
+        long minutes = parseDuration(parts[1]);
+
+        long windowStart = EpochMinutes.startOfDay(firstDate);
+        long windowEnd = EpochMinutes.startOfDay(lastDate.plusDays(1));
+        ArrayList<TimeSlot> slots = tasks.getFreeSlots(windowStart, windowEnd, minutes);
+        if (slots.isEmpty()) {
+            ui.printLine("no free slots of " + minutes + " minute(s) in that time!");
+            return;
+        }
+        ui.printHeader("here are your free slots of at least " + minutes + " minute(s):");
+        for (int i = 0; i < slots.size(); i++) {
+            ui.printLine((i + DISPLAY_INDEX_OFFSET) + ". " + slots.get(i));
+        }
+    }
+
+    /**
+     * Parses a duration given in minutes (e.g. "90") or hours (e.g. "2h").
+     *
+     * @param durationStr the duration string
+     * @return the duration in minutes
+     * @throws ZiqException if the duration is not a positive number
+     */
+    private static long parseDuration(String durationStr) throws ZiqException {
+        String lower = durationStr.toLowerCase();
+        boolean isHours = lower.endsWith("h");
+        String digits = isHours ? lower.substring(0, lower.length() - 1) : lower;
+        long value;
+        try {
+            value = Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            throw new ZiqException("duration must be a number of minutes or hours. e.g. 90 or 2h");
+        }
+        if (value < 1) {
+            throw new ZiqException("duration must be at least 1 minute.");
+        }
+        return isHours ? value * MINUTES_PER_HOUR : value;
+    }
+
     /**
      * Parses a partial date string, filling in missing parts with current date values.
      * Supports formats: DD (day only), DDMM (day+month), DDMMYYYY (full date).
      *
      * @param dateStr the date string to parse (no slashes)
-     * @return a LocalDate with missing parts filled from current date
-     * @throws DateTimeParseException if the date format is invalid
-     * @throws NumberFormatException if the date parts are not valid numbers
-     */
-    private static LocalDate parsePartialDate(String dateStr) throws DateTimeParseException, NumberFormatException {
-        LocalDate now = LocalDate.now();
-        String digits = dateStr.replaceAll("\\s", "");
-        int len = digits.length();
-
-        if (len == 2) {
-            // DD only - use current month and year
-            int day = Integer.parseInt(digits.substring(0, 2));
-            return LocalDate.of(now.getYear(), now.getMonth(), day);
-        } else if (len == 4) {
-            // DDMM - use current year
-            int day = Integer.parseInt(digits.substring(0, 2));
-            int month = Integer.parseInt(digits.substring(2, 4));
-            return LocalDate.of(now.getYear(), month, day);
-        } else if (len == 8) {
-            // DDMMYYYY
-            return LocalDate.parse(digits, DATE_ONLY_FORMAT);
-        } else {
-            throw new DateTimeParseException("Invalid date format", dateStr, 0);
+     * @return a LocalDate with missing parts filled from current date, or null if the date is invalid
+     */
+    private static LocalDate parsePartialDate(String dateStr) {
+        return EpochMinutes.toDate(InputDates.parsePartialDate(dateStr, LocalDate.now()));
+    }
+
+    /**
+     * Handles the run command to execute a file of commands as one batch, saving once at the end.
+     *
+     * @param arguments the path of the script, optionally followed by /checkpoint N to also save every N changes
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     * @return true if the script ended with "bye", false otherwise
+     * @throws ZiqException if the arguments are invalid, the script cannot be read or the save fails
+     */
+    private static boolean handleRun(String arguments, TaskList tasks, Ui ui, Storage storage) throws ZiqException {
+        String argument = arguments;
+        int checkpointInterval = ScriptRunner.NO_CHECKPOINTS;
+        int markerIndex = argument.indexOf(CHECKPOINT_MARKER);
+        if (markerIndex >= 0) {
+            String intervalStr = argument.substring(markerIndex + CHECKPOINT_MARKER.length());
+            argument = argument.substring(0, markerIndex);
+            try {
+                checkpointInterval = Integer.parseInt(intervalStr.trim());
+            } catch (NumberFormatException e) {
+                throw new ZiqException("checkpoint must be a number of commands. e.g. run tasks.txt /checkpoint 1000");
+            }
+            if (checkpointInterval < 1) {
+                throw new ZiqException("checkpoint must be at least 1. e.g. run tasks.txt /checkpoint 1000");
+            }
+        }
+        if (argument.trim().isEmpty()) {
+            throw new ZiqException("run needs a file of commands. e.g. run tasks.txt");
         }
+        return new ScriptRunner(tasks, ui, storage).run(Paths.get(argument.trim()), checkpointInterval);
     }
 
     /**
      * Handles the organise command to organize tasks by tag or deadline.
      *
-     * @param input the user's input command (e.g. "organise tag" or "organise deadline")
+     * @param arguments what to organise by: "tag" or "deadline"
      * @param tasks the task list to organize
      * @param ui the UI handler for output
      * @throws ZiqException if the organize type is invalid
      */
-    private static void handleOrganise(String input, TaskList tasks, Ui ui) throws ZiqException {
-        if (input.length() <= COMMAND_ORGANISE_PREFIX_LENGTH) {
+    private static void handleOrganise(String arguments, TaskList tasks, Ui ui) throws ZiqException {
+        if (arguments.isEmpty()) {
             throw new ZiqException("organise needs to know if it's by tag or deadline.");
         }
-        String type = input.substring(COMMAND_ORGANISE_PREFIX_LENGTH).trim().toLowerCase();
-        if (type.isEmpty()) {
-            throw new ZiqException("organise must have a filter of either tag or deadline");
-        }
+        String type = arguments.toLowerCase();
         if (type.equals("tag")) {
             printTasksOrganisedByTag(tasks, ui);
         } else if (type.equals("deadline")) {
@@ -474,6 +1296,7 @@ public class Parser {
 
     /**
      * Prints tasks organized by tag, grouping tasks with the same tag together.
+     * A task with several tags is listed under each of them.
      *
      * @param tasks the task list to organize
      * @param ui the UI handler for output
@@ -483,41 +1306,28 @@ public class Parser {
             ui.printLine("you don't have anything on your list right now!");
             return;
         }
-        ArrayList<Task> taskList = tasks.getTaskList();
-        // Group tasks by tag
-        Map<String, ArrayList<Task>> tagGroups = new HashMap<>();
-        ArrayList<Task> untaggedTasks = new ArrayList<>();
+        OrganisedViews.ByTag view = tasks.organiseByTag();
 
-        for (Task task : taskList) {
-            String tag = task.getTag();
-            if (tag == null || tag.isEmpty()) {
-                untaggedTasks.add(task);
-            } else {
-                tagGroups.computeIfAbsent(tag, k -> new ArrayList<>()).add(task);
-            }
-        }
-
-        ui.printLine("tasks organized by tag:");
+        ui.printHeader("tasks organized by tag:");
         int displayNumber = DISPLAY_INDEX_OFFSET;
 
         // Print tagged tasks grouped by tag
-        for (Map.Entry<String, ArrayList<Task>> entry : tagGroups.entrySet()) {
-            String tag = entry.getKey();
-            ArrayList<Task> taggedTasks = entry.getValue();
+        for (Map.Entry<Integer, List<Task>> entry : view.getGroups().entrySet()) {
+            String tag = TagDictionary.nameOf(entry.getKey());
             ui.printLine("");
-            ui.printLine("[" + tag + "]:");
-            for (Task task : taggedTasks) {
-                ui.printLine(displayNumber + ". " + task);
+            ui.printTag(tag, ":");
+            for (Task task : entry.getValue()) {
+                ui.printTask(displayNumber + ". ", task);
                 displayNumber++;
             }
         }
 
         // Print untagged tasks
-        if (!untaggedTasks.isEmpty()) {
+        if (!view.getUntagged().isEmpty()) {
             ui.printLine("");
-            ui.printLine("[untagged]:");
-            for (Task task : untaggedTasks) {
-                ui.printLine(displayNumber + ". " + task);
+            ui.printHeader("[untagged]:");
+            for (Task task : view.getUntagged()) {
+                ui.printTask(displayNumber + ". ", task);
                 displayNumber++;
             }
         }
@@ -525,6 +1335,7 @@ public class Parser {
 
     /**
      * Prints tasks organized by deadline, sorting deadlines first, then events, then todos.
+     * A recurring task is shown once, at its next pending occurrence.
      *
      * @param tasks the task list to organize
      * @param ui the UI handler for output
@@ -534,62 +1345,99 @@ public class Parser {
             ui.printLine("you don't have anything on your list right now!");
             return;
         }
-        ArrayList<Task> taskList = tasks.getTaskList();
-        // Separate tasks by type
-        ArrayList<Deadline> deadlines = new ArrayList<>();
-        ArrayList<Event> events = new ArrayList<>();
-        ArrayList<Task> todos = new ArrayList<>();
-
-        for (Task task : taskList) {
-            if (task instanceof Deadline) {
-                deadlines.add((Deadline) task);
-            } else if (task instanceof Event) {
-                events.add((Event) task);
-            } else {
-                todos.add(task);
-            }
-        }
+        OrganisedViews.ByDeadline view = tasks.organiseByDeadline(LocalDateTime.now());
 
-        // Sort deadlines by due date
-        deadlines.sort(Comparator.comparing(Deadline::by));
-
-        // Sort events by start date
-        events.sort(Comparator.comparing(Event::from));
-
-        ui.printLine("tasks organized by deadline:");
+        ui.printHeader("tasks organized by deadline:");
         int displayNumber = DISPLAY_INDEX_OFFSET;
 
         // Print deadlines
-        if (!deadlines.isEmpty()) {
+        if (!view.getDeadlines().isEmpty()) {
             ui.printLine("");
-            ui.printLine("deadlines:");
-            for (Deadline deadline : deadlines) {
-                ui.printLine(displayNumber + ". " + deadline);
+            ui.printHeader("deadlines:");
+            for (Deadline deadline : view.getDeadlines()) {
+                ui.printTask(displayNumber + ". ", deadline, describeRule(view.ruleOf(deadline)));
                 displayNumber++;
             }
         }
 
         // Print events
-        if (!events.isEmpty()) {
+        if (!view.getEvents().isEmpty()) {
             ui.printLine("");
-            ui.printLine("events:");
-            for (Event event : events) {
-                ui.printLine(displayNumber + ". " + event);
+            ui.printHeader("events:");
+            for (Event event : view.getEvents()) {
+                ui.printTask(displayNumber + ". ", event, describeRule(view.ruleOf(event)));
                 displayNumber++;
             }
         }
 
         // Print todos
-        if (!todos.isEmpty()) {
+        if (!view.getTodos().isEmpty()) {
             ui.printLine("");
-            ui.printLine("todos:");
-            for (Task task : todos) {
-                ui.printLine(displayNumber + ". " + task);
+            ui.printHeader("todos:");
+            for (Task task : view.getTodos()) {
+                ui.printTask(displayNumber + ". ", task);
                 displayNumber++;
             }
         }
     }
 
+    /**
+     * Returns " (every ... until ...)" for a recurrence, or an empty string if there is none.
+     *
+     * @param recurrence the recurrence to describe, or null
+     * @return the description to append to a task line
+     */
+    private static String describeRule(Recurrence recurrence) {
+        return recurrence == null ? "" : " (" + recurrence + ")";
+    }
+
+    /**
+     * Prints task counts by type, completion status and tag, and how many tasks are overdue.
+     *
+     * @param tasks the task list to summarise
+     * @param ui the UI handler for output
+     */
+    private static void printStats(TaskList tasks, Ui ui) {
+        TaskStats stats = tasks.getStats();
+        if (stats.getTotal() == 0) {
+            ui.printLine("you don't have anything on your list right now!");
+            return;
+        }
+        ui.printHeader("here are your stats:");
+        ui.printLine("total: " + stats.getTotal() + " task(s)");
+        ui.printLine("todos: " + stats.getCount(TaskType.TODO)
+                + ", deadlines: " + stats.getCount(TaskType.DEADLINE)
+                + ", events: " + stats.getCount(TaskType.EVENT));
+        ui.printLine("done: " + stats.getDoneCount() + ", pending: " + stats.getPendingCount());
+        ui.printLine("overdue: " + tasks.countOverdue(LocalDateTime.now()));
+        ui.printLine("");
+        ui.printHeader("tags:");
+        for (Map.Entry<String, Integer> entry : stats.getTagCounts().entrySet()) {
+            ui.printTag(entry.getKey(), ": " + entry.getValue());
+        }
+        ui.printLine("untagged: " + stats.getUntaggedCount());
+    }
+
+    /**
+     * Prints every pair of events whose times overlap.
+     *
+     * @param tasks the task list to check
+     * @param ui the UI handler for output
+     */
+    private static void printClashes(TaskList tasks, Ui ui) {
+        ArrayList<EventIndex.Clash> clashes = tasks.getAllClashes();
+        if (clashes.isEmpty()) {
+            ui.printLine("no clashing events!");
+            return;
+        }
+        ui.printHeader("these events clash:");
+        for (int i = 0; i < clashes.size(); i++) {
+            EventIndex.Clash clash = clashes.get(i);
+            ui.printTask((i + DISPLAY_INDEX_OFFSET) + ". ", clash.getFirst());
+            ui.printTask("   ", clash.getSecond());
+        }
+    }
+
     /**
      * Prints all tasks in the task list.
      *
@@ -601,10 +1449,10 @@ public class Parser {
             ui.printLine("you don't have anything on your list right now!");
             return;
         }
-        ui.printLine("here is your to-do list!");
+        ui.printHeader("here is your to-do list!");
         for (int i = 0; i < tasks.size(); i++) {
             int displayNumber = i + DISPLAY_INDEX_OFFSET;
-            ui.printLine(displayNumber + ". " + tasks.get(i));
+            ui.printTask(displayNumber + ". ", tasks.get(i));
         }
     }
 
@@ -627,13 +1475,13 @@ public class Parser {
             ui.printLine("no matches found!");
             return;
         }
-        ui.printLine("here are the matching tasks in your list:");
+        ui.printHeader("here are the matching tasks in your list:");
         int displayCount = 0;
         for (int i = 0; i < tasks.size(); i++) {
             Task task = tasks.get(i);
             if (task.description().toLowerCase().contains(keyword)) {
                 displayCount++;
-                ui.printLine(displayCount + ". " + task);
+                ui.printTask(displayCount + ". ", task);
             }
         }
     }
@@ -657,12 +1505,12 @@ public class Parser {
         tasks.add(task);
         try {
             storage.save(tasks.getTaskList());
-            ui.printLine("task added:");
-            ui.printLine("  " + task);
-            ui.printLine("now you have " + tasks.size() + " task(s) in the list.");
+            ui.printHeader("task added:");
+            ui.printTask("  ", task);
+            ui.printLine("now you have " + tasks.getStats().getTotal() + " task(s) in the list.");
         } catch (ZiqException e) {
             // Rollback: remove the task if save failed
-            tasks.getTaskList().remove(task);
+            tasks.remove(task);
             throw new ZiqException("task was added but could not be saved: " + e.getMessage());
         }
     }
@@ -684,7 +1532,7 @@ public class Parser {
             ui.printLine("all tasks cleared! (" + count + " task(s) removed)");
         } catch (ZiqException e) {
             // Rollback: restore tasks if save failed
-            tasks.getTaskList().addAll(backup);
+            tasks.add(backup.toArray(new Task[0]));
             throw new ZiqException("tasks were cleared but could not be saved: " + e.getMessage());
         }
     }
@@ -695,35 +1543,69 @@ public class Parser {
      * @param ui the UI handler for output
      */
     private static void getHelp(Ui ui) {
-        ui.printLine("here are the commands available:");
+        ui.printHeader("here are the commands available:");
+        ui.printLine("");
+        ui.printHelp("todo", "<description>", "add a todo task");
+        ui.printLine("");
+        ui.printHelp("deadline", "<description> /by DDMMYYYY [HHmm]", "add a deadline task, time is optional");
+        ui.printLine("");
+        ui.printHelp("event", "<description> /from DDMMYYYY HHmm /to DDMMYYYY HHmm", "add an event task");
+        ui.printLine("");
+        ui.printLine("add /every daily|weekly|monthly /until DDMMYYYY to a deadline or event to make it repeat");
+        ui.printLine("");
+        ui.printHelp("mark", "<index> [/on DDMMYYYY]", "mark a task (or one occurrence of a repeating task) as done");
+        ui.printLine("");
+        ui.printHelp("unmark", "<index> [/on DDMMYYYY]", "mark a task (or one occurrence) as not done");
+        ui.printLine("");
+        ui.printHelp("delete", "<index>", "delete a task");
+        ui.printLine("");
+        ui.printLine("mark, unmark, delete and tag also take lists and ranges of tasks, e.g. mark 1-500,"
+                + " delete 3,5,9-20 or tag 10-40 work");
+        ui.printLine("");
+        ui.printLine("... or 'where' and a filter query, e.g. delete where done, mark where tag:sprint-12"
+                + " or tag where \"invoice\" finance");
+        ui.printLine("");
+        ui.printHelp("find", "<keyword>", "find tasks by keyword");
+        ui.printLine("");
+        ui.printHelp("find", "~<word> [/distance N]", "find tasks with words spelt close to the word, closest first");
+        ui.printLine("");
+        ui.printHelp("filter", "<query>", "find tasks matching type:T|D|E tag:<tag> before:/after:/on:DDMMYYYY"
+                + " done:true|false \"text\" (e.g. filter type:D tag:work done:false \"report\")");
+        ui.printLine("");
+        ui.printHelp("explain", "<query>", "show which index a filter query would use");
+        ui.printLine("");
+        ui.printHelp("schedule", "DDMMYYYY", "view tasks on a specific date (or DD, DDMM for partial)");
+        ui.printLine("");
+        ui.printHelp("next", "[count]", "view the nearest upcoming deadlines and events");
         ui.printLine("");
-        ui.printLine("todo <description> - add a todo task");
+        ui.printHelp("overdue", "", "view deadlines and events that are past due");
         ui.printLine("");
-        ui.printLine("deadline <description> /by DDMMYYYY [HHmm] - add a deadline task, time is optional");
+        ui.printHelp("tag", "<index> <tag>", "replace a task's tags with one tag");
         ui.printLine("");
-        ui.printLine("event <description> /from DDMMYYYY HHmm /to DDMMYYYY HHmm - add an event task");
+        ui.printHelp("tag", "<index> +<tag> [+<tag>...]", "add tags to a task (e.g. tag 3 +work +urgent)");
         ui.printLine("");
-        ui.printLine("mark <index> - mark a task as done");
+        ui.printHelp("untag", "<index> [<tag>...]", "remove the given tags, or every tag, from a task");
         ui.printLine("");
-        ui.printLine("unmark <index> - mark a task as not done");
+        ui.printHelp("organise", "tag", "organize tasks by tag");
         ui.printLine("");
-        ui.printLine("delete <index> - delete a task");
+        ui.printHelp("organise", "deadline", "organize tasks by deadline");
         ui.printLine("");
-        ui.printLine("find <keyword> - find tasks by keyword");
+        ui.printHelp("stats", "", "view task counts by type, status and tag");
         ui.printLine("");
-        ui.printLine("schedule DDMMYYYY - view tasks on a specific date (or DD, DDMM for partial)");
+        ui.printHelp("clashes", "", "view events whose times overlap");
         ui.printLine("");
-        ui.printLine("tag <index> <tag> - add a tag to a task");
+        ui.printHelp("free", "<date>[-<date>] <duration>", "find free time slots, duration in minutes or hours"
+                + " (e.g. free 22022026 90 or free 22022026 2h)");
         ui.printLine("");
-        ui.printLine("organise tag - organize tasks by tag");
+        ui.printHelp("run", "<file> [/checkpoint N]", "run a file of commands, one per line, saving once at the end");
         ui.printLine("");
-        ui.printLine("organise deadline - organize tasks by deadline");
+        ui.printHelp("clear", "", "remove all tasks");
         ui.printLine("");
-        ui.printLine("clear - remove all tasks");
+        ui.printLine("<command>; <command>; ... - run several commands at once; if one fails, none are done");
         ui.printLine("");
-        ui.printLine("help - display this list of commands");
+        ui.printHelp("help", "", "display this list of commands");
         ui.printLine("");
-        ui.printLine("bye - terminate Ziq");
+        ui.printHelp("bye", "", "terminate Ziq");
     }
 }
 
@@ -0,0 +1,376 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes used to answer filter queries without scanning every task:
+ * tasks by tag, dated tasks by schedule time, and tasks by the words in their description.
+ * The description words are also kept in a {@link WordTrie}, so words close to a misspelt search term
+ * can be found without comparing the term with the whole vocabulary.
+ * Each task gets a slot number when it is added, in list order, and slots are not reused until the
+ * index is compacted. Tags and completion status are kept as bitmaps over those slots, so a query like
+ * "work and urgent, not done" is a couple of word-wide AND / AND NOT passes rather than a scan.
+ * Repeating tasks are kept apart from the time index, since any of their occurrences may match a date.
+ */
+public class QueryIndex {
+    private static final int MIN_SLOTS_TO_COMPACT = 64;
+
+    private final IdentityHashMap<Task, Integer> slots = new IdentityHashMap<>();
+    private final ArrayList<Task> bySlot = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final BitSet done = new BitSet();
+    private final HashMap<Integer, BitSet> byTag = new HashMap<>();
+    private final TimeIndex byDate = new TimeIndex();
+    private final ArrayList<Task> recurring = new ArrayList<>();
+    private final TreeMap<String, ArrayList<Task>> byWord = new TreeMap<>();
+    private final WordTrie vocabulary = new WordTrie();
+
+    /**
+     * Adds a task to every index.
+     *
+     * @param task the task to add
+     */
+    public void add(Task task) {
+        assignSlot(task);
+        if (task.isRecurring()) {
+            recurring.add(task);
+        } else {
+            byDate.add(task);
+        }
+        for (String word : distinctWords(task)) {
+            ArrayList<Task> bucket = byWord.get(word);
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                byWord.put(word, bucket);
+                vocabulary.add(word);
+            }
+            bucket.add(task);
+        }
+    }
+
+    /**
+     * Removes a task from every index.
+     *
+     * @param task the task to remove
+     */
+    public void remove(Task task) {
+        Integer slot = slots.remove(task);
+        if (slot != null) {
+            bySlot.set(slot, null);
+            live.clear(slot);
+            done.clear(slot);
+            setTagBits(slot, task.getTagIds(), false);
+            if (bySlot.size() >= MIN_SLOTS_TO_COMPACT && slots.size() < bySlot.size() / 2) {
+                compact();
+            }
+        }
+        if (task.isRecurring()) {
+            recurring.remove(task);
+        } else {
+            byDate.remove(task);
+        }
+        for (String word : distinctWords(task)) {
+            ArrayList<Task> bucket = byWord.get(word);
+            if (bucket != null && bucket.remove(task) && bucket.isEmpty()) {
+                byWord.remove(word);
+                vocabulary.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Moves a task from its old tags' bitmaps to its new tags' bitmaps.
+     *
+     * @param task the task whose tags changed
+     * @param oldTagIds the previous tag ids
+     */
+    public void tagsChanged(Task task, int[] oldTagIds) {
+        Integer slot = slots.get(task);
+        if (slot != null) {
+            setTagBits(slot, oldTagIds, false);
+            setTagBits(slot, task.getTagIds(), true);
+        }
+    }
+
+    /**
+     * Updates the done bitmap after a task was marked or unmarked.
+     *
+     * @param task the task whose status changed
+     */
+    public void statusChanged(Task task) {
+        Integer slot = slots.get(task);
+        if (slot != null) {
+            done.set(slot, task.isDone());
+        }
+    }
+
+    /**
+     * Removes every task from every index.
+     */
+    public void clear() {
+        slots.clear();
+        bySlot.clear();
+        live.clear();
+        done.clear();
+        byTag.clear();
+        byDate.clear();
+        recurring.clear();
+        byWord.clear();
+        vocabulary.clear();
+    }
+
+    /**
+     * Returns the tasks with the given tag, in list order.
+     *
+     * @param tagId the tag id
+     * @return the tagged tasks
+     */
+    public ArrayList<Task> tagged(int tagId) {
+        BitSet bits = byTag.get(tagId);
+        return bits == null ? new ArrayList<>() : tasksIn(bits);
+    }
+
+    /**
+     * Returns the slots of the tasks that have every required tag, none of the excluded tags,
+     * and, if given, the required completion status.
+     * A required tag that no task has makes the result empty.
+     *
+     * @param requiredTagIds the tags every result must have
+     * @param excludedTagIds the tags no result may have
+     * @param isDone true or false to require that status, or null to accept either
+     * @return a new bitmap of matching slots
+     */
+    public BitSet matchTags(List<Integer> requiredTagIds, List<Integer> excludedTagIds, Boolean isDone) {
+        BitSet result = null;
+        for (int tagId : requiredTagIds) {
+            BitSet bits = byTag.get(tagId);
+            if (bits == null) {
+                return new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) bits.clone();
+            } else {
+                result.and(bits);
+            }
+        }
+        if (result == null) {
+            result = (BitSet) live.clone();
+        }
+        for (int tagId : excludedTagIds) {
+            BitSet bits = byTag.get(tagId);
+            if (bits != null) {
+                result.andNot(bits);
+            }
+        }
+        if (isDone != null) {
+            if (isDone) {
+                result.and(done);
+            } else {
+                result.andNot(done);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the tasks in the given slots, in list order.
+     *
+     * @param bits the slots, as returned by {@link #matchTags(List, List, Boolean)}
+     * @return the tasks
+     */
+    public ArrayList<Task> tasksIn(BitSet bits) {
+        ArrayList<Task> result = new ArrayList<>(bits.cardinality());
+        for (int slot = bits.nextSetBit(0); slot >= 0; slot = bits.nextSetBit(slot + 1)) {
+            result.add(bySlot.get(slot));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the dated tasks that could fall in the given range: one-off tasks scheduled in it,
+     * in time order, followed by every repeating task.
+     *
+     * @param fromMinute the start of the range (epoch minute, inclusive)
+     * @param toMinute the end of the range (epoch minute, exclusive)
+     * @return the candidate tasks
+     */
+    public ArrayList<Task> datedBetween(long fromMinute, long toMinute) {
+        ArrayList<Task> result = byDate.between(fromMinute, toMinute);
+        result.addAll(recurring);
+        return result;
+    }
+
+    /**
+     * Counts the candidates {@link #datedBetween(long, long)} would return, stopping at {@code cap}.
+     *
+     * @param fromMinute the start of the range (epoch minute, inclusive)
+     * @param toMinute the end of the range (epoch minute, exclusive)
+     * @param cap the count to stop at
+     * @return the number of candidates, or {@code cap} if there are at least that many
+     */
+    public int countDatedBetween(long fromMinute, long toMinute, int cap) {
+        return Math.min(cap, byDate.countBetween(fromMinute, toMinute, cap) + recurring.size());
+    }
+
+    /**
+     * Returns the tasks with a word starting with the given prefix, each once.
+     *
+     * @param prefix the lower-case prefix
+     * @return the matching tasks
+     */
+    public ArrayList<Task> withWordPrefix(String prefix) {
+        Map<String, ArrayList<Task>> words = wordsWithPrefix(prefix);
+        if (words.size() == 1) {
+            return new ArrayList<>(words.values().iterator().next());
+        }
+        // A task can have several words with the prefix; keep the first sighting of each
+        IdentityHashMap<Task, Boolean> seen = new IdentityHashMap<>();
+        ArrayList<Task> result = new ArrayList<>();
+        for (ArrayList<Task> bucket : words.values()) {
+            for (Task task : bucket) {
+                if (seen.put(task, Boolean.TRUE) == null) {
+                    result.add(task);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Estimates how many tasks have a word starting with the given prefix, stopping at {@code cap}.
+     * Tasks with several such words are counted more than once.
+     *
+     * @param prefix the lower-case prefix
+     * @param cap the count to stop at
+     * @return the estimate, at most {@code cap}
+     */
+    public int countWordPrefix(String prefix, int cap) {
+        int count = 0;
+        for (ArrayList<Task> bucket : wordsWithPrefix(prefix).values()) {
+            count += bucket.size();
+            if (count >= cap) {
+                return cap;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the tasks with a word within {@code maxDistance} edits of the term, closest first.
+     * Tasks the same distance away are in list order, and each task appears once, at its closest word.
+     *
+     * @param term the lower-case search term
+     * @param maxDistance the largest edit distance to accept
+     * @return the matching tasks, ranked by distance
+     */
+    public ArrayList<Task> withWordNear(String term, int maxDistance) {
+        BitSet[] byDistance = new BitSet[maxDistance + 1];
+        for (WordTrie.Match match : vocabulary.search(term, maxDistance)) {
+            BitSet bits = byDistance[match.getDistance()];
+            if (bits == null) {
+                bits = new BitSet();
+                byDistance[match.getDistance()] = bits;
+            }
+            for (Task task : byWord.get(match.getWord())) {
+                bits.set(slots.get(task));
+            }
+        }
+        BitSet seen = new BitSet();
+        ArrayList<Task> result = new ArrayList<>();
+        for (BitSet bits : byDistance) {
+            if (bits == null) {
+                continue;
+            }
+            bits.andNot(seen);
+            seen.or(bits);
+            result.addAll(tasksIn(bits));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the word buckets whose word starts with the given prefix.
+     *
+     * @param prefix the lower-case prefix
+     * @return the buckets, by word
+     */
+    private Map<String, ArrayList<Task>> wordsWithPrefix(String prefix) {
+        return byWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Returns the distinct words in a task's description.
+     *
+     * @param task the task
+     * @return the words, without repeats
+     */
+    private static List<String> distinctWords(Task task) {
+        List<String> words = FilterCondition.words(task.description());
+        return words.size() <= 1 ? words : new ArrayList<>(new LinkedHashSet<>(words));
+    }
+
+    /**
+     * Renumbers the remaining tasks into consecutive slots, keeping their order, and rebuilds the bitmaps.
+     * Called once more than half the slots belong to removed tasks, so the cost is spread over the removals.
+     */
+    private void compact() {
+        ArrayList<Task> remaining = new ArrayList<>(slots.size());
+        for (Task task : bySlot) {
+            if (task != null) {
+                remaining.add(task);
+            }
+        }
+        slots.clear();
+        bySlot.clear();
+        live.clear();
+        done.clear();
+        byTag.clear();
+        for (Task task : remaining) {
+            assignSlot(task);
+        }
+    }
+
+    /**
+     * Gives a task the next free slot and records its tags and status in the bitmaps.
+     *
+     * @param task the task
+     */
+    private void assignSlot(Task task) {
+        int slot = bySlot.size();
+        bySlot.add(task);
+        slots.put(task, slot);
+        live.set(slot);
+        done.set(slot, task.isDone());
+        setTagBits(slot, task.getTagIds(), true);
+    }
+
+    /**
+     * Sets or clears a slot in the bitmap of each of the given tags, dropping bitmaps that become empty.
+     *
+     * @param slot the task's slot
+     * @param tagIds the tag ids
+     * @param isSet true to set the slot, false to clear it
+     */
+    private void setTagBits(int slot, int[] tagIds, boolean isSet) {
+        for (int tagId : tagIds) {
+            if (isSet) {
+                byTag.computeIfAbsent(tagId, k -> new BitSet()).set(slot);
+                continue;
+            }
+            BitSet bits = byTag.get(tagId);
+            if (bits != null) {
+                bits.clear(slot);
+                if (bits.isEmpty()) {
+                    byTag.remove(tagId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Decides how to run a filter query: which index to read candidates from, and which conditions
+ * are then checked against each candidate.
+ * The required tag terms, together with any required status terms, are answered exactly by combining
+ * the tag bitmaps; each required date and text condition is another possible starting point.
+ * The one with the fewest candidates wins. Queries with no such condition, or with 'or', scan every task.
+ */
+public class QueryPlan {
+    private final FilterQuery query;
+    private final FilterCondition driver;
+    private final List<FilterCondition> bitmapTerms;
+    private final int estimate;
+    private final ArrayList<String> considered;
+
+    /**
+     * Constructs a plan.
+     *
+     * @param query the query being planned
+     * @param driver the condition whose index supplies the candidates, or null
+     * @param bitmapTerms the terms answered by the tag bitmaps, or empty; with no driver either, a full scan
+     * @param estimate the expected number of candidates
+     * @param considered a line for each index that was considered, with its estimate
+     */
+    private QueryPlan(FilterQuery query, FilterCondition driver, List<FilterCondition> bitmapTerms, int estimate,
+            ArrayList<String> considered) {
+        this.query = query;
+        this.driver = driver;
+        this.bitmapTerms = bitmapTerms;
+        this.estimate = estimate;
+        this.considered = considered;
+    }
+
+    /**
+     * Plans a query against the given indexes.
+     *
+     * @param query the query to plan
+     * @param index the indexes to choose from
+     * @param taskCount the number of tasks a full scan would visit
+     * @return the plan
+     */
+    public static QueryPlan plan(FilterQuery query, QueryIndex index, int taskCount) {
+        FilterCondition best = null;
+        List<FilterCondition> bestBitmapTerms = List.of();
+        int bestEstimate = taskCount;
+        ArrayList<String> considered = new ArrayList<>();
+        List<FilterCondition> required = query.getRequiredConditions();
+        List<FilterCondition> bitmapTerms = bitmapTermsOf(required);
+        if (!bitmapTerms.isEmpty()) {
+            int candidates = matchBitmaps(bitmapTerms, index).cardinality();
+            considered.add("tag bitmaps for " + describeAll(bitmapTerms) + ": " + candidates + " candidate(s)");
+            if (candidates < bestEstimate) {
+                bestBitmapTerms = bitmapTerms;
+                bestEstimate = candidates;
+            }
+        }
+        for (FilterCondition condition : required) {
+            int candidates = estimate(condition, index, bestEstimate + 1);
+            if (candidates < 0) {
+                continue;
+            }
+            considered.add(indexName(condition) + " for " + condition.describe() + ": "
+                    + (candidates > bestEstimate ? "more than " + bestEstimate : candidates) + " candidate(s)");
+            if (candidates < bestEstimate) {
+                best = condition;
+                bestBitmapTerms = List.of();
+                bestEstimate = candidates;
+            }
+        }
+        return new QueryPlan(query, best, bestBitmapTerms, bestEstimate, considered);
+    }
+
+    /**
+     * Runs the plan over the given tasks.
+     *
+     * @param index the indexes the plan was made against
+     * @param allTasks every task, for a full scan
+     * @return the matching tasks
+     */
+    public ArrayList<Task> execute(QueryIndex index, List<Task> allTasks) {
+        ArrayList<Task> matches = new ArrayList<>();
+        for (Task task : candidates(index, allTasks)) {
+            if (query.matches(task)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns true if the plan reads candidates from an index rather than scanning every task.
+     *
+     * @return true if an index is used
+     */
+    public boolean usesIndex() {
+        return driver != null || !bitmapTerms.isEmpty();
+    }
+
+    /**
+     * Returns a description of the plan, one line per step, for 'explain'.
+     *
+     * @return the description lines
+     */
+    public ArrayList<String> explain() {
+        ArrayList<String> lines = new ArrayList<>();
+        lines.add("query: " + query.getRoot().describe());
+        for (String line : considered) {
+            lines.add("considered " + line);
+        }
+        if (!bitmapTerms.isEmpty()) {
+            lines.add("plan: combine the tag bitmaps (" + describeAll(bitmapTerms) + ") into exactly " + estimate
+                    + " candidate(s), then check the remaining conditions");
+        } else if (driver == null) {
+            lines.add("plan: scan all " + estimate + " task(s) and check every condition");
+        } else {
+            lines.add("plan: read about " + estimate + " candidate(s) from the " + indexName(driver)
+                    + " (" + driver.describe() + "), then check the remaining conditions");
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the tasks the plan starts from.
+     *
+     * @param index the indexes the plan was made against
+     * @param allTasks every task, for a full scan
+     * @return the candidate tasks
+     */
+    private List<Task> candidates(QueryIndex index, List<Task> allTasks) {
+        if (!bitmapTerms.isEmpty()) {
+            return index.tasksIn(matchBitmaps(bitmapTerms, index));
+        }
+        if (driver instanceof FilterCondition.DateRange) {
+            FilterCondition.DateRange range = (FilterCondition.DateRange) driver;
+            return index.datedBetween(range.getFromMinute(), range.getToMinute());
+        }
+        if (driver instanceof FilterCondition.Text) {
+            return index.withWordPrefix(rarestPrefix((FilterCondition.Text) driver, index));
+        }
+        return allTasks;
+    }
+
+    /**
+     * Estimates how many candidates an index would supply for a condition.
+     *
+     * @param condition the condition
+     * @param index the indexes
+     * @param cap the count to stop estimating at
+     * @return the estimate, or -1 if no index can answer the condition
+     */
+    private static int estimate(FilterCondition condition, QueryIndex index, int cap) {
+        if (condition instanceof FilterCondition.DateRange) {
+            FilterCondition.DateRange range = (FilterCondition.DateRange) condition;
+            return index.countDatedBetween(range.getFromMinute(), range.getToMinute(), cap);
+        }
+        if (condition instanceof FilterCondition.Text) {
+            FilterCondition.Text text = (FilterCondition.Text) condition;
+            if (text.getPrefixes().isEmpty()) {
+                return -1;
+            }
+            return index.countWordPrefix(rarestPrefix(text, index), cap);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the required terms the tag bitmaps can answer: tag terms, negated or not, and the status
+     * terms alongside them. A query without a tag term gets none, since status alone is not selective.
+     *
+     * @param required the required conditions of the query
+     * @return the terms, or an empty list
+     */
+    private static List<FilterCondition> bitmapTermsOf(List<FilterCondition> required) {
+        ArrayList<FilterCondition> terms = new ArrayList<>();
+        boolean hasTag = false;
+        for (FilterCondition condition : required) {
+            FilterCondition inner = condition instanceof FilterCondition.Not
+                    ? ((FilterCondition.Not) condition).getCondition() : condition;
+            if (inner instanceof FilterCondition.Tag) {
+                hasTag = true;
+                terms.add(condition);
+            } else if (inner instanceof FilterCondition.Done) {
+                terms.add(condition);
+            }
+        }
+        return hasTag ? terms : List.of();
+    }
+
+    /**
+     * Combines the bitmaps for a set of tag and status terms.
+     *
+     * @param terms the terms, from {@link #bitmapTermsOf(List)}
+     * @param index the indexes
+     * @return the slots of the tasks satisfying every term
+     */
+    private static BitSet matchBitmaps(List<FilterCondition> terms, QueryIndex index) {
+        ArrayList<Integer> requiredTagIds = new ArrayList<>();
+        ArrayList<Integer> excludedTagIds = new ArrayList<>();
+        Boolean isDone = null;
+        for (FilterCondition term : terms) {
+            boolean isNegated = term instanceof FilterCondition.Not;
+            FilterCondition inner = isNegated ? ((FilterCondition.Not) term).getCondition() : term;
+            if (inner instanceof FilterCondition.Tag) {
+                int tagId = ((FilterCondition.Tag) inner).getTagId();
+                (isNegated ? excludedTagIds : requiredTagIds).add(tagId);
+                continue;
+            }
+            boolean wanted = ((FilterCondition.Done) inner).isDone() != isNegated;
+            if (isDone != null && isDone != wanted) {
+                return new BitSet();
+            }
+            isDone = wanted;
+        }
+        return index.matchTags(requiredTagIds, excludedTagIds, isDone);
+    }
+
+    /**
+     * Joins the descriptions of several conditions with 'and'.
+     *
+     * @param conditions the conditions
+     * @return the joined description
+     */
+    private static String describeAll(List<FilterCondition> conditions) {
+        ArrayList<String> parts = new ArrayList<>();
+        for (FilterCondition condition : conditions) {
+            parts.add(condition.describe());
+        }
+        return String.join(" and ", parts);
+    }
+
+    /**
+     * Returns the prefix of a text condition that the fewest tasks have.
+     *
+     * @param text the text condition
+     * @param index the indexes
+     * @return the rarest prefix
+     */
+    private static String rarestPrefix(FilterCondition.Text text, QueryIndex index) {
+        String rarest = null;
+        int rarestCount = Integer.MAX_VALUE;
+        for (String prefix : text.getPrefixes()) {
+            int count = index.countWordPrefix(prefix, rarestCount);
+            if (count < rarestCount) {
+                rarest = prefix;
+                rarestCount = count;
+            }
+        }
+        return rarest;
+    }
+
+    /**
+     * Returns the name of the index that answers a condition.
+     *
+     * @param condition the condition
+     * @return the index name
+     */
+    private static String indexName(FilterCondition condition) {
+        if (condition instanceof FilterCondition.DateRange) {
+            return "date index";
+        }
+        return "text index";
+    }
+}
@@ -0,0 +1,299 @@
+package ziq;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Describes how a deadline or event repeats: how often, until when, and which single occurrences
+ * have been marked as done.
+ * Occurrences are never stored; they are worked out from the first occurrence when a query asks
+ * for a range of time.
+ */
+public class Recurrence {
+
+    /**
+     * How often a task repeats.
+     */
+    public enum Frequency {
+        DAILY("day"), WEEKLY("week"), MONTHLY("month");
+
+        private final String unit;
+
+        Frequency(String unit) {
+            this.unit = unit;
+        }
+
+        /**
+         * Returns the frequency with the given name, ignoring case.
+         *
+         * @param name the name to look up (e.g. "weekly")
+         * @return the corresponding frequency
+         * @throws ZiqException if the name does not match any frequency
+         */
+        public static Frequency fromName(String name) throws ZiqException {
+            for (Frequency f : values()) {
+                if (f.name().equalsIgnoreCase(name)) {
+                    return f;
+                }
+            }
+            throw new ZiqException("repeat must be daily, weekly or monthly.");
+        }
+    }
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final long MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.ofPattern("MMM dd yyyy");
+
+    private final Frequency frequency;
+    private final LocalDate until;
+    private final TreeSet<Long> doneOccurrences = new TreeSet<>();
+
+    /**
+     * Constructs a recurrence.
+     *
+     * @param frequency how often the task repeats
+     * @param until the last date an occurrence may start on (inclusive)
+     */
+    public Recurrence(Frequency frequency, LocalDate until) {
+        assert frequency != null && until != null : "frequency and end date must not be null";
+        this.frequency = frequency;
+        this.until = until;
+    }
+
+    /**
+     * Returns how often the task repeats.
+     *
+     * @return the frequency
+     */
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Returns the last date an occurrence may start on.
+     *
+     * @return the end date
+     */
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    /**
+     * Returns the start of the nth occurrence (0 is the first).
+     *
+     * @param firstStart the start of the first occurrence (epoch minute)
+     * @param n the occurrence number
+     * @return the start of that occurrence (epoch minute)
+     */
+    private long nthStart(long firstStart, long n) {
+        switch (frequency) {
+        case DAILY:
+            return firstStart + n * MINUTES_PER_DAY;
+        case WEEKLY:
+            return firstStart + n * MINUTES_PER_WEEK;
+        default:
+            // Months differ in length; step from the first occurrence so day-of-month clamping doesn't drift
+            return EpochMinutes.of(EpochMinutes.toDateTime(firstStart).plusMonths(n));
+        }
+    }
+
+    /**
+     * Returns the number of the first occurrence that could start at or after the given minute.
+     * For monthly rules this may be one too early; callers skip occurrences before their range.
+     *
+     * @param firstStart the start of the first occurrence (epoch minute)
+     * @param minute the minute to search from
+     * @return the occurrence number to start iterating from
+     */
+    private long firstIndexFrom(long firstStart, long minute) {
+        if (minute <= firstStart) {
+            return 0;
+        }
+        long elapsed = minute - firstStart;
+        switch (frequency) {
+        case DAILY:
+            return ceilDiv(elapsed, MINUTES_PER_DAY);
+        case WEEKLY:
+            return ceilDiv(elapsed, MINUTES_PER_WEEK);
+        default:
+            LocalDateTime first = EpochMinutes.toDateTime(firstStart);
+            LocalDateTime target = EpochMinutes.toDateTime(minute);
+            long months = (target.getYear() - first.getYear()) * 12L
+                    + target.getMonthValue() - first.getMonthValue();
+            return Math.max(0, months - 1);
+        }
+    }
+
+    /**
+     * Divides and rounds up, for non-negative dividends.
+     *
+     * @param a the dividend
+     * @param b the divisor
+     * @return a divided by b, rounded up
+     */
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    /**
+     * Returns the start of every occurrence that starts in the given range, in order.
+     * Only occurrences inside the range are generated.
+     *
+     * @param firstStart the start of the first occurrence (epoch minute)
+     * @param fromMinute the start of the range (epoch minute, inclusive)
+     * @param toMinute the end of the range (epoch minute, exclusive)
+     * @return the occurrence starts in the range
+     */
+    public ArrayList<Long> occurrencesBetween(long firstStart, long fromMinute, long toMinute) {
+        ArrayList<Long> result = new ArrayList<>();
+        long lastAllowed = EpochMinutes.startOfDay(until.plusDays(1));
+        long end = Math.min(toMinute, lastAllowed);
+        for (long n = firstIndexFrom(firstStart, fromMinute); ; n++) {
+            long start = nthStart(firstStart, n);
+            if (start >= end) {
+                break;
+            }
+            if (start >= fromMinute) {
+                result.add(start);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the occurrences that start in the given range and are not marked done, without listing them.
+     * Daily and weekly rules are counted by arithmetic; monthly rules step through the range.
+     *
+     * @param firstStart the start of the first occurrence (epoch minute)
+     * @param fromMinute the start of the range (epoch minute, inclusive)
+     * @param toMinute the end of the range (epoch minute, exclusive)
+     * @return the number of pending occurrences in the range
+     */
+    public int countPendingBetween(long firstStart, long fromMinute, long toMinute) {
+        long lastAllowed = EpochMinutes.startOfDay(until.plusDays(1));
+        long end = Math.min(toMinute, lastAllowed);
+        long from = Math.max(fromMinute, firstStart);
+        if (from >= end) {
+            return 0;
+        }
+        long count;
+        switch (frequency) {
+        case DAILY:
+            count = ceilDiv(end - firstStart, MINUTES_PER_DAY) - firstIndexFrom(firstStart, from);
+            break;
+        case WEEKLY:
+            count = ceilDiv(end - firstStart, MINUTES_PER_WEEK) - firstIndexFrom(firstStart, from);
+            break;
+        default:
+            count = 0;
+            for (long n = firstIndexFrom(firstStart, from); ; n++) {
+                long start = nthStart(firstStart, n);
+                if (start >= end) {
+                    break;
+                }
+                if (start >= from) {
+                    count++;
+                }
+            }
+            break;
+        }
+        return (int) count - doneOccurrences.subSet(from, end).size();
+    }
+
+    /**
+     * Returns the start of the first occurrence at or after the given minute, done or not.
+     *
+     * @param firstStart the start of the first occurrence (epoch minute)
+     * @param fromMinute the minute to search from
+     * @return the occurrence start, or {@link EpochMinutes#NONE} if the series has ended
+     */
+    public long firstOccurrenceFrom(long firstStart, long fromMinute) {
+        long lastAllowed = EpochMinutes.startOfDay(until.plusDays(1));
+        for (long n = firstIndexFrom(firstStart, fromMinute); ; n++) {
+            long start = nthStart(firstStart, n);
+            if (start >= lastAllowed) {
+                return EpochMinutes.NONE;
+            }
+            if (start >= fromMinute) {
+                return start;
+            }
+        }
+    }
+
+    /**
+     * Returns the start of the first occurrence at or after the given minute that is not marked done.
+     *
+     * @param firstStart the start of the first occurrence (epoch minute)
+     * @param fromMinute the minute to search from
+     * @return the occurrence start, or {@link EpochMinutes#NONE} if the series has ended
+     */
+    public long nextPendingFrom(long firstStart, long fromMinute) {
+        long lastAllowed = EpochMinutes.startOfDay(until.plusDays(1));
+        for (long n = firstIndexFrom(firstStart, fromMinute); ; n++) {
+            long start = nthStart(firstStart, n);
+            if (start >= lastAllowed) {
+                return EpochMinutes.NONE;
+            }
+            if (start >= fromMinute && !doneOccurrences.contains(start)) {
+                return start;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the occurrence starting at the given minute has been marked done.
+     *
+     * @param occurrenceStart the start of the occurrence (epoch minute)
+     * @return true if that occurrence is done
+     */
+    public boolean isOccurrenceDone(long occurrenceStart) {
+        return doneOccurrences.contains(occurrenceStart);
+    }
+
+    /**
+     * Marks or unmarks a single occurrence as done.
+     *
+     * @param occurrenceStart the start of the occurrence (epoch minute)
+     * @param isDone true to mark the occurrence done, false to unmark it
+     * @return true if the occurrence's status changed
+     */
+    public boolean setOccurrenceDone(long occurrenceStart, boolean isDone) {
+        return isDone ? doneOccurrences.add(occurrenceStart) : doneOccurrences.remove(occurrenceStart);
+    }
+
+    /**
+     * Returns the starts of all occurrences marked done.
+     *
+     * @return a read-only view of done occurrence starts
+     */
+    public Set<Long> getDoneOccurrences() {
+        return Collections.unmodifiableSet(doneOccurrences);
+    }
+
+    /**
+     * Returns a copy of this recurrence, including which occurrences are done, that later changes to this
+     * one do not affect.
+     *
+     * @return the copy
+     */
+    public Recurrence copy() {
+        Recurrence copy = new Recurrence(frequency, until);
+        copy.doneOccurrences.addAll(doneOccurrences);
+        return copy;
+    }
+
+    /**
+     * Returns a string representation of this recurrence.
+     *
+     * @return a string in the format "every week until date"
+     */
+    @Override
+    public String toString() {
+        return "every " + frequency.unit + " until " + until.format(UNTIL_FORMAT);
+    }
+}
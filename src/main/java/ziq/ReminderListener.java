@@ -0,0 +1,14 @@
+package ziq;
+
+/**
+ * Receives reminders from a ReminderScheduler.
+ */
+public interface ReminderListener {
+    /**
+     * Called when a deadline or event is coming up.
+     * Called on the scheduler's timer thread, so GUI code must hand the work over to its own thread.
+     *
+     * @param task the task that is coming up (for repeating tasks, the occurrence that is coming up)
+     */
+    void onReminder(Task task);
+}
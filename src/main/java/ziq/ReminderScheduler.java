@@ -0,0 +1,340 @@
+package ziq;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires reminders shortly before pending deadlines are due and events start.
+ * Pending tasks are kept ordered by reminder time, and a single timer is armed only for the earliest one,
+ * so nothing runs while waiting. The order is kept up to date from the task list's change notifications
+ * rather than by rescanning the list.
+ * Timed deadlines and events are reminded about a fixed number of minutes ahead; deadlines without a time
+ * are reminded about at the start of their day. Tasks already past when tracked are left to 'overdue'.
+ * Each tracked task is copied when the change notification arrives, on the thread that changed the list,
+ * so the timer thread only ever reads the copies and never the live tasks.
+ */
+public class ReminderScheduler implements TaskListListener {
+    public static final long DEFAULT_LEAD_MINUTES = 15;
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final TaskList tasks;
+    private final long leadMinutes;
+    private final ReminderListener listener;
+    private final Clock clock;
+    private final TreeMap<Long, ArrayList<Entry>> queue = new TreeMap<>();
+    private final IdentityHashMap<Task, Entry> entries = new IdentityHashMap<>();
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> armed;
+    private long armedMinute = EpochMinutes.NONE;
+
+    /**
+     * A tracked task and the occurrence it will next be reminded about.
+     */
+    private static class Entry {
+        private final Task task;
+        private final Task snapshot;
+        private final long dueMinute;
+        private final long remindMinute;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param task the task in the list
+         * @param snapshot a copy of the task, taken when it last changed
+         * @param dueMinute when the task (or its next occurrence) is due or starts
+         * @param remindMinute when to remind the user about it
+         */
+        Entry(Task task, Task snapshot, long dueMinute, long remindMinute) {
+            this.task = task;
+            this.snapshot = snapshot;
+            this.dueMinute = dueMinute;
+            this.remindMinute = remindMinute;
+        }
+    }
+
+    /**
+     * Constructs a scheduler for the given task list, using the system clock.
+     *
+     * @param tasks the task list to watch
+     * @param leadMinutes how many minutes before a timed task to remind the user
+     * @param listener the listener to send reminders to
+     */
+    public ReminderScheduler(TaskList tasks, long leadMinutes, ReminderListener listener) {
+        this(tasks, leadMinutes, listener, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a scheduler for the given task list and starts tracking its pending tasks.
+     * No timer runs until {@link #start()} is called.
+     *
+     * @param tasks the task list to watch
+     * @param leadMinutes how many minutes before a timed task to remind the user
+     * @param listener the listener to send reminders to
+     * @param clock the clock to read the current time from
+     */
+    ReminderScheduler(TaskList tasks, long leadMinutes, ReminderListener listener, Clock clock) {
+        assert tasks != null && listener != null : "task list and listener must not be null";
+        assert leadMinutes >= 0 : "lead time must not be negative";
+        this.tasks = tasks;
+        this.leadMinutes = leadMinutes;
+        this.listener = listener;
+        this.clock = clock;
+        long now = nowMinute();
+        for (Task task : tasks.getTaskList()) {
+            track(task, now);
+        }
+        tasks.addListener(this);
+    }
+
+    /**
+     * Starts the timer thread and arms it for the earliest reminder.
+     */
+    public synchronized void start() {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ziq-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rearm();
+    }
+
+    /**
+     * Stops the timer thread and stops watching the task list.
+     */
+    public synchronized void stop() {
+        tasks.removeListener(this);
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+        armed = null;
+        armedMinute = EpochMinutes.NONE;
+    }
+
+    /**
+     * Updates the tracked tasks after the task list changes, and re-arms the timer if the earliest
+     * reminder moved.
+     *
+     * @param changes the changes made to the task list
+     */
+    @Override
+    public synchronized void onTasksChanged(List<TaskListChange> changes) {
+        long now = nowMinute();
+        for (TaskListChange change : changes) {
+            switch (change.getKind()) {
+            case ADDED:
+            case STATUS_CHANGED:
+            case TAG_CHANGED:
+                untrack(change.getTask());
+                track(change.getTask(), now);
+                break;
+            case REMOVED:
+                untrack(change.getTask());
+                break;
+            case CLEARED:
+                queue.clear();
+                entries.clear();
+                break;
+            default:
+                break;
+            }
+        }
+        rearm();
+    }
+
+    /**
+     * Returns the minute the earliest reminder is due.
+     *
+     * @return the earliest reminder minute, or {@link EpochMinutes#NONE} if nothing is tracked
+     */
+    synchronized long nextReminderMinute() {
+        return queue.isEmpty() ? EpochMinutes.NONE : queue.firstKey();
+    }
+
+    /**
+     * Returns the number of tasks waiting for a reminder.
+     *
+     * @return the number of tracked tasks
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Sends every reminder due at or before the given minute, then moves repeating tasks on to their
+     * next occurrence.
+     *
+     * @param now the current minute
+     * @return the tasks reminded about
+     */
+    ArrayList<Task> fireDue(long now) {
+        ArrayList<Task> due = new ArrayList<>();
+        synchronized (this) {
+            while (!queue.isEmpty() && queue.firstKey() <= now) {
+                for (Entry entry : queue.pollFirstEntry().getValue()) {
+                    entries.remove(entry.task);
+                    if (entry.snapshot.isRecurring()) {
+                        due.add(TaskList.occurrenceOf(entry.snapshot, entry.dueMinute));
+                        track(entry.task, entry.snapshot, nextSearchMinute(entry.snapshot, entry.dueMinute));
+                    } else {
+                        due.add(entry.snapshot);
+                    }
+                }
+            }
+        }
+        for (Task task : due) {
+            listener.onReminder(task);
+        }
+        return due;
+    }
+
+    /**
+     * Starts tracking a pending task's next due time at or after the given minute, keeping a copy of the task
+     * to remind about. Must be called on the thread that changes the task list.
+     * Todos, done tasks and tasks with nothing left due are ignored.
+     *
+     * @param task the task to track
+     * @param fromMinute the earliest due time to consider
+     */
+    private void track(Task task, long fromMinute) {
+        if (nextDueMinute(task, fromMinute) != EpochMinutes.NONE) {
+            track(task, TaskList.snapshotOf(task), fromMinute);
+        }
+    }
+
+    /**
+     * Starts tracking the next due time at or after the given minute of a task that was copied before.
+     *
+     * @param task the task in the list
+     * @param snapshot the copy of the task to read the due time from and remind about
+     * @param fromMinute the earliest due time to consider
+     */
+    private void track(Task task, Task snapshot, long fromMinute) {
+        long due = nextDueMinute(snapshot, fromMinute);
+        if (due == EpochMinutes.NONE) {
+            return;
+        }
+        Entry entry = new Entry(task, snapshot, due, isDateOnly(snapshot) ? due : due - leadMinutes);
+        entries.put(task, entry);
+        queue.computeIfAbsent(entry.remindMinute, k -> new ArrayList<>()).add(entry);
+    }
+
+    /**
+     * Returns where to look for a repeating task's next occurrence after one has been reminded about.
+     * Date-only deadlines are due for their whole day, so the search starts at the next day; searching from
+     * later the same day would find the occurrence just reminded about again.
+     *
+     * @param task the repeating task
+     * @param dueMinute when the occurrence just reminded about is due
+     * @return the earliest due time to consider next
+     */
+    private static long nextSearchMinute(Task task, long dueMinute) {
+        if (isDateOnly(task)) {
+            return (Math.floorDiv(dueMinute, MINUTES_PER_DAY) + 1) * MINUTES_PER_DAY;
+        }
+        return dueMinute + 1;
+    }
+
+    /**
+     * Stops tracking a task, if it is tracked.
+     *
+     * @param task the task to stop tracking
+     */
+    private void untrack(Task task) {
+        Entry entry = entries.remove(task);
+        if (entry == null) {
+            return;
+        }
+        ArrayList<Entry> bucket = queue.get(entry.remindMinute);
+        bucket.remove(entry);
+        if (bucket.isEmpty()) {
+            queue.remove(entry.remindMinute);
+        }
+    }
+
+    /**
+     * Returns when a task, or the next pending occurrence of a repeating task, is due at or after
+     * the given minute. Deadlines without a time count as due for the whole of their day.
+     *
+     * @param task the task to check
+     * @param fromMinute the earliest due time to consider
+     * @return the due minute, or {@link EpochMinutes#NONE} if nothing is due
+     */
+    private static long nextDueMinute(Task task, long fromMinute) {
+        long firstStart = TimeIndex.scheduleMinuteOf(task);
+        if (firstStart == EpochMinutes.NONE || task.isDone()) {
+            return EpochMinutes.NONE;
+        }
+        long from = isDateOnly(task) ? Math.floorDiv(fromMinute, MINUTES_PER_DAY) * MINUTES_PER_DAY : fromMinute;
+        if (task.isRecurring()) {
+            return task.getRecurrence().nextPendingFrom(firstStart, from);
+        }
+        return firstStart >= from ? firstStart : EpochMinutes.NONE;
+    }
+
+    /**
+     * Returns true if the task is a deadline without a time.
+     *
+     * @param task the task to check
+     * @return true for date-only deadlines
+     */
+    private static boolean isDateOnly(Task task) {
+        return task instanceof Deadline && !((Deadline) task).hasTime();
+    }
+
+    /**
+     * Points the timer at the earliest reminder, replacing the previous one if it changed.
+     */
+    private synchronized void rearm() {
+        if (timer == null) {
+            return;
+        }
+        long next = nextReminderMinute();
+        if (next == armedMinute && armed != null && !armed.isDone()) {
+            return;
+        }
+        if (armed != null) {
+            armed.cancel(false);
+            armed = null;
+        }
+        armedMinute = next;
+        if (next == EpochMinutes.NONE) {
+            return;
+        }
+        long delayMillis = Duration.between(LocalDateTime.now(clock), EpochMinutes.toDateTime(next)).toMillis();
+        armed = timer.schedule(this::onTimer, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs on the timer thread: sends the reminders that are due and arms the timer for the next one.
+     */
+    private void onTimer() {
+        fireDue(nowMinute());
+        synchronized (this) {
+            armed = null;
+            rearm();
+        }
+    }
+
+    /**
+     * Returns the current minute from the clock.
+     *
+     * @return the current epoch minute
+     */
+    private long nowMinute() {
+        return EpochMinutes.of(LocalDateTime.now(clock));
+    }
+}
@@ -0,0 +1,57 @@
+package ziq;
+
+import java.util.List;
+
+/**
+ * Represents Ziq's reply to one input: the lines it printed, and whether the input asked Ziq to exit.
+ */
+public class Response {
+    private final List<ResponseLine> lines;
+    private final boolean isExit;
+
+    /**
+     * Constructs a reply.
+     *
+     * @param lines the lines of the reply
+     * @param isExit true if the input was "bye"
+     */
+    public Response(List<ResponseLine> lines, boolean isExit) {
+        this.lines = lines;
+        this.isExit = isExit;
+    }
+
+    /**
+     * Returns the lines of the reply.
+     *
+     * @return the lines, in order
+     */
+    public List<ResponseLine> getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns true if the input asked Ziq to exit.
+     *
+     * @return true if the input was "bye"
+     */
+    public boolean isExit() {
+        return isExit;
+    }
+
+    /**
+     * Returns the reply as the CLI would print it, one line per {@link ResponseLine}.
+     *
+     * @return the text of the reply
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (ResponseLine line : lines) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(line);
+        }
+        return text.toString();
+    }
+}
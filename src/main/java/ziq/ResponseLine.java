@@ -0,0 +1,269 @@
+package ziq;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents one line of a reply, with the parts of the line kept apart.
+ * The CLI prints {@link #toString()}; the GUI styles each part directly instead of parsing the text back.
+ * A task line holds a copy of the task's fields, so it still shows the task as it was when the reply was made.
+ */
+public final class ResponseLine {
+
+    /**
+     * Kinds of reply line.
+     */
+    public enum Kind {
+        /** Plain text. */
+        TEXT,
+        /** A line introducing the lines after it, e.g. "here is your to-do list!". */
+        HEADER,
+        /** One task, with a prefix such as "1. " or an indent. */
+        TASK,
+        /** A tag followed by some text, e.g. "[work]: 3". */
+        TAG,
+        /** One command in the help text. */
+        HELP,
+        /** An error message. */
+        ERROR
+    }
+
+    private final Kind kind;
+    private final String prefix;
+    private final String text;
+    private final String detail;
+    private final String suffix;
+    private final TaskType type;
+    private final boolean isDone;
+    private final List<String> tags;
+
+    private ResponseLine(Kind kind, String prefix, String text, String detail, String suffix, TaskType type,
+            boolean isDone, List<String> tags) {
+        this.kind = kind;
+        this.prefix = prefix;
+        this.text = text;
+        this.detail = detail;
+        this.suffix = suffix;
+        this.type = type;
+        this.isDone = isDone;
+        this.tags = tags;
+    }
+
+    /**
+     * Creates a plain text line.
+     *
+     * @param text the text
+     * @return the line
+     */
+    public static ResponseLine text(String text) {
+        return new ResponseLine(Kind.TEXT, "", text, "", "", null, false, List.of());
+    }
+
+    /**
+     * Creates a header line.
+     *
+     * @param text the header text
+     * @return the line
+     */
+    public static ResponseLine header(String text) {
+        return new ResponseLine(Kind.HEADER, "", text, "", "", null, false, List.of());
+    }
+
+    /**
+     * Creates an error line.
+     *
+     * @param message the error message, including any "oop." prefix
+     * @return the line
+     */
+    public static ResponseLine error(String message) {
+        return new ResponseLine(Kind.ERROR, "", message, "", "", null, false, List.of());
+    }
+
+    /**
+     * Creates a task line.
+     *
+     * @param prefix the text before the task, e.g. "1. " or "  "
+     * @param task the task
+     * @param suffix the text after the task, e.g. a repeat rule, or ""
+     * @return the line
+     */
+    public static ResponseLine task(String prefix, Task task, String suffix) {
+        return new ResponseLine(Kind.TASK, prefix, task.description(), task.details(), suffix, TaskType.of(task),
+                task.isDone(), List.copyOf(task.getTags()));
+    }
+
+    /**
+     * Creates a line that starts with a tag, e.g. "[work]:" or "[work]: 3".
+     *
+     * @param tag the tag name
+     * @param text the text after the tag
+     * @return the line
+     */
+    public static ResponseLine tag(String tag, String text) {
+        return new ResponseLine(Kind.TAG, "", text, "", "", null, false, List.of(tag));
+    }
+
+    /**
+     * Creates a help line for one command.
+     *
+     * @param command the command name, e.g. "mark"
+     * @param parameters the parameters, e.g. "<index>", or "" if it takes none
+     * @param description what the command does
+     * @return the line
+     */
+    public static ResponseLine help(String command, String parameters, String description) {
+        return new ResponseLine(Kind.HELP, "", command, parameters, description, null, false, List.of());
+    }
+
+    /**
+     * Recreates a line from its parts, e.g. when reading a saved transcript.
+     *
+     * @param kind the kind of line
+     * @param prefix the prefix of a task line, or ""
+     * @param text the main text
+     * @param detail the task's dates or the help parameters, or ""
+     * @param suffix the text after a task or the help description, or ""
+     * @param type the task type of a task line, or null
+     * @param isDone true if the task of a task line was done
+     * @param tags the tags of a task or tag line
+     * @return the line
+     */
+    static ResponseLine restore(Kind kind, String prefix, String text, String detail, String suffix, TaskType type,
+            boolean isDone, List<String> tags) {
+        return new ResponseLine(kind, prefix, text, detail, suffix, type, isDone, List.copyOf(tags));
+    }
+
+    /**
+     * Returns the kind of this line.
+     *
+     * @return the kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the text before the task on a task line.
+     *
+     * @return the prefix, or "" for other lines
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Returns the main text: the task description, the text after a tag, the command name of a help line,
+     * or the whole text of any other line.
+     *
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the task's dates (e.g. " (by Feb 22 2022)") on a task line, or the parameters on a help line.
+     *
+     * @return the detail, or ""
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Returns the text after the task on a task line, or the description on a help line.
+     *
+     * @return the suffix, or ""
+     */
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * Returns the type of the task on a task line.
+     *
+     * @return the task type, or null for other lines
+     */
+    public TaskType getType() {
+        return type;
+    }
+
+    /**
+     * Returns true if the task on a task line was done.
+     *
+     * @return true if the task was done
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * Returns the tags of the task on a task line, or the tag of a tag line.
+     *
+     * @return the tags, possibly empty
+     */
+    public List<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Returns true if the other object is a line of the same kind with the same parts.
+     *
+     * @param other the object to compare with
+     * @return true if both lines would be shown the same way
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ResponseLine)) {
+            return false;
+        }
+        ResponseLine line = (ResponseLine) other;
+        return kind == line.kind && type == line.type && isDone == line.isDone && text.equals(line.text)
+                && prefix.equals(line.prefix) && detail.equals(line.detail) && suffix.equals(line.suffix)
+                && tags.equals(line.tags);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int hash = kind.hashCode();
+        hash = 31 * hash + prefix.hashCode();
+        hash = 31 * hash + text.hashCode();
+        hash = 31 * hash + detail.hashCode();
+        hash = 31 * hash + suffix.hashCode();
+        hash = 31 * hash + Objects.hashCode(type);
+        hash = 31 * hash + (isDone ? 1 : 0);
+        return 31 * hash + tags.hashCode();
+    }
+
+    /**
+     * Returns the line as the CLI prints it.
+     *
+     * @return the text of the line
+     */
+    @Override
+    public String toString() {
+        switch (kind) {
+        case TASK:
+            StringBuilder str = new StringBuilder(prefix).append('[').append(type.getCode()).append("][")
+                    .append(isDone ? Task.DONE_ICON : Task.NOT_DONE_ICON).append("] ").append(text);
+            for (String tag : tags) {
+                str.append(" [").append(tag).append(']');
+            }
+            return str.append(detail).append(suffix).toString();
+        case TAG:
+            return "[" + tags.get(0) + "]" + text;
+        case HELP:
+            return text + (detail.isEmpty() ? "" : " " + detail) + " - " + suffix;
+        default:
+            return text;
+        }
+    }
+}
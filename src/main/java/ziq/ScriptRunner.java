@@ -0,0 +1,156 @@
+package ziq;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Runs a file of commands, one per line, as a single batch.
+ * Saves are held back by {@link Storage#beginBatch(int)} and written once at the end (or at each checkpoint),
+ * so replaying a long script costs one file rewrite rather than one per command.
+ * The whole run is one task list transaction. A command that fails is reported the same way as at the prompt,
+ * its line is skipped and the script carries on, as a mistyped line should not cost the rest of the script.
+ * If the script cannot be read to the end or its changes cannot be saved, every change it made is undone,
+ * so the list is never left holding half a script.
+ */
+public class ScriptRunner {
+    /** Checkpoint interval meaning the file is only written once the script ends. */
+    public static final int NO_CHECKPOINTS = 0;
+
+    private final TaskList tasks;
+    private final Ui ui;
+    private final Storage storage;
+    private int commandCount;
+    private int failedCount;
+
+    /**
+     * Constructs a runner that works on the given task list.
+     *
+     * @param tasks the task list to modify
+     * @param ui the UI handler for output
+     * @param storage the storage handler for saving tasks
+     */
+    public ScriptRunner(TaskList tasks, Ui ui, Storage storage) {
+        this.tasks = tasks;
+        this.ui = ui;
+        this.storage = storage;
+    }
+
+    /**
+     * Runs every command in the file, stopping early at "bye".
+     * Blank lines are skipped.
+     *
+     * @param file the script to run
+     * @param checkpointInterval save after this many changes, or {@link #NO_CHECKPOINTS} to save only at the end
+     * @return true if the script ended with "bye", false otherwise
+     * @throws ZiqException if saves are already being batched, the file cannot be read or the final save fails;
+     *     either of the last two undoes the script's changes, and the file is written again if a checkpoint
+     *     may have saved some of them
+     */
+    public boolean run(Path file, int checkpointInterval) throws ZiqException {
+        if (storage.isBatching()) {
+            throw new ZiqException("run can't be used inside a script or with other commands on the same line.");
+        }
+        commandCount = 0;
+        failedCount = 0;
+        boolean isExit = false;
+        boolean isCommitted = false;
+        storage.beginBatch(checkpointInterval);
+        tasks.beginTransaction();
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while (!isExit && (line = reader.readLine()) != null) {
+                    isExit = runLine(line);
+                }
+            } catch (NoSuchFileException e) {
+                throw new ZiqException("script not found: " + file);
+            } catch (IOException e) {
+                throw new ZiqException("could not read script " + file + ": " + e.getMessage());
+            }
+            commit();
+            isCommitted = true;
+        } finally {
+            if (isCommitted) {
+                tasks.commitTransaction();
+            } else {
+                undo(checkpointInterval);
+            }
+        }
+        ui.printLine("script done: ran " + commandCount + " command(s), " + failedCount + " failed.");
+        return isExit;
+    }
+
+    /**
+     * Returns how many commands the last run executed, including the ones that failed.
+     *
+     * @return the number of commands
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * Returns how many commands in the last run failed.
+     *
+     * @return the number of failed commands
+     */
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Runs one line of the script.
+     *
+     * @param line the line
+     * @return true if the line was "bye"
+     */
+    private boolean runLine(String line) {
+        if (line.trim().isEmpty()) {
+            return false;
+        }
+        commandCount++;
+        try {
+            return Parser.executeCommand(line, tasks, ui, storage);
+        } catch (ZiqException e) {
+            failedCount++;
+            ui.diagnoseError(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Undoes every change the script made and ends the batch without writing them.
+     * If checkpoints were on, the file may already hold some of the changes, so the restored list is written.
+     *
+     * @param checkpointInterval the checkpoint interval the script ran with
+     */
+    private void undo(int checkpointInterval) {
+        tasks.rollbackTransaction();
+        storage.abortBatch();
+        if (checkpointInterval == NO_CHECKPOINTS) {
+            return;
+        }
+        try {
+            storage.save(tasks.getTaskList());
+        } catch (ZiqException e) {
+            ui.diagnoseError("script's changes were undone but could not be undone in the file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ends the batch, writing everything the script changed.
+     *
+     * @throws ZiqException if the save fails
+     */
+    private void commit() throws ZiqException {
+        try {
+            storage.commitBatch();
+        } catch (ZiqException e) {
+            throw new ZiqException("script ran but its changes could not be saved: " + e.getMessage());
+        }
+    }
+}
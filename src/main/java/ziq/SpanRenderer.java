@@ -0,0 +1,161 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Splits reply lines into styled spans for the GUI, joining neighbouring runs that share a style so a reply
+ * needs as few text nodes as possible. A list reply of plain tasks comes out as two spans per task: the type
+ * indicator, and everything from the task's text up to the next task's indicator.
+ * The chat builds a dialog again every time a message scrolls back into view, so the spans of each reply are
+ * kept for as long as the reply is, and the spans of each distinct line are kept in a small cache because
+ * lists repeat the same task lines.
+ */
+public final class SpanRenderer {
+    /** Number of distinct lines whose spans are kept. */
+    static final int CACHE_SIZE = 1024;
+
+    private static final StyledSpan EMPTY = new StyledSpan("", StyledSpan.Style.PLAIN, null);
+
+    // Least recently used lines are dropped first
+    private static final Map<ResponseLine, List<StyledSpan>> lineSpans =
+            new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ResponseLine, List<StyledSpan>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+    // Replies have no equals method, so each is looked up by identity and dropped once the chat lets go of it
+    private static final Map<Response, List<StyledSpan>> replySpans = new WeakHashMap<>();
+
+    private SpanRenderer() {
+    }
+
+    /**
+     * Returns the spans of a reply, from the cache if it was rendered before.
+     *
+     * @param response the reply
+     * @return the spans, in order, with no two neighbours in the same style; the list cannot be changed
+     */
+    public static List<StyledSpan> render(Response response) {
+        synchronized (replySpans) {
+            List<StyledSpan> spans = replySpans.get(response);
+            if (spans == null) {
+                spans = List.copyOf(render(response.getLines()));
+                replySpans.put(response, spans);
+            }
+            return spans;
+        }
+    }
+
+    /**
+     * Returns the spans of a list of lines, with a newline between lines.
+     *
+     * @param lines the lines of the reply
+     * @return the spans, in order, with no two neighbours in the same style
+     */
+    public static List<StyledSpan> render(List<ResponseLine> lines) {
+        ArrayList<StyledSpan> spans = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            List<StyledSpan> line = spansOf(lines.get(i));
+            int start = 0;
+            if (i > 0) {
+                // The newline joins the end of the previous line, and the start of this one if it looks the same
+                StyledSpan end = spans.isEmpty() ? EMPTY : spans.remove(spans.size() - 1);
+                if (!line.isEmpty() && end.hasSameStyle(line.get(0))) {
+                    spans.add(new StyledSpan(end.getText() + "\n" + line.get(0).getText(), end.getStyle(),
+                            end.getTag()));
+                    start = 1;
+                } else {
+                    spans.add(new StyledSpan(end.getText() + "\n", end.getStyle(), end.getTag()));
+                }
+            }
+            spans.addAll(line.subList(start, line.size()));
+        }
+        return spans;
+    }
+
+    /**
+     * Returns the spans of one line, from the cache if the same line was rendered recently.
+     *
+     * @param line the line
+     * @return the spans of the line; the list cannot be changed
+     */
+    static synchronized List<StyledSpan> spansOf(ResponseLine line) {
+        List<StyledSpan> spans = lineSpans.get(line);
+        if (spans == null) {
+            spans = List.copyOf(buildSpans(line));
+            lineSpans.put(line, spans);
+        }
+        return spans;
+    }
+
+    /**
+     * Splits one line into spans.
+     * Task types [E], [D], [T] and tags get their own styles, and help lines show the command and its
+     * parameters apart from the description.
+     *
+     * @param line the line
+     * @return the spans of the line
+     */
+    private static List<StyledSpan> buildSpans(ResponseLine line) {
+        ArrayList<StyledSpan> spans = new ArrayList<>();
+        switch (line.getKind()) {
+        case TASK:
+            append(spans, line.getPrefix(), StyledSpan.Style.PLAIN, null);
+            append(spans, "[" + line.getType().getCode() + "]", StyledSpan.styleOf(line.getType()), null);
+            append(spans, "[" + (line.isDone() ? Task.DONE_ICON : Task.NOT_DONE_ICON) + "] " + line.getText(),
+                    StyledSpan.Style.PLAIN, null);
+            for (String tag : line.getTags()) {
+                append(spans, " [" + tag + "]", StyledSpan.Style.TAG, tag);
+            }
+            append(spans, line.getDetail() + line.getSuffix(), StyledSpan.Style.PLAIN, null);
+            break;
+        case TAG:
+            String tag = line.getTags().get(0);
+            append(spans, "[" + tag + "]", StyledSpan.Style.TAG, tag);
+            append(spans, line.getText(), StyledSpan.Style.PLAIN, null);
+            break;
+        case HELP:
+            append(spans, line.getText(), StyledSpan.Style.COMMAND, null);
+            if (!line.getDetail().isEmpty()) {
+                append(spans, " " + line.getDetail(), StyledSpan.Style.PARAMETERS, null);
+            }
+            append(spans, " - " + line.getSuffix(), StyledSpan.Style.PLAIN, null);
+            break;
+        case ERROR:
+            append(spans, line.getText(), StyledSpan.Style.ERROR, null);
+            break;
+        default:
+            append(spans, line.getText(), StyledSpan.Style.PLAIN, null);
+            break;
+        }
+        return spans;
+    }
+
+    /**
+     * Adds text to the end of a line's spans, joining it to the last span if that has the same style.
+     * Empty text is skipped.
+     *
+     * @param spans the spans so far
+     * @param text the text to add
+     * @param style how to show it
+     * @param tag the tag name for a tag span, or null
+     */
+    private static void append(ArrayList<StyledSpan> spans, String text, StyledSpan.Style style, String tag) {
+        if (text.isEmpty()) {
+            return;
+        }
+        StyledSpan span = new StyledSpan(text, style, tag);
+        int last = spans.size() - 1;
+        if (last >= 0 && spans.get(last).hasSameStyle(span)) {
+            span = new StyledSpan(spans.get(last).getText() + text, style, tag);
+            spans.set(last, span);
+        } else {
+            spans.add(span);
+        }
+    }
+}
@@ -4,9 +4,12 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
@@ -31,9 +34,20 @@ public class Storage {
     private static final int EVENT_START_INDEX = 3;
     private static final int EVENT_END_INDEX = 4;
     private static final int EVENT_TAG_INDEX = 5;
+    private static final String LEGACY_DATE_ONLY_SUFFIX = "T00:00";
+    private static final String OCCURRENCE_DELIMITER = ";";
+    private static final String TAG_DELIMITER = ",";
+    private static final int RECURRENCE_UNTIL_OFFSET = 1;
+    private static final int RECURRENCE_EXCEPTIONS_OFFSET = 2;
 
     private final String filePath;
     private final Ui ui;
+    private boolean isBatching;
+    private int checkpointInterval;
+    private int pendingSaves;
+    private ArrayList<Task> pendingList;
+    // Checkpoints wait while this is above zero, e.g. during a group of commands that may still be undone
+    private int checkpointHolds;
 
     /**
      * Constructs a Storage instance with the specified file path and UI for messages.
@@ -143,24 +157,26 @@ public class Storage {
                     return null;
                 }
                 Todo todo = new Todo(parts[DESCRIPTION_INDEX]);
-                // Tag is optional (for backward compatibility with old save files)
-                if (parts.length >= TODO_PARTS_COUNT && !parts[TODO_TAG_INDEX].isEmpty()) {
-                    todo.setTag(parts[TODO_TAG_INDEX]);
+                // Tags are optional (for backward compatibility with old save files)
+                if (parts.length >= TODO_PARTS_COUNT) {
+                    todo.setTags(parseTags(parts[TODO_TAG_INDEX]));
                 }
                 return todo;
             case DEADLINE:
                 if (parts.length < DEADLINE_PARTS_COUNT - 1) {
                     return null;
                 }
-                LocalDateTime deadlineTime = LocalDateTime.parse(parts[DEADLINE_TIME_INDEX]);
-                // If time is exactly midnight (00:00:00), assume no time was originally specified
-                boolean hasTime = !(deadlineTime.getHour() == 0 && deadlineTime.getMinute() == 0
-                        && deadlineTime.getSecond() == 0);
+                String deadlineStr = parts[DEADLINE_TIME_INDEX];
+                boolean hasTime = hasDeadlineTime(deadlineStr);
+                LocalDateTime deadlineTime = deadlineStr.indexOf('T') >= 0
+                        ? LocalDateTime.parse(deadlineStr)
+                        : LocalDate.parse(deadlineStr).atStartOfDay();
                 Deadline deadline = new Deadline(parts[DESCRIPTION_INDEX], deadlineTime, hasTime);
-                // Tag is optional (for backward compatibility with old save files)
-                if (parts.length >= DEADLINE_PARTS_COUNT && !parts[DEADLINE_TAG_INDEX].isEmpty()) {
-                    deadline.setTag(parts[DEADLINE_TAG_INDEX]);
+                // Tags are optional (for backward compatibility with old save files)
+                if (parts.length >= DEADLINE_PARTS_COUNT) {
+                    deadline.setTags(parseTags(parts[DEADLINE_TAG_INDEX]));
                 }
+                deadline.setRecurrence(parseRecurrence(parts, DEADLINE_TAG_INDEX + 1));
                 return deadline;
             case EVENT:
                 if (parts.length < EVENT_PARTS_COUNT - 1) {
@@ -169,10 +185,11 @@ public class Storage {
                 LocalDateTime startTime = LocalDateTime.parse(parts[EVENT_START_INDEX]);
                 LocalDateTime endTime = LocalDateTime.parse(parts[EVENT_END_INDEX]);
                 Event event = new Event(parts[DESCRIPTION_INDEX], startTime, endTime);
-                // Tag is optional (for backward compatibility with old save files)
-                if (parts.length >= EVENT_PARTS_COUNT && !parts[EVENT_TAG_INDEX].isEmpty()) {
-                    event.setTag(parts[EVENT_TAG_INDEX]);
+                // Tags are optional (for backward compatibility with old save files)
+                if (parts.length >= EVENT_PARTS_COUNT) {
+                    event.setTags(parseTags(parts[EVENT_TAG_INDEX]));
                 }
+                event.setRecurrence(parseRecurrence(parts, EVENT_TAG_INDEX + 1));
                 return event;
             default:
                 return null;
@@ -182,14 +199,159 @@ public class Storage {
         }
     }
 
+    /**
+     * Parses the tag field of a save line. Tags are separated by ','; older files hold a single tag,
+     * which reads back unchanged.
+     *
+     * @param field the tag field
+     * @return the tags, in order
+     */
+    private static List<String> parseTags(String field) {
+        ArrayList<String> tags = new ArrayList<>();
+        for (String tag : field.split(TAG_DELIMITER)) {
+            if (!tag.isEmpty()) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Parses the optional recurrence fields that follow the tag: frequency, end date and the
+     * occurrences marked done (separated by ';').
+     *
+     * @param parts the parsed parts from the save file line
+     * @param frequencyIndex the index of the frequency field
+     * @return the recurrence, or null if the line has no recurrence fields
+     * @throws ZiqException if the frequency is not recognised
+     * @throws DateTimeParseException if a date is invalid
+     */
+    private static Recurrence parseRecurrence(String[] parts, int frequencyIndex) throws ZiqException {
+        if (parts.length <= frequencyIndex + RECURRENCE_UNTIL_OFFSET) {
+            return null;
+        }
+        Recurrence recurrence = new Recurrence(Recurrence.Frequency.fromName(parts[frequencyIndex]),
+                LocalDate.parse(parts[frequencyIndex + RECURRENCE_UNTIL_OFFSET]));
+        if (parts.length > frequencyIndex + RECURRENCE_EXCEPTIONS_OFFSET) {
+            for (String done : parts[frequencyIndex + RECURRENCE_EXCEPTIONS_OFFSET].split(OCCURRENCE_DELIMITER)) {
+                if (!done.isEmpty()) {
+                    recurrence.setOccurrenceDone(EpochMinutes.of(LocalDateTime.parse(done)), true);
+                }
+            }
+        }
+        return recurrence;
+    }
+
+    /**
+     * Returns true if a saved deadline value includes a time.
+     * Date-only deadlines are saved as a plain date and timed ones with seconds (e.g. 2022-02-22T00:00:00),
+     * so a deadline due at midnight keeps its time.
+     * Older save files wrote both as e.g. 2022-02-22T00:00; for those, midnight means no time was given.
+     *
+     * @param value the saved deadline value
+     * @return true if the deadline has a time component
+     */
+    private static boolean hasDeadlineTime(String value) {
+        if (value.indexOf('T') < 0) {
+            return false;
+        }
+        return !value.endsWith(LEGACY_DATE_ONLY_SUFFIX);
+    }
+
+    /**
+     * Starts a batch: until {@link #commitBatch()} is called, saves are held back and only the latest list
+     * is kept, so a script of many commands rewrites the file once instead of once per command.
+     *
+     * @param checkpointInterval write the file after this many held-back saves, or 0 to write only on commit
+     */
+    public void beginBatch(int checkpointInterval) {
+        assert checkpointInterval >= 0 : "checkpoint interval must not be negative";
+        this.isBatching = true;
+        this.checkpointInterval = checkpointInterval;
+        this.pendingSaves = 0;
+        this.pendingList = null;
+    }
+
+    /**
+     * Holds back checkpoints until {@link #releaseCheckpoints()}, so the file is never written with changes
+     * that may still be undone. Holds can be nested.
+     */
+    public void holdCheckpoints() {
+        checkpointHolds++;
+    }
+
+    /**
+     * Releases a hold taken by {@link #holdCheckpoints()}. A checkpoint that came due meanwhile is written at
+     * the next save.
+     */
+    public void releaseCheckpoints() {
+        assert checkpointHolds > 0 : "releaseCheckpoints called without holdCheckpoints";
+        checkpointHolds--;
+    }
+
+    /**
+     * Returns true if a batch is in progress.
+     *
+     * @return true if saves are currently held back
+     */
+    public boolean isBatching() {
+        return isBatching;
+    }
+
+    /**
+     * Ends the batch and writes the last list saved during it, if any.
+     *
+     * @throws ZiqException if there is an error saving the file
+     */
+    public void commitBatch() throws ZiqException {
+        ArrayList<Task> list = pendingList;
+        isBatching = false;
+        pendingList = null;
+        pendingSaves = 0;
+        if (list != null) {
+            save(list);
+        }
+    }
+
+    /**
+     * Ends the batch without writing anything saved during it, for when its changes have been undone.
+     */
+    public void abortBatch() {
+        isBatching = false;
+        pendingList = null;
+        pendingSaves = 0;
+    }
+
     /**
      * Saves the list of tasks to the storage file.
+     * During a batch the write is held back until the next checkpoint or the commit, and checkpoints wait while
+     * they are held.
      *
      * @param list the list of tasks to save
      * @throws ZiqException if there is an error saving the file
      */
     public void save(ArrayList<Task> list) throws ZiqException {
         assert list != null : "task list to save must not be null";
+        if (isBatching) {
+            pendingList = list;
+            pendingSaves++;
+            if (checkpointInterval > 0 && checkpointHolds == 0 && pendingSaves >= checkpointInterval) {
+                writeFile(list);
+                pendingList = null;
+                pendingSaves = 0;
+            }
+            return;
+        }
+        writeFile(list);
+    }
+
+    /**
+     * Writes the list of tasks to the storage file, creating its folder if needed.
+     *
+     * @param list the list of tasks to write
+     * @throws ZiqException if there is an error saving the file
+     */
+    private void writeFile(ArrayList<Task> list) throws ZiqException {
         try {
             File file = new File(filePath);
 
@@ -238,25 +400,30 @@ public class Storage {
      * @return the formatted string representation
      */
     private String formatTaskForSave(Task task) {
-        TaskType type = determineTaskType(task);
+        TaskType type = TaskType.of(task);
         String statusCode = task.getStatus().equals("✅") ? DONE_STATUS_CODE : NOT_DONE_STATUS_CODE;
         StringBuilder line = new StringBuilder();
         line.append(type.getCode()).append(FILE_DELIMITER);
         line.append(statusCode).append(FILE_DELIMITER);
         line.append(task.description());
 
-        String tag = task.getTag();
-        String tagStr = (tag != null && !tag.isEmpty()) ? tag : "";
+        String tagStr = String.join(TAG_DELIMITER, task.getTags());
 
         if (task instanceof Deadline) {
             Deadline deadline = (Deadline) task;
-            line.append(FILE_DELIMITER).append(deadline.by());
+            if (deadline.hasTime()) {
+                line.append(FILE_DELIMITER).append(deadline.by().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            } else {
+                line.append(FILE_DELIMITER).append(deadline.by().toLocalDate());
+            }
             line.append(FILE_DELIMITER).append(tagStr);
+            appendRecurrence(line, task);
         } else if (task instanceof Event) {
             Event event = (Event) task;
             line.append(FILE_DELIMITER).append(event.from());
             line.append(FILE_DELIMITER).append(event.to());
             line.append(FILE_DELIMITER).append(tagStr);
+            appendRecurrence(line, task);
         } else {
             // Todo
             line.append(FILE_DELIMITER).append(tagStr);
@@ -265,19 +432,24 @@ public class Storage {
     }
 
     /**
-     * Determines the TaskType of a given task.
+     * Appends a recurring task's rule to its save line: frequency, end date and the occurrences marked done.
+     * Nothing is appended for tasks that do not repeat, so their lines keep the old format.
      *
-     * @param task the task to check
-     * @return the corresponding TaskType
+     * @param line the save line being built
+     * @param task the task being saved
      */
-    private TaskType determineTaskType(Task task) {
-        if (task instanceof Todo) {
-            return TaskType.TODO;
-        } else if (task instanceof Deadline) {
-            return TaskType.DEADLINE;
-        } else {
-            return TaskType.EVENT;
+    private static void appendRecurrence(StringBuilder line, Task task) {
+        Recurrence recurrence = task.getRecurrence();
+        if (recurrence == null) {
+            return;
+        }
+        line.append(FILE_DELIMITER).append(recurrence.getFrequency());
+        line.append(FILE_DELIMITER).append(recurrence.getUntil());
+        line.append(FILE_DELIMITER);
+        String separator = "";
+        for (long done : recurrence.getDoneOccurrences()) {
+            line.append(separator).append(EpochMinutes.toDateTime(done));
+            separator = OCCURRENCE_DELIMITER;
         }
     }
 }
-
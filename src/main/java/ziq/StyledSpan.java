@@ -0,0 +1,112 @@
+package ziq;
+
+/**
+ * Represents a run of reply text that is shown in one style, e.g. a task type indicator or a tag.
+ * The GUI turns each span into one text node, picking the colour from the style.
+ */
+public final class StyledSpan {
+
+    /**
+     * Styles a span can be shown in.
+     */
+    public enum Style {
+        /** Ordinary reply text. */
+        PLAIN,
+        /** The [T] of a todo. */
+        TODO,
+        /** The [D] of a deadline. */
+        DEADLINE,
+        /** The [E] of an event. */
+        EVENT,
+        /** A tag, coloured by its name. */
+        TAG,
+        /** The command name of a help line. */
+        COMMAND,
+        /** The parameters of a help line. */
+        PARAMETERS,
+        /** An error message. */
+        ERROR
+    }
+
+    private final String text;
+    private final Style style;
+    private final String tag;
+
+    /**
+     * Constructs a span.
+     *
+     * @param text the text of the span
+     * @param style how to show it
+     * @param tag the tag name for a {@link Style#TAG} span, or null
+     */
+    public StyledSpan(String text, Style style, String tag) {
+        assert (style == Style.TAG) == (tag != null) : "only tag spans have a tag";
+        this.text = text;
+        this.style = style;
+        this.tag = tag;
+    }
+
+    /**
+     * Returns the style of a task type indicator.
+     *
+     * @param type the task type
+     * @return the style for its [T], [D] or [E]
+     */
+    public static Style styleOf(TaskType type) {
+        switch (type) {
+        case EVENT:
+            return Style.EVENT;
+        case DEADLINE:
+            return Style.DEADLINE;
+        default:
+            return Style.TODO;
+        }
+    }
+
+    /**
+     * Returns the text of the span.
+     *
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns how to show the span.
+     *
+     * @return the style
+     */
+    public Style getStyle() {
+        return style;
+    }
+
+    /**
+     * Returns the tag a {@link Style#TAG} span is coloured by.
+     *
+     * @return the tag name, or null for other styles
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Returns true if another span is shown the same way, so the two can be joined into one.
+     *
+     * @param other the other span
+     * @return true if both have the same style and tag
+     */
+    public boolean hasSameStyle(StyledSpan other) {
+        return style == other.style && (tag == null ? other.tag == null : tag.equals(other.tag));
+    }
+
+    /**
+     * Returns the text of the span.
+     *
+     * @return the text
+     */
+    @Override
+    public String toString() {
+        return text;
+    }
+}
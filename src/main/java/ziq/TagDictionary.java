@@ -0,0 +1,76 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Interns tag names to small integer ids shared by the task list, storage and the GUI.
+ * Each distinct tag text is stored once; tasks keep only the id, so comparing, grouping and
+ * looking up per-tag data (such as colours) are integer operations.
+ * Ids are assigned in first-seen order and never reused during a session.
+ */
+public final class TagDictionary {
+    /** Id used for tasks without a tag. */
+    public static final int NO_TAG = -1;
+
+    private static final HashMap<String, Integer> ID_BY_NAME = new HashMap<>();
+    private static final ArrayList<String> NAME_BY_ID = new ArrayList<>();
+
+    private TagDictionary() {
+    }
+
+    /**
+     * Returns the id for the given tag, assigning a new one if the tag has not been seen before.
+     *
+     * @param tag the tag text
+     * @return the tag id, or {@link #NO_TAG} if tag is null or empty
+     */
+    public static synchronized int intern(String tag) {
+        if (tag == null || tag.isEmpty()) {
+            return NO_TAG;
+        }
+        Integer id = ID_BY_NAME.get(tag);
+        if (id != null) {
+            return id;
+        }
+        int newId = NAME_BY_ID.size();
+        NAME_BY_ID.add(tag);
+        ID_BY_NAME.put(tag, newId);
+        return newId;
+    }
+
+    /**
+     * Returns the id for the given tag without assigning a new one.
+     *
+     * @param tag the tag text
+     * @return the tag id, or {@link #NO_TAG} if the tag is unknown, null or empty
+     */
+    public static synchronized int idOf(String tag) {
+        if (tag == null) {
+            return NO_TAG;
+        }
+        return ID_BY_NAME.getOrDefault(tag, NO_TAG);
+    }
+
+    /**
+     * Returns the tag text for the given id.
+     *
+     * @param id the tag id
+     * @return the shared tag text, or null if id is {@link #NO_TAG}
+     */
+    public static synchronized String nameOf(int id) {
+        if (id == NO_TAG) {
+            return null;
+        }
+        return NAME_BY_ID.get(id);
+    }
+
+    /**
+     * Returns the number of distinct tags seen so far. Every valid id is below this number.
+     *
+     * @return the number of interned tags
+     */
+    public static synchronized int size() {
+        return NAME_BY_ID.size();
+    }
+}
@@ -1,13 +1,26 @@
 package ziq;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Represents a task with a description and completion status.
  * Base class for different types of tasks (Todo, Deadline, Event).
  */
 public class Task {
+    /** Status shown for a task that is done. */
+    public static final String DONE_ICON = "✅";
+    /** Status shown for a task that is not done. */
+    public static final String NOT_DONE_ICON = " ";
+
     protected String description;
     protected boolean isDone;
-    protected String tag;
+    private static final int[] NO_TAGS = new int[0];
+
+    // Interned tag ids, in the order the tags were added
+    protected int[] tagIds;
+    protected Recurrence recurrence;
 
     /**
      * Constructs a new Task with the given description.
@@ -17,7 +30,7 @@ public class Task {
     public Task(String description) {
         this.description = description;
         this.isDone = false;
-        this.tag = null;
+        this.tagIds = NO_TAGS;
     }
 
     /**
@@ -35,7 +48,16 @@ public class Task {
      * @return "✅" if task is done, " " otherwise
      */
     public String getStatus() {
-        return (isDone ? "✅" : " ");
+        return (isDone ? DONE_ICON : NOT_DONE_ICON);
+    }
+
+    /**
+     * Returns true if this task has been marked as completed.
+     *
+     * @return true if the task is done
+     */
+    public boolean isDone() {
+        return isDone;
     }
 
     /**
@@ -53,21 +75,158 @@ public class Task {
     }
 
     /**
-     * Returns the tag of this task, or null if no tag is set.
+     * Returns the first tag of this task, or null if it has no tags.
      *
-     * @return the tag, or null if not set
+     * @return the first tag, or null if not set
      */
     public String getTag() {
-        return tag;
+        return tagIds.length == 0 ? null : TagDictionary.nameOf(tagIds[0]);
+    }
+
+    /**
+     * Returns the interned id of this task's first tag.
+     *
+     * @return the tag id, or {@link TagDictionary#NO_TAG} if the task has no tags
+     */
+    public int getTagId() {
+        return tagIds.length == 0 ? TagDictionary.NO_TAG : tagIds[0];
+    }
+
+    /**
+     * Returns all tags of this task, in the order they were added.
+     *
+     * @return the tags
+     */
+    public List<String> getTags() {
+        ArrayList<String> tags = new ArrayList<>(tagIds.length);
+        for (int id : tagIds) {
+            tags.add(TagDictionary.nameOf(id));
+        }
+        return tags;
     }
 
     /**
-     * Sets the tag for this task.
+     * Returns the interned ids of all tags of this task, in the order they were added.
      *
-     * @param tag the tag to set
+     * @return a copy of the tag ids
+     */
+    public int[] getTagIds() {
+        return tagIds.clone();
+    }
+
+    /**
+     * Returns true if this task has the tag with the given id.
+     *
+     * @param tagId the tag id
+     * @return true if the task has the tag
+     */
+    public boolean hasTag(int tagId) {
+        for (int id : tagIds) {
+            if (id == tagId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces all tags of this task with a single tag. The tag text is interned in the {@link TagDictionary}.
+     *
+     * @param tag the tag to set, or null to remove all tags
      */
     public void setTag(String tag) {
-        this.tag = tag;
+        int id = TagDictionary.intern(tag);
+        this.tagIds = id == TagDictionary.NO_TAG ? NO_TAGS : new int[] {id};
+    }
+
+    /**
+     * Replaces all tags of this task. Empty and repeated tags are skipped.
+     *
+     * @param tags the tags to set, in order
+     */
+    public void setTags(List<String> tags) {
+        this.tagIds = NO_TAGS;
+        for (String tag : tags) {
+            addTag(tag);
+        }
+    }
+
+    /**
+     * Adds a tag to this task, unless it already has it.
+     *
+     * @param tag the tag to add
+     * @return true if the tag was added
+     */
+    public boolean addTag(String tag) {
+        int id = TagDictionary.intern(tag);
+        if (id == TagDictionary.NO_TAG || hasTag(id)) {
+            return false;
+        }
+        tagIds = Arrays.copyOf(tagIds, tagIds.length + 1);
+        tagIds[tagIds.length - 1] = id;
+        return true;
+    }
+
+    /**
+     * Removes a tag from this task, if it has it.
+     *
+     * @param tag the tag to remove
+     * @return true if the tag was removed
+     */
+    public boolean removeTag(String tag) {
+        int id = TagDictionary.idOf(tag);
+        if (id == TagDictionary.NO_TAG || !hasTag(id)) {
+            return false;
+        }
+        int[] remaining = new int[tagIds.length - 1];
+        int next = 0;
+        for (int existing : tagIds) {
+            if (existing != id) {
+                remaining[next++] = existing;
+            }
+        }
+        tagIds = remaining.length == 0 ? NO_TAGS : remaining;
+        return true;
+    }
+
+    /**
+     * Returns how this task repeats, or null if it does not repeat.
+     *
+     * @return the recurrence, or null
+     */
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    /**
+     * Returns true if this task repeats.
+     *
+     * @return true if the task has a recurrence
+     */
+    public boolean isRecurring() {
+        return recurrence != null;
+    }
+
+    /**
+     * Returns " (every ... until ...)" for repeating tasks, or an empty string otherwise.
+     *
+     * @return the recurrence suffix for display
+     */
+    protected String recurrenceSuffix() {
+        return recurrence == null ? "" : " (" + recurrence + ")";
+    }
+
+    /**
+     * Copies this task's tag and completion status onto a single occurrence of it.
+     *
+     * @param occurrence the occurrence to fill in
+     * @param occurrenceStart the start of the occurrence (epoch minute)
+     */
+    protected void copyStateTo(Task occurrence, long occurrenceStart) {
+        occurrence.tagIds = tagIds;
+        if (isDone || (recurrence != null && recurrence.isOccurrenceDone(occurrenceStart))) {
+            occurrence.markAsDone();
+        }
     }
 
     /**
@@ -88,15 +247,27 @@ public class Task {
         return description.equals(other.description);
     }
 
+    /**
+     * Returns the part of this task's text that follows its tags, such as its dates.
+     *
+     * @return the details, or "" if the task has none
+     */
+    public String details() {
+        return "";
+    }
+
     /**
      * Returns a string representation of this task.
      *
-     * @return a string in the format "[status] description [tag]"
+     * @return a string in the format "[status] description [tag1] [tag2]"
      */
     @Override
     public String toString() {
-        String tagStr = (tag != null && !tag.isEmpty()) ? " [" + tag + "]" : "";
-        return "[" + getStatus() + "] " + description + tagStr;
+        StringBuilder str = new StringBuilder("[").append(getStatus()).append("] ").append(description);
+        for (int id : tagIds) {
+            str.append(" [").append(TagDictionary.nameOf(id)).append("]");
+        }
+        return str.toString();
     }
 }
 
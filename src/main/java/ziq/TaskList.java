@@ -3,16 +3,47 @@ package ziq;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Manages a collection of tasks.
  * Provides methods to add, remove, and retrieve tasks.
+ * Tasks in the list should be changed through this class so that its index and statistics stay current.
+ * Listeners are told about every change; changes made between {@link #beginBatch()} and {@link #endBatch()}
+ * are reported together in one notification.
+ * Changes made between {@link #beginTransaction()} and {@link #commitTransaction()} can be undone together
+ * with {@link #rollbackTransaction()}.
+ * Recurring tasks are kept as single rules; their occurrences are only worked out for the time range
+ * a query asks for.
  */
 public class TaskList {
     private final ArrayList<Task> tasks;
+    private final TimeIndex pendingByTime = new TimeIndex();
+    private final TimeIndex pendingByOverdue = new TimeIndex(TaskList::lastOnTimeMinuteOf);
+    private final EventIndex events = new EventIndex();
+    private final ArrayList<Task> recurring = new ArrayList<>();
+    private final HashMap<String, ArrayList<Task>> byDescription = new HashMap<>();
+    private final QueryIndex queryIndex = new QueryIndex();
+    private final TaskStats stats = new TaskStats();
+    // Listeners may be added or removed on another thread while a change is being reported
+    private final CopyOnWriteArrayList<TaskListListener> listeners = new CopyOnWriteArrayList<>();
+    private final ArrayList<TaskListChange> pendingChanges = new ArrayList<>();
+    private final ArrayList<Runnable> undoLog = new ArrayList<>();
+    private final ArrayList<Integer> savepoints = new ArrayList<>();
+    private boolean isRollingBack;
+    private final OrganisedViews organisedViews = new OrganisedViews(this);
+    private int batchDepth;
+    private int modCount;
 
     /**
      * Constructs a TaskList with the given list of tasks.
@@ -22,6 +53,9 @@ public class TaskList {
     public TaskList(ArrayList<Task> tasks) {
         assert tasks != null : "tasks list must not be null";
         this.tasks = tasks;
+        for (Task task : tasks) {
+            indexTask(task);
+        }
     }
 
     /**
@@ -37,12 +71,78 @@ public class TaskList {
      * @param t the task(s) to add (varargs)
      */
     public void add(Task... t) {
-        for (Task task : t) {
-            assert task != null : "task to add must not be null";
-            tasks.add(task);
+        beginBatch();
+        try {
+            for (Task task : t) {
+                assert task != null : "task to add must not be null";
+                tasks.add(task);
+                indexTask(task);
+                int index = tasks.size() - 1;
+                recordUndo(() -> removeAt(index));
+                notifyChange(TaskListChange.added(task, index));
+            }
+        } finally {
+            endBatch();
         }
     }
 
+    /**
+     * Puts tasks back at the given positions, as when undoing their removal, in one pass over the list.
+     *
+     * @param indexes the positions the tasks end up at (0-based), in increasing order
+     * @param inserted the tasks to insert, in the same order as indexes
+     */
+    private void insertAll(int[] indexes, List<Task> inserted) {
+        assert indexes.length == inserted.size() : "every inserted task needs a position";
+        ArrayList<Task> merged = new ArrayList<>(tasks.size() + inserted.size());
+        int next = 0;
+        int old = 0;
+        while (old < tasks.size() || next < indexes.length) {
+            if (next < indexes.length && indexes[next] == merged.size()) {
+                merged.add(inserted.get(next++));
+            } else {
+                merged.add(tasks.get(old++));
+            }
+        }
+        boolean isAppend = indexes.length == 0 || indexes[0] >= tasks.size();
+        tasks.clear();
+        tasks.addAll(merged);
+        for (Task task : inserted) {
+            indexTask(task);
+        }
+        if (!isAppend) {
+            // The query index keeps tasks in list order by slot, and a new slot always goes last
+            queryIndex.clear();
+            for (Task task : tasks) {
+                queryIndex.add(task);
+            }
+        }
+        recordUndo(() -> removeAll(indexes));
+        beginBatch();
+        try {
+            for (int i = 0; i < indexes.length; i++) {
+                notifyChange(TaskListChange.added(inserted.get(i), indexes[i]));
+            }
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * Removes the given task from the list, if present.
+     *
+     * @param task the task to remove
+     * @return true if the task was in the list
+     */
+    public boolean remove(Task task) {
+        int index = tasks.indexOf(task);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
     /**
      * Returns true if the list already contains a task with the same details as the given task.
      *
@@ -50,7 +150,12 @@ public class TaskList {
      * @return true if a duplicate exists
      */
     public boolean containsDuplicateOf(Task task) {
-        for (Task existing : tasks) {
+        // Tasks with the same details share a description, so only those need comparing
+        ArrayList<Task> sameDescription = byDescription.get(task.description());
+        if (sameDescription == null) {
+            return false;
+        }
+        for (Task existing : sameDescription) {
             if (existing.hasSameDetailsAs(task)) {
                 return true;
             }
@@ -62,7 +167,18 @@ public class TaskList {
      * Clears all tasks from the list.
      */
     public void clear() {
+        TaskListChange change = TaskListChange.cleared(tasks);
+        Task[] cleared = tasks.toArray(new Task[0]);
+        recordUndo(() -> add(cleared));
         tasks.clear();
+        pendingByTime.clear();
+        pendingByOverdue.clear();
+        events.clear();
+        recurring.clear();
+        byDescription.clear();
+        queryIndex.clear();
+        stats.clear();
+        notifyChange(change);
     }
 
     /**
@@ -86,7 +202,445 @@ public class TaskList {
             throw new ZiqException("task number does not exist. enter 'list' to see valid task numbers");
         }
         assert index >= 0 && index < tasks.size() : "index must be valid at this point";
-        return tasks.remove(index);
+        return removeAt(index);
+    }
+
+    /**
+     * Removes the task at a valid index and updates the index, statistics and listeners.
+     *
+     * @param index the index of the task to remove (0-based)
+     * @return the removed task
+     */
+    private Task removeAt(int index) {
+        Task removed = tasks.remove(index);
+        unindexTask(removed);
+        recordUndo(() -> insertAll(new int[] {index}, List.of(removed)));
+        notifyChange(TaskListChange.removed(removed, index));
+        return removed;
+    }
+
+    /**
+     * Deletes the tasks at the given indexes in one pass, moving the remaining tasks up in place
+     * rather than removing them one at a time.
+     *
+     * @param indexes the indexes of the tasks to delete (0-based), in increasing order without repeats
+     * @return the deleted tasks, in list order
+     * @throws ZiqException if an index is out of range
+     */
+    public ArrayList<Task> deleteAll(int[] indexes) throws ZiqException {
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] < 0 || indexes[i] >= tasks.size()) {
+                throw new ZiqException("task number does not exist. enter 'list' to see valid task numbers");
+            }
+            assert i == 0 || indexes[i] > indexes[i - 1] : "indexes must be increasing";
+        }
+        return removeAll(indexes);
+    }
+
+    /**
+     * Removes the tasks at valid, increasing indexes and updates the indexes, statistics and listeners.
+     *
+     * @param indexes the indexes of the tasks to remove (0-based)
+     * @return the removed tasks, in list order
+     */
+    private ArrayList<Task> removeAll(int[] indexes) {
+        ArrayList<Task> removed = new ArrayList<>(indexes.length);
+        int next = 0;
+        int kept = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (next < indexes.length && indexes[next] == i) {
+                removed.add(task);
+                next++;
+            } else {
+                tasks.set(kept++, task);
+            }
+        }
+        tasks.subList(kept, tasks.size()).clear();
+        for (Task task : removed) {
+            unindexTask(task);
+        }
+        recordUndo(() -> insertAll(indexes, removed));
+        beginBatch();
+        try {
+            // Reported last first, so each index is where the task was when it was removed
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                notifyChange(TaskListChange.removed(removed.get(i), indexes[i]));
+            }
+        } finally {
+            endBatch();
+        }
+        return removed;
+    }
+
+    /**
+     * Marks the task at the specified index as done.
+     *
+     * @param index the index of the task to mark (0-based)
+     * @return the marked task
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task markAsDone(int index) {
+        Task task = get(index);
+        if (!task.isDone()) {
+            task.markAsDone();
+            pendingByTime.remove(task);
+            pendingByOverdue.remove(task);
+            queryIndex.statusChanged(task);
+            stats.recordStatusChanged(true);
+            recordUndo(() -> unmark(index));
+            notifyChange(TaskListChange.statusChanged(task, index));
+        }
+        return task;
+    }
+
+    /**
+     * Marks the task at the specified index as not done.
+     *
+     * @param index the index of the task to unmark (0-based)
+     * @return the unmarked task
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task unmark(int index) {
+        Task task = get(index);
+        if (task.isDone()) {
+            task.unmark();
+            if (!task.isRecurring()) {
+                pendingByTime.add(task);
+                pendingByOverdue.add(task);
+            }
+            queryIndex.statusChanged(task);
+            stats.recordStatusChanged(false);
+            recordUndo(() -> markAsDone(index));
+            notifyChange(TaskListChange.statusChanged(task, index));
+        }
+        return task;
+    }
+
+    /**
+     * Marks or unmarks the occurrence of a recurring task that starts on the given date.
+     * Only the occurrence is recorded as an exception; the rest of the series is unchanged.
+     *
+     * @param index the index of the recurring task (0-based)
+     * @param date the date the occurrence starts on
+     * @param isDone true to mark the occurrence done, false to unmark it
+     * @return the occurrence, with its new status
+     * @throws ZiqException if the task does not repeat or has no occurrence on that date
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task markOccurrence(int index, LocalDate date, boolean isDone) throws ZiqException {
+        Task task = get(index);
+        if (!task.isRecurring()) {
+            throw new ZiqException("this task does not repeat. use mark without /on instead.");
+        }
+        ArrayList<Long> starts = task.getRecurrence().occurrencesBetween(TimeIndex.scheduleMinuteOf(task),
+                EpochMinutes.startOfDay(date), EpochMinutes.startOfDay(date.plusDays(1)));
+        if (starts.isEmpty()) {
+            throw new ZiqException("this task has no occurrence on that date.");
+        }
+        long start = starts.get(0);
+        setOccurrenceDone(index, start, isDone);
+        return occurrenceOf(task, start);
+    }
+
+    /**
+     * Marks or unmarks one occurrence of the recurring task at a valid index, notifying listeners if it changed.
+     *
+     * @param index the index of the recurring task (0-based)
+     * @param start the start of the occurrence, in epoch minutes
+     * @param isDone true to mark the occurrence done, false to unmark it
+     */
+    private void setOccurrenceDone(int index, long start, boolean isDone) {
+        Task task = tasks.get(index);
+        if (task.getRecurrence().setOccurrenceDone(start, isDone)) {
+            recordUndo(() -> setOccurrenceDone(index, start, !isDone));
+            notifyChange(TaskListChange.statusChanged(task, index));
+        }
+    }
+
+    /**
+     * Replaces the tags of the task at the specified index with a single tag.
+     *
+     * @param index the index of the task to tag (0-based)
+     * @param tag the tag to set, or null to remove every tag
+     * @return the tagged task
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task setTag(int index, String tag) {
+        return changeTags(index, task -> task.setTag(tag));
+    }
+
+    /**
+     * Replaces the tags of the task at the specified index.
+     *
+     * @param index the index of the task to tag (0-based)
+     * @param tags the tags to set, in order
+     * @return the tagged task
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task setTags(int index, List<String> tags) {
+        return changeTags(index, task -> task.setTags(tags));
+    }
+
+    /**
+     * Adds tags to the task at the specified index, keeping the ones it already has.
+     *
+     * @param index the index of the task to tag (0-based)
+     * @param tags the tags to add
+     * @return the tagged task
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task addTags(int index, List<String> tags) {
+        return changeTags(index, task -> tags.forEach(task::addTag));
+    }
+
+    /**
+     * Removes tags from the task at the specified index. Tags the task does not have are ignored.
+     *
+     * @param index the index of the task to untag (0-based)
+     * @param tags the tags to remove, or an empty list to remove every tag
+     * @return the untagged task
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task removeTags(int index, List<String> tags) {
+        if (tags.isEmpty()) {
+            return setTag(index, null);
+        }
+        return changeTags(index, task -> tags.forEach(task::removeTag));
+    }
+
+    /**
+     * Applies a change to the tags of the task at the specified index, then updates the tag bitmaps
+     * and statistics and notifies listeners if the tags actually changed.
+     *
+     * @param index the index of the task (0-based)
+     * @param edit the change to apply to the task
+     * @return the task
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    private Task changeTags(int index, Consumer<Task> edit) {
+        Task task = get(index);
+        List<String> previousTags = task.getTags();
+        int[] previousTagIds = task.getTagIds();
+        edit.accept(task);
+        if (Arrays.equals(previousTagIds, task.getTagIds())) {
+            return task;
+        }
+        queryIndex.tagsChanged(task, previousTagIds);
+        stats.recordTagsChanged(previousTagIds, task.getTagIds());
+        recordUndo(() -> setTags(index, previousTags));
+        notifyChange(TaskListChange.tagChanged(task, index, previousTags));
+        return task;
+    }
+
+    /**
+     * Registers a listener to be told about changes to this list.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(TaskListListener listener) {
+        assert listener != null : "listener must not be null";
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a previously added listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(TaskListListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts a batch. Changes are held back until the matching {@link #endBatch()} call
+     * and then reported to listeners in one notification. Batches may be nested.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch started with {@link #beginBatch()}.
+     * When the outermost batch ends, all changes made during it are reported together.
+     */
+    public void endBatch() {
+        assert batchDepth > 0 : "endBatch called without beginBatch";
+        batchDepth--;
+        if (batchDepth == 0) {
+            flushChanges();
+        }
+    }
+
+    /**
+     * Starts a transaction. Until it is committed or rolled back, every change is also recorded
+     * so that it can be undone. Transactions may be nested; an inner one only undoes its own changes.
+     */
+    public void beginTransaction() {
+        savepoints.add(undoLog.size());
+    }
+
+    /**
+     * Ends the innermost transaction, keeping every change made during it.
+     * Inside an outer transaction, the changes can still be undone by rolling that one back.
+     */
+    public void commitTransaction() {
+        assert !savepoints.isEmpty() : "commitTransaction called without beginTransaction";
+        savepoints.remove(savepoints.size() - 1);
+        if (savepoints.isEmpty()) {
+            undoLog.clear();
+        }
+    }
+
+    /**
+     * Ends the innermost transaction, undoing every change made during it, latest first.
+     * Listeners are told about the undoing changes in one notification.
+     */
+    public void rollbackTransaction() {
+        assert !savepoints.isEmpty() : "rollbackTransaction called without beginTransaction";
+        int start = savepoints.remove(savepoints.size() - 1);
+        List<Runnable> undos = undoLog.subList(start, undoLog.size());
+        isRollingBack = true;
+        beginBatch();
+        try {
+            for (int i = undos.size() - 1; i >= 0; i--) {
+                undos.get(i).run();
+            }
+        } finally {
+            undos.clear();
+            isRollingBack = false;
+            endBatch();
+        }
+    }
+
+    /**
+     * Records how to undo a change, if a transaction is in progress.
+     *
+     * @param undo the action that reverses the change
+     */
+    private void recordUndo(Runnable undo) {
+        if (!savepoints.isEmpty() && !isRollingBack) {
+            undoLog.add(undo);
+        }
+    }
+
+    /**
+     * Records a change and reports it immediately unless a batch is in progress.
+     *
+     * @param change the change to report
+     */
+    private void notifyChange(TaskListChange change) {
+        modCount++;
+        pendingChanges.add(change);
+        if (batchDepth == 0) {
+            flushChanges();
+        }
+    }
+
+    /**
+     * Reports all held-back changes to the listeners.
+     */
+    private void flushChanges() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        List<TaskListChange> changes = List.copyOf(pendingChanges);
+        pendingChanges.clear();
+        organisedViews.onTasksChanged(changes);
+        for (TaskListListener listener : listeners) {
+            listener.onTasksChanged(changes);
+        }
+    }
+
+    /**
+     * Returns the number of changes made to this list so far. Any change, including one still held back
+     * by a batch, moves it on, so a result computed at one count is still valid while the count is unchanged.
+     *
+     * @return the modification count
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Returns the tasks grouped by type and sorted by time, reusing the last result if nothing has changed.
+     *
+     * @param now the time to find the next occurrence of each repeating task from
+     * @return the view
+     */
+    public OrganisedViews.ByDeadline organiseByDeadline(LocalDateTime now) {
+        return organisedViews.byDeadline(now);
+    }
+
+    /**
+     * Returns the tasks grouped by tag, reusing the last result if nothing has changed.
+     *
+     * @return the view
+     */
+    public OrganisedViews.ByTag organiseByTag() {
+        return organisedViews.byTag();
+    }
+
+    /**
+     * Returns the tasks matching a filter query, reading candidates from the most selective index.
+     *
+     * @param query the query to run
+     * @return the matching tasks
+     */
+    public ArrayList<Task> filter(FilterQuery query) {
+        return plan(query).execute(queryIndex, tasks);
+    }
+
+    /**
+     * Returns the positions of the tasks matching a filter query, found through the same plan as
+     * {@link #filter(FilterQuery)}.
+     *
+     * @param query the query to run
+     * @return the indexes (0-based) of the matching tasks, in increasing order
+     */
+    public int[] findIndexes(FilterQuery query) {
+        Set<Task> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+        matches.addAll(filter(query));
+        int[] indexes = new int[matches.size()];
+        int next = 0;
+        // Date and text plans return matches in their own order, so find the positions in one walk down the list
+        for (int i = 0; i < tasks.size() && next < indexes.length; i++) {
+            if (matches.contains(tasks.get(i))) {
+                indexes[next++] = i;
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Returns the tasks with a description word within {@code maxDistance} edits of the term, closest first.
+     * Tasks the same distance away are in list order.
+     *
+     * @param term the search term, a single word
+     * @param maxDistance the largest edit distance to accept
+     * @return the matching tasks, ranked by distance
+     */
+    public ArrayList<Task> findSimilar(String term, int maxDistance) {
+        return queryIndex.withWordNear(term.toLowerCase(Locale.ROOT), maxDistance);
+    }
+
+    /**
+     * Returns how a filter query would be run against this list.
+     *
+     * @param query the query to plan
+     * @return the plan
+     */
+    public QueryPlan plan(FilterQuery query) {
+        return QueryPlan.plan(query, queryIndex, tasks.size());
+    }
+
+    /**
+     * Returns the running statistics for this list.
+     *
+     * @return the task statistics
+     */
+    public TaskStats getStats() {
+        return stats;
     }
 
     /**
@@ -121,6 +675,388 @@ public class TaskList {
         return tasks.isEmpty();
     }
 
+    /**
+     * Returns up to {@code limit} pending deadlines and events scheduled at or after the given time,
+     * nearest first.
+     * A deadline without a time is due for the whole of its day, so one due today is still upcoming.
+     *
+     * @param now the time to look ahead from
+     * @param limit the maximum number of tasks to return
+     * @return the nearest upcoming pending tasks
+     */
+    public ArrayList<Task> getUpcoming(LocalDateTime now, int limit) {
+        assert limit > 0 : "limit must be positive";
+        long nowMinute = EpochMinutes.of(now);
+        long todayMinute = EpochMinutes.startOfDay(now.toLocalDate());
+        // Date-only deadlines sit at the start of their day, before anything else still to come today
+        ArrayList<Task> upcoming = new ArrayList<>();
+        for (Task task : pendingByTime.between(todayMinute, nowMinute)) {
+            if (isDateOnly(task) && upcoming.size() < limit) {
+                upcoming.add(task);
+            }
+        }
+        upcoming.addAll(pendingByTime.firstFrom(now, limit - upcoming.size()));
+        if (recurring.isEmpty()) {
+            return upcoming;
+        }
+        for (Task rule : recurring) {
+            if (rule.isDone()) {
+                continue;
+            }
+            long from = isDateOnly(rule) ? todayMinute : nowMinute;
+            long next = rule.getRecurrence().nextPendingFrom(TimeIndex.scheduleMinuteOf(rule), from);
+            if (next != EpochMinutes.NONE) {
+                upcoming.add(occurrenceOf(rule, next));
+            }
+        }
+        upcoming.sort(Comparator.comparingLong(TimeIndex::scheduleMinuteOf));
+        return new ArrayList<>(upcoming.subList(0, Math.min(limit, upcoming.size())));
+    }
+
+    /**
+     * Returns pending deadlines that are past due and pending events that have already ended,
+     * most overdue first.
+     * A deadline without a time only becomes overdue once its date has passed.
+     *
+     * @param now the time to compare against
+     * @return the overdue pending tasks
+     */
+    public ArrayList<Task> getOverdue(LocalDateTime now) {
+        ArrayList<Task> overdue = new ArrayList<>();
+        for (Task task : pendingByTime.allBefore(now)) {
+            if (isOverdue(task, now)) {
+                overdue.add(task);
+            }
+        }
+        if (recurring.isEmpty()) {
+            return overdue;
+        }
+        for (Task rule : recurring) {
+            if (rule.isDone()) {
+                continue;
+            }
+            long firstStart = TimeIndex.scheduleMinuteOf(rule);
+            for (Task occurrence : occurrencesBetween(rule, firstStart, EpochMinutes.of(now))) {
+                if (!occurrence.isDone() && isOverdue(occurrence, now)) {
+                    overdue.add(occurrence);
+                }
+            }
+        }
+        overdue.sort(Comparator.comparingLong(TimeIndex::scheduleMinuteOf));
+        return overdue;
+    }
+
+    /**
+     * Counts the tasks {@link #getOverdue(LocalDateTime)} would return, without listing them.
+     * One-off tasks are counted from an index ordered by when they become overdue, and each repeating task
+     * counts its overdue occurrences without working them out one by one.
+     *
+     * @param now the time to compare against
+     * @return the number of overdue pending tasks and occurrences
+     */
+    public int countOverdue(LocalDateTime now) {
+        long nowMinute = EpochMinutes.of(now);
+        int count = pendingByOverdue.countBefore(nowMinute);
+        for (Task rule : recurring) {
+            if (rule.isDone()) {
+                continue;
+            }
+            long firstStart = TimeIndex.scheduleMinuteOf(rule);
+            long overdueStartsBefore = nowMinute - (lastOnTimeMinuteOf(rule) - firstStart);
+            count += rule.getRecurrence().countPendingBetween(firstStart, firstStart, overdueStartsBefore);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the last minute a dated task is not yet overdue: the due time of a deadline, the last minute of
+     * the day of a deadline without a time, and the end of an event. The task is overdue at any later minute.
+     *
+     * @param task the task to check
+     * @return the epoch minute, or {@link EpochMinutes#NONE} for todos
+     */
+    private static long lastOnTimeMinuteOf(Task task) {
+        if (task instanceof Deadline) {
+            long by = ((Deadline) task).byEpochMinute();
+            return isDateOnly(task) ? EpochMinutes.startOfDay(EpochMinutes.toDate(by).plusDays(1)) - 1 : by;
+        }
+        if (task instanceof Event) {
+            return ((Event) task).toEpochMinute();
+        }
+        return EpochMinutes.NONE;
+    }
+
+    /**
+     * Returns true if the task is a deadline without a time.
+     *
+     * @param task the task to check
+     * @return true for date-only deadlines
+     */
+    private static boolean isDateOnly(Task task) {
+        return task instanceof Deadline && !((Deadline) task).hasTime();
+    }
+
+    /**
+     * Checks if a dated task is overdue at the given time.
+     *
+     * @param task the task to check
+     * @param now the time to compare against
+     * @return true if the task is overdue
+     */
+    private static boolean isOverdue(Task task, LocalDateTime now) {
+        long nowMinute = EpochMinutes.of(now);
+        if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            if (!deadline.hasTime()) {
+                return EpochMinutes.toEpochDay(deadline.byEpochMinute()) < now.toLocalDate().toEpochDay();
+            }
+            return deadline.byEpochMinute() < nowMinute;
+        }
+        if (task instanceof Event) {
+            return ((Event) task).toEpochMinute() < nowMinute;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the events in the list that overlap the given event, excluding the event itself.
+     *
+     * @param event the event to check
+     * @return the clashing events, in start order
+     */
+    public ArrayList<Event> getClashesWith(Event event) {
+        ArrayList<Event> clashes = events.findClashesWith(event);
+        if (recurring.isEmpty() || event.fromEpochMinute() == EpochMinutes.NONE
+                || event.toEpochMinute() == EpochMinutes.NONE) {
+            return clashes;
+        }
+        for (Task rule : recurring) {
+            if (rule == event || !(rule instanceof Event)) {
+                continue;
+            }
+            for (Task occurrence : occurrencesBetween(rule, event.fromEpochMinute(), event.toEpochMinute())) {
+                clashes.add((Event) occurrence);
+            }
+        }
+        clashes.sort(Comparator.comparingLong(Event::fromEpochMinute));
+        return clashes;
+    }
+
+    /**
+     * Returns every pair of overlapping one-off events in the list.
+     * Recurring events are left out, since their occurrences are unbounded in number.
+     *
+     * @return the clashing pairs
+     */
+    public ArrayList<EventIndex.Clash> getAllClashes() {
+        return events.findAllClashes();
+    }
+
+    /**
+     * Returns the free time slots of at least the given length within a time window.
+     * Events make their time busy, and a pending deadline with a time splits any slot it falls in,
+     * so no slot runs past a deadline. Only events and deadlines inside the window are visited.
+     *
+     * @param windowStart the start of the window (epoch minute, inclusive)
+     * @param windowEnd the end of the window (epoch minute, exclusive)
+     * @param minMinutes the minimum slot length in minutes
+     * @return the free slots, in time order
+     */
+    public ArrayList<TimeSlot> getFreeSlots(long windowStart, long windowEnd, long minMinutes) {
+        assert minMinutes > 0 : "minimum slot length must be positive";
+        ArrayList<long[]> busy = new ArrayList<>();
+        for (Event event : events.findOverlapping(windowStart, windowEnd)) {
+            if (!event.isDone()) {
+                busy.add(new long[] {event.fromEpochMinute(), event.toEpochMinute()});
+            }
+        }
+        // One-off events are all in the event index already, so only deadlines are taken from here
+        for (Task task : pendingByTime.between(windowStart, windowEnd)) {
+            if (task instanceof Deadline) {
+                addDeadlineSplit(busy, (Deadline) task);
+            }
+        }
+        for (Task rule : recurring) {
+            if (rule.isDone()) {
+                continue;
+            }
+            for (Task occurrence : occurrencesBetween(rule, windowStart, windowEnd)) {
+                if (occurrence.isDone()) {
+                    continue;
+                }
+                if (occurrence instanceof Event) {
+                    Event event = (Event) occurrence;
+                    busy.add(new long[] {event.fromEpochMinute(), event.toEpochMinute()});
+                } else if (occurrence instanceof Deadline) {
+                    addDeadlineSplit(busy, (Deadline) occurrence);
+                }
+            }
+        }
+        busy.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        ArrayList<TimeSlot> free = new ArrayList<>();
+        long cursor = windowStart;
+        for (long[] interval : busy) {
+            long busyStart = Math.max(interval[0], windowStart);
+            if (busyStart - cursor >= minMinutes) {
+                free.add(new TimeSlot(cursor, busyStart));
+            }
+            cursor = Math.max(cursor, Math.min(interval[1], windowEnd));
+        }
+        if (windowEnd - cursor >= minMinutes) {
+            free.add(new TimeSlot(cursor, windowEnd));
+        }
+        return free;
+    }
+
+    /**
+     * Marks the time of a deadline with a time as a zero-length busy interval, so free slots stop at it.
+     * Deadlines without a time are left out.
+     *
+     * @param busy the busy intervals so far
+     * @param deadline the deadline
+     */
+    private static void addDeadlineSplit(ArrayList<long[]> busy, Deadline deadline) {
+        if (deadline.hasTime()) {
+            long by = deadline.byEpochMinute();
+            busy.add(new long[] {by, by});
+        }
+    }
+
+    /**
+     * Adds a newly added task to the indexes and statistics.
+     *
+     * @param task the task to index
+     */
+    private void indexTask(Task task) {
+        stats.recordAdded(task);
+        queryIndex.add(task);
+        byDescription.computeIfAbsent(task.description(), description -> new ArrayList<>(1)).add(task);
+        if (task.isRecurring()) {
+            recurring.add(task);
+            return;
+        }
+        if (!task.isDone()) {
+            pendingByTime.add(task);
+            pendingByOverdue.add(task);
+        }
+        if (task instanceof Event) {
+            events.add((Event) task);
+        }
+    }
+
+    /**
+     * Removes a task that has left the list from the indexes and statistics.
+     *
+     * @param task the task that was removed
+     */
+    private void unindexTask(Task task) {
+        if (task.isRecurring()) {
+            recurring.remove(task);
+        }
+        pendingByTime.remove(task);
+        pendingByOverdue.remove(task);
+        if (task instanceof Event) {
+            events.remove((Event) task);
+        }
+        queryIndex.remove(task);
+        removeFromDescriptions(task);
+        stats.recordRemoved(task);
+    }
+
+    /**
+     * Removes a task from the description lookup used to find duplicates.
+     *
+     * @param task the task being removed
+     */
+    private void removeFromDescriptions(Task task) {
+        ArrayList<Task> sameDescription = byDescription.get(task.description());
+        if (sameDescription == null) {
+            return;
+        }
+        sameDescription.remove(task);
+        if (sameDescription.isEmpty()) {
+            byDescription.remove(task.description());
+        }
+    }
+
+    /**
+     * Returns the next occurrence of a recurring task that is not done, or the task itself if it does not repeat.
+     * A series with nothing left pending is represented by its first occurrence.
+     *
+     * @param task the task to look at
+     * @param now the time to look ahead from
+     * @return the next pending occurrence of the task
+     */
+    public static Task nextOccurrenceOf(Task task, LocalDateTime now) {
+        if (!task.isRecurring()) {
+            return task;
+        }
+        long firstStart = TimeIndex.scheduleMinuteOf(task);
+        long next = task.getRecurrence().nextPendingFrom(firstStart, EpochMinutes.of(now));
+        return occurrenceOf(task, next == EpochMinutes.NONE ? firstStart : next);
+    }
+
+    /**
+     * Returns the occurrences of a recurring task that overlap the given range.
+     * Events count as overlapping if any part of them falls in the range; deadlines if they are due in it.
+     *
+     * @param rule the recurring task
+     * @param fromMinute the start of the range (epoch minute, inclusive)
+     * @param toMinute the end of the range (epoch minute, exclusive)
+     * @return the occurrences, in time order
+     */
+    private static ArrayList<Task> occurrencesBetween(Task rule, long fromMinute, long toMinute) {
+        long firstStart = TimeIndex.scheduleMinuteOf(rule);
+        long length = 0;
+        if (rule instanceof Event) {
+            Event event = (Event) rule;
+            length = event.toEpochMinute() - event.fromEpochMinute();
+        }
+        ArrayList<Task> result = new ArrayList<>();
+        long searchFrom = Math.max(firstStart, fromMinute - length);
+        for (long start : rule.getRecurrence().occurrencesBetween(firstStart, searchFrom, toMinute)) {
+            if (length == 0 || start + length > fromMinute) {
+                result.add(occurrenceOf(rule, start));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the occurrence of a recurring task that starts at the given minute.
+     *
+     * @param rule the recurring deadline or event
+     * @param start the start of the occurrence (epoch minute)
+     * @return the occurrence
+     */
+    static Task occurrenceOf(Task rule, long start) {
+        if (rule instanceof Deadline) {
+            return ((Deadline) rule).occurrenceAt(start);
+        }
+        assert rule instanceof Event : "only deadlines and events can repeat";
+        return ((Event) rule).occurrenceAt(start);
+    }
+
+    /**
+     * Returns a standalone copy of a deadline or event, with a copy of its recurrence if it repeats, so it
+     * can be read from another thread while the list keeps changing.
+     *
+     * @param task the deadline or event to copy
+     * @return the copy, with the same details, tags and status
+     */
+    static Task snapshotOf(Task task) {
+        Task copy = occurrenceOf(task, TimeIndex.scheduleMinuteOf(task));
+        if (task.isRecurring()) {
+            // The copy took the first occurrence's status; the series keeps its own
+            copy.recurrence = task.getRecurrence().copy();
+            if (!task.isDone()) {
+                copy.unmark();
+            }
+        }
+        return copy;
+    }
+
     /**
      * Returns tasks that fall on the given date (deadlines due that day, events that span that day),
      * sorted by time.
@@ -130,10 +1066,16 @@ public class TaskList {
      */
     public ArrayList<Task> getTasksOnDate(LocalDate date) {
         List<Task> onDate = tasks.stream()
-                .filter(task -> isTaskOnDate(task, date))
-                .sorted(Comparator.comparing(t -> getScheduleTime(t)))
+                .filter(task -> !task.isRecurring() && isTaskOnDate(task, date))
                 .collect(Collectors.toList());
-        return new ArrayList<>(onDate);
+        ArrayList<Task> result = new ArrayList<>(onDate);
+        long dayStart = EpochMinutes.startOfDay(date);
+        long dayEnd = EpochMinutes.startOfDay(date.plusDays(1));
+        for (Task rule : recurring) {
+            result.addAll(occurrencesBetween(rule, dayStart, dayEnd));
+        }
+        result.sort(Comparator.comparingLong(TimeIndex::scheduleMinuteOf));
+        return result;
     }
 
     /**
@@ -147,33 +1089,15 @@ public class TaskList {
      * @return true if the task is on the given date
      */
     private static boolean isTaskOnDate(Task task, LocalDate date) {
+        long day = date.toEpochDay();
         if (task instanceof Deadline) {
-            return ((Deadline) task).by().toLocalDate().equals(date);
+            return EpochMinutes.toEpochDay(((Deadline) task).byEpochMinute()) == day;
         }
         if (task instanceof Event) {
             Event e = (Event) task;
-            return !date.isBefore(e.from().toLocalDate()) && !date.isAfter(e.to().toLocalDate());
+            return EpochMinutes.toEpochDay(e.fromEpochMinute()) <= day
+                    && day <= EpochMinutes.toEpochDay(e.toEpochMinute());
         }
         return false;
     }
-
-    /**
-     * Gets the time to use for sorting tasks in the schedule.
-     * For deadlines: returns the due date/time.
-     * For events: returns the start time.
-     * For todos: returns LocalDateTime.MIN (sorted first).
-     *
-     * @param task the task to get the schedule time for
-     * @return the LocalDateTime to use for sorting
-     */
-    private static LocalDateTime getScheduleTime(Task task) {
-        if (task instanceof Deadline) {
-            return ((Deadline) task).by();
-        }
-        if (task instanceof Event) {
-            return ((Event) task).from();
-        }
-        return LocalDateTime.MIN;
-    }
 }
-
@@ -0,0 +1,164 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes a single change made to a TaskList, with the affected task and its position.
+ * Changes in a batch are reported after all of them are made, so a change keeps a copy of the task's tags
+ * from when it happened rather than relying on the task, which later changes may have updated.
+ */
+public class TaskListChange {
+
+    /**
+     * Kinds of changes a TaskList can report.
+     */
+    public enum Kind {
+        ADDED, REMOVED, STATUS_CHANGED, TAG_CHANGED, CLEARED
+    }
+
+    private final Kind kind;
+    private final Task task;
+    private final int index;
+    private final List<String> previousTags;
+    private final List<String> tags;
+    private final List<Task> clearedTasks;
+
+    private TaskListChange(Kind kind, Task task, int index, List<String> previousTags, List<String> tags,
+            List<Task> clearedTasks) {
+        this.kind = kind;
+        this.task = task;
+        this.index = index;
+        this.previousTags = previousTags;
+        this.tags = tags;
+        this.clearedTasks = clearedTasks;
+    }
+
+    /**
+     * Creates a change for a task added at the given index.
+     *
+     * @param task the added task
+     * @param index the index the task was added at (0-based)
+     * @return the change
+     */
+    public static TaskListChange added(Task task, int index) {
+        return new TaskListChange(Kind.ADDED, task, index, List.of(), List.copyOf(task.getTags()), List.of());
+    }
+
+    /**
+     * Creates a change for a task removed from the given index.
+     *
+     * @param task the removed task
+     * @param index the index the task was removed from (0-based)
+     * @return the change
+     */
+    public static TaskListChange removed(Task task, int index) {
+        return new TaskListChange(Kind.REMOVED, task, index, List.of(), List.copyOf(task.getTags()), List.of());
+    }
+
+    /**
+     * Creates a change for a task that was marked or unmarked.
+     * The new status can be read from the task itself.
+     *
+     * @param task the changed task
+     * @param index the index of the task (0-based)
+     * @return the change
+     */
+    public static TaskListChange statusChanged(Task task, int index) {
+        return new TaskListChange(Kind.STATUS_CHANGED, task, index, List.of(), List.copyOf(task.getTags()),
+                List.of());
+    }
+
+    /**
+     * Creates a change for a task whose tags were set, added or removed.
+     *
+     * @param task the changed task
+     * @param index the index of the task (0-based)
+     * @param previousTags the tags before the change, in order
+     * @return the change
+     */
+    public static TaskListChange tagChanged(Task task, int index, List<String> previousTags) {
+        return new TaskListChange(Kind.TAG_CHANGED, task, index, List.copyOf(previousTags),
+                List.copyOf(task.getTags()), List.of());
+    }
+
+    /**
+     * Creates a change for the whole list being cleared.
+     *
+     * @param clearedTasks the tasks that were in the list, in order
+     * @return the change
+     */
+    public static TaskListChange cleared(List<Task> clearedTasks) {
+        return new TaskListChange(Kind.CLEARED, null, -1, List.of(), List.of(),
+                Collections.unmodifiableList(new ArrayList<>(clearedTasks)));
+    }
+
+    /**
+     * Returns the kind of this change.
+     *
+     * @return the change kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the affected task, or null for a CLEARED change.
+     *
+     * @return the affected task
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the position of the affected task (0-based), or -1 for a CLEARED change.
+     *
+     * @return the task index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the first tag the task had before a TAG_CHANGED change, or null.
+     *
+     * @return the previous first tag
+     */
+    public String getPreviousTag() {
+        return previousTags.isEmpty() ? null : previousTags.get(0);
+    }
+
+    /**
+     * Returns every tag the task had before a TAG_CHANGED change, or an empty list.
+     *
+     * @return the previous tags, in order
+     */
+    public List<String> getPreviousTags() {
+        return previousTags;
+    }
+
+    /**
+     * Returns the tags the task had just after the change: when it was added, removed, marked or retagged.
+     *
+     * @return the tags at the time of the change, in order, or an empty list for a CLEARED change
+     */
+    public List<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Returns the tasks removed by a CLEARED change, or an empty list for other changes.
+     *
+     * @return the cleared tasks
+     */
+    public List<Task> getClearedTasks() {
+        return clearedTasks;
+    }
+
+    @Override
+    public String toString() {
+        return kind + "@" + index + (task != null ? " " + task : "");
+    }
+}
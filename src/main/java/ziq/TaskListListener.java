@@ -0,0 +1,16 @@
+package ziq;
+
+import java.util.List;
+
+/**
+ * Receives change notifications from a TaskList.
+ */
+public interface TaskListListener {
+    /**
+     * Called after the task list changes.
+     * A single operation reports one change; a batch reports all of its changes together, in order.
+     *
+     * @param changes the changes made, in the order they happened
+     */
+    void onTasksChanged(List<TaskListChange> changes);
+}
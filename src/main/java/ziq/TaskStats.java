@@ -0,0 +1,172 @@
+package ziq;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running counts of tasks in a TaskList, by type, by tag and by completion status.
+ * The counts are updated by TaskList as tasks change, so reading them never scans the list.
+ */
+public class TaskStats {
+    private final int[] typeCounts = new int[TaskType.values().length];
+    private int[] tagCounts = new int[0];
+    private int total;
+    private int doneCount;
+    private int untaggedCount;
+
+    /**
+     * Records a task being added to the list.
+     *
+     * @param task the added task
+     */
+    void recordAdded(Task task) {
+        record(task, 1);
+    }
+
+    /**
+     * Records a task being removed from the list.
+     *
+     * @param task the removed task
+     */
+    void recordRemoved(Task task) {
+        record(task, -1);
+    }
+
+    /**
+     * Records a task's completion status changing.
+     *
+     * @param isNowDone true if the task was marked as done, false if it was unmarked
+     */
+    void recordStatusChanged(boolean isNowDone) {
+        doneCount += isNowDone ? 1 : -1;
+    }
+
+    /**
+     * Records a task's tags changing.
+     *
+     * @param oldTagIds the previous tag ids, empty if there were none
+     * @param newTagIds the new tag ids, empty if every tag was removed
+     */
+    void recordTagsChanged(int[] oldTagIds, int[] newTagIds) {
+        countTags(oldTagIds, -1);
+        countTags(newTagIds, 1);
+    }
+
+    /**
+     * Resets all counts to zero.
+     */
+    void clear() {
+        Arrays.fill(typeCounts, 0);
+        Arrays.fill(tagCounts, 0);
+        total = 0;
+        doneCount = 0;
+        untaggedCount = 0;
+    }
+
+    /**
+     * Adjusts every count the task contributes to by the given amount.
+     *
+     * @param task the task being added or removed
+     * @param delta 1 for an added task, -1 for a removed task
+     */
+    private void record(Task task, int delta) {
+        total += delta;
+        typeCounts[TaskType.of(task).ordinal()] += delta;
+        if (task.isDone()) {
+            doneCount += delta;
+        }
+        countTags(task.getTagIds(), delta);
+    }
+
+    /**
+     * Adjusts the count for each of a task's tag ids, counting a task with no tags as untagged.
+     *
+     * @param tagIds the tag ids to count
+     * @param delta the amount to adjust the counts by
+     */
+    private void countTags(int[] tagIds, int delta) {
+        if (tagIds.length == 0) {
+            untaggedCount += delta;
+            return;
+        }
+        for (int tagId : tagIds) {
+            if (tagId >= tagCounts.length) {
+                tagCounts = Arrays.copyOf(tagCounts, Math.max(tagId + 1, tagCounts.length * 2));
+            }
+            tagCounts[tagId] += delta;
+        }
+    }
+
+    /**
+     * Returns the total number of tasks.
+     *
+     * @return the number of tasks
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the number of tasks of the given type.
+     *
+     * @param type the task type
+     * @return the number of tasks of that type
+     */
+    public int getCount(TaskType type) {
+        return typeCounts[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of tasks marked as done.
+     *
+     * @return the number of done tasks
+     */
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    /**
+     * Returns the number of tasks not yet done.
+     *
+     * @return the number of pending tasks
+     */
+    public int getPendingCount() {
+        return total - doneCount;
+    }
+
+    /**
+     * Returns the number of tasks without a tag.
+     *
+     * @return the number of untagged tasks
+     */
+    public int getUntaggedCount() {
+        return untaggedCount;
+    }
+
+    /**
+     * Returns the number of tasks with the given tag id.
+     *
+     * @param tagId the tag id
+     * @return the number of tasks with that tag
+     */
+    public int getTagCount(int tagId) {
+        return tagId >= 0 && tagId < tagCounts.length ? tagCounts[tagId] : 0;
+    }
+
+    /**
+     * Returns the number of tasks for each tag in use, sorted by tag name.
+     *
+     * @return a read-only map of tag counts
+     */
+    public Map<String, Integer> getTagCounts() {
+        TreeMap<String, Integer> counts = new TreeMap<>();
+        for (int id = 0; id < tagCounts.length; id++) {
+            if (tagCounts[id] > 0) {
+                counts.put(TagDictionary.nameOf(id), tagCounts[id]);
+            }
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+}
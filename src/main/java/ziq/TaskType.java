@@ -41,5 +41,20 @@ public enum TaskType {
         }
         throw new ZiqException("what kind of task is this?");
     }
-}
 
+    /**
+     * Returns the TaskType of the given task.
+     *
+     * @param task the task to check
+     * @return the corresponding TaskType
+     */
+    public static TaskType of(Task task) {
+        if (task instanceof Deadline) {
+            return DEADLINE;
+        } else if (task instanceof Event) {
+            return EVENT;
+        } else {
+            return TODO;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package ziq;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keeps dated tasks (deadlines and events) ordered by their schedule time, or by another minute worked out
+ * from each task.
+ * Lets callers find the nearest upcoming or overdue tasks without sorting the whole task list.
+ */
+public class TimeIndex {
+    private final TreeMap<Long, ArrayList<Task>> buckets = new TreeMap<>();
+    private final ToLongFunction<Task> keyOf;
+    private int size;
+
+    /**
+     * Constructs an index that orders tasks by their schedule time.
+     */
+    public TimeIndex() {
+        this(TimeIndex::scheduleMinuteOf);
+    }
+
+    /**
+     * Constructs an index that orders tasks by the given minute.
+     * The key of a task must not change while it is indexed.
+     *
+     * @param keyOf returns the epoch minute to order a task by, or {@link EpochMinutes#NONE} to leave it out
+     */
+    public TimeIndex(ToLongFunction<Task> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    /**
+     * Returns the time a task is ordered by: the due date/time for deadlines, the start for events.
+     *
+     * @param task the task to get the schedule time for
+     * @return the schedule time, or null if the task has no date (todos)
+     */
+    public static LocalDateTime scheduleTimeOf(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).by();
+        }
+        if (task instanceof Event) {
+            return ((Event) task).from();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the schedule time of a task as an epoch minute.
+     *
+     * @param task the task to get the schedule time for
+     * @return the schedule epoch minute, or {@link EpochMinutes#NONE} if the task has no date (todos)
+     */
+    public static long scheduleMinuteOf(Task task) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).byEpochMinute();
+        }
+        if (task instanceof Event) {
+            return ((Event) task).fromEpochMinute();
+        }
+        return EpochMinutes.NONE;
+    }
+
+    /**
+     * Adds a task to the index. Tasks without a date and tasks already indexed are ignored.
+     *
+     * @param task the task to add
+     */
+    public void add(Task task) {
+        long key = keyOf.applyAsLong(task);
+        if (key == EpochMinutes.NONE) {
+            return;
+        }
+        ArrayList<Task> bucket = buckets.computeIfAbsent(key, k -> new ArrayList<>());
+        if (!bucket.contains(task)) {
+            bucket.add(task);
+            size++;
+        }
+    }
+
+    /**
+     * Removes a task from the index, if present.
+     *
+     * @param task the task to remove
+     */
+    public void remove(Task task) {
+        long key = keyOf.applyAsLong(task);
+        if (key == EpochMinutes.NONE) {
+            return;
+        }
+        ArrayList<Task> bucket = buckets.get(key);
+        if (bucket != null && bucket.remove(task)) {
+            size--;
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Removes every task from the index.
+     */
+    public void clear() {
+        buckets.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of indexed tasks.
+     *
+     * @return the number of indexed tasks
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to {@code limit} tasks scheduled at or after the given time, earliest first.
+     * Only the buckets that are returned are visited.
+     *
+     * @param time the time to start from (inclusive)
+     * @param limit the maximum number of tasks to return
+     * @return the earliest tasks at or after the given time
+     */
+    public ArrayList<Task> firstFrom(LocalDateTime time, int limit) {
+        ArrayList<Task> result = new ArrayList<>();
+        for (ArrayList<Task> bucket : buckets.tailMap(EpochMinutes.of(time), true).values()) {
+            for (Task task : bucket) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns every task scheduled strictly before the given time, earliest first.
+     *
+     * @param time the time to compare against (exclusive)
+     * @return the tasks scheduled before the given time
+     */
+    public ArrayList<Task> allBefore(LocalDateTime time) {
+        ArrayList<Task> result = new ArrayList<>();
+        for (ArrayList<Task> bucket : buckets.headMap(EpochMinutes.of(time), false).values()) {
+            result.addAll(bucket);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the tasks ordered strictly before the given minute, without listing them.
+     *
+     * @param minute the minute to compare against (epoch minute, exclusive)
+     * @return the number of tasks before it
+     */
+    public int countBefore(long minute) {
+        int count = 0;
+        for (ArrayList<Task> bucket : buckets.headMap(minute, false).values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns every task scheduled in the given range, earliest first.
+     *
+     * @param fromMinute the start of the range (epoch minute, inclusive)
+     * @param toMinute the end of the range (epoch minute, exclusive)
+     * @return the tasks scheduled in the range
+     */
+    public ArrayList<Task> between(long fromMinute, long toMinute) {
+        ArrayList<Task> result = new ArrayList<>();
+        if (fromMinute >= toMinute) {
+            return result;
+        }
+        for (ArrayList<Task> bucket : buckets.subMap(fromMinute, true, toMinute, false).values()) {
+            result.addAll(bucket);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the tasks scheduled in the given range, stopping once the count reaches {@code cap}.
+     *
+     * @param fromMinute the start of the range (epoch minute, inclusive)
+     * @param toMinute the end of the range (epoch minute, exclusive)
+     * @param cap the count to stop at
+     * @return the number of tasks in the range, or {@code cap} if there are at least that many
+     */
+    public int countBetween(long fromMinute, long toMinute, int cap) {
+        int count = 0;
+        if (fromMinute >= toMinute) {
+            return count;
+        }
+        for (ArrayList<Task> bucket : buckets.subMap(fromMinute, true, toMinute, false).values()) {
+            count += bucket.size();
+            if (count >= cap) {
+                return cap;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,60 @@
+package ziq;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a span of time from a start (inclusive) to an end (exclusive), stored as epoch minutes.
+ */
+public class TimeSlot {
+    private final long fromMinute;
+    private final long toMinute;
+
+    /**
+     * Constructs a time slot.
+     *
+     * @param fromMinute the start of the slot (epoch minute, inclusive)
+     * @param toMinute the end of the slot (epoch minute, exclusive)
+     */
+    public TimeSlot(long fromMinute, long toMinute) {
+        assert fromMinute <= toMinute : "slot must not end before it starts";
+        this.fromMinute = fromMinute;
+        this.toMinute = toMinute;
+    }
+
+    /**
+     * Returns the start of this slot.
+     *
+     * @return the start date/time
+     */
+    public LocalDateTime from() {
+        return EpochMinutes.toDateTime(fromMinute);
+    }
+
+    /**
+     * Returns the end of this slot.
+     *
+     * @return the end date/time
+     */
+    public LocalDateTime to() {
+        return EpochMinutes.toDateTime(toMinute);
+    }
+
+    /**
+     * Returns the length of this slot in minutes.
+     *
+     * @return the duration in minutes
+     */
+    public long durationMinutes() {
+        return toMinute - fromMinute;
+    }
+
+    /**
+     * Returns a string representation of this slot.
+     *
+     * @return a string in the format "date/time to date/time"
+     */
+    @Override
+    public String toString() {
+        return from().format(Parser.OUTPUT_FORMAT) + " to " + to().format(Parser.OUTPUT_FORMAT);
+    }
+}
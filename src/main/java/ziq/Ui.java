@@ -1,15 +1,17 @@
 package ziq;
 
+import java.util.List;
 import java.util.Scanner;
 
 /**
  * Handles user interface interactions.
  * Manages input/output operations for the application.
- * When a response buffer is set (e.g. for GUI), output is captured there instead of System.out.
+ * When a response buffer is set (e.g. for GUI), output is captured there as {@link ResponseLine}s
+ * instead of being printed to System.out.
  */
 public class Ui {
     private final Scanner sc;
-    private StringBuilder responseBuffer;
+    private List<ResponseLine> responseBuffer;
 
     /**
      * Constructs a new Ui instance with a Scanner for reading user input.
@@ -21,12 +23,34 @@ public class Ui {
     /**
      * Sets the buffer to capture output (for GUI). When null, output goes to System.out.
      *
-     * @param buffer the buffer to append output to, or null for console output
+     * @param buffer the buffer to add output lines to, or null for console output
      */
-    public void setResponseBuffer(StringBuilder buffer) {
+    public void setResponseBuffer(List<ResponseLine> buffer) {
         this.responseBuffer = buffer;
     }
 
+    /**
+     * Returns the buffer output is currently captured in.
+     *
+     * @return the buffer, or null if output goes to System.out
+     */
+    public List<ResponseLine> getResponseBuffer() {
+        return responseBuffer;
+    }
+
+    /**
+     * Prints a line to the current output (buffer if set, otherwise System.out).
+     *
+     * @param line the line to print
+     */
+    public void print(ResponseLine line) {
+        if (responseBuffer != null) {
+            responseBuffer.add(line);
+        } else {
+            System.out.println(line);
+        }
+    }
+
     /**
      * Prints one or more lines to the current output (buffer if set, otherwise System.out).
      *
@@ -35,13 +59,69 @@ public class Ui {
     public void printLine(String... lines) {
         for (String line : lines) {
             if (responseBuffer != null) {
-                responseBuffer.append(line).append("\n");
+                responseBuffer.add(ResponseLine.text(line));
             } else {
                 System.out.println(line);
             }
         }
     }
 
+    /**
+     * Prints a line introducing the lines after it, e.g. "here is your to-do list!".
+     *
+     * @param header the header text
+     */
+    public void printHeader(String header) {
+        print(ResponseLine.header(header));
+    }
+
+    /**
+     * Prints one task on its own line.
+     *
+     * @param prefix the text before the task, e.g. "1. " or "  "
+     * @param task the task to print
+     */
+    public void printTask(String prefix, Task task) {
+        printTask(prefix, task, "");
+    }
+
+    /**
+     * Prints one task on its own line, followed by some text.
+     *
+     * @param prefix the text before the task, e.g. "1. " or "  "
+     * @param task the task to print
+     * @param suffix the text after the task, e.g. how it repeats
+     */
+    public void printTask(String prefix, Task task, String suffix) {
+        if (responseBuffer != null) {
+            responseBuffer.add(ResponseLine.task(prefix, task, suffix));
+        } else {
+            // Console output is plain text, so skip copying the task's fields
+            System.out.println(prefix + task + suffix);
+        }
+    }
+
+    /**
+     * Prints a line that starts with a tag, e.g. "[work]: 3".
+     *
+     * @param tag the tag name
+     * @param text the text after the tag
+     */
+    public void printTag(String tag, String text) {
+        print(ResponseLine.tag(tag, text));
+    }
+
+    /**
+     * Prints the help line for one command.
+     *
+     * @param command the command name
+     * @param parameters the parameters the command takes, or ""
+     * @param description what the command does
+     */
+    public void printHelp(String command, String parameters, String description) {
+        print(ResponseLine.help(command, parameters, description));
+    }
+
     /**
      * Displays the welcome message to the user.
      */
@@ -66,14 +146,35 @@ public class Ui {
      * @param message the error message to display
      */
     public void diagnoseError(String message) {
-        printLine("oop. " + message);
+        print(ResponseLine.error("oop. " + message));
+    }
+
+    /**
+     * Returns the text of a reminder for a task that is coming up.
+     *
+     * @param task the task that is coming up
+     * @return the reminder text
+     */
+    public static String formatReminder(Task task) {
+        return "reminder! coming up soon:\n  " + task;
+    }
+
+    /**
+     * Displays a reminder for a task that is coming up, straight on the console.
+     * Reminders arrive on the timer thread, possibly while a command is running, so they never go into the
+     * command's response buffer; the reminder is written in one call so other output cannot split it.
+     *
+     * @param task the task that is coming up
+     */
+    public void showReminder(Task task) {
+        System.out.println(formatReminder(task));
     }
 
     /**
      * Displays an error message when loading tasks fails.
      */
     public void showLoadingError() {
-        printLine("oop. error loading,,, starting afresh!");
+        print(ResponseLine.error("oop. error loading,,, starting afresh!"));
     }
 }
 
@@ -0,0 +1,305 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A prefix tree of words, for finding the words that start with a prefix or are within a few edits of a term.
+ * The search walks the tree carrying one row of the edit distance table per letter, so words that share a
+ * prefix share the work for it, and a whole branch is skipped as soon as every entry in its row is over the
+ * limit. This is the same as running a Levenshtein automaton for the term over the tree.
+ */
+public class WordTrie {
+    private static final char[] NO_LETTERS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * A letter in the tree. Children are kept in letter order in two parallel arrays.
+     */
+    private static final class Node {
+        private char[] letters = NO_LETTERS;
+        private Node[] children = NO_NODES;
+        private String word;
+
+        /**
+         * Returns the child for a letter, or null if there is none.
+         */
+        private Node child(char letter) {
+            int position = Arrays.binarySearch(letters, letter);
+            return position < 0 ? null : children[position];
+        }
+
+        /**
+         * Returns the child for a letter, adding it if there is none.
+         */
+        private Node childOrAdd(char letter) {
+            int position = Arrays.binarySearch(letters, letter);
+            if (position >= 0) {
+                return children[position];
+            }
+            int insertAt = -position - 1;
+            char[] newLetters = new char[letters.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(letters, 0, newLetters, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(letters, insertAt, newLetters, insertAt + 1, letters.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            newLetters[insertAt] = letter;
+            newChildren[insertAt] = new Node();
+            letters = newLetters;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        /**
+         * Drops the child for a letter.
+         */
+        private void removeChild(char letter) {
+            int position = Arrays.binarySearch(letters, letter);
+            int tail = letters.length - position - 1;
+            char[] newLetters = new char[letters.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(letters, 0, newLetters, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(letters, position + 1, newLetters, position, tail);
+            System.arraycopy(children, position + 1, newChildren, position, tail);
+            letters = newLetters;
+            children = newChildren;
+        }
+
+        private boolean isEmpty() {
+            return word == null && letters.length == 0;
+        }
+    }
+
+    /**
+     * A word found by a search, with its distance from the search term.
+     */
+    public static final class Match {
+        private final String word;
+        private final int distance;
+
+        private Match(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+
+        /**
+         * Returns the word that matched.
+         *
+         * @return the word
+         */
+        public String getWord() {
+            return word;
+        }
+
+        /**
+         * Returns how many edits the word is from the search term.
+         *
+         * @return the edit distance
+         */
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * Adds a word. Adding a word already in the tree does nothing.
+     *
+     * @param word the word to add
+     */
+    public void add(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length(); i++) {
+            node = node.childOrAdd(word.charAt(i));
+        }
+        if (node.word == null) {
+            node.word = word;
+            size++;
+        }
+    }
+
+    /**
+     * Removes a word, and any letters no other word needs. Removing a word not in the tree does nothing.
+     *
+     * @param word the word to remove
+     */
+    public void remove(String word) {
+        Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            path[i + 1] = path[i].child(word.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+        if (path[word.length()].word == null) {
+            return;
+        }
+        path[word.length()].word = null;
+        size--;
+        for (int i = word.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(word.charAt(i - 1));
+        }
+    }
+
+    /**
+     * Removes every word.
+     */
+    public void clear() {
+        root.letters = NO_LETTERS;
+        root.children = NO_NODES;
+        root.word = null;
+        size = 0;
+    }
+
+    /**
+     * Returns how many words are in the tree.
+     *
+     * @return the number of words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the word is in the tree.
+     *
+     * @param word the word to look for
+     * @return true if the word was added and not removed since
+     */
+    public boolean contains(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+        return node != null && node.word != null;
+    }
+
+    /**
+     * Returns the words starting with the given prefix, in alphabetical order.
+     *
+     * @param prefix the prefix
+     * @param limit the most words to return
+     * @return up to {@code limit} words
+     */
+    public ArrayList<String> withPrefix(String prefix, int limit) {
+        ArrayList<String> words = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node != null) {
+            collect(node, limit, words);
+        }
+        return words;
+    }
+
+    /**
+     * Adds the words at and below a node to the list, in alphabetical order, until it holds {@code limit}.
+     *
+     * @param node the node to start from
+     * @param limit the most words the list may hold
+     * @param words the list to add to
+     */
+    private static void collect(Node node, int limit, ArrayList<String> words) {
+        if (node.word != null && words.size() < limit) {
+            words.add(node.word);
+        }
+        for (int i = 0; i < node.children.length && words.size() < limit; i++) {
+            collect(node.children[i], limit, words);
+        }
+    }
+
+    /**
+     * Finds every word within {@code maxDistance} edits (insertions, deletions or substitutions) of the term.
+     *
+     * @param term the search term
+     * @param maxDistance the largest edit distance to accept
+     * @return the matching words, in alphabetical order
+     */
+    public ArrayList<Match> search(String term, int maxDistance) {
+        ArrayList<Match> matches = new ArrayList<>();
+        int[] firstRow = new int[term.length() + 1];
+        for (int j = 0; j <= term.length(); j++) {
+            firstRow[j] = j;
+        }
+        if (root.word != null && term.length() <= maxDistance) {
+            matches.add(new Match(root.word, term.length()));
+        }
+        for (int i = 0; i < root.letters.length; i++) {
+            search(root.children[i], root.letters[i], term, firstRow, maxDistance, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Extends the distance table by one letter and searches below the node if any entry is still in range.
+     *
+     * @param node the node reached by the letter
+     * @param letter the letter
+     * @param term the search term
+     * @param previousRow the table row for the node's parent
+     * @param maxDistance the largest edit distance to accept
+     * @param matches the list to add matches to
+     */
+    private static void search(Node node, char letter, String term, int[] previousRow, int maxDistance,
+            ArrayList<Match> matches) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int rowMin = row[0];
+        for (int j = 1; j < row.length; j++) {
+            int substitute = previousRow[j - 1] + (term.charAt(j - 1) == letter ? 0 : 1);
+            row[j] = Math.min(substitute, Math.min(previousRow[j], row[j - 1]) + 1);
+            rowMin = Math.min(rowMin, row[j]);
+        }
+        if (node.word != null && row[row.length - 1] <= maxDistance) {
+            matches.add(new Match(node.word, row[row.length - 1]));
+        }
+        if (rowMin > maxDistance) {
+            return;
+        }
+        for (int i = 0; i < node.letters.length; i++) {
+            search(node.children[i], node.letters[i], term, row, maxDistance, matches);
+        }
+    }
+
+    /**
+     * Returns the edit distance between two words, or {@code limit + 1} once it is known to exceed the limit.
+     *
+     * @param a the first word
+     * @param b the second word
+     * @param limit the largest distance the caller needs exactly
+     * @return the edit distance, at most {@code limit + 1}
+     */
+    public static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char letter = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (letter == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], limit + 1);
+    }
+}
@@ -1,6 +1,12 @@
 package ziq;
 
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Main class for the Ziq task management application.
@@ -9,10 +15,15 @@ import java.nio.file.Paths;
 public class Ziq {
 
     private static final String FILE_PATH = Paths.get(".", "data", "ziq.txt").toString();
+    private static final String BATCH_FLAG = "--batch";
+    private static final String CHECKPOINT_FLAG = "--checkpoint";
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final String BYE_MESSAGE = "Bye. Hope to see you again!";
 
     private Storage storage;
     private TaskList tasks;
     private Ui ui;
+    private ReminderScheduler reminders;
 
     /**
      * Constructs a new Ziq instance with the default file path for storage.
@@ -38,30 +49,62 @@ public class Ziq {
         }
     }
 
+    /**
+     * Starts sending reminders for upcoming deadlines and events to the given listener.
+     * Any reminders already running are stopped first.
+     *
+     * @param listener the listener to send reminders to, called on the reminder thread
+     */
+    public void startReminders(ReminderListener listener) {
+        stopReminders();
+        reminders = new ReminderScheduler(tasks, ReminderScheduler.DEFAULT_LEAD_MINUTES, listener);
+        reminders.start();
+    }
+
+    /**
+     * Stops sending reminders, if they were started.
+     */
+    public void stopReminders() {
+        if (reminders != null) {
+            reminders.stop();
+            reminders = null;
+        }
+    }
+
+    /**
+     * Creates an index of completions for the commands, tags and description words in use,
+     * kept up to date as the task list changes until it is stopped.
+     *
+     * @return the completion index
+     */
+    public CompletionIndex createCompletionIndex() {
+        return new CompletionIndex(tasks);
+    }
+
     /**
      * Generates a response for the user's chat message by executing the command
      * and capturing the output for display in the GUI.
      *
      * @param input the user's message (command)
-     * @return the response string to show, or the bye message if command is "bye"
+     * @return the lines to show, or the bye message if command is "bye"
      */
-    public String getResponse(String input) {
+    public Response getResponse(String input) {
         assert input != null : "input must not be null";
         String trimmed = input.trim();
+        ArrayList<ResponseLine> out = new ArrayList<>();
         if (trimmed.isEmpty()) {
-            return "";
+            return new Response(out, false);
         }
-        StringBuilder out = new StringBuilder();
         ui.setResponseBuffer(out);
         try {
             boolean isExit = Parser.executeCommand(trimmed, tasks, ui, storage);
             if (isExit) {
-                return "Bye. Hope to see you again!";
+                return new Response(List.of(ResponseLine.text(BYE_MESSAGE)), true);
             }
-            return out.toString().trim();
+            return new Response(out, false);
         } catch (ZiqException e) {
             ui.diagnoseError(e.getMessage());
-            return out.toString().trim();
+            return new Response(out, false);
         } finally {
             ui.setResponseBuffer(null);
         }
@@ -72,6 +115,7 @@ public class Ziq {
      */
     public void run() {
         ui.welcomeUser();
+        startReminders(ui::showReminder);
         boolean isDone = false;
 
         while (!isDone) {
@@ -82,16 +126,68 @@ public class Ziq {
                 ui.diagnoseError(e.getMessage());
             }
         }
+        stopReminders();
         System.out.println("buh-bye!");
     }
 
+    /**
+     * Runs a file of commands as one batch and exits, without the welcome message or reminders.
+     * Output is buffered and written out in large blocks, and tasks are saved once at the end
+     * (or every checkpointInterval changes).
+     *
+     * @param scriptPath the path of the file of commands
+     * @param checkpointInterval save after this many changes, or {@link ScriptRunner#NO_CHECKPOINTS}
+     * @return true if every command succeeded and the tasks were saved, false otherwise
+     */
+    public boolean runBatch(String scriptPath, int checkpointInterval) {
+        PrintStream console = System.out;
+        PrintStream buffered = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false);
+        System.setOut(buffered);
+        try {
+            ScriptRunner runner = new ScriptRunner(tasks, ui, storage);
+            runner.run(Paths.get(scriptPath), checkpointInterval);
+            return runner.getFailedCount() == 0;
+        } catch (ZiqException e) {
+            ui.diagnoseError(e.getMessage());
+            return false;
+        } finally {
+            buffered.flush();
+            System.setOut(console);
+        }
+    }
+
     /**
      * Entry point for the Ziq application.
+     * With {@code --batch <file> [--checkpoint N]}, runs the file of commands and exits instead of
+     * reading commands interactively.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments
      */
     public static void main(String[] args) {
-        new Ziq(FILE_PATH).run();
+        if (args.length == 0) {
+            new Ziq(FILE_PATH).run();
+            return;
+        }
+        if (!args[0].equals(BATCH_FLAG) || (args.length != 2 && args.length != 4)
+                || (args.length == 4 && !args[2].equals(CHECKPOINT_FLAG))) {
+            System.err.println("usage: ziq [" + BATCH_FLAG + " <file> [" + CHECKPOINT_FLAG + " <commands>]]");
+            System.exit(2);
+        }
+        int checkpointInterval = ScriptRunner.NO_CHECKPOINTS;
+        if (args.length == 4) {
+            try {
+                checkpointInterval = Integer.parseInt(args[3]);
+            } catch (NumberFormatException e) {
+                checkpointInterval = -1;
+            }
+            if (checkpointInterval < 1) {
+                System.err.println(CHECKPOINT_FLAG + " must be a positive number of commands.");
+                System.exit(2);
+            }
+        }
+        boolean isSuccess = new Ziq(FILE_PATH).runBatch(args[1], checkpointInterval);
+        System.exit(isSuccess ? 0 : 1);
     }
 }
 
@@ -0,0 +1,41 @@
+package ziq;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal timing helper for the benchmarks in this folder.
+ * Runs a workload several times after a warm-up and reports the median time per run.
+ */
+public final class BenchmarkTimer {
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 11;
+
+    private BenchmarkTimer() {
+    }
+
+    /**
+     * Times the workload and prints the median duration in milliseconds.
+     * The workload returns a value that is folded into a checksum so the JIT cannot drop it.
+     *
+     * @param name the label to print
+     * @param workload the work to time
+     * @return the median duration in nanoseconds
+     */
+    public static long time(String name, LongSupplier workload) {
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            checksum += workload.getAsLong();
+        }
+        long[] durations = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            checksum += workload.getAsLong();
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        long median = durations[MEASURED_RUNS / 2];
+        System.out.printf("%-40s %10.3f ms   (checksum %d)%n", name, median / 1e6, checksum);
+        return median;
+    }
+}
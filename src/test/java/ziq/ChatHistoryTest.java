@@ -0,0 +1,102 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChatHistoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path transcript;
+    private ArrayList<ChatMessage> visible;
+    private ChatHistory history;
+
+    @BeforeEach
+    public void setUp() throws ZiqException {
+        transcript = tempDir.resolve("transcript.bin");
+        visible = new ArrayList<>();
+        history = new ChatHistory(visible, 3, transcript);
+    }
+
+    @Test
+    public void add_beyondCap_movesOldestToFile() throws ZiqException {
+        for (int i = 1; i <= 5; i++) {
+            history.add(ChatMessage.fromUser("message " + i));
+        }
+        assertEquals(3, visible.size());
+        assertEquals("message 3", visible.get(0).getUserText());
+        assertEquals(2, history.getOlderCount());
+        assertTrue(history.hasOlder());
+    }
+
+    @Test
+    public void loadOlder_restoresMessagesInOrder() throws ZiqException {
+        Deadline deadline = new Deadline("return book", LocalDateTime.of(2024, 2, 22, 18, 0), true);
+        deadline.markAsDone();
+        deadline.addTag("school");
+        Response reply = new Response(List.of(ResponseLine.header("here is your to-do list!"),
+                ResponseLine.task("1. ", deadline, ""), ResponseLine.tag("school", ": 1"),
+                ResponseLine.help("mark", "<index>", "marks a task as done"), ResponseLine.error("oop. no")), false);
+        history.add(ChatMessage.fromUser("list"));
+        history.add(ChatMessage.fromZiq(reply));
+        for (int i = 1; i <= 3; i++) {
+            history.add(ChatMessage.fromUser("message " + i));
+        }
+
+        assertEquals(1, history.loadOlder(1));
+        ChatMessage restored = visible.get(0);
+        assertFalse(restored.isUser());
+        assertEquals(reply.toString(), restored.getResponse().toString());
+        assertEquals(ResponseLine.Kind.TASK, restored.getResponse().getLines().get(1).getKind());
+        assertEquals(TaskType.DEADLINE, restored.getResponse().getLines().get(1).getType());
+        assertEquals(List.of("school"), restored.getResponse().getLines().get(1).getTags());
+
+        assertEquals(1, history.loadOlder(5));
+        assertEquals("list", visible.get(0).getUserText());
+        assertEquals(5, visible.size());
+        assertFalse(history.hasOlder());
+        assertEquals(0, history.loadOlder(5));
+    }
+
+    @Test
+    public void loadOlder_truncatesFile() throws ZiqException, IOException {
+        for (int i = 1; i <= 4; i++) {
+            history.add(ChatMessage.fromUser("message " + i));
+        }
+        long oneMessage = Files.size(transcript);
+        history.add(ChatMessage.fromUser("message 5"));
+        history.loadOlder(1);
+        assertEquals(oneMessage, Files.size(transcript));
+        history.loadOlder(1);
+        assertEquals(0, Files.size(transcript));
+
+        history.add(ChatMessage.fromUser("message 6"));
+        assertEquals(3, history.getOlderCount());
+        history.loadOlder(3);
+        assertEquals("message 1", visible.get(0).getUserText());
+        assertEquals("message 6", visible.get(visible.size() - 1).getUserText());
+    }
+
+    @Test
+    public void close_deletesFile() throws ZiqException {
+        for (int i = 1; i <= 4; i++) {
+            history.add(ChatMessage.fromUser("message " + i));
+        }
+        history.close();
+        assertFalse(Files.exists(transcript));
+        assertFalse(history.hasOlder());
+    }
+}
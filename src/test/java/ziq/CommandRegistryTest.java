@@ -0,0 +1,50 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CommandRegistryTest {
+
+    private CommandRegistry registry;
+    private ArrayList<String> received;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new CommandRegistry();
+        received = new ArrayList<>();
+        registry.register("echo", true, (arguments, tasks, ui, storage) -> {
+            received.add(arguments);
+            return false;
+        });
+        registry.register("quit", false, (arguments, tasks, ui, storage) -> true);
+    }
+
+    @Test
+    public void dispatch_passesTextAfterName() throws ZiqException {
+        assertFalse(registry.dispatch("echo hello there", null, null, null));
+        registry.dispatch("ECHO", null, null, null);
+        assertTrue(registry.dispatch("quit", null, null, null));
+        assertEquals("hello there", received.get(0));
+        assertEquals("", received.get(1));
+    }
+
+    @Test
+    public void dispatch_unknownOrExtraText_throwsException() {
+        assertThrows(ZiqException.class, () -> registry.dispatch("shout hi", null, null, null));
+        assertThrows(ZiqException.class, () -> registry.dispatch("quit now", null, null, null));
+    }
+
+    @Test
+    public void contains_ignoresCase() {
+        assertTrue(registry.contains("Quit"));
+        assertFalse(registry.contains("qui"));
+        assertTrue(Parser.getCommands().names().contains("untag"));
+    }
+}
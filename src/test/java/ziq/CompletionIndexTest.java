@@ -0,0 +1,84 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CompletionIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TaskList tasks;
+    private CompletionIndex completions;
+
+    @BeforeEach
+    public void setUp() {
+        tasks = new TaskList();
+        tasks.add(new Todo("Read report draft"), new Todo("return books"));
+        tasks.setTag(0, "work");
+        completions = new CompletionIndex(tasks);
+    }
+
+    @Test
+    public void complete_firstWord_suggestsCommands() {
+        assertEquals(List.of("deadline", "delete"), completions.complete("de", 8));
+        assertEquals(List.of("todo"), completions.complete("to", 8));
+        assertEquals(List.of("unmark", "untag"), completions.complete("UN", 8));
+    }
+
+    @Test
+    public void complete_laterWords_suggestTagsOrDescriptionWords() {
+        assertEquals(List.of("read", "report", "return"), completions.complete("find re", 8));
+        assertEquals(List.of("read"), completions.complete("find re", 1));
+        assertEquals(List.of("+work"), completions.complete("tag 2 +w", 8));
+        assertEquals(List.of("tag:work"), completions.complete("filter tag:", 8));
+        assertEquals(List.of("work"), completions.complete("untag 1 w", 8));
+        assertEquals(List.of(), completions.complete("deadline x /b", 8));
+        assertEquals(List.of(), completions.complete("find ", 8));
+    }
+
+    @Test
+    public void complete_followsTaskListChanges() throws ZiqException {
+        tasks.add(new Todo("write essay"));
+        tasks.setTag(2, "school");
+        assertEquals(List.of("write"), completions.complete("find wr", 8));
+        assertEquals(List.of("+school"), completions.complete("tag 1 +s", 8));
+        tasks.delete(2);
+        assertEquals(List.of(), completions.complete("find wr", 8));
+        assertEquals(List.of(), completions.complete("tag 1 +s", 8));
+        tasks.setTag(0, "home");
+        assertEquals(List.of(), completions.complete("tag 1 +w", 8));
+        completions.stop();
+        tasks.add(new Todo("water plants"));
+        assertEquals(List.of(), completions.complete("find wa", 8));
+    }
+
+    @Test
+    public void complete_batchedChanges_countEachTagOnce() throws ZiqException {
+        Ui ui = new Ui();
+        ui.setResponseBuffer(new ArrayList<>());
+        Storage storage = new Storage(tempDir.resolve("ziq.txt").toString(), ui);
+        Parser.executeCommand("todo alpha; tag 3 +xyzzy; tag 3 +plugh", tasks, ui, storage);
+        assertEquals(List.of("+xyzzy"), completions.complete("tag 1 +x", 8));
+        Parser.executeCommand("untag 3 xyzzy", tasks, ui, storage);
+        assertEquals(List.of(), completions.complete("tag 1 +x", 8));
+        assertEquals(List.of("+plugh"), completions.complete("tag 1 +p", 8));
+        Parser.executeCommand("tag 3 +xyzzy; delete 3", tasks, ui, storage);
+        assertEquals(List.of(), completions.complete("tag 1 +x", 8));
+        assertEquals(List.of(), completions.complete("tag 1 +p", 8));
+        assertEquals(List.of(), completions.complete("find alp", 8));
+    }
+
+    @Test
+    public void applyCompletion_replacesLastWord() {
+        assertEquals("tag 2 +work ", CompletionIndex.applyCompletion("tag 2 +w", "+work"));
+        assertEquals("delete ", CompletionIndex.applyCompletion("de", "delete"));
+    }
+}
@@ -0,0 +1,52 @@
+package ziq;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Compares parsing command dates with {@link DateTimeFormatter} patterns, the way Parser used to,
+ * against reading the digits directly with {@link InputDates}.
+ * Both sides turn every input into an epoch minute so the results can be checked against each other.
+ * Run with: gradlew benchmark -Pbench=DateParseBenchmark
+ */
+public class DateParseBenchmark {
+    private static final int INPUT_COUNT = 1_000_000;
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy HHmm");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy");
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        String[] inputs = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            LocalDateTime time = start.plusMinutes(random.nextInt(10 * 365 * 24 * 60));
+            inputs[i] = time.format(i % 2 == 0 ? DATE_TIME_FORMAT : DATE_FORMAT);
+        }
+
+        System.out.println("parsing " + INPUT_COUNT + " dates (half with a time)");
+        long before = BenchmarkTimer.time("before: DateTimeFormatter", () -> {
+            long sum = 0;
+            for (String input : inputs) {
+                sum += input.length() > 8
+                        ? EpochMinutes.of(LocalDateTime.parse(input, DATE_TIME_FORMAT))
+                        : EpochMinutes.startOfDay(LocalDate.parse(input, DATE_FORMAT));
+            }
+            return sum;
+        });
+        long after = BenchmarkTimer.time("after: InputDates", () -> {
+            long sum = 0;
+            for (String input : inputs) {
+                sum += input.length() > 8 ? InputDates.parseDateTime(input) : InputDates.parseDate(input);
+            }
+            return sum;
+        });
+        System.out.printf("speed-up: %.2fx%n", (double) before / after);
+    }
+}
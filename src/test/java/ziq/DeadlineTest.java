@@ -87,5 +87,19 @@ public class DeadlineTest {
         d.unmark();
         assertTrue(d.getStatus().equals(" "));
     }
-}
 
+    @Test
+    public void byEpochMinute_ordersLikeBy() {
+        Deadline earlier = new Deadline("a", LocalDateTime.of(2022, 2, 22, 12, 0), true);
+        Deadline later = new Deadline("b", LocalDateTime.of(2022, 2, 22, 12, 1), true);
+        assertEquals(1, later.byEpochMinute() - earlier.byEpochMinute());
+        assertEquals(LocalDateTime.of(2022, 2, 22, 12, 1), later.by());
+    }
+
+    @Test
+    public void hasTime_reflectsConstructorFlag() {
+        LocalDateTime by = LocalDateTime.of(2022, 2, 22, 0, 0);
+        assertTrue(new Deadline("timed", by, true).hasTime());
+        assertFalse(new Deadline("date only", by, false).hasTime());
+    }
+}
@@ -0,0 +1,75 @@
+package ziq;
+
+import java.util.Random;
+
+/**
+ * Compares finding the command for a line of input with the old chain of equalsIgnoreCase / startsWith
+ * checks against a single lookup in a {@link CommandRegistry}.
+ * Only dispatch is timed: every command does nothing.
+ * Run with: gradlew benchmark -Pbench=DispatchBenchmark
+ */
+public class DispatchBenchmark {
+    private static final int INPUT_COUNT = 1_000_000;
+    private static final String[] NAMES = {
+        "list", "clear", "mark", "unmark", "todo", "deadline", "event", "delete", "find", "filter", "explain",
+        "schedule", "tag", "untag", "organise", "next", "overdue", "stats", "clashes", "free", "help"
+    };
+    private static final String[] SAMPLES = {
+        "list", "mark 3", "todo read book", "deadline submit report /by 22022026 1200",
+        "event meeting /from 22022026 1200 /to 22022026 1400", "find book", "tag 2 +work",
+        "organise deadline", "free 22022026 60", "help", "stats", "overdue"
+    };
+
+    /**
+     * Returns the position of the command in the old if/else chain, the way executeCommand used to find it.
+     *
+     * @param input the normalized input
+     * @return the position of the matching branch, or -1 if none matched
+     */
+    private static int legacyDispatch(String input) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (input.equalsIgnoreCase(NAMES[i]) || input.startsWith(NAMES[i] + " ")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        CommandRegistry registry = new CommandRegistry();
+        for (String name : NAMES) {
+            registry.register(name, true, (arguments, tasks, ui, storage) -> false);
+        }
+        Random random = new Random(42);
+        String[] inputs = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            inputs[i] = SAMPLES[random.nextInt(SAMPLES.length)];
+        }
+
+        System.out.println("dispatching " + INPUT_COUNT + " commands");
+        long before = BenchmarkTimer.time("before: if/else chain", () -> {
+            long sum = 0;
+            for (String input : inputs) {
+                sum += legacyDispatch(input);
+            }
+            return sum;
+        });
+        long after = BenchmarkTimer.time("after: registry lookup", () -> {
+            long sum = 0;
+            try {
+                for (String input : inputs) {
+                    sum += registry.dispatch(input, null, null, null) ? 1 : input.length();
+                }
+            } catch (ZiqException e) {
+                throw new IllegalStateException(e);
+            }
+            return sum;
+        });
+        System.out.printf("speed-up: %.2fx%n", (double) before / after);
+    }
+}
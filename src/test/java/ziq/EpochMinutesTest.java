@@ -0,0 +1,39 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class EpochMinutesTest {
+
+    @Test
+    public void of_roundTripsThroughToDateTime() {
+        LocalDateTime time = LocalDateTime.of(2022, 2, 22, 13, 45);
+        assertEquals(time, EpochMinutes.toDateTime(EpochMinutes.of(time)));
+    }
+
+    @Test
+    public void of_beforeEpoch_roundTrips() {
+        LocalDateTime time = LocalDateTime.of(1969, 12, 31, 23, 59);
+        assertEquals(-1, EpochMinutes.of(time));
+        assertEquals(time, EpochMinutes.toDateTime(-1));
+        assertEquals(-1, EpochMinutes.toEpochDay(-1));
+    }
+
+    @Test
+    public void of_null_returnsNone() {
+        assertEquals(EpochMinutes.NONE, EpochMinutes.of(null));
+        assertNull(EpochMinutes.toDateTime(EpochMinutes.NONE));
+    }
+
+    @Test
+    public void startOfDay_matchesMidnight() {
+        LocalDate date = LocalDate.of(2022, 2, 22);
+        assertEquals(EpochMinutes.of(date.atStartOfDay()), EpochMinutes.startOfDay(date));
+        assertEquals(date.toEpochDay(), EpochMinutes.toEpochDay(EpochMinutes.startOfDay(date) + 1439));
+    }
+}
@@ -0,0 +1,74 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EventIndexTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2022, 2, 22, 12, 0);
+
+    private EventIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new EventIndex();
+    }
+
+    private static Event event(String name, int startHour, int endHour) {
+        return new Event(name, NOON.withHour(startHour), NOON.withHour(endHour));
+    }
+
+    @Test
+    public void findClashesWith_overlappingOnly() {
+        Event meeting = event("meeting", 12, 14);
+        index.add(meeting);
+        index.add(event("lunch", 13, 15));
+        index.add(event("after", 14, 16));
+        index.add(event("long", 8, 20));
+        index.add(event("morning", 9, 10));
+        ArrayList<Event> clashes = index.findClashesWith(meeting);
+        assertEquals(2, clashes.size());
+        assertEquals("long", clashes.get(0).description());
+        assertEquals("lunch", clashes.get(1).description());
+    }
+
+    @Test
+    public void findOverlapping_afterLongEventRemoved_stillCorrect() {
+        Event longEvent = event("long", 8, 20);
+        index.add(longEvent);
+        index.add(event("short", 12, 13));
+        index.remove(longEvent);
+        assertEquals(1, index.size());
+        ArrayList<Event> overlapping = index.findOverlapping(
+                EpochMinutes.of(NOON.withHour(12)), EpochMinutes.of(NOON.withHour(18)));
+        assertEquals(1, overlapping.size());
+        assertEquals("short", overlapping.get(0).description());
+    }
+
+    @Test
+    public void findAllClashes_reportsEveryPair() {
+        index.add(event("a", 9, 12));
+        index.add(event("b", 10, 11));
+        index.add(event("c", 11, 13));
+        index.add(event("d", 13, 14));
+        ArrayList<EventIndex.Clash> clashes = index.findAllClashes();
+        assertEquals(2, clashes.size());
+        assertEquals("a", clashes.get(0).getFirst().description());
+        assertEquals("b", clashes.get(0).getSecond().description());
+        assertEquals("a", clashes.get(1).getFirst().description());
+        assertEquals("c", clashes.get(1).getSecond().description());
+    }
+
+    @Test
+    public void add_eventWithoutEnd_ignored() {
+        index.add(new Event("open", NOON, null));
+        assertEquals(0, index.size());
+        assertTrue(index.findAllClashes().isEmpty());
+    }
+}
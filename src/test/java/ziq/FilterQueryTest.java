@@ -0,0 +1,152 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FilterQueryTest {
+
+    private TaskList tasks;
+
+    @BeforeEach
+    public void setUp() {
+        tasks = new TaskList();
+        Deadline report = new Deadline("submit report", LocalDateTime.of(2026, 3, 1, 12, 0), true);
+        Deadline taxes = new Deadline("pay taxes", LocalDateTime.of(2027, 4, 1, 12, 0), true);
+        Todo reading = new Todo("read report draft");
+        Event meeting = new Event("report review", LocalDateTime.of(2026, 3, 2, 10, 0),
+                LocalDateTime.of(2026, 3, 2, 11, 0));
+        tasks.add(report, taxes, reading, meeting);
+        tasks.setTag(0, "work");
+        tasks.setTag(1, "work");
+        tasks.setTag(3, "work");
+    }
+
+    @Test
+    public void parse_combinedTerms_matchesAll() throws ZiqException {
+        ArrayList<Task> matches = tasks.filter(
+                FilterQuery.parse("type:D tag:work before:31122026 done:false \"report\""));
+        assertEquals(1, matches.size());
+        assertEquals("submit report", matches.get(0).description());
+    }
+
+    @Test
+    public void parse_negationAndOr() throws ZiqException {
+        assertEquals(2, tasks.filter(FilterQuery.parse("report -type:T -type:E or taxes")).size());
+        assertEquals(1, tasks.filter(FilterQuery.parse("-tag:work")).size());
+    }
+
+    @Test
+    public void text_matchesWordPrefixes() throws ZiqException {
+        assertEquals(3, tasks.filter(FilterQuery.parse("rep")).size());
+        assertEquals(1, tasks.filter(FilterQuery.parse("\"rev rep\"")).size());
+        assertEquals(0, tasks.filter(FilterQuery.parse("port")).size());
+    }
+
+    @Test
+    public void doneKeywords_matchStatusUnlessQuoted() throws ZiqException {
+        tasks.markAsDone(2);
+        assertEquals(1, tasks.filter(FilterQuery.parse("done")).size());
+        assertEquals(3, tasks.filter(FilterQuery.parse("pending")).size());
+        assertEquals(0, tasks.filter(FilterQuery.parse("\"done\"")).size());
+        int[] indexes = tasks.findIndexes(FilterQuery.parse("tag:work pending before:01012027"));
+        assertEquals(2, indexes.length);
+        assertEquals(0, indexes[0]);
+        assertEquals(3, indexes[1]);
+    }
+
+    @Test
+    public void dateTerms_useScheduleTime() throws ZiqException {
+        assertEquals(2, tasks.filter(FilterQuery.parse("before:01012027")).size());
+        assertEquals(1, tasks.filter(FilterQuery.parse("after:01012027")).size());
+        assertEquals(1, tasks.filter(FilterQuery.parse("on:02032026")).size());
+    }
+
+    @Test
+    public void dateTerms_recurringTaskMatchesAnyOccurrence() throws ZiqException {
+        Event sync = new Event("sync", LocalDateTime.of(2026, 1, 5, 10, 0), LocalDateTime.of(2026, 1, 5, 11, 0));
+        sync.setRecurrence(new Recurrence(Recurrence.Frequency.WEEKLY, LocalDate.of(2026, 12, 31)));
+        tasks.add(sync);
+        assertEquals(1, tasks.filter(FilterQuery.parse("sync on:09032026")).size());
+        assertEquals(0, tasks.filter(FilterQuery.parse("sync on:10032026")).size());
+        assertEquals(0, tasks.filter(FilterQuery.parse("sync after:31122026")).size());
+    }
+
+    @Test
+    public void plan_choosesMostSelectiveIndex() throws ZiqException {
+        QueryPlan plan = tasks.plan(FilterQuery.parse("tag:work taxes"));
+        assertTrue(plan.usesIndex());
+        String explanation = String.join("\n", plan.explain());
+        assertTrue(explanation.contains("from the text index"));
+        assertFalse(tasks.plan(FilterQuery.parse("done:false")).usesIndex());
+        assertFalse(tasks.plan(FilterQuery.parse("tag:work or taxes")).usesIndex());
+    }
+
+    @Test
+    public void index_followsTagChangesAndDeletes() throws ZiqException {
+        tasks.setTag(0, "home");
+        assertEquals(2, tasks.filter(FilterQuery.parse("tag:work")).size());
+        tasks.delete(1);
+        assertEquals(1, tasks.filter(FilterQuery.parse("tag:work")).size());
+        assertEquals(0, tasks.filter(FilterQuery.parse("taxes")).size());
+        tasks.clear();
+        assertEquals(0, tasks.filter(FilterQuery.parse("rep")).size());
+    }
+
+    @Test
+    public void parse_invalidTerms_throwException() {
+        assertThrows(ZiqException.class, () -> FilterQuery.parse(""));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("colour:red"));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("\"\""));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("-"));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("tag:work \"!!\""));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("text:?"));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("type:X"));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("before:32012026"));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("done:maybe"));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("\"unclosed"));
+        assertThrows(ZiqException.class, () -> FilterQuery.parse("tag:work or"));
+    }
+
+    @Test
+    public void tagBitmaps_intersectTagsAndSubtractDone() throws ZiqException {
+        tasks.addTags(0, List.of("urgent"));
+        tasks.addTags(1, List.of("urgent"));
+        tasks.markAsDone(1);
+        ArrayList<Task> matches = tasks.filter(FilterQuery.parse("tag:work tag:urgent done:false"));
+        assertEquals(1, matches.size());
+        assertEquals("submit report", matches.get(0).description());
+        assertEquals(1, tasks.filter(FilterQuery.parse("tag:work -tag:urgent")).size());
+        assertEquals(0, tasks.filter(FilterQuery.parse("tag:urgent done:true -done:true")).size());
+
+        QueryPlan plan = tasks.plan(FilterQuery.parse("tag:work tag:urgent -done:true"));
+        assertTrue(plan.usesIndex());
+        assertTrue(String.join("\n", plan.explain()).contains("into exactly 1 candidate(s)"));
+    }
+
+    @Test
+    public void tagBitmaps_keepListOrderAfterDeletes() throws ZiqException {
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new Todo("filler " + i));
+            tasks.setTag(tasks.size() - 1, i % 2 == 0 ? "even" : "odd");
+        }
+        // Delete enough tasks for the index to renumber its slots
+        for (int i = 0; i < 80; i++) {
+            tasks.delete(4);
+        }
+        ArrayList<Task> odd = tasks.filter(FilterQuery.parse("tag:odd"));
+        assertEquals(10, odd.size());
+        assertEquals("filler 81", odd.get(0).description());
+        assertEquals("filler 99", odd.get(9).description());
+        assertEquals(3, tasks.filter(FilterQuery.parse("tag:work")).size());
+    }
+}
@@ -0,0 +1,96 @@
+package ziq;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/**
+ * Compares finding misspelt words by checking the edit distance to every word in the description vocabulary,
+ * against searching the {@link WordTrie} that {@link QueryIndex} keeps, on a list of a million tasks.
+ * Both sides return the number of matching words so the results can be checked against each other.
+ * Run with: gradlew benchmark -Pbench=FuzzyFindBenchmark
+ */
+public class FuzzyFindBenchmark {
+    private static final int TASK_COUNT = 1_000_000;
+    private static final int VOCABULARY_SIZE = 50_000;
+    private static final int WORDS_PER_TASK = 4;
+    private static final int QUERY_COUNT = 20;
+    private static final int MAX_DISTANCE = 2;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        while (words.size() < VOCABULARY_SIZE) {
+            words.add(randomWord(random));
+        }
+        String[] vocabulary = words.toArray(new String[0]);
+        ArrayList<Task> todos = new ArrayList<>(TASK_COUNT);
+        for (int i = 0; i < TASK_COUNT; i++) {
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_TASK; w++) {
+                description.append(vocabulary[random.nextInt(VOCABULARY_SIZE)]).append(' ');
+            }
+            todos.add(new Todo(description.toString().trim()));
+        }
+        long start = System.nanoTime();
+        TaskList tasks = new TaskList(todos);
+        System.out.printf("indexed %d tasks in %.0f ms%n", TASK_COUNT, (System.nanoTime() - start) / 1e6);
+
+        String[] terms = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            terms[i] = misspell(vocabulary[random.nextInt(VOCABULARY_SIZE)], random);
+        }
+        WordTrie trie = new WordTrie();
+        for (String word : vocabulary) {
+            trie.add(word);
+        }
+
+        System.out.println("finding words within " + MAX_DISTANCE + " edits of " + QUERY_COUNT + " misspelt terms");
+        long before = BenchmarkTimer.time("before: distance to every word", () -> {
+            long sum = 0;
+            for (String term : terms) {
+                for (String word : vocabulary) {
+                    if (WordTrie.distance(term, word, MAX_DISTANCE) <= MAX_DISTANCE) {
+                        sum++;
+                    }
+                }
+            }
+            return sum;
+        });
+        long after = BenchmarkTimer.time("after: word trie search", () -> {
+            long sum = 0;
+            for (String term : terms) {
+                sum += trie.search(term, MAX_DISTANCE).size();
+            }
+            return sum;
+        });
+        System.out.printf("speed-up: %.2fx%n", (double) before / after);
+        BenchmarkTimer.time("find ~term on " + TASK_COUNT + " tasks", () -> {
+            long sum = 0;
+            for (String term : terms) {
+                sum += tasks.findSimilar(term, MAX_DISTANCE).size();
+            }
+            return sum;
+        });
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 4 + random.nextInt(7);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static String misspell(String word, Random random) {
+        char[] letters = word.toCharArray();
+        letters[random.nextInt(letters.length)] = (char) ('a' + random.nextInt(26));
+        return new String(letters);
+    }
+}
@@ -0,0 +1,47 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class InputDatesTest {
+
+    @Test
+    public void parseDateTime_matchesEpochMinutes() {
+        LocalDateTime time = LocalDateTime.of(2022, 2, 22, 13, 45);
+        assertEquals(EpochMinutes.of(time), InputDates.parseDateTime("22022022 1345"));
+    }
+
+    @Test
+    public void parseDate_leapDay_onlyInLeapYears() {
+        assertEquals(EpochMinutes.startOfDay(LocalDate.of(2024, 2, 29)), InputDates.parseDate("29022024"));
+        assertEquals(EpochMinutes.NONE, InputDates.parseDate("29022023"));
+        assertEquals(EpochMinutes.NONE, InputDates.parseDate("30022024"));
+        assertEquals(EpochMinutes.startOfDay(LocalDate.of(2000, 2, 29)), InputDates.parseDate("29022000"));
+        assertEquals(EpochMinutes.NONE, InputDates.parseDate("29021900"));
+    }
+
+    @Test
+    public void parseDateTime_invalidInput_returnsNone() {
+        assertEquals(EpochMinutes.NONE, InputDates.parseDateTime("22022022 2400"));
+        assertEquals(EpochMinutes.NONE, InputDates.parseDateTime("22022022 1260"));
+        assertEquals(EpochMinutes.NONE, InputDates.parseDateTime("22022022-1200"));
+        assertEquals(EpochMinutes.NONE, InputDates.parseDateTime("2202202a 1200"));
+        assertEquals(EpochMinutes.NONE, InputDates.parseDateTime("22022022"));
+        assertEquals(EpochMinutes.NONE, InputDates.parseDate("22132022"));
+    }
+
+    @Test
+    public void parsePartialDate_fillsMissingPartsFromToday() {
+        LocalDate today = LocalDate.of(2026, 3, 15);
+        assertEquals(EpochMinutes.startOfDay(LocalDate.of(2026, 3, 22)), InputDates.parsePartialDate("22", today));
+        assertEquals(EpochMinutes.startOfDay(LocalDate.of(2026, 2, 22)), InputDates.parsePartialDate("2202", today));
+        assertEquals(EpochMinutes.startOfDay(LocalDate.of(2022, 2, 22)),
+                InputDates.parsePartialDate("22 02 2022", today));
+        assertEquals(EpochMinutes.NONE, InputDates.parsePartialDate("220", today));
+        assertEquals(EpochMinutes.NONE, InputDates.parsePartialDate("3102", today));
+    }
+}
@@ -0,0 +1,87 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class OrganisedViewsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 5, 9, 0);
+
+    private TaskList tasks;
+    private OrganisedViews views;
+
+    @BeforeEach
+    public void setUp() {
+        tasks = new TaskList();
+        tasks.add(new Deadline("report", NOW.plusDays(3), true), new Todo("read"),
+                new Deadline("taxes", NOW.plusDays(1), true));
+        tasks.setTag(1, "home");
+        views = new OrganisedViews(tasks);
+        tasks.addListener(views);
+    }
+
+    @Test
+    public void byDeadline_unchangedList_reusesView() {
+        views.byDeadline(NOW);
+        tasks.markAsDone(0);
+        OrganisedViews.ByDeadline view = views.byDeadline(NOW);
+        assertEquals(1, views.getRebuildCount());
+        assertEquals("taxes", view.getDeadlines().get(0).description());
+    }
+
+    @Test
+    public void byDeadline_addsAndDeletesArePatchedIn() throws ZiqException {
+        views.byDeadline(NOW);
+        tasks.add(new Deadline("rent", NOW.plusDays(2), true));
+        tasks.add(new Deadline("also taxes", NOW.plusDays(1), true));
+        tasks.delete(0);
+        List<Deadline> deadlines = views.byDeadline(NOW).getDeadlines();
+        assertEquals(1, views.getRebuildCount());
+        assertEquals(3, deadlines.size());
+        assertEquals("taxes", deadlines.get(0).description());
+        assertEquals("also taxes", deadlines.get(1).description());
+        assertEquals("rent", deadlines.get(2).description());
+    }
+
+    @Test
+    public void byTag_tagChange_rebuildsView() {
+        views.byTag();
+        tasks.add(new Todo("write"));
+        assertEquals(3, views.byTag().getUntagged().size());
+        assertEquals(1, views.getRebuildCount());
+        tasks.addTags(0, List.of("work", "home"));
+        OrganisedViews.ByTag view = views.byTag();
+        assertEquals(2, views.getRebuildCount());
+        assertEquals(2, view.getGroups().get(TagDictionary.idOf("home")).size());
+        assertSame(tasks.get(0), view.getGroups().get(TagDictionary.idOf("home")).get(0));
+    }
+
+    @Test
+    public void byTag_readDuringBatch_isNotPatchedTwice() {
+        views.byTag();
+        tasks.beginBatch();
+        tasks.add(new Todo("write"));
+        assertEquals(3, views.byTag().getUntagged().size());
+        tasks.endBatch();
+        assertEquals(3, views.byTag().getUntagged().size());
+        assertEquals(2, views.getRebuildCount());
+    }
+
+    @Test
+    public void byDeadline_recurringTask_showsNextOccurrence() {
+        Event sync = new Event("sync", LocalDateTime.of(2026, 1, 1, 10, 0), LocalDateTime.of(2026, 1, 1, 11, 0));
+        sync.setRecurrence(new Recurrence(Recurrence.Frequency.WEEKLY, LocalDate.of(2026, 12, 31)));
+        tasks.add(sync);
+        OrganisedViews.ByDeadline view = views.byDeadline(NOW);
+        Event next = view.getEvents().get(0);
+        assertEquals(LocalDateTime.of(2026, 1, 8, 10, 0), next.from());
+        assertSame(sync.getRecurrence(), view.ruleOf(next));
+    }
+}
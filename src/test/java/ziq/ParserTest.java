@@ -7,7 +7,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -296,6 +298,86 @@ public class ParserTest {
         assertTrue(output.contains("clear"));
     }
 
+    @Test
+    public void executeCommand_next_listsUpcomingTasks() throws ZiqException {
+        LocalDateTime soon = LocalDateTime.now().plusDays(1);
+        tasks.add(new Deadline("submit", soon, true), new Deadline("later", soon.plusDays(1), true));
+        Parser.executeCommand("next 1", tasks, ui, storage);
+        String output = outputStream.toString();
+        assertTrue(output.contains("submit"));
+        assertFalse(output.contains("later"));
+    }
+
+    @Test
+    public void executeCommand_nextInvalidCount_throwsException() {
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("next abc", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("next 0", tasks, ui, storage));
+    }
+
+    @Test
+    public void executeCommand_overdue_listsPastDueTasks() throws ZiqException {
+        LocalDateTime past = LocalDateTime.now().minusDays(1);
+        tasks.add(new Deadline("missed", past, true), new Deadline("future", past.plusDays(3), true));
+        Parser.executeCommand("overdue", tasks, ui, storage);
+        String output = outputStream.toString();
+        assertTrue(output.contains("missed"));
+        assertFalse(output.contains("future"));
+    }
+
+    @Test
+    public void executeCommand_stats_printsCounts() throws ZiqException {
+        Parser.executeCommand("todo read book", tasks, ui, storage);
+        Parser.executeCommand("todo write book", tasks, ui, storage);
+        Parser.executeCommand("tag 1 home", tasks, ui, storage);
+        Parser.executeCommand("mark 2", tasks, ui, storage);
+        Parser.executeCommand("stats", tasks, ui, storage);
+        String output = outputStream.toString();
+        assertTrue(output.contains("total: 2 task(s)"));
+        assertTrue(output.contains("todos: 2"));
+        assertTrue(output.contains("done: 1, pending: 1"));
+        assertTrue(output.contains("[home]: 1"));
+        assertTrue(output.contains("untagged: 1"));
+    }
+
+    @Test
+    public void executeCommand_eventClash_warnsUser() throws ZiqException {
+        Parser.executeCommand("event meeting /from 22022022 1200 /to 22022022 1400", tasks, ui, storage);
+        Parser.executeCommand("event lunch /from 22022022 1300 /to 22022022 1500", tasks, ui, storage);
+        assertEquals(2, tasks.size());
+        assertTrue(outputStream.toString().contains("clashes with"));
+    }
+
+    @Test
+    public void executeCommand_clashes_listsOverlappingPairs() throws ZiqException {
+        Parser.executeCommand("event meeting /from 22022022 1200 /to 22022022 1400", tasks, ui, storage);
+        Parser.executeCommand("event lunch /from 22022022 1300 /to 22022022 1500", tasks, ui, storage);
+        Parser.executeCommand("event dinner /from 22022022 1900 /to 22022022 2000", tasks, ui, storage);
+        outputStream.reset();
+        Parser.executeCommand("clashes", tasks, ui, storage);
+        String output = outputStream.toString();
+        assertTrue(output.contains("meeting"));
+        assertTrue(output.contains("lunch"));
+        assertFalse(output.contains("dinner"));
+    }
+
+    @Test
+    public void executeCommand_free_listsOpenSlots() throws ZiqException {
+        Parser.executeCommand("event work /from 22022022 0000 /to 22022022 2200", tasks, ui, storage);
+        Parser.executeCommand("free 22022022 1h", tasks, ui, storage);
+        String output = outputStream.toString();
+        assertTrue(output.contains("free slots of at least 60 minute(s)"));
+        assertTrue(output.contains("1. Feb 22 2022, 10:00"));
+    }
+
+    @Test
+    public void executeCommand_freeInvalidArguments_throwsException() {
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("free 22022022", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("free 32012022 60", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("free 22022022 abc", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand(
+                "free 23022022-22022022 60", tasks, ui, storage));
+    }
+
     private static class MockStorage extends Storage {
         public MockStorage() {
             super("test.txt", new Ui());
@@ -306,5 +388,210 @@ public class ParserTest {
             // Mock: do nothing
         }
     }
-}
 
+    @Test
+    public void executeCommand_recurringEvent_addsOneRule() throws ZiqException {
+        Parser.executeCommand("event sync /from 05012026 1000 /to 05012026 1100 /every weekly /until 31122026",
+                tasks, ui, storage);
+        assertEquals(1, tasks.size());
+        assertTrue(tasks.get(0).isRecurring());
+        assertEquals(1, tasks.getTasksOnDate(LocalDate.of(2026, 6, 1)).size());
+    }
+
+    @Test
+    public void executeCommand_recurringWithoutUntil_throwsException() {
+        assertThrows(ZiqException.class, () -> Parser.executeCommand(
+                "deadline report /by 05012026 /every weekly", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand(
+                "deadline report /by 05012026 /every yearly /until 31122026", tasks, ui, storage));
+    }
+
+    @Test
+    public void executeCommand_markOn_marksSingleOccurrence() throws ZiqException {
+        Parser.executeCommand("deadline report /by 05012026 /every daily /until 31012026", tasks, ui, storage);
+        Parser.executeCommand("mark 1 /on 07012026", tasks, ui, storage);
+        assertFalse(tasks.get(0).isDone());
+        assertTrue(tasks.get(0).getRecurrence().isOccurrenceDone(
+                EpochMinutes.of(LocalDateTime.of(2026, 1, 7, 0, 0))));
+        assertTrue(outputStream.toString().contains("occurrence marked as done:"));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("mark 1 /on 07022026", tasks, ui, storage));
+    }
+
+    @Test
+    public void executeCommand_filter_listsMatches() throws ZiqException {
+        Parser.executeCommand("deadline submit report /by 22022022 1200", tasks, ui, storage);
+        Parser.executeCommand("todo read book", tasks, ui, storage);
+        outputStream.reset();
+        Parser.executeCommand("filter type:D done:false \"report\"", tasks, ui, storage);
+        String output = outputStream.toString();
+        assertTrue(output.contains("here are the tasks matching your filter:"));
+        assertTrue(output.contains("1. [D]"));
+        assertFalse(output.contains("read book"));
+    }
+
+    @Test
+    public void executeCommand_explain_printsPlan() throws ZiqException {
+        Parser.executeCommand("todo read book", tasks, ui, storage);
+        Parser.executeCommand("todo write essay", tasks, ui, storage);
+        Parser.executeCommand("explain filter book done:false", tasks, ui, storage);
+        assertTrue(outputStream.toString().contains("from the text index"));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("filter", tasks, ui, storage));
+    }
+
+    @Test
+    public void executeCommand_tagAndUntag_manageSeveralTags() throws ZiqException {
+        Parser.executeCommand("todo read book", tasks, ui, storage);
+        Parser.executeCommand("tag 1 +work +urgent", tasks, ui, storage);
+        assertEquals("[T][ ] read book [work] [urgent]", tasks.get(0).toString());
+        Parser.executeCommand("untag 1 +urgent", tasks, ui, storage);
+        assertEquals("[T][ ] read book [work]", tasks.get(0).toString());
+        Parser.executeCommand("tag 1 home", tasks, ui, storage);
+        assertEquals("[T][ ] read book [home]", tasks.get(0).toString());
+        Parser.executeCommand("untag 1", tasks, ui, storage);
+        assertEquals("[T][ ] read book", tasks.get(0).toString());
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("tag 1 a,b", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("untag x", tasks, ui, storage));
+    }
+
+    @Test
+    public void executeCommand_pipeline_runsEveryCommand() throws ZiqException {
+        Parser.executeCommand("todo a; todo b ;mark 2", tasks, ui, storage);
+        assertEquals(2, tasks.size());
+        assertTrue(tasks.get(1).isDone());
+        String output = outputStream.toString();
+        assertTrue(output.indexOf("[T][ ] a") < output.indexOf("task marked as done:"));
+    }
+
+    @Test
+    public void executeCommand_pipelineFails_undoesEarlierCommands() throws ZiqException {
+        tasks.add(new Todo("keep"));
+        tasks.get(0).setTag("home");
+        assertThrows(ZiqException.class, () -> Parser.executeCommand(
+                "todo a; delete 1; tag 1 work; mark 1; mark 9", tasks, ui, storage));
+        assertEquals(1, tasks.size());
+        assertEquals("keep", tasks.get(0).description());
+        assertFalse(tasks.get(0).isDone());
+        assertEquals(List.of("home"), tasks.get(0).getTags());
+        assertFalse(outputStream.toString().contains("task added:"));
+        assertEquals(1, tasks.filter(FilterQuery.parse("\"keep\"")).size());
+    }
+
+    @Test
+    public void executeCommand_semicolonInDescription_isOneCommand() throws ZiqException {
+        Parser.executeCommand("todo buy eggs; milk", tasks, ui, storage);
+        assertEquals(1, tasks.size());
+        assertEquals("buy eggs; milk", tasks.get(0).description());
+    }
+
+    @Test
+    public void executeCommand_markRange_marksEveryTask() throws ZiqException {
+        Parser.executeCommand("todo a; todo b; todo c; todo d", tasks, ui, storage);
+        Parser.executeCommand("mark 1-2,4", tasks, ui, storage);
+        assertTrue(tasks.get(0).isDone());
+        assertTrue(tasks.get(1).isDone());
+        assertFalse(tasks.get(2).isDone());
+        assertTrue(tasks.get(3).isDone());
+        assertTrue(outputStream.toString().contains("3 task(s) marked as done:"));
+        Parser.executeCommand("unmark 1-4", tasks, ui, storage);
+        assertEquals(0, tasks.getStats().getDoneCount());
+    }
+
+    @Test
+    public void executeCommand_deleteList_removesTasksInOnePass() throws ZiqException {
+        for (int i = 1; i <= 10; i++) {
+            tasks.add(new Todo("task" + i));
+        }
+        Parser.executeCommand("delete 3,5,7-9,8", tasks, ui, storage);
+        assertEquals(5, tasks.size());
+        assertEquals("task1", tasks.get(0).description());
+        assertEquals("task2", tasks.get(1).description());
+        assertEquals("task4", tasks.get(2).description());
+        assertEquals("task6", tasks.get(3).description());
+        assertEquals("task10", tasks.get(4).description());
+        assertTrue(outputStream.toString().contains("5 task(s) removed:"));
+    }
+
+    @Test
+    public void executeCommand_tagRange_tagsEveryTask() throws ZiqException {
+        tasks.add(new Todo("a"), new Todo("b"), new Todo("c"));
+        Parser.executeCommand("tag 2-3 +work", tasks, ui, storage);
+        assertEquals(List.of(), tasks.get(0).getTags());
+        assertEquals(List.of("work"), tasks.get(1).getTags());
+        assertEquals(List.of("work"), tasks.get(2).getTags());
+    }
+
+    @Test
+    public void executeCommand_invalidRange_throwsException() {
+        tasks.add(new Todo("a"), new Todo("b"));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("mark 1-3", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("delete 2-1", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("delete 1,x", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("mark 1-2 /on 22022022", tasks, ui, storage));
+        assertEquals(2, tasks.size());
+        assertFalse(tasks.get(0).isDone());
+    }
+
+    @Test
+    public void executeCommand_deleteWhere_removesMatchingTasks() throws ZiqException {
+        tasks.add(new Todo("a"), new Todo("b"), new Todo("c"), new Todo("d"));
+        Parser.executeCommand("mark 1,3", tasks, ui, storage);
+        Parser.executeCommand("delete where done", tasks, ui, storage);
+        assertEquals(2, tasks.size());
+        assertEquals("b", tasks.get(0).description());
+        assertEquals("d", tasks.get(1).description());
+        assertTrue(outputStream.toString().contains("2 task(s) removed:"));
+        Parser.executeCommand("delete where done", tasks, ui, storage);
+        assertTrue(outputStream.toString().contains("no tasks match that condition!"));
+    }
+
+    @Test
+    public void executeCommand_markWhere_countsOnlyChangedTasks() throws ZiqException {
+        tasks.add(new Todo("a"), new Todo("b"), new Todo("c"));
+        Parser.executeCommand("tag 1-2 sprint", tasks, ui, storage);
+        Parser.executeCommand("mark 1", tasks, ui, storage);
+        Parser.executeCommand("mark where tag:sprint", tasks, ui, storage);
+        assertTrue(tasks.get(1).isDone());
+        assertFalse(tasks.get(2).isDone());
+        assertTrue(outputStream.toString().contains("1 task(s) marked as done:"));
+        Parser.executeCommand("unmark where pending", tasks, ui, storage);
+        assertTrue(outputStream.toString().contains("those tasks have been unmarked!"));
+    }
+
+    @Test
+    public void executeCommand_tagWhere_tagsMatchingTasks() throws ZiqException {
+        tasks.add(new Todo("send invoice"), new Todo("buy milk"), new Todo("file invoice copy"));
+        Parser.executeCommand("tag where \"invoice\" finance", tasks, ui, storage);
+        assertEquals(List.of("finance"), tasks.get(0).getTags());
+        assertEquals(List.of(), tasks.get(1).getTags());
+        assertEquals(List.of("finance"), tasks.get(2).getTags());
+        Parser.executeCommand("tag where milk +home +errand", tasks, ui, storage);
+        assertEquals(List.of("home", "errand"), tasks.get(1).getTags());
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("tag where finance", tasks, ui, storage));
+    }
+
+    @Test
+    public void executeCommand_whereWithoutWords_changesNothing() {
+        tasks.add(new Todo("a"), new Todo("b"));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("delete where \"\"", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("delete where -", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("delete where \"!!\"", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("mark where ?", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("tag where ? work", tasks, ui, storage));
+        assertEquals(2, tasks.size());
+        assertFalse(tasks.get(0).isDone());
+        assertEquals(List.of(), tasks.get(1).getTags());
+    }
+
+    @Test
+    public void executeCommand_fuzzyFind_listsClosestFirst() throws ZiqException {
+        tasks.add(new Todo("recieve parcel"), new Todo("buy milk"), new Todo("receive invoice"));
+        Parser.executeCommand("find ~receive", tasks, ui, storage);
+        String output = outputStream.toString();
+        assertTrue(output.contains("1. [T][ ] receive invoice"));
+        assertTrue(output.contains("2. [T][ ] recieve parcel"));
+        Parser.executeCommand("find ~receive /distance 0", tasks, ui, storage);
+        assertFalse(outputStream.toString().contains("3. "));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("find ~", tasks, ui, storage));
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("find ~milk /distance 9", tasks, ui, storage));
+    }
+}
@@ -0,0 +1,88 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+public class RecurrenceTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2026, 1, 5, 10, 0);
+
+    @Test
+    public void occurrencesBetween_weekly_onlyInRange() {
+        Recurrence weekly = new Recurrence(Recurrence.Frequency.WEEKLY, LocalDate.of(2026, 12, 31));
+        ArrayList<Long> starts = weekly.occurrencesBetween(EpochMinutes.of(FIRST),
+                EpochMinutes.of(LocalDateTime.of(2026, 1, 10, 0, 0)),
+                EpochMinutes.of(LocalDateTime.of(2026, 1, 27, 0, 0)));
+        assertEquals(3, starts.size());
+        assertEquals(LocalDateTime.of(2026, 1, 12, 10, 0), EpochMinutes.toDateTime(starts.get(0)));
+        assertEquals(LocalDateTime.of(2026, 1, 26, 10, 0), EpochMinutes.toDateTime(starts.get(2)));
+    }
+
+    @Test
+    public void occurrencesBetween_stopsAtUntil() {
+        Recurrence daily = new Recurrence(Recurrence.Frequency.DAILY, LocalDate.of(2026, 1, 7));
+        ArrayList<Long> starts = daily.occurrencesBetween(EpochMinutes.of(FIRST),
+                EpochMinutes.of(FIRST), EpochMinutes.of(FIRST.plusDays(30)));
+        assertEquals(3, starts.size());
+    }
+
+    @Test
+    public void occurrencesBetween_monthly_clampsToMonthEnd() {
+        LocalDateTime first = LocalDateTime.of(2026, 1, 31, 9, 0);
+        Recurrence monthly = new Recurrence(Recurrence.Frequency.MONTHLY, LocalDate.of(2026, 12, 31));
+        ArrayList<Long> starts = monthly.occurrencesBetween(EpochMinutes.of(first),
+                EpochMinutes.of(LocalDateTime.of(2026, 2, 1, 0, 0)),
+                EpochMinutes.of(LocalDateTime.of(2026, 4, 1, 0, 0)));
+        assertEquals(2, starts.size());
+        assertEquals(LocalDateTime.of(2026, 2, 28, 9, 0), EpochMinutes.toDateTime(starts.get(0)));
+        assertEquals(LocalDateTime.of(2026, 3, 31, 9, 0), EpochMinutes.toDateTime(starts.get(1)));
+    }
+
+    @Test
+    public void countPendingBetween_matchesListedOccurrences() {
+        long first = EpochMinutes.of(FIRST);
+        long from = EpochMinutes.of(FIRST.plusDays(3));
+        long to = EpochMinutes.of(FIRST.plusDays(80));
+        for (Recurrence.Frequency frequency : Recurrence.Frequency.values()) {
+            Recurrence rule = new Recurrence(frequency, LocalDate.of(2026, 3, 1));
+            rule.setOccurrenceDone(rule.firstOccurrenceFrom(first, from), true);
+            int pending = 0;
+            for (long start : rule.occurrencesBetween(first, from, to)) {
+                pending += rule.isOccurrenceDone(start) ? 0 : 1;
+            }
+            assertEquals(pending, rule.countPendingBetween(first, from, to), frequency.name());
+            assertEquals(0, rule.countPendingBetween(first, to, from));
+        }
+    }
+
+    @Test
+    public void nextPendingFrom_skipsDoneOccurrences() {
+        Recurrence daily = new Recurrence(Recurrence.Frequency.DAILY, LocalDate.of(2026, 1, 6));
+        long first = EpochMinutes.of(FIRST);
+        assertTrue(daily.setOccurrenceDone(first, true));
+        assertFalse(daily.setOccurrenceDone(first, true));
+        assertEquals(EpochMinutes.of(FIRST.plusDays(1)), daily.nextPendingFrom(first, first));
+        daily.setOccurrenceDone(EpochMinutes.of(FIRST.plusDays(1)), true);
+        assertEquals(EpochMinutes.NONE, daily.nextPendingFrom(first, first));
+    }
+
+    @Test
+    public void fromName_unknown_throwsException() throws ZiqException {
+        assertEquals(Recurrence.Frequency.MONTHLY, Recurrence.Frequency.fromName("Monthly"));
+        assertThrows(ZiqException.class, () -> Recurrence.Frequency.fromName("yearly"));
+    }
+
+    @Test
+    public void toString_describesRule() {
+        Recurrence weekly = new Recurrence(Recurrence.Frequency.WEEKLY, LocalDate.of(2026, 12, 31));
+        assertEquals("every week until Dec 31 2026", weekly.toString());
+    }
+}
@@ -0,0 +1,131 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReminderSchedulerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 5, 9, 0);
+
+    private TaskList tasks;
+    private ArrayList<Task> reminded;
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        tasks = new TaskList();
+        reminded = new ArrayList<>();
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        scheduler = new ReminderScheduler(tasks, 15, reminded::add, clock);
+    }
+
+    @Test
+    public void nextReminderMinute_isLeadBeforeEarliestTask() {
+        tasks.add(new Deadline("later", NOW.plusHours(5), true), new Event("soon", NOW.plusHours(1), NOW.plusHours(2)));
+        assertEquals(EpochMinutes.of(NOW.plusMinutes(45)), scheduler.nextReminderMinute());
+    }
+
+    @Test
+    public void nextReminderMinute_ignoresPastDoneAndTodos() {
+        Deadline done = new Deadline("done", NOW.plusHours(1), true);
+        done.markAsDone();
+        tasks.add(new Todo("todo"), new Deadline("past", NOW.minusHours(1), true), done);
+        assertEquals(EpochMinutes.NONE, scheduler.nextReminderMinute());
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void onTasksChanged_markAndDelete_updateQueue() throws ZiqException {
+        tasks.add(new Deadline("a", NOW.plusHours(1), true), new Deadline("b", NOW.plusHours(2), true));
+        tasks.markAsDone(0);
+        assertEquals(EpochMinutes.of(NOW.plusMinutes(105)), scheduler.nextReminderMinute());
+        tasks.unmark(0);
+        assertEquals(EpochMinutes.of(NOW.plusMinutes(45)), scheduler.nextReminderMinute());
+        tasks.delete(0);
+        tasks.delete(0);
+        assertEquals(EpochMinutes.NONE, scheduler.nextReminderMinute());
+    }
+
+    @Test
+    public void fireDue_remindsOnceAndSkipsLaterTasks() {
+        tasks.add(new Deadline("a", NOW.plusMinutes(10), true), new Deadline("b", NOW.plusHours(2), true));
+        ArrayList<Task> due = scheduler.fireDue(EpochMinutes.of(NOW));
+        assertEquals(1, due.size());
+        assertEquals("a", reminded.get(0).description());
+        assertTrue(scheduler.fireDue(EpochMinutes.of(NOW)).isEmpty());
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void fireDue_recurringEvent_movesToNextOccurrence() {
+        Event sync = new Event("sync", NOW.plusMinutes(10), NOW.plusMinutes(70));
+        sync.setRecurrence(new Recurrence(Recurrence.Frequency.DAILY, LocalDate.of(2026, 1, 31)));
+        tasks.add(sync);
+        scheduler.fireDue(EpochMinutes.of(NOW));
+        assertEquals(NOW.plusMinutes(10), ((Event) reminded.get(0)).from());
+        assertEquals(EpochMinutes.of(NOW.plusDays(1).minusMinutes(5)), scheduler.nextReminderMinute());
+    }
+
+    @Test
+    public void dateOnlyDeadline_remindedAtStartOfItsDay() {
+        tasks.add(new Deadline("today", NOW.toLocalDate().atStartOfDay(), false),
+                new Deadline("tomorrow", NOW.toLocalDate().plusDays(1).atStartOfDay(), false));
+        assertEquals(EpochMinutes.of(NOW.toLocalDate().atStartOfDay()), scheduler.nextReminderMinute());
+        scheduler.fireDue(EpochMinutes.of(NOW));
+        assertEquals(1, reminded.size());
+        assertEquals(EpochMinutes.of(NOW.toLocalDate().plusDays(1).atStartOfDay()), scheduler.nextReminderMinute());
+    }
+
+    @Test
+    public void fireDue_recurringDateOnlyDeadline_remindsOnceThenMovesOn() {
+        Deadline report = new Deadline("report", NOW.toLocalDate().atStartOfDay(), false);
+        report.setRecurrence(new Recurrence(Recurrence.Frequency.DAILY, LocalDate.of(2026, 1, 31)));
+        tasks.add(report);
+        assertEquals(1, scheduler.fireDue(EpochMinutes.of(NOW)).size());
+        assertTrue(scheduler.fireDue(EpochMinutes.of(NOW)).isEmpty());
+        assertEquals(EpochMinutes.of(NOW.toLocalDate().plusDays(1).atStartOfDay()), scheduler.nextReminderMinute());
+    }
+
+    @Test
+    public void fireDue_remindsAboutCopyTakenAtLastChange() {
+        Deadline report = new Deadline("report", NOW.plusMinutes(10), true);
+        tasks.add(report);
+        tasks.setTag(0, "work");
+        // Changes that bypass the list are not seen by the timer thread
+        report.markAsDone();
+        scheduler.fireDue(EpochMinutes.of(NOW));
+        assertEquals(1, reminded.size());
+        assertNotSame(report, reminded.get(0));
+        assertEquals(List.of("work"), reminded.get(0).getTags());
+        assertFalse(reminded.get(0).isDone());
+    }
+
+    @Test
+    public void fireDue_recurringTask_skipsOccurrencesMarkedBeforeTracking() throws ZiqException {
+        Event sync = new Event("sync", NOW.plusMinutes(10), NOW.plusMinutes(70));
+        sync.setRecurrence(new Recurrence(Recurrence.Frequency.DAILY, LocalDate.of(2026, 1, 31)));
+        tasks.add(sync);
+        tasks.markOccurrence(0, NOW.toLocalDate().plusDays(1), true);
+        scheduler.fireDue(EpochMinutes.of(NOW));
+        assertEquals(EpochMinutes.of(NOW.plusDays(2).minusMinutes(5)), scheduler.nextReminderMinute());
+    }
+
+    @Test
+    public void clear_stopsTrackingEverything() {
+        tasks.add(new Deadline("a", NOW.plusHours(1), true));
+        tasks.clear();
+        assertEquals(0, scheduler.size());
+    }
+}
@@ -0,0 +1,116 @@
+package ziq;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares splitting a long list reply into one text run per part of each line, as the GUI used to, against
+ * the merged and cached spans of {@link SpanRenderer}, both for a new reply made of lines seen before and for
+ * the same reply scrolled back into view. Reports the time, the bytes allocated and the number of runs
+ * (one text node each in the GUI) per rendered reply.
+ * Run with: gradlew benchmark -Pbench=ReplyRenderBenchmark
+ */
+public class ReplyRenderBenchmark {
+    private static final int TASK_COUNT = 200;
+    private static final int RENDERS = 1_000;
+    private static final String[] TAGS = {"work", "school", "home"};
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        ArrayList<ResponseLine> lines = new ArrayList<>();
+        lines.add(ResponseLine.header("here is your to-do list!"));
+        for (int i = 0; i < TASK_COUNT; i++) {
+            Task task = new Todo("task number " + i);
+            if (i % 4 == 0) {
+                task.setTag(TAGS[i % TAGS.length]);
+            }
+            if (i % 3 == 0) {
+                task.markAsDone();
+            }
+            lines.add(ResponseLine.task((i + 1) + ". ", task, ""));
+        }
+
+        System.out.println("rendering a list of " + TASK_COUNT + " tasks " + RENDERS + " times");
+        System.out.printf("runs per reply: before %d, after %d%n", renderUnmerged(lines).size(),
+                SpanRenderer.render(lines).size());
+        long before = BenchmarkTimer.time("before: one run per part", () -> {
+            long sum = 0;
+            for (int i = 0; i < RENDERS; i++) {
+                sum += renderUnmerged(lines).size();
+            }
+            return sum;
+        });
+        long after = BenchmarkTimer.time("after: merged, cached spans", () -> {
+            long sum = 0;
+            for (int i = 0; i < RENDERS; i++) {
+                sum += SpanRenderer.render(lines).size();
+            }
+            return sum;
+        });
+        System.out.printf("speed-up: %.2fx%n", (double) before / after);
+        Response reply = new Response(lines, false);
+        BenchmarkTimer.time("after: same reply shown again", () -> {
+            long sum = 0;
+            for (int i = 0; i < RENDERS; i++) {
+                sum += SpanRenderer.render(reply).size();
+            }
+            return sum;
+        });
+        System.out.printf("bytes allocated per reply: before %d, after %d, shown again %d%n",
+                allocatedPerRender(() -> renderUnmerged(lines).size()),
+                allocatedPerRender(() -> SpanRenderer.render(lines).size()),
+                allocatedPerRender(() -> SpanRenderer.render(reply).size()));
+    }
+
+    /**
+     * Splits the reply the way the dialog box did before spans were merged and cached: a run for every
+     * part of every line, and one for each newline.
+     */
+    private static List<StyledSpan> renderUnmerged(List<ResponseLine> lines) {
+        ArrayList<StyledSpan> runs = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                runs.add(new StyledSpan("\n", StyledSpan.Style.PLAIN, null));
+            }
+            ResponseLine line = lines.get(i);
+            if (line.getKind() != ResponseLine.Kind.TASK) {
+                runs.add(new StyledSpan(line.getText(), StyledSpan.Style.PLAIN, null));
+                continue;
+            }
+            runs.add(new StyledSpan(line.getPrefix(), StyledSpan.Style.PLAIN, null));
+            runs.add(new StyledSpan("[" + line.getType().getCode() + "]", StyledSpan.styleOf(line.getType()), null));
+            runs.add(new StyledSpan("[" + (line.isDone() ? Task.DONE_ICON : Task.NOT_DONE_ICON) + "] "
+                    + line.getText(), StyledSpan.Style.PLAIN, null));
+            for (String tag : line.getTags()) {
+                runs.add(new StyledSpan(" [" + tag + "]", StyledSpan.Style.TAG, tag));
+            }
+            String rest = line.getDetail() + line.getSuffix();
+            if (!rest.isEmpty()) {
+                runs.add(new StyledSpan(rest, StyledSpan.Style.PLAIN, null));
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Returns the bytes the current thread allocates per call of the workload, averaged over many calls.
+     */
+    private static long allocatedPerRender(LongSupplier workload) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long checksum = 0;
+        long start = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < RENDERS; i++) {
+            checksum += workload.getAsLong();
+        }
+        long bytes = threads.getThreadAllocatedBytes(id) - start;
+        return checksum > 0 ? bytes / RENDERS : 0;
+    }
+}
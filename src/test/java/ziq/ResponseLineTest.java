@@ -0,0 +1,57 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ResponseLineTest {
+
+    @Test
+    public void task_printsSameTextAsTask() {
+        Deadline deadline = new Deadline("submit report", LocalDateTime.of(2026, 3, 1, 12, 0), true);
+        deadline.setTags(List.of("work", "urgent"));
+        deadline.markAsDone();
+        ResponseLine line = ResponseLine.task("1. ", deadline, "");
+        assertEquals("1. " + deadline, line.toString());
+        assertEquals(TaskType.DEADLINE, line.getType());
+        assertTrue(line.isDone());
+        assertEquals(List.of("work", "urgent"), line.getTags());
+        assertEquals("submit report", line.getText());
+    }
+
+    @Test
+    public void task_keepsFieldsFromWhenItWasMade() {
+        Todo todo = new Todo("read");
+        ResponseLine line = ResponseLine.task("  ", todo, "");
+        todo.markAsDone();
+        todo.setTag("books");
+        assertEquals("  [T][ ] read", line.toString());
+    }
+
+    @Test
+    public void helpAndTag_printAsBefore() {
+        assertEquals("mark <index> - mark a task", ResponseLine.help("mark", "<index>", "mark a task").toString());
+        assertEquals("clear - remove all tasks", ResponseLine.help("clear", "", "remove all tasks").toString());
+        assertEquals("[work]: 3", ResponseLine.tag("work", ": 3").toString());
+    }
+
+    @Test
+    public void executeCommand_bufferedOutput_keepsLineKinds() throws ZiqException {
+        TaskList tasks = new TaskList();
+        Ui ui = new Ui();
+        ArrayList<ResponseLine> lines = new ArrayList<>();
+        ui.setResponseBuffer(lines);
+        tasks.add(new Todo("read"));
+        Parser.executeCommand("list", tasks, ui, new Storage("unused.txt", ui));
+        assertEquals(ResponseLine.Kind.HEADER, lines.get(0).getKind());
+        assertEquals(ResponseLine.Kind.TASK, lines.get(1).getKind());
+        assertEquals("1. [T][ ] read", lines.get(1).toString());
+        ui.diagnoseError("bad");
+        assertEquals(ResponseLine.Kind.ERROR, lines.get(2).getKind());
+    }
+}
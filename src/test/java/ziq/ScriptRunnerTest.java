@@ -0,0 +1,126 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ScriptRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final PrintStream originalOut = System.out;
+    private ByteArrayOutputStream outputStream;
+    private TaskList tasks;
+    private Ui ui;
+    private Storage storage;
+
+    @BeforeEach
+    public void setUp() {
+        outputStream = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outputStream));
+        tasks = new TaskList();
+        ui = new Ui();
+        storage = new Storage(tempDir.resolve("ziq.txt").toString(), ui);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    public void run_script_executesEveryLineAndSavesOnce() throws IOException, ZiqException {
+        Path script = Files.write(tempDir.resolve("script.txt"),
+                List.of("todo read book", "", "todo write essay", "mark 5", "mark 1"));
+        ScriptRunner runner = new ScriptRunner(tasks, ui, storage);
+        assertFalse(runner.run(script, ScriptRunner.NO_CHECKPOINTS));
+        assertEquals(4, runner.getCommandCount());
+        assertEquals(1, runner.getFailedCount());
+        assertFalse(storage.isBatching());
+        assertEquals(2, storage.load().size());
+        assertTrue(storage.load().get(0).isDone());
+        assertTrue(outputStream.toString().contains("script done: ran 4 command(s), 1 failed."));
+    }
+
+    @Test
+    public void failedPipeline_checkpointDoesNotWriteUndoneChanges() throws ZiqException {
+        storage.beginBatch(1);
+        assertThrows(ZiqException.class, () -> Parser.executeCommand("todo a; todo b; delete 99", tasks, ui, storage));
+        assertEquals(0, tasks.size());
+        assertFalse(Files.exists(tempDir.resolve("ziq.txt")));
+        storage.abortBatch();
+    }
+
+    @Test
+    public void holdCheckpoints_keepsFileUntilReleased() throws ZiqException {
+        tasks.add(new Todo("a"));
+        storage.beginBatch(1);
+        storage.holdCheckpoints();
+        storage.save(tasks.getTaskList());
+        assertFalse(Files.exists(tempDir.resolve("ziq.txt")));
+        storage.releaseCheckpoints();
+        storage.save(tasks.getTaskList());
+        assertEquals(1, storage.load().size());
+        storage.commitBatch();
+    }
+
+    @Test
+    public void run_bye_stopsScript() throws IOException, ZiqException {
+        Path script = Files.write(tempDir.resolve("script.txt"), List.of("todo read book", "bye", "todo late"));
+        assertTrue(new ScriptRunner(tasks, ui, storage).run(script, ScriptRunner.NO_CHECKPOINTS));
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void run_nestedRun_isRejected() throws IOException, ZiqException {
+        Path inner = Files.write(tempDir.resolve("inner.txt"), List.of("todo inner"));
+        Path outer = Files.write(tempDir.resolve("outer.txt"), List.of("run " + inner, "todo outer"));
+        ScriptRunner runner = new ScriptRunner(tasks, ui, storage);
+        runner.run(outer, ScriptRunner.NO_CHECKPOINTS);
+        assertEquals(1, runner.getFailedCount());
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void run_unreadableLine_undoesScriptAndCheckpoints() throws IOException, ZiqException {
+        tasks.add(new Todo("kept"));
+        storage.save(tasks.getTaskList());
+        // The bad byte sits past the reader's first buffer, so the lines before it have already run
+        String lines = "todo a\ntodo b\nmark 1\n" + "\n".repeat(20_000);
+        byte[] text = lines.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = Arrays.copyOf(text, text.length + 1);
+        bytes[text.length] = (byte) 0xff;
+        Path script = Files.write(tempDir.resolve("script.txt"), bytes);
+        ScriptRunner runner = new ScriptRunner(tasks, ui, storage);
+        assertThrows(ZiqException.class, () -> runner.run(script, 1));
+        assertEquals(3, runner.getCommandCount());
+        assertEquals(1, tasks.size());
+        assertFalse(tasks.get(0).isDone());
+        assertFalse(storage.isBatching());
+        assertEquals(1, storage.load().size());
+        assertFalse(storage.load().get(0).isDone());
+    }
+
+    @Test
+    public void run_missingFile_throwsException() {
+        assertThrows(ZiqException.class, () -> new ScriptRunner(tasks, ui, storage)
+                .run(tempDir.resolve("missing.txt"), ScriptRunner.NO_CHECKPOINTS));
+        assertFalse(storage.isBatching());
+    }
+}
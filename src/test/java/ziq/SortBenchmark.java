@@ -0,0 +1,60 @@
+package ziq;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Compares sorting deadlines by a LocalDateTime field (the old layout) against sorting by
+ * the primitive epoch minute now stored in Deadline.
+ * Run with: gradlew benchmark -Pbench=SortBenchmark
+ */
+public class SortBenchmark {
+    private static final int TASK_COUNT = 200_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    /**
+     * Stand-in for the previous Deadline layout, which held its due time as a LocalDateTime.
+     */
+    private static class LegacyDeadline {
+        private final LocalDateTime by;
+
+        LegacyDeadline(LocalDateTime by) {
+            this.by = by;
+        }
+
+        LocalDateTime by() {
+            return by;
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        ArrayList<LegacyDeadline> legacy = new ArrayList<>();
+        ArrayList<Deadline> deadlines = new ArrayList<>();
+        for (int i = 0; i < TASK_COUNT; i++) {
+            LocalDateTime by = BASE.plusMinutes(random.nextInt(525_600));
+            legacy.add(new LegacyDeadline(by));
+            deadlines.add(new Deadline("task " + i, by, true));
+        }
+
+        System.out.println("sorting " + TASK_COUNT + " deadlines");
+        long before = BenchmarkTimer.time("before: comparing(LocalDateTime)", () -> {
+            ArrayList<LegacyDeadline> copy = new ArrayList<>(legacy);
+            copy.sort(Comparator.comparing(LegacyDeadline::by));
+            return copy.get(0).by().getMinute();
+        });
+        long after = BenchmarkTimer.time("after: comparingLong(epoch minute)", () -> {
+            ArrayList<Deadline> copy = new ArrayList<>(deadlines);
+            copy.sort(Comparator.comparingLong(Deadline::byEpochMinute));
+            return copy.get(0).byEpochMinute();
+        });
+        System.out.printf("speed-up: %.2fx%n", (double) before / after);
+    }
+}
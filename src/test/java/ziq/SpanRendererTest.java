@@ -0,0 +1,76 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SpanRendererTest {
+
+    private static List<String> texts(List<StyledSpan> spans) {
+        ArrayList<String> texts = new ArrayList<>();
+        for (StyledSpan span : spans) {
+            texts.add(span.getText());
+        }
+        return texts;
+    }
+
+    private static List<StyledSpan.Style> styles(List<StyledSpan> spans) {
+        ArrayList<StyledSpan.Style> styles = new ArrayList<>();
+        for (StyledSpan span : spans) {
+            styles.add(span.getStyle());
+        }
+        return styles;
+    }
+
+    @Test
+    public void render_listOfTasks_joinsPlainRunsAcrossLines() {
+        List<ResponseLine> lines = List.of(ResponseLine.header("here is your to-do list!"),
+                ResponseLine.task("1. ", new Todo("read"), ""),
+                ResponseLine.task("2. ", new Todo("write"), ""));
+        List<StyledSpan> spans = SpanRenderer.render(lines);
+        assertEquals(List.of("here is your to-do list!\n1. ", "[T]", "[ ] read\n2. ", "[T]", "[ ] write"),
+                texts(spans));
+        assertEquals(List.of(StyledSpan.Style.PLAIN, StyledSpan.Style.TODO, StyledSpan.Style.PLAIN,
+                StyledSpan.Style.TODO, StyledSpan.Style.PLAIN), styles(spans));
+    }
+
+    @Test
+    public void render_tagsAndDetails_keepOwnSpans() {
+        Deadline deadline = new Deadline("submit", LocalDateTime.of(2026, 3, 1, 12, 0), true);
+        deadline.setTags(List.of("work", "urgent"));
+        ResponseLine line = ResponseLine.task("", deadline, "");
+        List<StyledSpan> spans = SpanRenderer.render(List.of(line));
+        assertEquals(List.of("[D]", "[ ] submit", " [work]", " [urgent]", deadline.details()), texts(spans));
+        assertEquals("urgent", spans.get(3).getTag());
+        assertEquals(line.toString(), String.join("", texts(spans)));
+    }
+
+    @Test
+    public void render_helpAndError_useOwnStyles() {
+        List<StyledSpan> spans = SpanRenderer.render(List.of(ResponseLine.help("mark", "<index>", "mark a task"),
+                ResponseLine.error("oop. no")));
+        assertEquals(List.of("mark", " <index>", " - mark a task\n", "oop. no"), texts(spans));
+        assertEquals(List.of(StyledSpan.Style.COMMAND, StyledSpan.Style.PARAMETERS, StyledSpan.Style.PLAIN,
+                StyledSpan.Style.ERROR), styles(spans));
+    }
+
+    @Test
+    public void render_sameReply_reusesSpans() {
+        Response reply = new Response(List.of(ResponseLine.text("hi"), ResponseLine.text("there")), false);
+        List<StyledSpan> spans = SpanRenderer.render(reply);
+        assertEquals(List.of("hi\nthere"), texts(spans));
+        assertSame(spans, SpanRenderer.render(reply));
+    }
+
+    @Test
+    public void spansOf_sameLine_reusesSpans() {
+        List<StyledSpan> first = SpanRenderer.spansOf(ResponseLine.task("1. ", new Todo("cache me"), ""));
+        List<StyledSpan> second = SpanRenderer.spansOf(ResponseLine.task("1. ", new Todo("cache me"), ""));
+        assertSame(first, second);
+    }
+}
@@ -1,6 +1,8 @@
 package ziq;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -9,8 +11,10 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -218,5 +222,112 @@ public class StorageTest {
         assertTrue(content.contains("new"));
         assertTrue(!content.contains("old"));
     }
-}
 
+    @Test
+    public void saveAndLoad_deadlineKeepsHasTime() throws ZiqException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Deadline("date only", LocalDateTime.of(2022, 2, 22, 0, 0), false));
+        tasks.add(new Deadline("at midnight", LocalDateTime.of(2022, 2, 22, 0, 0), true));
+        storage.save(tasks);
+        ArrayList<Task> loaded = storage.load();
+        assertFalse(((Deadline) loaded.get(0)).hasTime());
+        assertTrue(((Deadline) loaded.get(1)).hasTime());
+        assertEquals(LocalDateTime.of(2022, 2, 22, 0, 0), ((Deadline) loaded.get(1)).by());
+    }
+
+    @Test
+    public void load_legacyMidnightDeadline_loadsAsDateOnly() throws IOException, ZiqException {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("D | 0 | submit report | 2022-02-22T00:00 | \n");
+        }
+        Deadline d = (Deadline) storage.load().get(0);
+        assertFalse(d.hasTime());
+        assertEquals(LocalDateTime.of(2022, 2, 22, 0, 0), d.by());
+    }
+
+    @Test
+    public void load_repeatedTags_shareOneInstance() throws IOException, ZiqException {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("T | 0 | read book | reading\n");
+            writer.write("T | 0 | write book | reading\n");
+        }
+        ArrayList<Task> tasks = storage.load();
+        assertEquals(tasks.get(0).getTagId(), tasks.get(1).getTagId());
+        assertSame(tasks.get(0).getTag(), tasks.get(1).getTag());
+    }
+
+    @Test
+    public void saveAndLoad_recurringEvent_keepsRuleAndDoneOccurrences() throws ZiqException, IOException {
+        Event meeting = new Event("sync", LocalDateTime.of(2026, 1, 5, 10, 0), LocalDateTime.of(2026, 1, 5, 11, 0));
+        Recurrence weekly = new Recurrence(Recurrence.Frequency.WEEKLY, LocalDate.of(2026, 12, 31));
+        weekly.setOccurrenceDone(EpochMinutes.of(LocalDateTime.of(2026, 1, 12, 10, 0)), true);
+        meeting.setRecurrence(weekly);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(meeting);
+        storage.save(tasks);
+        assertEquals(1, Files.readAllLines(testFile.toPath()).size());
+
+        Event loaded = (Event) storage.load().get(0);
+        assertTrue(loaded.isRecurring());
+        assertEquals(Recurrence.Frequency.WEEKLY, loaded.getRecurrence().getFrequency());
+        assertEquals(LocalDate.of(2026, 12, 31), loaded.getRecurrence().getUntil());
+        assertTrue(loaded.getRecurrence().isOccurrenceDone(EpochMinutes.of(LocalDateTime.of(2026, 1, 12, 10, 0))));
+    }
+
+    @Test
+    public void load_oneOffDeadline_isNotRecurring() throws IOException, ZiqException {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("D | 0 | submit report | 2022-02-22 | work\n");
+        }
+        assertFalse(storage.load().get(0).isRecurring());
+    }
+
+    @Test
+    public void saveAndLoad_severalTags_keepsAllTags() throws ZiqException {
+        Todo todo = new Todo("read book");
+        todo.setTags(List.of("work", "urgent"));
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(todo);
+        storage.save(tasks);
+        assertEquals(List.of("work", "urgent"), storage.load().get(0).getTags());
+    }
+
+    @Test
+    public void load_singleTagFile_readsOneTag() throws IOException, ZiqException {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("D | 0 | submit report | 2022-02-22 | work\n");
+        }
+        assertEquals(List.of("work"), storage.load().get(0).getTags());
+    }
+
+    @Test
+    public void save_duringBatch_writesOnlyOnCommit() throws ZiqException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        storage.beginBatch(0);
+        storage.save(tasks);
+        tasks.add(new Todo("write essay"));
+        storage.save(tasks);
+        assertFalse(testFile.exists());
+        storage.commitBatch();
+        assertFalse(storage.isBatching());
+        assertEquals(2, storage.load().size());
+    }
+
+    @Test
+    public void save_batchWithCheckpoint_writesEveryInterval() throws ZiqException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        storage.beginBatch(2);
+        tasks.add(new Todo("read book"));
+        storage.save(tasks);
+        assertFalse(testFile.exists());
+        tasks.add(new Todo("write essay"));
+        storage.save(tasks);
+        assertEquals(2, storage.load().size());
+        tasks.add(new Todo("go running"));
+        storage.save(tasks);
+        assertEquals(2, storage.load().size());
+        storage.commitBatch();
+        assertEquals(3, storage.load().size());
+    }
+}
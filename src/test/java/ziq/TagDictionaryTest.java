@@ -0,0 +1,42 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TagDictionaryTest {
+
+    @Test
+    public void intern_sameText_sameId() {
+        int first = TagDictionary.intern(new String("dictionary-work"));
+        int second = TagDictionary.intern(new String("dictionary-work"));
+        assertEquals(first, second);
+        assertNotEquals(first, TagDictionary.intern("dictionary-home"));
+    }
+
+    @Test
+    public void intern_nullOrEmpty_returnsNoTag() {
+        assertEquals(TagDictionary.NO_TAG, TagDictionary.intern(null));
+        assertEquals(TagDictionary.NO_TAG, TagDictionary.intern(""));
+        assertNull(TagDictionary.nameOf(TagDictionary.NO_TAG));
+    }
+
+    @Test
+    public void nameOf_returnsSharedInstance() {
+        int id = TagDictionary.intern(new String("dictionary-shared"));
+        int sameId = TagDictionary.intern(new String("dictionary-shared"));
+        assertSame(TagDictionary.nameOf(id), TagDictionary.nameOf(sameId));
+        assertTrue(id < TagDictionary.size());
+    }
+
+    @Test
+    public void idOf_unknownTag_doesNotIntern() {
+        int sizeBefore = TagDictionary.size();
+        assertEquals(TagDictionary.NO_TAG, TagDictionary.idOf("dictionary-never-interned"));
+        assertEquals(sizeBefore, TagDictionary.size());
+    }
+}
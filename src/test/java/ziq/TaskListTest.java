@@ -2,12 +2,14 @@ package ziq;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -105,6 +107,18 @@ public class TaskListTest {
         assertFalse(taskList.containsDuplicateOf(different));
     }
 
+    @Test
+    public void containsDuplicateOf_afterDeleteAndClear_isFalse() throws ZiqException {
+        taskList.add(new Todo("read book"), new Todo("read book"));
+        taskList.delete(0);
+        assertTrue(taskList.containsDuplicateOf(new Todo("read book")));
+        taskList.delete(0);
+        assertFalse(taskList.containsDuplicateOf(new Todo("read book")));
+        taskList.add(new Todo("read book"));
+        taskList.clear();
+        assertFalse(taskList.containsDuplicateOf(new Todo("read book")));
+    }
+
     @Test
     public void containsDuplicateOf_sameDeadline() {
         LocalDateTime by = LocalDateTime.of(2022, 2, 22, 12, 0);
@@ -223,5 +237,383 @@ public class TaskListTest {
         TaskList list = new TaskList(initialTasks);
         assertEquals(2, list.size());
     }
-}
 
+    @Test
+    public void getUpcoming_returnsNearestPendingFirst() {
+        LocalDateTime now = LocalDateTime.of(2022, 2, 22, 12, 0);
+        taskList.add(new Deadline("late", now.plusDays(3), true));
+        taskList.add(new Deadline("past", now.minusDays(1), true));
+        taskList.add(new Event("soon", now.plusHours(1), now.plusHours(2)));
+        taskList.add(new Todo("no date"));
+        taskList.add(new Deadline("middle", now.plusDays(1), true));
+        ArrayList<Task> upcoming = taskList.getUpcoming(now, 2);
+        assertEquals(2, upcoming.size());
+        assertEquals("soon", upcoming.get(0).description());
+        assertEquals("middle", upcoming.get(1).description());
+    }
+
+    @Test
+    public void getUpcoming_dateOnlyDeadlineToday_isUpcomingNotOverdue() {
+        LocalDateTime now = LocalDateTime.of(2022, 2, 22, 12, 0);
+        taskList.add(new Deadline("today", now.toLocalDate().atStartOfDay(), false));
+        taskList.add(new Deadline("yesterday", now.toLocalDate().minusDays(1).atStartOfDay(), false));
+        taskList.add(new Deadline("this morning", now.minusHours(2), true));
+        taskList.add(new Event("soon", now.plusHours(1), now.plusHours(2)));
+        ArrayList<Task> upcoming = taskList.getUpcoming(now, 5);
+        assertEquals(2, upcoming.size());
+        assertEquals("today", upcoming.get(0).description());
+        assertEquals("soon", upcoming.get(1).description());
+        assertEquals(2, taskList.getOverdue(now).size());
+        assertEquals(1, taskList.getUpcoming(now, 1).size());
+    }
+
+    @Test
+    public void getUpcoming_markAndDeleteKeepIndexCurrent() throws ZiqException {
+        LocalDateTime now = LocalDateTime.of(2022, 2, 22, 12, 0);
+        taskList.add(new Deadline("first", now.plusDays(1), true));
+        taskList.add(new Deadline("second", now.plusDays(2), true));
+        taskList.add(new Deadline("third", now.plusDays(3), true));
+        taskList.markAsDone(0);
+        taskList.delete(1);
+        ArrayList<Task> upcoming = taskList.getUpcoming(now, 5);
+        assertEquals(1, upcoming.size());
+        assertEquals("third", upcoming.get(0).description());
+        taskList.unmark(0);
+        assertEquals("first", taskList.getUpcoming(now, 5).get(0).description());
+    }
+
+    @Test
+    public void getUpcoming_loadedDoneTasksExcluded() {
+        ArrayList<Task> initialTasks = new ArrayList<>();
+        Deadline done = new Deadline("done", LocalDateTime.of(2022, 2, 23, 12, 0), true);
+        done.markAsDone();
+        initialTasks.add(done);
+        TaskList list = new TaskList(initialTasks);
+        assertTrue(list.getUpcoming(LocalDateTime.of(2022, 2, 22, 12, 0), 5).isEmpty());
+    }
+
+    @Test
+    public void getOverdue_onlyPastDueTasks() {
+        LocalDateTime now = LocalDateTime.of(2022, 2, 22, 12, 0);
+        taskList.add(new Deadline("missed", now.minusHours(1), true));
+        taskList.add(new Deadline("due today", LocalDateTime.of(2022, 2, 22, 0, 0), false));
+        taskList.add(new Deadline("due yesterday", LocalDateTime.of(2022, 2, 21, 0, 0), false));
+        taskList.add(new Event("ongoing", now.minusHours(1), now.plusHours(1)));
+        taskList.add(new Event("ended", now.minusDays(2), now.minusDays(1)));
+        taskList.add(new Deadline("future", now.plusHours(1), true));
+        ArrayList<Task> overdue = taskList.getOverdue(now);
+        assertEquals(3, overdue.size());
+        assertEquals("ended", overdue.get(0).description());
+        assertEquals("due yesterday", overdue.get(1).description());
+        assertEquals("missed", overdue.get(2).description());
+    }
+
+    @Test
+    public void getStats_trackedThroughMutations() throws ZiqException {
+        LocalDateTime by = LocalDateTime.of(2022, 2, 22, 12, 0);
+        taskList.add(new Todo("read"), new Deadline("submit", by, true));
+        taskList.add(new Event("meeting", by, by.plusHours(1)));
+        taskList.setTag(0, "home");
+        taskList.setTag(1, "work");
+        taskList.setTag(2, "work");
+        taskList.markAsDone(1);
+        taskList.markAsDone(1);
+        TaskStats stats = taskList.getStats();
+        assertEquals(3, stats.getTotal());
+        assertEquals(1, stats.getCount(TaskType.DEADLINE));
+        assertEquals(1, stats.getDoneCount());
+        assertEquals(2, stats.getTagCounts().get("work"));
+
+        taskList.delete(1);
+        taskList.setTag(0, null);
+        assertEquals(2, stats.getTotal());
+        assertEquals(0, stats.getCount(TaskType.DEADLINE));
+        assertEquals(0, stats.getDoneCount());
+        assertEquals(1, stats.getUntaggedCount());
+        assertFalse(stats.getTagCounts().containsKey("home"));
+
+        taskList.clear();
+        assertEquals(0, stats.getTotal());
+        assertTrue(stats.getTagCounts().isEmpty());
+    }
+
+    @Test
+    public void getStats_countsLoadedTasks() {
+        ArrayList<Task> initialTasks = new ArrayList<>();
+        Todo done = new Todo("done");
+        done.markAsDone();
+        done.setTag("home");
+        initialTasks.add(done);
+        initialTasks.add(new Todo("pending"));
+        TaskStats stats = new TaskList(initialTasks).getStats();
+        assertEquals(2, stats.getTotal());
+        assertEquals(1, stats.getDoneCount());
+        assertEquals(1, stats.getPendingCount());
+        assertEquals(1, stats.getTagCounts().get("home"));
+    }
+
+    @Test
+    public void listener_receivesEachChangeWithPosition() throws ZiqException {
+        ArrayList<List<TaskListChange>> notifications = new ArrayList<>();
+        taskList.addListener(notifications::add);
+        taskList.add(new Todo("first"));
+        taskList.add(new Todo("second"));
+        taskList.markAsDone(1);
+        taskList.markAsDone(1);
+        taskList.setTag(0, "home");
+        taskList.delete(0);
+        assertEquals(5, notifications.size());
+        TaskListChange added = notifications.get(1).get(0);
+        assertEquals(TaskListChange.Kind.ADDED, added.getKind());
+        assertEquals(1, added.getIndex());
+        assertEquals(TaskListChange.Kind.STATUS_CHANGED, notifications.get(2).get(0).getKind());
+        TaskListChange tagged = notifications.get(3).get(0);
+        assertEquals(TaskListChange.Kind.TAG_CHANGED, tagged.getKind());
+        assertNull(tagged.getPreviousTag());
+        TaskListChange removed = notifications.get(4).get(0);
+        assertEquals(TaskListChange.Kind.REMOVED, removed.getKind());
+        assertEquals("first", removed.getTask().description());
+        assertEquals(0, removed.getIndex());
+    }
+
+    @Test
+    public void listener_batchReportsOneCompoundNotification() {
+        ArrayList<List<TaskListChange>> notifications = new ArrayList<>();
+        taskList.addListener(notifications::add);
+        taskList.beginBatch();
+        taskList.add(new Todo("first"), new Todo("second"));
+        taskList.markAsDone(0);
+        assertTrue(notifications.isEmpty());
+        taskList.endBatch();
+        assertEquals(1, notifications.size());
+        assertEquals(3, notifications.get(0).size());
+    }
+
+    @Test
+    public void listener_clearReportsClearedTasks() {
+        taskList.add(new Todo("first"), new Todo("second"));
+        ArrayList<List<TaskListChange>> notifications = new ArrayList<>();
+        taskList.addListener(notifications::add);
+        taskList.clear();
+        TaskListChange cleared = notifications.get(0).get(0);
+        assertEquals(TaskListChange.Kind.CLEARED, cleared.getKind());
+        assertEquals(2, cleared.getClearedTasks().size());
+    }
+
+    @Test
+    public void removeListener_stopsNotifications() {
+        ArrayList<List<TaskListChange>> notifications = new ArrayList<>();
+        TaskListListener listener = notifications::add;
+        taskList.addListener(listener);
+        taskList.removeListener(listener);
+        taskList.add(new Todo("task"));
+        assertTrue(notifications.isEmpty());
+    }
+
+    @Test
+    public void getFreeSlots_gapsBetweenBusyTimes() {
+        LocalDate date = LocalDate.of(2022, 2, 22);
+        taskList.add(new Event("meeting", date.atTime(9, 0), date.atTime(11, 0)));
+        taskList.add(new Event("overlap", date.atTime(10, 0), date.atTime(12, 0)));
+        taskList.add(new Deadline("submit", date.atTime(15, 0), true));
+        taskList.add(new Deadline("date only", date.atStartOfDay(), false));
+        taskList.add(new Event("late", date.atTime(22, 0), date.plusDays(1).atTime(2, 0)));
+        long start = EpochMinutes.startOfDay(date);
+        long end = EpochMinutes.startOfDay(date.plusDays(1));
+        ArrayList<TimeSlot> slots = taskList.getFreeSlots(start, end, 120);
+        assertEquals(3, slots.size());
+        assertEquals(date.atStartOfDay(), slots.get(0).from());
+        assertEquals(date.atTime(9, 0), slots.get(0).to());
+        assertEquals(date.atTime(12, 0), slots.get(1).from());
+        assertEquals(date.atTime(15, 0), slots.get(1).to());
+        assertEquals(date.atTime(15, 0), slots.get(2).from());
+        assertEquals(date.atTime(22, 0), slots.get(2).to());
+        assertEquals(420, slots.get(2).durationMinutes());
+    }
+
+    @Test
+    public void getFreeSlots_doneEvent_leavesSlotFree() throws ZiqException {
+        LocalDate date = LocalDate.of(2022, 2, 22);
+        taskList.add(new Event("cancelled", date.atTime(9, 0), date.atTime(11, 0)));
+        taskList.markAsDone(0);
+        long start = EpochMinutes.startOfDay(date);
+        ArrayList<TimeSlot> slots = taskList.getFreeSlots(start, start + 24 * 60, 60);
+        assertEquals(1, slots.size());
+        assertEquals(24 * 60, slots.get(0).durationMinutes());
+    }
+
+    @Test
+    public void getFreeSlots_emptyCalendar_wholeWindow() {
+        LocalDate date = LocalDate.of(2022, 2, 22);
+        long start = EpochMinutes.startOfDay(date);
+        ArrayList<TimeSlot> slots = taskList.getFreeSlots(start, start + 3 * 24 * 60, 60);
+        assertEquals(1, slots.size());
+        assertEquals(3 * 24 * 60, slots.get(0).durationMinutes());
+    }
+
+    private static Event weeklyMeeting() {
+        Event meeting = new Event("meeting", LocalDateTime.of(2026, 1, 5, 10, 0), LocalDateTime.of(2026, 1, 5, 11, 0));
+        meeting.setRecurrence(new Recurrence(Recurrence.Frequency.WEEKLY, LocalDate.of(2026, 12, 31)));
+        return meeting;
+    }
+
+    @Test
+    public void getTasksOnDate_recurringEvent_expandsOnlyThatDay() {
+        taskList.add(weeklyMeeting());
+        ArrayList<Task> onDate = taskList.getTasksOnDate(LocalDate.of(2026, 3, 2));
+        assertEquals(1, onDate.size());
+        assertEquals(LocalDateTime.of(2026, 3, 2, 10, 0), ((Event) onDate.get(0)).from());
+        assertTrue(taskList.getTasksOnDate(LocalDate.of(2026, 3, 3)).isEmpty());
+        assertTrue(taskList.getTasksOnDate(LocalDate.of(2027, 1, 4)).isEmpty());
+    }
+
+    @Test
+    public void markOccurrence_onlyThatOccurrenceIsDone() throws ZiqException {
+        taskList.add(weeklyMeeting());
+        Task occurrence = taskList.markOccurrence(0, LocalDate.of(2026, 1, 12), true);
+        assertTrue(occurrence.isDone());
+        assertFalse(taskList.get(0).isDone());
+        assertTrue(taskList.getTasksOnDate(LocalDate.of(2026, 1, 12)).get(0).isDone());
+        assertFalse(taskList.getTasksOnDate(LocalDate.of(2026, 1, 19)).get(0).isDone());
+        assertThrows(ZiqException.class, () -> taskList.markOccurrence(0, LocalDate.of(2026, 1, 13), true));
+    }
+
+    @Test
+    public void getUpcoming_recurringEvent_returnsNextPendingOccurrence() throws ZiqException {
+        taskList.add(weeklyMeeting());
+        taskList.markOccurrence(0, LocalDate.of(2026, 1, 12), true);
+        ArrayList<Task> upcoming = taskList.getUpcoming(LocalDateTime.of(2026, 1, 6, 0, 0), 5);
+        assertEquals(1, upcoming.size());
+        assertEquals(LocalDateTime.of(2026, 1, 19, 10, 0), ((Event) upcoming.get(0)).from());
+    }
+
+    @Test
+    public void getOverdue_recurringDeadline_listsMissedOccurrences() throws ZiqException {
+        Deadline report = new Deadline("report", LocalDateTime.of(2026, 1, 1, 9, 0), true);
+        report.setRecurrence(new Recurrence(Recurrence.Frequency.DAILY, LocalDate.of(2026, 1, 31)));
+        taskList.add(report);
+        taskList.markOccurrence(0, LocalDate.of(2026, 1, 2), true);
+        ArrayList<Task> overdue = taskList.getOverdue(LocalDateTime.of(2026, 1, 4, 8, 0));
+        assertEquals(2, overdue.size());
+        assertEquals(LocalDateTime.of(2026, 1, 3, 9, 0), ((Deadline) overdue.get(1)).by());
+    }
+
+    @Test
+    public void countOverdue_matchesGetOverdue() throws ZiqException {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 20, 12, 0);
+        taskList.add(new Deadline("missed", now.minusHours(1), true));
+        taskList.add(new Deadline("due today", now.toLocalDate().atStartOfDay(), false));
+        taskList.add(new Deadline("due yesterday", now.toLocalDate().minusDays(1).atStartOfDay(), false));
+        taskList.add(new Event("ongoing", now.minusHours(1), now.plusHours(1)));
+        taskList.add(new Event("ended", now.minusDays(2), now.minusDays(1)));
+        taskList.add(new Deadline("future", now.plusHours(1), true));
+        taskList.add(weeklyMeeting());
+        Deadline report = new Deadline("report", LocalDateTime.of(2026, 1, 1, 0, 0), false);
+        report.setRecurrence(new Recurrence(Recurrence.Frequency.DAILY, LocalDate.of(2026, 1, 31)));
+        taskList.add(report);
+        taskList.markOccurrence(7, LocalDate.of(2026, 1, 2), true);
+        assertEquals(taskList.getOverdue(now).size(), taskList.countOverdue(now));
+        assertEquals(3 + 3 + 18, taskList.countOverdue(now));
+        taskList.markAsDone(0);
+        taskList.delete(4);
+        assertEquals(taskList.getOverdue(now).size(), taskList.countOverdue(now));
+        assertEquals(1 + 3 + 18, taskList.countOverdue(now));
+    }
+
+    @Test
+    public void getFreeSlots_recurringEvent_isBusy() {
+        taskList.add(weeklyMeeting());
+        LocalDate day = LocalDate.of(2026, 1, 19);
+        ArrayList<TimeSlot> free = taskList.getFreeSlots(EpochMinutes.startOfDay(day),
+                EpochMinutes.startOfDay(day.plusDays(1)), 30);
+        assertEquals(2, free.size());
+        assertEquals(LocalDateTime.of(2026, 1, 19, 10, 0), free.get(0).to());
+    }
+
+    @Test
+    public void addAndRemoveTags_updateStatsAndNotify() {
+        ArrayList<List<TaskListChange>> notifications = new ArrayList<>();
+        taskList.add(new Todo("read"));
+        taskList.addListener(notifications::add);
+        taskList.addTags(0, List.of("work", "urgent"));
+        taskList.addTags(0, List.of("work"));
+        TaskStats stats = taskList.getStats();
+        assertEquals(1, stats.getTagCounts().get("work"));
+        assertEquals(1, stats.getTagCounts().get("urgent"));
+        assertEquals(0, stats.getUntaggedCount());
+
+        taskList.removeTags(0, List.of("work"));
+        assertEquals(List.of("urgent"), taskList.get(0).getTags());
+        assertFalse(stats.getTagCounts().containsKey("work"));
+        taskList.removeTags(0, List.of());
+        assertEquals(1, stats.getUntaggedCount());
+        // Adding a tag the task already has changes nothing, so listeners aren't told
+        assertEquals(3, notifications.size());
+        assertEquals(List.of("work", "urgent"), notifications.get(1).get(0).getPreviousTags());
+    }
+
+    @Test
+    public void rollbackTransaction_restoresOrderStatusAndTags() throws ZiqException {
+        taskList.add(new Todo("first"), new Todo("second"), new Todo("third"));
+        taskList.beginTransaction();
+        taskList.markAsDone(0);
+        taskList.setTag(2, "work");
+        taskList.delete(1);
+        taskList.add(new Todo("fourth"));
+        taskList.clear();
+        taskList.rollbackTransaction();
+        assertEquals(3, taskList.size());
+        assertEquals("second", taskList.get(1).description());
+        assertFalse(taskList.get(0).isDone());
+        assertEquals(List.of(), taskList.get(2).getTags());
+        assertEquals(3, taskList.getStats().getTotal());
+        assertEquals(0, taskList.getStats().getDoneCount());
+    }
+
+    @Test
+    public void deleteAll_rollback_putsTasksBackInOrder() throws ZiqException {
+        taskList.add(new Todo("first"), new Todo("second"), new Todo("third"), new Todo("fourth"));
+        taskList.beginTransaction();
+        ArrayList<Task> removed = taskList.deleteAll(new int[] {0, 2});
+        assertEquals(2, removed.size());
+        assertEquals("second", taskList.get(0).description());
+        assertEquals("fourth", taskList.get(1).description());
+        taskList.rollbackTransaction();
+        assertEquals(4, taskList.size());
+        assertEquals("first", taskList.get(0).description());
+        assertEquals("third", taskList.get(2).description());
+        assertThrows(ZiqException.class, () -> taskList.deleteAll(new int[] {4}));
+    }
+
+    @Test
+    public void rollbackTransaction_nested_undoesOnlyInnerChanges() {
+        taskList.add(new Todo("first"), new Todo("second"));
+        taskList.beginTransaction();
+        taskList.markAsDone(0);
+        taskList.beginTransaction();
+        taskList.markAsDone(1);
+        taskList.rollbackTransaction();
+        assertTrue(taskList.get(0).isDone());
+        assertFalse(taskList.get(1).isDone());
+        taskList.rollbackTransaction();
+        assertFalse(taskList.get(0).isDone());
+    }
+
+    @Test
+    public void findSimilar_ranksByDistanceAndFollowsChanges() throws ZiqException {
+        Todo receive = new Todo("receive parcel");
+        Todo recipe = new Todo("try recipe");
+        Todo deceive = new Todo("deceive nobody");
+        taskList.add(receive, recipe, deceive);
+        ArrayList<Task> matches = taskList.findSimilar("Deceive", 2);
+        assertEquals(2, matches.size());
+        assertTrue(matches.get(0) == deceive);
+        assertTrue(matches.get(1) == receive);
+        assertEquals(1, taskList.findSimilar("recipes", 1).size());
+        taskList.delete(1);
+        assertEquals(0, taskList.findSimilar("recipes", 1).size());
+        taskList.add(new Todo("recipes to try"));
+        assertEquals(1, taskList.findSimilar("recipes", 0).size());
+        assertEquals("recipes to try", taskList.findSimilar("recipe", 1).get(0).description());
+    }
+}
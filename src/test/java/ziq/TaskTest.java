@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 public class TaskTest {
@@ -64,5 +66,27 @@ public class TaskTest {
         assertTrue(output.contains("[ ]"));
         assertTrue(output.contains("read book"));
     }
-}
 
+    @Test
+    public void addTag_keepsOrderAndSkipsRepeats() {
+        Task t = new Todo("read book");
+        assertTrue(t.addTag("work"));
+        assertTrue(t.addTag("urgent"));
+        assertFalse(t.addTag("work"));
+        assertEquals(List.of("work", "urgent"), t.getTags());
+        assertEquals("work", t.getTag());
+        assertTrue(t.toString().endsWith("read book [work] [urgent]"));
+    }
+
+    @Test
+    public void removeTag_leavesOtherTags() {
+        Task t = new Todo("read book");
+        t.setTags(List.of("work", "urgent"));
+        assertTrue(t.removeTag("work"));
+        assertFalse(t.removeTag("work"));
+        assertEquals(List.of("urgent"), t.getTags());
+        t.setTag(null);
+        assertTrue(t.getTags().isEmpty());
+        assertEquals(TagDictionary.NO_TAG, t.getTagId());
+    }
+}
@@ -3,6 +3,8 @@ package ziq;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.LocalDateTime;
+
 import org.junit.jupiter.api.Test;
 
 public class TaskTypeTest {
@@ -51,5 +53,12 @@ public class TaskTypeTest {
     public void findTaskType_null_throwsException() {
         assertThrows(ZiqException.class, () -> TaskType.findTaskType(null));
     }
-}
 
+    @Test
+    public void of_returnsTypeOfTask() {
+        LocalDateTime time = LocalDateTime.of(2022, 2, 22, 12, 0);
+        assertEquals(TaskType.TODO, TaskType.of(new Todo("read")));
+        assertEquals(TaskType.DEADLINE, TaskType.of(new Deadline("submit", time, true)));
+        assertEquals(TaskType.EVENT, TaskType.of(new Event("meeting", time, time.plusHours(1))));
+    }
+}
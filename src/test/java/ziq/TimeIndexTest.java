@@ -0,0 +1,71 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TimeIndexTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2022, 2, 22, 12, 0);
+
+    private TimeIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TimeIndex();
+    }
+
+    @Test
+    public void add_todoIgnored() {
+        index.add(new Todo("read"));
+        assertEquals(0, index.size());
+        assertNull(TimeIndex.scheduleTimeOf(new Todo("read")));
+    }
+
+    @Test
+    public void add_sameTaskTwice_indexedOnce() {
+        Deadline deadline = new Deadline("submit", NOON, true);
+        index.add(deadline);
+        index.add(deadline);
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void firstFrom_respectsLimitAndOrder() {
+        index.add(new Deadline("c", NOON.plusHours(3), true));
+        index.add(new Deadline("a", NOON, true));
+        index.add(new Event("b", NOON.plusHours(1), NOON.plusHours(2)));
+        ArrayList<Task> first = index.firstFrom(NOON, 2);
+        assertEquals(2, first.size());
+        assertEquals("a", first.get(0).description());
+        assertEquals("b", first.get(1).description());
+    }
+
+    @Test
+    public void allBefore_excludesGivenTime() {
+        index.add(new Deadline("before", NOON.minusMinutes(1), true));
+        index.add(new Deadline("at", NOON, true));
+        ArrayList<Task> before = index.allBefore(NOON);
+        assertEquals(1, before.size());
+        assertEquals("before", before.get(0).description());
+    }
+
+    @Test
+    public void remove_dropsTaskAndEmptyBucket() {
+        Deadline first = new Deadline("first", NOON, true);
+        Deadline second = new Deadline("second", NOON, true);
+        index.add(first);
+        index.add(second);
+        index.remove(first);
+        assertEquals(1, index.size());
+        assertEquals("second", index.firstFrom(NOON, 5).get(0).description());
+        index.remove(second);
+        assertTrue(index.firstFrom(NOON, 5).isEmpty());
+    }
+}
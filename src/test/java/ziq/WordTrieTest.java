@@ -0,0 +1,82 @@
+package ziq;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class WordTrieTest {
+
+    @Test
+    public void distance_countsEdits() {
+        assertEquals(0, WordTrie.distance("book", "book", 3));
+        assertEquals(1, WordTrie.distance("book", "books", 3));
+        assertEquals(2, WordTrie.distance("recieve", "receive", 3));
+        assertEquals(3, WordTrie.distance("kitten", "sitting", 3));
+        assertEquals(2, WordTrie.distance("kitten", "sitting", 1));
+        assertEquals(2, WordTrie.distance("a", "abcd", 1));
+    }
+
+    @Test
+    public void search_matchesEveryWordWithinDistance() {
+        Random random = new Random(7);
+        WordTrie trie = new WordTrie();
+        ArrayList<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String word = randomWord(random);
+            words.add(word);
+            trie.add(word);
+        }
+        for (int i = 0; i < 50; i++) {
+            String term = randomWord(random);
+            for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                TreeMap<String, Integer> expected = new TreeMap<>();
+                for (String word : words) {
+                    int distance = WordTrie.distance(term, word, maxDistance);
+                    if (distance <= maxDistance) {
+                        expected.put(word, distance);
+                    }
+                }
+                TreeMap<String, Integer> actual = new TreeMap<>();
+                for (WordTrie.Match match : trie.search(term, maxDistance)) {
+                    actual.put(match.getWord(), match.getDistance());
+                }
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void remove_dropsOnlyThatWord() {
+        WordTrie trie = new WordTrie();
+        trie.add("car");
+        trie.add("cart");
+        trie.add("care");
+        trie.add("car");
+        assertEquals(3, trie.size());
+        trie.remove("cart");
+        trie.remove("ca");
+        assertFalse(trie.contains("cart"));
+        assertTrue(trie.contains("car"));
+        assertTrue(trie.contains("care"));
+        assertEquals(2, trie.size());
+        assertEquals(0, trie.search("cart", 0).size());
+        assertEquals(2, trie.search("cart", 1).size());
+        trie.add("cart");
+        assertTrue(trie.contains("cart"));
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}